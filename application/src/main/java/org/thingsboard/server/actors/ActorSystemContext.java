@@ -27,6 +27,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -36,8 +37,12 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.thingsboard.common.util.StatsCounter;
 import org.thingsboard.rule.engine.api.MailService;
 import org.thingsboard.rule.engine.api.RuleChainTransactionService;
+import org.thingsboard.rule.engine.api.RuleEngineEntityCache;
+import org.thingsboard.server.actors.device.DeviceActorRegistry;
+import org.thingsboard.server.actors.device.SessionTimeoutSweeper;
 import org.thingsboard.server.actors.service.ActorService;
 import org.thingsboard.server.actors.tenant.DebugTbRateLimits;
 import org.thingsboard.server.common.data.DataConstants;
@@ -83,15 +88,16 @@ import org.thingsboard.server.service.session.DeviceSessionCacheService;
 import org.thingsboard.server.service.state.DeviceStateService;
 import org.thingsboard.server.service.telemetry.TelemetrySubscriptionService;
 import org.thingsboard.server.service.transport.RuleEngineTransportService;
+import org.thingsboard.server.service.transport.msg.TransportToDeviceActorMsgWrapper;
 
 import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Component
@@ -183,6 +189,10 @@ public class ActorSystemContext {
     @Getter
     private RelationService relationService;
 
+    @Autowired
+    @Getter
+    private RuleEngineEntityCache entityCache;
+
     @Autowired
     @Getter
     private AuditLogService auditLogService;
@@ -253,6 +263,34 @@ public class ActorSystemContext {
     @Getter
     private long queuePartitionId;
 
+    @Value("${cluster.rpc.batch.enabled:false}")
+    @Getter
+    private boolean clusterRpcBatchEnabled;
+
+    @Value("${cluster.rpc.batch.max_messages:100}")
+    @Getter
+    private int clusterRpcBatchMaxMessages;
+
+    @Value("${cluster.rpc.batch.max_bytes:65536}")
+    @Getter
+    private int clusterRpcBatchMaxBytes;
+
+    @Value("${cluster.rpc.batch.linger_ms:1}")
+    @Getter
+    private long clusterRpcBatchLingerMs;
+
+    @Value("${cluster.rpc.compression:none}")
+    @Getter
+    private String clusterRpcCompression;
+
+    @Value("${cluster.stats.enabled:false}")
+    @Getter
+    private boolean clusterStatsEnabled;
+
+    @Value("${cluster.stats.print_interval_ms:10000}")
+    @Getter
+    private long clusterStatsPrintIntervalMs;
+
     @Value("${actors.session.max_concurrent_sessions_per_device:1}")
     @Getter
     private long maxConcurrentSessionsPerDevice;
@@ -261,6 +299,14 @@ public class ActorSystemContext {
     @Getter
     private long syncSessionTimeout;
 
+    @Value("${actors.device.passivation.enabled:false}")
+    @Getter
+    private boolean deviceActorPassivationEnabled;
+
+    @Value("${actors.device.passivation.idle_timeout_ms:600000}")
+    @Getter
+    private long deviceActorIdleTimeout;
+
     @Value("${actors.queue.enabled}")
     @Getter
     private boolean queuePersistenceEnabled;
@@ -289,19 +335,29 @@ public class ActorSystemContext {
     @Getter
     private long statisticsPersistFrequency;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Getter
-    private final AtomicInteger jsInvokeRequestsCount = new AtomicInteger(0);
+    private StatsCounter jsInvokeRequestsCount;
     @Getter
-    private final AtomicInteger jsInvokeResponsesCount = new AtomicInteger(0);
+    private StatsCounter jsInvokeResponsesCount;
     @Getter
-    private final AtomicInteger jsInvokeFailuresCount = new AtomicInteger(0);
+    private StatsCounter jsInvokeFailuresCount;
+
+    @PostConstruct
+    public void initStats() {
+        jsInvokeRequestsCount = new StatsCounter(meterRegistry, "tb.rule_engine.js.requests");
+        jsInvokeResponsesCount = new StatsCounter(meterRegistry, "tb.rule_engine.js.responses");
+        jsInvokeFailuresCount = new StatsCounter(meterRegistry, "tb.rule_engine.js.failures");
+    }
 
     @Scheduled(fixedDelayString = "${actors.statistics.js_print_interval_ms}")
     public void printStats() {
         if (statisticsEnabled) {
             if (jsInvokeRequestsCount.get() > 0 || jsInvokeResponsesCount.get() > 0 || jsInvokeFailuresCount.get() > 0) {
                 log.info("Rule Engine JS Invoke Stats: requests [{}] responses [{}] failures [{}]",
-                        jsInvokeRequestsCount.getAndSet(0), jsInvokeResponsesCount.getAndSet(0), jsInvokeFailuresCount.getAndSet(0));
+                        jsInvokeRequestsCount.getAndReset(), jsInvokeResponsesCount.getAndReset(), jsInvokeFailuresCount.getAndReset());
             }
         }
     }
@@ -322,6 +378,10 @@ public class ActorSystemContext {
     @Getter
     private long sessionReportTimeout;
 
+    @Value("${transport.sessions.timeout_check_tick_ms:1000}")
+    @Getter
+    private long sessionTimeoutCheckTick;
+
     @Value("${actors.rule.chain.debug_mode_rate_limits_per_tenant.enabled}")
     @Getter
     private boolean debugPerTenantEnabled;
@@ -346,6 +406,13 @@ public class ActorSystemContext {
     @Setter
     private ActorRef statsActor;
 
+    @Getter
+    @Setter
+    private SessionTimeoutSweeper sessionTimeoutSweeper;
+
+    @Getter
+    private final DeviceActorRegistry deviceActorRegistry = new DeviceActorRegistry();
+
     @Getter
     private final Config config;
 
@@ -369,6 +436,13 @@ public class ActorSystemContext {
         return actorSystem.scheduler();
     }
 
+    /**
+     * Sends the transport message to the local device actor, bypassing the App and Tenant Actors if the device actor is live.
+     */
+    public void tellDeviceActor(TransportToDeviceActorMsgWrapper msg) {
+        deviceActorRegistry.tell(msg.getDeviceId(), msg, appActor);
+    }
+
     public void persistError(TenantId tenantId, EntityId entityId, String method, Exception e) {
         Event event = new Event();
         event.setTenantId(tenantId);
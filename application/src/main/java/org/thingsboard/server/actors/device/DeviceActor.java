@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.actors.device;
 
+import akka.actor.ReceiveTimeout;
 import org.thingsboard.rule.engine.api.msg.DeviceAttributesEventNotificationMsg;
 import org.thingsboard.rule.engine.api.msg.DeviceNameOrTypeUpdateMsg;
 import org.thingsboard.server.actors.ActorSystemContext;
@@ -27,29 +28,80 @@ import org.thingsboard.server.common.msg.timeout.DeviceActorServerSideRpcTimeout
 import org.thingsboard.server.service.rpc.ToDeviceRpcRequestActorMsg;
 import org.thingsboard.server.service.rpc.ToServerRpcResponseActorMsg;
 import org.thingsboard.server.service.transport.msg.TransportToDeviceActorMsgWrapper;
+import scala.concurrent.duration.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class DeviceActor extends ContextAwareActor {
 
     private final DeviceActorMessageProcessor processor;
+    private final List<TbActorMsg> pendingMsgs = new ArrayList<>();
+    private boolean initialized;
+    private boolean initializing;
+    private boolean passivationRequested;
 
     DeviceActor(ActorSystemContext systemContext, TenantId tenantId, DeviceId deviceId) {
         super(systemContext);
-        this.processor = new DeviceActorMessageProcessor(systemContext, tenantId, deviceId);
+        this.processor = new DeviceActorMessageProcessor(systemContext, tenantId, deviceId, context().self());
     }
 
     @Override
     public void preStart() {
         log.debug("[{}][{}] Starting device actor.", processor.tenantId, processor.deviceId);
         try {
-            processor.initSessionTimeout(context());
+            loadDeviceAndSessions();
+            if (systemContext.isDeviceActorPassivationEnabled()) {
+                context().setReceiveTimeout(Duration.create(systemContext.getDeviceActorIdleTimeout(), TimeUnit.MILLISECONDS));
+            }
             log.debug("[{}][{}] Device actor started.", processor.tenantId, processor.deviceId);
         } catch (Exception e) {
             log.warn("[{}][{}] Unknown failure", processor.tenantId, processor.deviceId, e);
         }
     }
 
+    @Override
+    public void postStop() {
+        processor.stop();
+    }
+
+    @Override
+    public void onReceive(Object msg) {
+        if (msg instanceof ReceiveTimeout) {
+            onIdle();
+        } else {
+            super.onReceive(msg);
+        }
+    }
+
     @Override
     protected boolean process(TbActorMsg msg) {
+        switch (msg.getMsgType()) {
+            case DEVICE_ACTOR_INIT_MSG:
+                onInit((DeviceActorInitMsg) msg);
+                return true;
+            case SESSION_TIMEOUT_MSG:
+                processor.checkSessionsTimeout();
+                return true;
+            case DEVICE_ACTOR_PASSIVATE_MSG:
+                onPassivationConfirmed((DeviceActorPassivateMsg) msg);
+                return true;
+            case DEVICE_ACTOR_PASSIVATION_CANCEL_MSG:
+                passivationRequested = false;
+                return true;
+        }
+        if (!initialized) {
+            pendingMsgs.add(msg);
+            if (!initializing) {
+                loadDeviceAndSessions();
+            }
+            return true;
+        }
+        return processDeviceMsg(msg);
+    }
+
+    private boolean processDeviceMsg(TbActorMsg msg) {
         switch (msg.getMsgType()) {
             case TRANSPORT_TO_DEVICE_ACTOR_MSG:
                 processor.process(context(), (TransportToDeviceActorMsgWrapper) msg);
@@ -75,13 +127,66 @@ public class DeviceActor extends ContextAwareActor {
             case DEVICE_ACTOR_CLIENT_SIDE_RPC_TIMEOUT_MSG:
                 processor.processClientSideRpcTimeout(context(), (DeviceActorClientSideRpcTimeoutMsg) msg);
                 break;
-            case SESSION_TIMEOUT_MSG:
-                processor.checkSessionsTimeout();
-                break;
             default:
                 return false;
         }
         return true;
     }
 
+    private void loadDeviceAndSessions() {
+        initializing = true;
+        processor.loadDeviceAndSessions(context());
+    }
+
+    /**
+     * Processes the messages received during the device lookup in the original order.
+     * If the lookup failed, these messages are resolved as failures and the lookup is repeated on the next message.
+     */
+    private void onInit(DeviceActorInitMsg msg) {
+        initializing = false;
+        List<TbActorMsg> msgs = new ArrayList<>(pendingMsgs);
+        pendingMsgs.clear();
+        if (msg.getError() == null) {
+            processor.init(msg);
+            initialized = true;
+            for (TbActorMsg pendingMsg : msgs) {
+                try {
+                    if (!processDeviceMsg(pendingMsg)) {
+                        log.warn("Unknown message: {}!", pendingMsg);
+                    }
+                } catch (Exception e) {
+                    log.warn("[{}][{}] Failed to process message: {}", processor.tenantId, processor.deviceId, pendingMsg, e);
+                }
+            }
+        } else {
+            log.warn("[{}][{}] Failed to load device", processor.tenantId, processor.deviceId, msg.getError());
+            processor.processInitFailure(msgs, msg.getError());
+        }
+    }
+
+    private boolean isIdle() {
+        return initialized && pendingMsgs.isEmpty() && processor.isIdle();
+    }
+
+    private void onIdle() {
+        if (!passivationRequested && isIdle()) {
+            passivationRequested = true;
+            context().parent().tell(new DeviceActorPassivateMsg(processor.deviceId), self());
+        }
+    }
+
+    /**
+     * Tenant Actor buffers new messages of this device once the passivation is confirmed,
+     * so all the messages sent to this actor are already processed here.
+     */
+    private void onPassivationConfirmed(DeviceActorPassivateMsg msg) {
+        passivationRequested = false;
+        if (isIdle()) {
+            processor.passivate();
+            context().stop(self());
+        } else {
+            context().parent().tell(new DeviceActorPassivationCancelMsg(msg.getDeviceId()), self());
+        }
+    }
+
 }
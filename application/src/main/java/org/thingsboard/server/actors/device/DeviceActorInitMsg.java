@@ -0,0 +1,38 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.device;
+
+import lombok.Data;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.msg.MsgType;
+import org.thingsboard.server.common.msg.TbActorMsg;
+
+/**
+ * Result of the device and sessions lookup. Either the error is set or the device and the sessions dump,
+ * both of which are null if the device is not found.
+ */
+@Data
+class DeviceActorInitMsg implements TbActorMsg {
+
+    private final Device device;
+    private final byte[] sessions;
+    private final Throwable error;
+
+    @Override
+    public MsgType getMsgType() {
+        return MsgType.DEVICE_ACTOR_INIT_MSG;
+    }
+}
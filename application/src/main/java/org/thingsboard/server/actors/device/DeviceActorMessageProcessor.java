@@ -16,6 +16,7 @@
 package org.thingsboard.server.actors.device;
 
 import akka.actor.ActorContext;
+import akka.actor.ActorRef;
 import com.datastax.driver.core.utils.UUIDs;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
@@ -38,6 +39,7 @@ import org.thingsboard.server.common.data.kv.AttributeKey;
 import org.thingsboard.server.common.data.kv.AttributeKvEntry;
 import org.thingsboard.server.common.data.kv.KvEntry;
 import org.thingsboard.server.common.data.rpc.ToDeviceRpcRequestBody;
+import org.thingsboard.server.common.msg.TbActorMsg;
 import org.thingsboard.server.common.msg.TbMsg;
 import org.thingsboard.server.common.msg.TbMsgDataType;
 import org.thingsboard.server.common.msg.TbMsgMetaData;
@@ -101,6 +103,7 @@ class DeviceActorMessageProcessor extends AbstractContextAwareMsgProcessor {
     private final Map<UUID, SessionInfo> rpcSubscriptions;
     private final Map<Integer, ToDeviceRpcRequestMetadata> toDeviceRpcPendingMap;
     private final Map<Integer, ToServerRpcRequestMetadata> toServerRpcPendingMap;
+    private final Map<UUID, SessionTimeoutSweeper.SessionTimeout> sessionTimeouts;
 
     private final Gson gson = new Gson();
 
@@ -108,32 +111,98 @@ class DeviceActorMessageProcessor extends AbstractContextAwareMsgProcessor {
     private String deviceName;
     private String deviceType;
     private TbMsgMetaData defaultMetaData;
+    private final ActorRef self;
 
-    DeviceActorMessageProcessor(ActorSystemContext systemContext, TenantId tenantId, DeviceId deviceId) {
+    DeviceActorMessageProcessor(ActorSystemContext systemContext, TenantId tenantId, DeviceId deviceId, ActorRef self) {
         super(systemContext);
         this.tenantId = tenantId;
         this.deviceId = deviceId;
+        this.self = self;
         this.sessions = new LinkedHashMap<>();
         this.attributeSubscriptions = new HashMap<>();
         this.rpcSubscriptions = new HashMap<>();
         this.toDeviceRpcPendingMap = new HashMap<>();
         this.toServerRpcPendingMap = new HashMap<>();
-        if (initAttributes()) {
-            restoreSessions();
+        this.sessionTimeouts = new HashMap<>();
+    }
+
+    /**
+     * Loads the device and then its sessions from cache without blocking the actor thread.
+     * The result is sent to the actor as {@link DeviceActorInitMsg}.
+     */
+    void loadDeviceAndSessions(ActorContext context) {
+        ListenableFuture<DeviceActorInitMsg> initFuture;
+        try {
+            ListenableFuture<Device> deviceFuture = systemContext.getDeviceService().findDeviceByIdAsync(tenantId, deviceId);
+            initFuture = Futures.transform(deviceFuture, device -> {
+                if (device != null) {
+                    return new DeviceActorInitMsg(device, systemContext.getDeviceSessionCacheService().get(deviceId), null);
+                } else {
+                    return new DeviceActorInitMsg(null, null, null);
+                }
+            }, systemContext.getDbCallbackExecutor());
+        } catch (Exception e) {
+            initFuture = Futures.immediateFailedFuture(e);
         }
+        Futures.addCallback(initFuture, new FutureCallback<DeviceActorInitMsg>() {
+            @Override
+            public void onSuccess(@Nullable DeviceActorInitMsg result) {
+                self.tell(result, ActorRef.noSender());
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                self.tell(new DeviceActorInitMsg(null, null, t), ActorRef.noSender());
+            }
+        }, MoreExecutors.directExecutor());
     }
 
-    private boolean initAttributes() {
-        Device device = systemContext.getDeviceService().findDeviceById(tenantId, deviceId);
+    void init(DeviceActorInitMsg msg) {
+        Device device = msg.getDevice();
         if (device != null) {
             this.deviceName = device.getName();
             this.deviceType = device.getType();
             this.defaultMetaData = new TbMsgMetaData();
             this.defaultMetaData.putValue("deviceName", deviceName);
             this.defaultMetaData.putValue("deviceType", deviceType);
-            return true;
-        } else {
-            return false;
+            restoreSessions(msg.getSessions());
+        }
+    }
+
+    /**
+     * Replies with an error to the requests received while the device lookup was in progress
+     * and closes the sessions that sent other messages.
+     */
+    void processInitFailure(List<TbActorMsg> msgs, Throwable t) {
+        String error = "Failed to load device: " + t.getMessage();
+        Set<UUID> closedSessions = new HashSet<>();
+        for (TbActorMsg msg : msgs) {
+            switch (msg.getMsgType()) {
+                case TRANSPORT_TO_DEVICE_ACTOR_MSG:
+                    TransportToDeviceActorMsg transportMsg = ((TransportToDeviceActorMsgWrapper) msg).getMsg();
+                    SessionInfoProto sessionInfo = transportMsg.getSessionInfo();
+                    UUID sessionId = getSessionId(sessionInfo);
+                    if (transportMsg.hasGetAttributes()) {
+                        sendToTransport(GetAttributeResponseMsg.newBuilder()
+                                .setRequestId(transportMsg.getGetAttributes().getRequestId())
+                                .setError(error).build(), sessionInfo);
+                    } else if (transportMsg.hasToServerRPCCallRequest()) {
+                        sendToTransport(TransportProtos.ToServerRpcResponseMsg.newBuilder()
+                                .setRequestId(transportMsg.getToServerRPCCallRequest().getRequestId())
+                                .setError(error).build(), sessionId, sessionInfo.getNodeId());
+                    } else if (!(transportMsg.hasSessionEvent() && transportMsg.getSessionEvent().getEvent() == SessionEvent.CLOSED)
+                            && closedSessions.add(sessionId)) {
+                        notifyTransportAboutClosedSession(sessionId, sessionInfo.getNodeId());
+                    }
+                    break;
+                case DEVICE_RPC_REQUEST_TO_DEVICE_ACTOR_MSG:
+                    ToDeviceRpcRequest request = ((ToDeviceRpcRequestActorMsg) msg).getMsg();
+                    systemContext.getDeviceRpcService().processResponseToServerSideRPCRequestFromDeviceActor(
+                            new FromDeviceRpcResponse(request.getId(), null, RpcError.INTERNAL));
+                    break;
+                default:
+                    log.debug("[{}] Dropping message due to failed device lookup: {}", deviceId, msg);
+            }
         }
     }
 
@@ -491,17 +560,17 @@ class DeviceActorMessageProcessor extends AbstractContextAwareMsgProcessor {
             if (sessions.size() >= systemContext.getMaxConcurrentSessionsPerDevice()) {
                 UUID sessionIdToRemove = sessions.keySet().stream().findFirst().orElse(null);
                 if (sessionIdToRemove != null) {
-                    notifyTransportAboutClosedSession(sessionIdToRemove, sessions.remove(sessionIdToRemove));
+                    notifyTransportAboutClosedSession(sessionIdToRemove, removeSession(sessionIdToRemove));
                 }
             }
-            sessions.put(sessionId, new SessionInfoMetaData(new SessionInfo(TransportProtos.SessionType.ASYNC, sessionInfo.getNodeId())));
+            addSession(sessionId, new SessionInfoMetaData(new SessionInfo(TransportProtos.SessionType.ASYNC, sessionInfo.getNodeId())));
             if (sessions.size() == 1) {
                 reportSessionOpen();
             }
             dumpSessions();
         } else if (msg.getEvent() == SessionEvent.CLOSED) {
             log.debug("[{}] Canceling subscriptions for closed session [{}]", deviceId, sessionId);
-            sessions.remove(sessionId);
+            removeSession(sessionId);
             attributeSubscriptions.remove(sessionId);
             rpcSubscriptions.remove(sessionId);
             if (sessions.isEmpty()) {
@@ -513,10 +582,14 @@ class DeviceActorMessageProcessor extends AbstractContextAwareMsgProcessor {
 
     private void handleSessionActivity(ActorContext context, SessionInfoProto sessionInfoProto, TransportProtos.SubscriptionInfoProto subscriptionInfo) {
         UUID sessionId = getSessionId(sessionInfoProto);
-        SessionInfoMetaData sessionMD = sessions.computeIfAbsent(sessionId,
-                id -> new SessionInfoMetaData(new SessionInfo(TransportProtos.SessionType.ASYNC, sessionInfoProto.getNodeId()), 0L));
-
-        sessionMD.setLastActivityTime(subscriptionInfo.getLastActivityTime());
+        SessionInfoMetaData sessionMD = sessions.get(sessionId);
+        if (sessionMD != null) {
+            sessionMD.setLastActivityTime(subscriptionInfo.getLastActivityTime());
+        } else {
+            sessionMD = new SessionInfoMetaData(new SessionInfo(TransportProtos.SessionType.ASYNC, sessionInfoProto.getNodeId()),
+                    subscriptionInfo.getLastActivityTime());
+            addSession(sessionId, sessionMD);
+        }
         sessionMD.setSubscribedToAttributes(subscriptionInfo.getAttributeSubscription());
         sessionMD.setSubscribedToRPC(subscriptionInfo.getRpcSubscription());
         if (subscriptionInfo.getAttributeSubscription()) {
@@ -536,11 +609,15 @@ class DeviceActorMessageProcessor extends AbstractContextAwareMsgProcessor {
     }
 
     private void notifyTransportAboutClosedSession(UUID sessionId, SessionInfoMetaData sessionMd) {
+        notifyTransportAboutClosedSession(sessionId, sessionMd.getSessionInfo().getNodeId());
+    }
+
+    private void notifyTransportAboutClosedSession(UUID sessionId, String nodeId) {
         DeviceActorToTransportMsg msg = DeviceActorToTransportMsg.newBuilder()
                 .setSessionIdMSB(sessionId.getMostSignificantBits())
                 .setSessionIdLSB(sessionId.getLeastSignificantBits())
                 .setSessionCloseNotification(SessionCloseNotificationProto.getDefaultInstance()).build();
-        systemContext.getRuleEngineTransportService().process(sessionMd.getSessionInfo().getNodeId(), msg);
+        systemContext.getRuleEngineTransportService().process(nodeId, msg);
     }
 
     void processNameOrTypeUpdate(DeviceNameOrTypeUpdateMsg msg) {
@@ -630,11 +707,11 @@ class DeviceActorMessageProcessor extends AbstractContextAwareMsgProcessor {
         return builder.build();
     }
 
-    private void restoreSessions() {
+    private void restoreSessions(byte[] sessionsData) {
         log.debug("[{}] Restoring sessions from cache", deviceId);
         TransportProtos.DeviceSessionsCacheEntry sessionsDump = null;
         try {
-            sessionsDump = TransportProtos.DeviceSessionsCacheEntry.parseFrom(systemContext.getDeviceSessionCacheService().get(deviceId));
+            sessionsDump = TransportProtos.DeviceSessionsCacheEntry.parseFrom(sessionsData);
         } catch (InvalidProtocolBufferException e) {
             log.warn("[{}] Failed to decode device sessions from cache", deviceId);
             return;
@@ -649,7 +726,7 @@ class DeviceActorMessageProcessor extends AbstractContextAwareMsgProcessor {
             SessionInfo sessionInfo = new SessionInfo(TransportProtos.SessionType.ASYNC, sessionInfoProto.getNodeId());
             TransportProtos.SubscriptionInfoProto subInfo = sessionSubscriptionInfoProto.getSubscriptionInfo();
             SessionInfoMetaData sessionMD = new SessionInfoMetaData(sessionInfo, subInfo.getLastActivityTime());
-            sessions.put(sessionId, sessionMD);
+            addSession(sessionId, sessionMD);
             if (subInfo.getAttributeSubscription()) {
                 attributeSubscriptions.put(sessionId, sessionInfo);
                 sessionMD.setSubscribedToAttributes(true);
@@ -689,15 +766,48 @@ class DeviceActorMessageProcessor extends AbstractContextAwareMsgProcessor {
                         .addAllSessions(sessionsList).build().toByteArray());
     }
 
-    void initSessionTimeout(ActorContext context) {
-        schedulePeriodicMsgWithDelay(context, SessionTimeoutCheckMsg.instance(), systemContext.getSessionInactivityTimeout(), systemContext.getSessionInactivityTimeout());
+    void stop() {
+        sessionTimeouts.values().forEach(SessionTimeoutSweeper.SessionTimeout::cancel);
+        sessionTimeouts.clear();
+    }
+
+    private void addSession(UUID sessionId, SessionInfoMetaData sessionMD) {
+        sessions.put(sessionId, sessionMD);
+        SessionTimeoutSweeper.SessionTimeout prevTimeout = sessionTimeouts.put(sessionId, systemContext.getSessionTimeoutSweeper().schedule(self, sessionMD));
+        if (prevTimeout != null) {
+            prevTimeout.cancel();
+        }
+    }
+
+    private SessionInfoMetaData removeSession(UUID sessionId) {
+        SessionTimeoutSweeper.SessionTimeout timeout = sessionTimeouts.remove(sessionId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        return sessions.remove(sessionId);
+    }
+
+    /**
+     * The actor may be stopped if the device has no sessions, subscriptions and pending RPC requests.
+     */
+    boolean isIdle() {
+        return sessions.isEmpty() && attributeSubscriptions.isEmpty() && rpcSubscriptions.isEmpty()
+                && toDeviceRpcPendingMap.isEmpty() && toServerRpcPendingMap.isEmpty();
+    }
+
+    /**
+     * Persists the state that is restored by the next actor of this device.
+     */
+    void passivate() {
+        log.debug("[{}] Passivating idle device actor", deviceId);
+        dumpSessions();
     }
 
     void checkSessionsTimeout() {
         long expTime = System.currentTimeMillis() - systemContext.getSessionInactivityTimeout();
         Map<UUID, SessionInfoMetaData> sessionsToRemove = sessions.entrySet().stream().filter(kv -> kv.getValue().getLastActivityTime() < expTime).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
         sessionsToRemove.forEach((sessionId, sessionMD) -> {
-            sessions.remove(sessionId);
+            removeSession(sessionId);
             rpcSubscriptions.remove(sessionId);
             attributeSubscriptions.remove(sessionId);
             notifyTransportAboutClosedSession(sessionId, sessionMD);
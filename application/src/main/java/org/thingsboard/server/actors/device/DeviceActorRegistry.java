@@ -0,0 +1,155 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.device;
+
+import akka.actor.ActorRef;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.msg.TbActorMsg;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live device actors of this node, so that transport messages are delivered to the device actor directly
+ * instead of going through the App and Tenant Actor mailboxes.
+ * Tenant Actor remains the owner of the device actors: it creates them, registers them here
+ * and unregisters them before passivation and on termination.
+ * <p>
+ * To keep the order of the messages sent by the same thread, the message is delivered directly only
+ * if no other transport message of this device is still on its way through the Tenant Actor.
+ * Every such message must be released once: when Tenant Actor forwards it to the device actor,
+ * or when it is dropped (see {@link DeviceActorRegistryDeadLetterListener}).
+ */
+public class DeviceActorRegistry {
+
+    private final ConcurrentMap<DeviceId, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Delivers the message to the registered device actor, or to the fallback actor otherwise.
+     * In the latter case the message must be released with {@link #onForwarded(DeviceId)}.
+     */
+    public void tell(DeviceId deviceId, TbActorMsg msg, ActorRef fallback) {
+        Entry entry = entries.get(deviceId);
+        if (entry == null || !entry.tryTell(msg)) {
+            entries.compute(deviceId, (id, e) -> {
+                if (e == null) {
+                    e = new Entry();
+                }
+                e.pending++;
+                return e;
+            });
+            fallback.tell(msg, ActorRef.noSender());
+        }
+    }
+
+    /**
+     * Releases the message sent to the fallback actor once it is forwarded to the device actor or dropped.
+     */
+    public void onForwarded(DeviceId deviceId) {
+        entries.computeIfPresent(deviceId, (id, e) -> {
+            if (e.pending > 0) {
+                e.pending--;
+            }
+            return e.isEmpty() ? null : e;
+        });
+    }
+
+    public void register(DeviceId deviceId, ActorRef actor) {
+        entries.computeIfAbsent(deviceId, id -> new Entry()).open(actor);
+    }
+
+    /**
+     * Stops direct delivery to the device actor, unless a message is being delivered directly right now.
+     * On success no message is delivered directly after the call, so all of them are in the actor mailbox
+     * before any message sent by the caller afterwards.
+     *
+     * @return false if the device actor is receiving a message, the caller should try again later
+     */
+    public boolean tryUnregister(DeviceId deviceId) {
+        Entry entry = entries.get(deviceId);
+        if (entry != null) {
+            if (!entry.tryClose()) {
+                return false;
+            }
+            entries.computeIfPresent(deviceId, (id, e) -> e.isEmpty() ? null : e);
+        }
+        return true;
+    }
+
+    /**
+     * Stops direct delivery to the device actor that is already stopped.
+     * Messages that are being delivered directly right now end up in the dead letters.
+     */
+    public void unregister(DeviceId deviceId) {
+        entries.computeIfPresent(deviceId, (id, e) -> {
+            e.actor = null;
+            return e.isEmpty() ? null : e;
+        });
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+
+        private static final int CLOSED = -1;
+
+        // number of direct deliveries in progress or CLOSED
+        private final AtomicInteger state = new AtomicInteger();
+        private volatile ActorRef actor;
+        // modified within the map compute methods only
+        private volatile int pending;
+
+        private boolean tryTell(TbActorMsg msg) {
+            int current;
+            do {
+                current = state.get();
+                if (current == CLOSED) {
+                    return false;
+                }
+            } while (!state.compareAndSet(current, current + 1));
+            try {
+                ActorRef target = actor;
+                if (target == null || pending > 0) {
+                    return false;
+                }
+                target.tell(msg, ActorRef.noSender());
+                return true;
+            } finally {
+                state.decrementAndGet();
+            }
+        }
+
+        private void open(ActorRef actor) {
+            this.actor = actor;
+            state.compareAndSet(CLOSED, 0);
+        }
+
+        private boolean tryClose() {
+            if (!state.compareAndSet(0, CLOSED) && state.get() != CLOSED) {
+                return false;
+            }
+            actor = null;
+            return true;
+        }
+
+        private boolean isEmpty() {
+            return actor == null && pending == 0;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.device;
+
+import akka.actor.ActorRef;
+import akka.actor.DeadLetter;
+import org.thingsboard.server.actors.ActorSystemContext;
+import org.thingsboard.server.actors.service.ContextAwareActor;
+import org.thingsboard.server.actors.service.ContextBasedCreator;
+import org.thingsboard.server.common.msg.MsgType;
+import org.thingsboard.server.common.msg.TbActorMsg;
+import org.thingsboard.server.common.msg.aware.DeviceAwareMsg;
+
+/**
+ * Releases the transport messages sent through the {@link DeviceActorRegistry} fallback that were dropped
+ * by the App or a Tenant Actor, e.g. when the actor stopped with a non-empty mailbox.
+ * Otherwise such a device would stay on the fallback path.
+ */
+public class DeviceActorRegistryDeadLetterListener extends ContextAwareActor {
+
+    public DeviceActorRegistryDeadLetterListener(ActorSystemContext systemContext) {
+        super(systemContext);
+    }
+
+    @Override
+    public void onReceive(Object msg) {
+        if (msg instanceof DeadLetter) {
+            DeadLetter deadLetter = (DeadLetter) msg;
+            if (deadLetter.message() instanceof TbActorMsg
+                    && ((TbActorMsg) deadLetter.message()).getMsgType() == MsgType.TRANSPORT_TO_DEVICE_ACTOR_MSG
+                    && isFallbackActor(deadLetter.recipient())) {
+                systemContext.getDeviceActorRegistry().onForwarded(((DeviceAwareMsg) deadLetter.message()).getDeviceId());
+            }
+        }
+    }
+
+    @Override
+    protected boolean process(TbActorMsg msg) {
+        return false;
+    }
+
+    /**
+     * Messages dropped by the device actors were either delivered directly or already released by the Tenant Actor.
+     */
+    private boolean isFallbackActor(ActorRef recipient) {
+        ActorRef appActor = systemContext.getAppActor();
+        return recipient.equals(appActor) || recipient.path().parent().equals(appActor.path());
+    }
+
+    public static class ActorCreator extends ContextBasedCreator<DeviceActorRegistryDeadLetterListener> {
+        private static final long serialVersionUID = 1L;
+
+        public ActorCreator(ActorSystemContext context) {
+            super(context);
+        }
+
+        @Override
+        public DeviceActorRegistryDeadLetterListener create() {
+            return new DeviceActorRegistryDeadLetterListener(context);
+        }
+    }
+}
@@ -24,7 +24,7 @@ import org.thingsboard.server.gen.transport.TransportProtos.SessionType;
 @Data
 class SessionInfoMetaData {
     private final SessionInfo sessionInfo;
-    private long lastActivityTime;
+    private volatile long lastActivityTime;
     private boolean subscribedToAttributes;
     private boolean subscribedToRPC;
 
@@ -15,13 +15,14 @@
  */
 package org.thingsboard.server.actors.device;
 
+import akka.actor.NotInfluenceReceiveTimeout;
 import org.thingsboard.server.common.msg.MsgType;
 import org.thingsboard.server.common.msg.TbActorMsg;
 
 /**
  * Created by ashvayka on 29.10.18.
  */
-public class SessionTimeoutCheckMsg implements TbActorMsg {
+public class SessionTimeoutCheckMsg implements TbActorMsg, NotInfluenceReceiveTimeout {
 
     private static final SessionTimeoutCheckMsg INSTANCE = new SessionTimeoutCheckMsg();
 
@@ -0,0 +1,104 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.device;
+
+import akka.actor.ActorRef;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks inactivity of the device sessions of this node in a single hashed wheel timer.
+ * Device actor is notified with {@link SessionTimeoutCheckMsg} only when one of its sessions is expired.
+ * Session activity is read from {@link SessionInfoMetaData#getLastActivityTime()} when the timeout fires,
+ * so activity updates do not touch the timer.
+ */
+@Slf4j
+public class SessionTimeoutSweeper {
+
+    private final HashedWheelTimer timer;
+    private final long inactivityTimeout;
+
+    public SessionTimeoutSweeper(long inactivityTimeout, long tickDurationMs) {
+        this.inactivityTimeout = inactivityTimeout;
+        this.timer = new HashedWheelTimer(new DefaultThreadFactory("session-timeout-sweeper", true), tickDurationMs, TimeUnit.MILLISECONDS);
+    }
+
+    SessionTimeout schedule(ActorRef actor, SessionInfoMetaData session) {
+        SessionTimeout sessionTimeout = new SessionTimeout(actor, session);
+        sessionTimeout.schedule();
+        return sessionTimeout;
+    }
+
+    public void stop() {
+        timer.stop();
+    }
+
+    class SessionTimeout implements TimerTask {
+
+        private final ActorRef actor;
+        private final SessionInfoMetaData session;
+        private volatile Timeout timeout;
+        private volatile boolean cancelled;
+
+        private SessionTimeout(ActorRef actor, SessionInfoMetaData session) {
+            this.actor = actor;
+            this.session = session;
+        }
+
+        @Override
+        public void run(Timeout timeout) {
+            if (cancelled) {
+                return;
+            }
+            long delay = session.getLastActivityTime() + inactivityTimeout - System.currentTimeMillis();
+            if (delay <= 0) {
+                actor.tell(SessionTimeoutCheckMsg.instance(), ActorRef.noSender());
+                // the actor cancels this timeout once the session is removed, otherwise the session is checked again
+                delay = inactivityTimeout;
+            }
+            schedule(delay);
+        }
+
+        void cancel() {
+            cancelled = true;
+            Timeout current = timeout;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+
+        private void schedule() {
+            schedule(session.getLastActivityTime() + inactivityTimeout - System.currentTimeMillis());
+        }
+
+        private void schedule(long delay) {
+            try {
+                timeout = timer.newTimeout(this, Math.max(delay, 0L), TimeUnit.MILLISECONDS);
+            } catch (IllegalStateException e) {
+                log.debug("Session timeout sweeper is stopped", e);
+                return;
+            }
+            if (cancelled) {
+                timeout.cancel();
+            }
+        }
+    }
+}
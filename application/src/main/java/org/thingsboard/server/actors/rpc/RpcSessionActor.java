@@ -17,6 +17,7 @@ package org.thingsboard.server.actors.rpc;
 
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.server.actors.ActorSystemContext;
@@ -28,8 +29,12 @@ import org.thingsboard.server.gen.cluster.ClusterAPIProtos;
 import org.thingsboard.server.gen.cluster.ClusterRpcServiceGrpc;
 import org.thingsboard.server.service.cluster.rpc.GrpcSession;
 import org.thingsboard.server.service.cluster.rpc.GrpcSessionListener;
+import scala.concurrent.duration.Duration;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static org.thingsboard.server.gen.cluster.ClusterAPIProtos.MessageType.CONNECT_RPC_MESSAGE;
 
@@ -40,10 +45,16 @@ import static org.thingsboard.server.gen.cluster.ClusterAPIProtos.MessageType.CO
 public class RpcSessionActor extends ContextAwareActor {
 
 
+    private static final String NO_COMPRESSION = "none";
+
     private final UUID sessionId;
     private GrpcSession session;
     private GrpcSessionListener listener;
 
+    private List<ClusterAPIProtos.ClusterMessage> batch = new ArrayList<>();
+    private int batchBytes;
+    private long batchId;
+
     private RpcSessionActor(ActorSystemContext systemContext, UUID sessionId) {
         super(systemContext);
         this.sessionId = sessionId;
@@ -59,22 +70,67 @@ public class RpcSessionActor extends ContextAwareActor {
     public void onReceive(Object msg) {
         if (msg instanceof ClusterAPIProtos.ClusterMessage) {
             tell((ClusterAPIProtos.ClusterMessage) msg);
+        } else if (msg instanceof RpcSessionTellMsg) {
+            tell(((RpcSessionTellMsg) msg).getMsg());
+        } else if (msg instanceof RpcSessionFlushMsg) {
+            if (((RpcSessionFlushMsg) msg).getBatchId() == batchId) {
+                flush();
+            }
+        } else if (msg instanceof RpcSessionStatsMsg) {
+            printStats();
         } else if (msg instanceof RpcSessionCreateRequestMsg) {
             initSession((RpcSessionCreateRequestMsg) msg);
         }
     }
 
     private void tell(ClusterAPIProtos.ClusterMessage msg) {
-        if (session != null) {
+        if (session == null) {
+            log.trace("Failed to send message due to missing session!");
+        } else if (!systemContext.isClusterRpcBatchEnabled()) {
             session.sendMsg(msg);
         } else {
-            log.trace("Failed to send message due to missing session!");
+            batch.add(msg);
+            batchBytes += msg.getSerializedSize();
+            if (batch.size() >= systemContext.getClusterRpcBatchMaxMessages() || batchBytes >= systemContext.getClusterRpcBatchMaxBytes()) {
+                flush();
+            } else {
+                if (batch.size() == 1) {
+                    scheduleMsgWithDelay(new RpcSessionFlushMsg(batchId), systemContext.getClusterRpcBatchLingerMs());
+                }
+                session.getStats().setQueueSize(batch.size());
+            }
+        }
+    }
+
+    private void flush() {
+        batchId++;
+        if (!batch.isEmpty()) {
+            List<ClusterAPIProtos.ClusterMessage> msgs = batch;
+            batch = new ArrayList<>();
+            batchBytes = 0;
+            session.getStats().setQueueSize(0);
+            session.sendMsgs(msgs);
         }
     }
 
+    private void printStats() {
+        if (session != null) {
+            log.info("[{}] Cluster session stats: {}", session.getRemoteServer(), session.getStats().getAndReset(systemContext.getClusterStatsPrintIntervalMs()));
+        }
+        scheduleMsgWithDelay(RpcSessionStatsMsg.INSTANCE, systemContext.getClusterStatsPrintIntervalMs());
+    }
+
+    private void scheduleMsgWithDelay(Object msg, long delayInMs) {
+        systemContext.getScheduler().scheduleOnce(Duration.create(delayInMs, TimeUnit.MILLISECONDS), context().self(), msg,
+                context().dispatcher(), context().self());
+    }
+
     @Override
     public void postStop() {
         if (session != null) {
+            if (!batch.isEmpty()) {
+                log.debug("[{}] Dropping {} unsent messages", session.getRemoteServer(), batch.size());
+            }
             log.info("Closing session -> {}", session.getRemoteServer());
             try {
                 session.close();
@@ -91,6 +147,11 @@ public class RpcSessionActor extends ContextAwareActor {
         if (msg.getRemoteAddress() == null) {
             // Server session
             session = new GrpcSession(listener);
+            if (!NO_COMPRESSION.equalsIgnoreCase(systemContext.getClusterRpcCompression())
+                    && msg.getResponseObserver() instanceof ServerCallStreamObserver) {
+                ((ServerCallStreamObserver<ClusterAPIProtos.ClusterMessage>) msg.getResponseObserver())
+                        .setCompression(systemContext.getClusterRpcCompression());
+            }
             session.setOutputStream(msg.getResponseObserver());
             session.initInputStream();
             session.initOutputStream();
@@ -102,12 +163,18 @@ public class RpcSessionActor extends ContextAwareActor {
             session.initInputStream();
 
             ClusterRpcServiceGrpc.ClusterRpcServiceStub stub = ClusterRpcServiceGrpc.newStub(channel);
+            if (!NO_COMPRESSION.equalsIgnoreCase(systemContext.getClusterRpcCompression())) {
+                stub = stub.withCompression(systemContext.getClusterRpcCompression());
+            }
             StreamObserver<ClusterAPIProtos.ClusterMessage> outputStream = stub.handleMsgs(session.getInputStream());
 
             session.setOutputStream(outputStream);
             session.initOutputStream();
             outputStream.onNext(toConnectMsg());
         }
+        if (systemContext.isClusterStatsEnabled()) {
+            scheduleMsgWithDelay(RpcSessionStatsMsg.INSTANCE, systemContext.getClusterStatsPrintIntervalMs());
+        }
     }
 
     public static class ActorCreator extends ContextBasedCreator<RpcSessionActor> {
@@ -51,6 +51,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
@@ -63,7 +64,9 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
     private final ActorRef parent;
     private final ActorRef self;
     private final Map<RuleNodeId, RuleNodeCtx> nodeActors;
+    private final Map<RuleNodeId, DefaultTbContext> nodeContexts;
     private final Map<RuleNodeId, List<RuleNodeRelation>> nodeRoutes;
+    private final Map<RuleNodeId, Map<String, List<RuleNodeRelation>>> nodeRoutesByType;
     private final RuleChainService service;
 
     private RuleNodeId firstId;
@@ -77,7 +80,9 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
         this.parent = parent;
         this.self = self;
         this.nodeActors = new HashMap<>();
+        this.nodeContexts = new HashMap<>();
         this.nodeRoutes = new HashMap<>();
+        this.nodeRoutesByType = new HashMap<>();
         this.service = systemContext.getRuleChainService();
         this.ruleChainName = ruleChainId.toString();
     }
@@ -99,7 +104,7 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
                 for (RuleNode ruleNode : ruleNodeList) {
                     log.trace("[{}][{}] Creating rule node [{}]: {}", entityId, ruleNode.getId(), ruleNode.getName(), ruleNode);
                     ActorRef ruleNodeActor = createRuleNodeActor(context, ruleNode);
-                    nodeActors.put(ruleNode.getId(), new RuleNodeCtx(tenantId, self, ruleNodeActor, ruleNode));
+                    addNode(ruleNode, ruleNodeActor);
                 }
                 initRoutes(ruleChain, ruleNodeList);
                 started = true;
@@ -121,7 +126,7 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
                 if (existing == null) {
                     log.trace("[{}][{}] Creating rule node [{}]: {}", entityId, ruleNode.getId(), ruleNode.getName(), ruleNode);
                     ActorRef ruleNodeActor = createRuleNodeActor(context, ruleNode);
-                    nodeActors.put(ruleNode.getId(), new RuleNodeCtx(tenantId, self, ruleNodeActor, ruleNode));
+                    addNode(ruleNode, ruleNodeActor);
                 } else {
                     log.trace("[{}][{}] Updating rule node [{}]: {}", entityId, ruleNode.getId(), ruleNode.getName(), ruleNode);
                     existing.setSelf(ruleNode);
@@ -134,6 +139,7 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
             removedRules.forEach(ruleNodeId -> {
                 log.trace("[{}][{}] Removing rule node [{}]", tenantId, entityId, ruleNodeId);
                 RuleNodeCtx removed = nodeActors.remove(ruleNodeId);
+                nodeContexts.remove(ruleNodeId);
                 removed.getSelfActor().tell(new ComponentLifecycleMsg(tenantId, removed.getSelf().getId(), ComponentLifecycleEvent.DELETED), self);
             });
 
@@ -146,7 +152,9 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
         log.trace("[{}][{}] Stopping rule chain with {} nodes", tenantId, entityId, nodeActors.size());
         nodeActors.values().stream().map(RuleNodeCtx::getSelfActor).forEach(context::stop);
         nodeActors.clear();
+        nodeContexts.clear();
         nodeRoutes.clear();
+        nodeRoutesByType.clear();
         context.stop(self);
         started = false;
     }
@@ -164,15 +172,26 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
                         .withDispatcher(dispatcherName), ruleNode.getId().toString());
     }
 
+    private void addNode(RuleNode ruleNode, ActorRef ruleNodeActor) {
+        RuleNodeCtx nodeCtx = new RuleNodeCtx(tenantId, self, ruleNodeActor, ruleNode);
+        nodeActors.put(ruleNode.getId(), nodeCtx);
+        // The context reads the rule node from nodeCtx, so it stays valid after the node update;
+        nodeContexts.put(ruleNode.getId(), new DefaultTbContext(systemContext, nodeCtx));
+    }
+
     private void initRoutes(RuleChain ruleChain, List<RuleNode> ruleNodeList) {
         nodeRoutes.clear();
+        nodeRoutesByType.clear();
         // Populating the routes map;
         for (RuleNode ruleNode : ruleNodeList) {
             List<EntityRelation> relations = service.getRuleNodeRelations(TenantId.SYS_TENANT_ID, ruleNode.getId());
             log.trace("[{}][{}][{}] Processing rule node relations [{}]", tenantId, entityId, ruleNode.getId(), relations.size());
             if (relations.size() == 0) {
                 nodeRoutes.put(ruleNode.getId(), Collections.emptyList());
+                nodeRoutesByType.put(ruleNode.getId(), Collections.emptyMap());
             } else {
+                List<RuleNodeRelation> routes = new ArrayList<>(relations.size());
+                Map<String, List<RuleNodeRelation>> routesByType = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
                 for (EntityRelation relation : relations) {
                     log.trace("[{}][{}][{}] Processing rule node relation [{}]", tenantId, entityId, ruleNode.getId(), relation.getTo());
                     if (relation.getTo().getEntityType() == EntityType.RULE_NODE) {
@@ -181,9 +200,13 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
                             throw new IllegalArgumentException("Rule Node [" + relation.getFrom() + "] has invalid relation to Rule node [" + relation.getTo() + "]");
                         }
                     }
-                    nodeRoutes.computeIfAbsent(ruleNode.getId(), k -> new ArrayList<>())
-                            .add(new RuleNodeRelation(ruleNode.getId(), relation.getTo(), relation.getType()));
+                    RuleNodeRelation route = new RuleNodeRelation(ruleNode.getId(), relation.getTo(), relation.getType());
+                    routes.add(route);
+                    routesByType.computeIfAbsent(relation.getType(), k -> new ArrayList<>()).add(route);
                 }
+                routesByType.replaceAll((type, typeRoutes) -> Collections.unmodifiableList(typeRoutes));
+                nodeRoutes.put(ruleNode.getId(), Collections.unmodifiableList(routes));
+                nodeRoutesByType.put(ruleNode.getId(), Collections.unmodifiableMap(routesByType));
             }
         }
 
@@ -248,10 +271,7 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
 
     private void onLocalTellNext(RuleNodeToRuleChainTellNextMsg envelope) {
         TbMsg msg = envelope.getMsg();
-        RuleNodeId originatorNodeId = envelope.getOriginator();
-        List<RuleNodeRelation> relations = nodeRoutes.get(originatorNodeId).stream()
-                .filter(r -> contains(envelope.getRelationTypes(), r.getType()))
-                .collect(Collectors.toList());
+        List<RuleNodeRelation> relations = getRoutes(envelope.getOriginator(), envelope.getRelationTypes());
         int relationsCount = relations.size();
         EntityId ackId = msg.getRuleNodeId() != null ? msg.getRuleNodeId() : msg.getRuleChainId();
         if (relationsCount == 0) {
@@ -286,10 +306,24 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
         }
     }
 
-    private boolean contains(Set<String> relationTypes, String type) {
+    private List<RuleNodeRelation> getRoutes(RuleNodeId originatorNodeId, Set<String> relationTypes) {
         if (relationTypes == null) {
-            return true;
+            return nodeRoutes.getOrDefault(originatorNodeId, Collections.emptyList());
         }
+        if (relationTypes.size() == 1) {
+            Map<String, List<RuleNodeRelation>> routesByType = nodeRoutesByType.getOrDefault(originatorNodeId, Collections.emptyMap());
+            return routesByType.getOrDefault(relationTypes.iterator().next(), Collections.emptyList());
+        }
+        List<RuleNodeRelation> routes = new ArrayList<>();
+        for (RuleNodeRelation route : nodeRoutes.getOrDefault(originatorNodeId, Collections.emptyList())) {
+            if (contains(relationTypes, route.getType())) {
+                routes.add(route);
+            }
+        }
+        return routes;
+    }
+
+    private boolean contains(Set<String> relationTypes, String type) {
         for (String relationType : relationTypes) {
             if (relationType.equalsIgnoreCase(type)) {
                 return true;
@@ -324,7 +358,8 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
 
     private void pushMsgToNode(RuleNodeCtx nodeCtx, TbMsg msg, String fromRelationType) {
         if (nodeCtx != null) {
-            nodeCtx.getSelfActor().tell(new RuleChainToRuleNodeMsg(new DefaultTbContext(systemContext, nodeCtx), msg, fromRelationType), self);
+            DefaultTbContext ctx = nodeContexts.get(nodeCtx.getSelf().getId());
+            nodeCtx.getSelfActor().tell(new RuleChainToRuleNodeMsg(ctx, msg, fromRelationType), self);
         }
     }
 
@@ -28,7 +28,7 @@ import java.util.Set;
  * Created by ashvayka on 19.03.18.
  */
 @Data
-class RuleNodeToRuleChainTellNextMsg implements TbActorMsg, Serializable {
+public class RuleNodeToRuleChainTellNextMsg implements TbActorMsg, Serializable {
 
     private static final long serialVersionUID = 4577026446412871820L;
     private final RuleNodeId originator;
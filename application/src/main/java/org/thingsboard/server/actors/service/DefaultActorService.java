@@ -17,9 +17,9 @@ package org.thingsboard.server.actors.service;
 
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
+import akka.actor.DeadLetter;
 import akka.actor.Props;
 import akka.actor.Terminated;
-import com.google.protobuf.ByteString;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -32,6 +32,8 @@ import org.thingsboard.rule.engine.api.msg.DeviceNameOrTypeUpdateMsg;
 import org.thingsboard.server.actors.ActorSystemContext;
 import org.thingsboard.server.actors.app.AppActor;
 import org.thingsboard.server.actors.app.AppInitMsg;
+import org.thingsboard.server.actors.device.DeviceActorRegistryDeadLetterListener;
+import org.thingsboard.server.actors.device.SessionTimeoutSweeper;
 import org.thingsboard.server.actors.rpc.RpcBroadcastMsg;
 import org.thingsboard.server.actors.rpc.RpcManagerActor;
 import org.thingsboard.server.actors.rpc.RpcSessionCreateRequestMsg;
@@ -53,6 +55,7 @@ import org.thingsboard.server.service.cluster.discovery.ServerInstance;
 import org.thingsboard.server.service.cluster.rpc.ClusterRpcService;
 import org.thingsboard.server.service.state.DeviceStateService;
 import org.thingsboard.server.service.transport.RuleEngineStats;
+import org.thingsboard.server.service.transport.msg.TransportToDeviceActorMsgWrapper;
 import scala.concurrent.Await;
 import scala.concurrent.Future;
 import scala.concurrent.duration.Duration;
@@ -63,7 +66,6 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import static org.thingsboard.server.gen.cluster.ClusterAPIProtos.MessageType.CLUSTER_ACTOR_MESSAGE;
 
 @Service
 @Slf4j
@@ -101,6 +103,7 @@ public class DefaultActorService implements ActorService {
         actorContext.setActorService(this);
         system = ActorSystem.create(ACTOR_SYSTEM_NAME, actorContext.getConfig());
         actorContext.setActorSystem(system);
+        actorContext.setSessionTimeoutSweeper(new SessionTimeoutSweeper(actorContext.getSessionInactivityTimeout(), actorContext.getSessionTimeoutCheckTick()));
 
         appActor = system.actorOf(Props.create(new AppActor.ActorCreator(actorContext)).withDispatcher(APP_DISPATCHER_NAME), "appActor");
         actorContext.setAppActor(appActor);
@@ -111,6 +114,10 @@ public class DefaultActorService implements ActorService {
         ActorRef statsActor = system.actorOf(Props.create(new StatsActor.ActorCreator(actorContext)).withDispatcher(CORE_DISPATCHER_NAME), "statsActor");
         actorContext.setStatsActor(statsActor);
 
+        ActorRef deadLetterListener = system.actorOf(Props.create(new DeviceActorRegistryDeadLetterListener.ActorCreator(actorContext))
+                .withDispatcher(CORE_DISPATCHER_NAME), "deviceActorRegistryDeadLetterListener");
+        system.eventStream().subscribe(deadLetterListener, DeadLetter.class);
+
         rpcService.init(this);
         log.info("Actor system initialized.");
     }
@@ -130,6 +137,7 @@ public class DefaultActorService implements ActorService {
         } catch (Exception e) {
             log.error("Failed to terminate actor system.", e);
         }
+        actorContext.getSessionTimeoutSweeper().stop();
     }
 
     @Override
@@ -174,13 +182,7 @@ public class DefaultActorService implements ActorService {
     }
 
     public void broadcast(ToAllNodesMsg msg) {
-        actorContext.getEncodingService().encode(msg);
-        rpcService.broadcast(new RpcBroadcastMsg(ClusterAPIProtos.ClusterMessage
-                .newBuilder()
-                .setPayload(ByteString
-                        .copyFrom(actorContext.getEncodingService().encode(msg)))
-                .setMessageType(CLUSTER_ACTOR_MESSAGE)
-                .build()));
+        rpcService.broadcast(new RpcBroadcastMsg(actorContext.getEncodingService().convertToProtoDataMessage(msg)));
         appActor.tell(msg, ActorRef.noSender());
     }
 
@@ -219,9 +221,11 @@ public class DefaultActorService implements ActorService {
         }
         switch (msg.getMessageType()) {
             case CLUSTER_ACTOR_MESSAGE:
-                java.util.Optional<TbActorMsg> decodedMsg = actorContext.getEncodingService()
-                        .decode(msg.getPayload().toByteArray());
-                if (decodedMsg.isPresent()) {
+            case CLUSTER_ACTOR_PROTO_MESSAGE:
+                java.util.Optional<TbActorMsg> decodedMsg = actorContext.getEncodingService().decode(msg);
+                if (decodedMsg.isPresent() && decodedMsg.get() instanceof TransportToDeviceActorMsgWrapper) {
+                    actorContext.tellDeviceActor((TransportToDeviceActorMsgWrapper) decodedMsg.get());
+                } else if (decodedMsg.isPresent()) {
                     appActor.tell(decodedMsg.get(), ActorRef.noSender());
                 } else {
                     log.error("Error during decoding cluster proto message");
@@ -17,6 +17,7 @@ package org.thingsboard.server.actors.shared;
 
 import akka.actor.ActorContext;
 import akka.actor.ActorRef;
+import akka.actor.Cancellable;
 import akka.actor.Scheduler;
 import akka.event.LoggingAdapter;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -48,13 +49,13 @@ public abstract class AbstractContextAwareMsgProcessor {
         return systemContext.getActorSystem().dispatcher();
     }
 
-    protected void schedulePeriodicMsgWithDelay(ActorContext ctx, Object msg, long delayInMs, long periodInMs) {
-        schedulePeriodicMsgWithDelay(msg, delayInMs, periodInMs, ctx.self());
+    protected Cancellable schedulePeriodicMsgWithDelay(ActorContext ctx, Object msg, long delayInMs, long periodInMs) {
+        return schedulePeriodicMsgWithDelay(msg, delayInMs, periodInMs, ctx.self());
     }
 
-    private void schedulePeriodicMsgWithDelay(Object msg, long delayInMs, long periodInMs, ActorRef target) {
+    private Cancellable schedulePeriodicMsgWithDelay(Object msg, long delayInMs, long periodInMs, ActorRef target) {
         log.debug("Scheduling periodic msg {} every {} ms with delay {} ms", msg, periodInMs, delayInMs);
-        getScheduler().schedule(Duration.create(delayInMs, TimeUnit.MILLISECONDS), Duration.create(periodInMs, TimeUnit.MILLISECONDS), target, msg, getSystemDispatcher(), null);
+        return getScheduler().schedule(Duration.create(delayInMs, TimeUnit.MILLISECONDS), Duration.create(periodInMs, TimeUnit.MILLISECONDS), target, msg, getSystemDispatcher(), null);
     }
 
     protected void scheduleMsgWithDelay(ActorContext ctx, Object msg, long delayInMs) {
@@ -28,6 +28,9 @@ import com.google.common.collect.HashBiMap;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.server.actors.ActorSystemContext;
 import org.thingsboard.server.actors.device.DeviceActorCreator;
+import org.thingsboard.server.actors.device.DeviceActorPassivateMsg;
+import org.thingsboard.server.actors.device.DeviceActorPassivationCancelMsg;
+import org.thingsboard.server.actors.device.DeviceActorRegistry;
 import org.thingsboard.server.actors.device.DeviceActorToRuleEngineMsg;
 import org.thingsboard.server.actors.ruleChain.RuleChainManagerActor;
 import org.thingsboard.server.actors.service.ContextBasedCreator;
@@ -39,6 +42,7 @@ import org.thingsboard.server.common.data.id.RuleChainId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.plugin.ComponentLifecycleEvent;
 import org.thingsboard.server.common.data.rule.RuleChain;
+import org.thingsboard.server.common.msg.MsgType;
 import org.thingsboard.server.common.msg.TbActorMsg;
 import org.thingsboard.server.common.msg.aware.DeviceAwareMsg;
 import org.thingsboard.server.common.msg.aware.RuleChainAwareMsg;
@@ -46,18 +50,24 @@ import org.thingsboard.server.common.msg.plugin.ComponentLifecycleMsg;
 import org.thingsboard.server.common.msg.system.ServiceToRuleEngineMsg;
 import scala.concurrent.duration.Duration;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class TenantActor extends RuleChainManagerActor {
 
     private final TenantId tenantId;
+    private final DeviceActorRegistry deviceActorRegistry;
     private final BiMap<DeviceId, ActorRef> deviceActors;
+    private final Map<DeviceId, List<TbActorMsg>> passivatingDevices;
 
     private TenantActor(ActorSystemContext systemContext, TenantId tenantId) {
         super(systemContext, new TenantRuleChainManager(systemContext, tenantId));
         this.tenantId = tenantId;
+        this.deviceActorRegistry = systemContext.getDeviceActorRegistry();
         this.deviceActors = HashBiMap.create();
+        this.passivatingDevices = new HashMap<>();
     }
 
     @Override
@@ -79,6 +89,8 @@ public class TenantActor extends RuleChainManagerActor {
     @Override
     public void postStop() {
         log.info("[{}] Stopping tenant actor.", tenantId);
+        deviceActors.keySet().forEach(deviceActorRegistry::unregister);
+        passivatingDevices.values().forEach(pendingMsgs -> pendingMsgs.forEach(this::onDropped));
     }
 
     @Override
@@ -104,6 +116,12 @@ public class TenantActor extends RuleChainManagerActor {
             case SERVER_RPC_RESPONSE_TO_DEVICE_ACTOR_MSG:
                 onToDeviceActorMsg((DeviceAwareMsg) msg);
                 break;
+            case DEVICE_ACTOR_PASSIVATE_MSG:
+                onDeviceActorPassivateMsg((DeviceActorPassivateMsg) msg);
+                break;
+            case DEVICE_ACTOR_PASSIVATION_CANCEL_MSG:
+                onDeviceActorPassivationCancelMsg((DeviceActorPassivationCancelMsg) msg);
+                break;
             case RULE_CHAIN_TO_RULE_CHAIN_MSG:
             case REMOTE_TO_RULE_CHAIN_TELL_NEXT_MSG:
                 onRuleChainMsg((RuleChainAwareMsg) msg);
@@ -135,7 +153,55 @@ public class TenantActor extends RuleChainManagerActor {
     }
 
     private void onToDeviceActorMsg(DeviceAwareMsg msg) {
-        getOrCreateDeviceActor(msg.getDeviceId()).tell(msg, ActorRef.noSender());
+        List<TbActorMsg> pendingMsgs = passivatingDevices.get(msg.getDeviceId());
+        if (pendingMsgs != null) {
+            pendingMsgs.add((TbActorMsg) msg);
+        } else {
+            ActorRef deviceActor;
+            try {
+                deviceActor = getOrCreateDeviceActor(msg.getDeviceId());
+            } catch (RuntimeException e) {
+                onDropped((TbActorMsg) msg);
+                throw e;
+            }
+            tellDeviceActor(deviceActor, (TbActorMsg) msg);
+        }
+    }
+
+    private void tellDeviceActor(ActorRef deviceActor, TbActorMsg msg) {
+        deviceActor.tell(msg, ActorRef.noSender());
+        if (msg.getMsgType() == MsgType.TRANSPORT_TO_DEVICE_ACTOR_MSG) {
+            deviceActorRegistry.onForwarded(((DeviceAwareMsg) msg).getDeviceId());
+        }
+    }
+
+    private void onDropped(TbActorMsg msg) {
+        if (msg.getMsgType() == MsgType.TRANSPORT_TO_DEVICE_ACTOR_MSG) {
+            deviceActorRegistry.onForwarded(((DeviceAwareMsg) msg).getDeviceId());
+        }
+    }
+
+    private void onDeviceActorPassivateMsg(DeviceActorPassivateMsg msg) {
+        ActorRef deviceActor = deviceActors.get(msg.getDeviceId());
+        if (deviceActor != null && deviceActor.equals(sender()) && !passivatingDevices.containsKey(msg.getDeviceId())) {
+            if (!deviceActorRegistry.tryUnregister(msg.getDeviceId())) {
+                log.debug("[{}][{}] Device actor is receiving messages, passivation is postponed.", tenantId, msg.getDeviceId());
+                deviceActor.tell(new DeviceActorPassivationCancelMsg(msg.getDeviceId()), self());
+                return;
+            }
+            log.debug("[{}][{}] Passivating device actor.", tenantId, msg.getDeviceId());
+            passivatingDevices.put(msg.getDeviceId(), new ArrayList<>());
+            deviceActor.tell(msg, self());
+        }
+    }
+
+    private void onDeviceActorPassivationCancelMsg(DeviceActorPassivationCancelMsg msg) {
+        List<TbActorMsg> pendingMsgs = passivatingDevices.remove(msg.getDeviceId());
+        ActorRef deviceActor = deviceActors.get(msg.getDeviceId());
+        if (pendingMsgs != null && deviceActor != null) {
+            pendingMsgs.forEach(pendingMsg -> tellDeviceActor(deviceActor, pendingMsg));
+            deviceActorRegistry.register(msg.getDeviceId(), deviceActor);
+        }
     }
 
     private void onComponentLifecycleMsg(ComponentLifecycleMsg msg) {
@@ -159,6 +225,7 @@ public class TenantActor extends RuleChainManagerActor {
                             .withDispatcher(DefaultActorService.CORE_DISPATCHER_NAME)
                     , deviceId.toString());
             context().watch(deviceActor);
+            deviceActorRegistry.register(deviceId, deviceActor);
             log.debug("[{}][{}] Created device actor: {}.", tenantId, deviceId, deviceActor);
             return deviceActor;
         });
@@ -168,9 +235,15 @@ public class TenantActor extends RuleChainManagerActor {
     protected void processTermination(Terminated message) {
         ActorRef terminated = message.actor();
         if (terminated instanceof LocalActorRef) {
-            boolean removed = deviceActors.inverse().remove(terminated) != null;
-            if (removed) {
+            DeviceId deviceId = deviceActors.inverse().remove(terminated);
+            if (deviceId != null) {
                 log.debug("[{}] Removed actor:", terminated);
+                deviceActorRegistry.unregister(deviceId);
+                List<TbActorMsg> pendingMsgs = passivatingDevices.remove(deviceId);
+                if (pendingMsgs != null && !pendingMsgs.isEmpty()) {
+                    ActorRef deviceActor = getOrCreateDeviceActor(deviceId);
+                    pendingMsgs.forEach(pendingMsg -> tellDeviceActor(deviceActor, pendingMsg));
+                }
             } else {
                 log.warn("[{}] Removed actor was not found in the device map!");
             }
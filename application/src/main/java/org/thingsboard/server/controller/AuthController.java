@@ -20,6 +20,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -41,12 +42,14 @@ import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.security.UserCredentials;
 import org.thingsboard.server.dao.audit.AuditLogService;
 import org.thingsboard.server.service.security.auth.jwt.RefreshTokenRepository;
+import org.thingsboard.server.service.security.auth.jwt.extractor.TokenExtractor;
 import org.thingsboard.server.service.security.auth.rest.RestAuthenticationDetails;
 import org.thingsboard.server.common.data.security.model.SecuritySettings;
 import org.thingsboard.server.service.security.model.SecurityUser;
 import org.thingsboard.server.common.data.security.model.UserPasswordPolicy;
 import org.thingsboard.server.service.security.model.UserPrincipal;
 import org.thingsboard.server.service.security.model.token.JwtToken;
+import org.thingsboard.server.service.security.model.token.JwtTokenCache;
 import org.thingsboard.server.service.security.model.token.JwtTokenFactory;
 import org.thingsboard.server.service.security.system.SystemSecurityService;
 import ua_parser.Client;
@@ -66,6 +69,13 @@ public class AuthController extends BaseController {
     @Autowired
     private JwtTokenFactory tokenFactory;
 
+    @Autowired
+    private JwtTokenCache tokenCache;
+
+    @Autowired
+    @Qualifier("jwtHeaderTokenExtractor")
+    private TokenExtractor jwtHeaderTokenExtractor;
+
     @Autowired
     private RefreshTokenRepository refreshTokenRepository;
 
@@ -93,6 +103,7 @@ public class AuthController extends BaseController {
     @RequestMapping(value = "/auth/logout", method = RequestMethod.POST)
     @ResponseStatus(value = HttpStatus.OK)
     public void logout(HttpServletRequest request) throws ThingsboardException {
+        tokenCache.revokeToken(jwtHeaderTokenExtractor.extract(request));
         logLogoutAction(request);
     }
 
@@ -115,6 +126,7 @@ public class AuthController extends BaseController {
             }
             userCredentials.setPassword(passwordEncoder.encode(newPassword));
             userService.replaceUserCredentials(securityUser.getTenantId(), userCredentials);
+            tokenCache.revokeUserTokens(securityUser.getId());
         } catch (Exception e) {
             throw handleException(e);
         }
@@ -251,6 +263,7 @@ public class AuthController extends BaseController {
                 userCredentials.setPassword(encodedPassword);
                 userCredentials.setResetToken(null);
                 userCredentials = userService.replaceUserCredentials(TenantId.SYS_TENANT_ID, userCredentials);
+                tokenCache.revokeUserTokens(userCredentials.getUserId());
                 User user = userService.findUserById(TenantId.SYS_TENANT_ID, userCredentials.getUserId());
                 UserPrincipal principal = new UserPrincipal(UserPrincipal.Type.USER_NAME, user.getEmail());
                 SecurityUser securityUser = new SecurityUser(user, userCredentials.isEnabled(), principal);
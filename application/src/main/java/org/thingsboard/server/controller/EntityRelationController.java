@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.controller;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -24,6 +25,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.thingsboard.rule.engine.api.RuleEngineEntityCache;
 import org.thingsboard.server.common.data.alarm.Alarm;
 import org.thingsboard.server.common.data.audit.ActionType;
 import org.thingsboard.server.common.data.exception.ThingsboardErrorCode;
@@ -44,6 +46,9 @@ import java.util.List;
 @RequestMapping("/api")
 public class EntityRelationController extends BaseController {
 
+    @Autowired
+    private RuleEngineEntityCache entityCache;
+
     public static final String TO_TYPE = "toType";
     public static final String FROM_ID = "fromId";
     public static final String FROM_TYPE = "fromType";
@@ -62,6 +67,7 @@ public class EntityRelationController extends BaseController {
                 relation.setTypeGroup(RelationTypeGroup.COMMON);
             }
             relationService.saveRelation(getTenantId(), relation);
+            entityCache.evict(relation);
             logEntityAction(relation.getFrom(), null, getCurrentUser().getCustomerId(),
                     ActionType.RELATION_ADD_OR_UPDATE, null, relation);
             logEntityAction(relation.getTo(), null, getCurrentUser().getCustomerId(),
@@ -96,6 +102,7 @@ public class EntityRelationController extends BaseController {
         EntityRelation relation = new EntityRelation(fromId, toId, strRelationType, relationTypeGroup);
         try {
             Boolean found = relationService.deleteRelation(getTenantId(), fromId, toId, strRelationType, relationTypeGroup);
+            entityCache.evict(relation);
             if (!found) {
                 throw new ThingsboardException("Requested item wasn't found!", ThingsboardErrorCode.ITEM_NOT_FOUND);
             }
@@ -123,6 +130,7 @@ public class EntityRelationController extends BaseController {
         checkEntityId(entityId, Operation.WRITE);
         try {
             relationService.deleteEntityRelations(getTenantId(), entityId);
+            entityCache.evict(entityId);
             logEntityAction(entityId, null, getCurrentUser().getCustomerId(), ActionType.RELATIONS_DELETED, null);
         } catch (Exception e) {
             logEntityAction(entityId, null, getCurrentUser().getCustomerId(), ActionType.RELATIONS_DELETED, e);
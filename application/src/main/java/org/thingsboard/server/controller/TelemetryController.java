@@ -42,6 +42,7 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.async.DeferredResult;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
+import org.thingsboard.rule.engine.api.RuleEngineEntityCache;
 import org.thingsboard.rule.engine.api.msg.DeviceAttributesEventNotificationMsg;
 import org.thingsboard.server.common.data.DataConstants;
 import org.thingsboard.server.common.data.EntityType;
@@ -109,6 +110,9 @@ public class TelemetryController extends BaseController {
     @Autowired
     private AccessValidator accessValidator;
 
+    @Autowired
+    private RuleEngineEntityCache entityCache;
+
     @Value("${transport.json.max_string_value_length:0}")
     private int maxStringValueLength;
 
@@ -358,6 +362,7 @@ public class TelemetryController extends BaseController {
                 Futures.addCallback(future, new FutureCallback<List<Void>>() {
                     @Override
                     public void onSuccess(@Nullable List<Void> tmp) {
+                        entityCache.evict(entityId);
                         logAttributesDeleted(user, entityId, scope, keys, null);
                         if (entityId.getEntityType() == EntityType.DEVICE) {
                             DeviceId deviceId = new DeviceId(entityId.getId());
@@ -48,6 +48,7 @@ import org.thingsboard.server.service.security.auth.jwt.RefreshTokenRepository;
 import org.thingsboard.server.service.security.model.SecurityUser;
 import org.thingsboard.server.service.security.model.UserPrincipal;
 import org.thingsboard.server.service.security.model.token.JwtToken;
+import org.thingsboard.server.service.security.model.token.JwtTokenCache;
 import org.thingsboard.server.service.security.model.token.JwtTokenFactory;
 import org.thingsboard.server.service.security.permission.Operation;
 import org.thingsboard.server.service.security.permission.Resource;
@@ -72,6 +73,9 @@ public class UserController extends BaseController {
     @Autowired
     private JwtTokenFactory tokenFactory;
 
+    @Autowired
+    private JwtTokenCache tokenCache;
+
     @Autowired
     private RefreshTokenRepository refreshTokenRepository;
 
@@ -232,6 +236,7 @@ public class UserController extends BaseController {
             UserId userId = new UserId(toUUID(strUserId));
             User user = checkUserId(userId, Operation.DELETE);
             userService.deleteUser(getCurrentUser().getTenantId(), userId);
+            tokenCache.revokeUserTokens(userId);
 
             logEntityAction(userId, user,
                     user.getCustomerId(),
@@ -297,6 +302,9 @@ public class UserController extends BaseController {
             User user = checkUserId(userId, Operation.WRITE);
             TenantId tenantId = getCurrentUser().getTenantId();
             userService.setUserCredentialsEnabled(tenantId, userId, userCredentialsEnabled);
+            if (!userCredentialsEnabled) {
+                tokenCache.revokeUserTokens(userId);
+            }
         } catch (Exception e) {
             throw handleException(e);
         }
@@ -0,0 +1,179 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.thingsboard.rule.engine.api.RuleEngineEntityCache;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.kv.AttributeKvEntry;
+import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.relation.EntityRelationsQuery;
+import org.thingsboard.server.dao.attributes.AttributesService;
+import org.thingsboard.server.dao.relation.RelationService;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Service
+public class DefaultRuleEngineEntityCache implements RuleEngineEntityCache {
+
+    private static final String ATTRIBUTES = "attributes";
+    private static final String RELATIONS = "relations";
+    private static final String ENTITY = "entity";
+
+    @Value("${actors.rule.entity_cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${actors.rule.entity_cache.ttl_ms:5000}")
+    private long ttlMs;
+
+    @Value("${actors.rule.entity_cache.max_size:100000}")
+    private long maxSize;
+
+    @Value("${actors.rule.entity_cache.max_size_per_entity:64}")
+    private long maxSizePerEntity;
+
+    @Value("${actors.rule.entity_cache.coalesce_lookups:true}")
+    private boolean coalesceLookups;
+
+    @Autowired
+    private AttributesService attributesService;
+
+    @Autowired
+    private RelationService relationService;
+
+    private Cache<EntityId, ConcurrentMap<List<Object>, ListenableFuture<?>>> entries;
+
+    private final ConcurrentMap<List<Object>, ListenableFuture<?>> pendingLookups = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (cacheEnabled) {
+            entries = Caffeine.newBuilder()
+                    .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                    .maximumSize(maxSize)
+                    .build();
+        }
+    }
+
+    @Override
+    public ListenableFuture<List<AttributeKvEntry>> findAttributes(TenantId tenantId, EntityId entityId, String scope, Collection<String> attributeKeys) {
+        List<Object> key = Arrays.asList(entityId, ATTRIBUTES, scope, new ArrayList<>(attributeKeys));
+        return get(entityId, key, () -> attributesService.find(tenantId, entityId, scope, attributeKeys));
+    }
+
+    @Override
+    public ListenableFuture<List<EntityRelation>> findRelationsByQuery(TenantId tenantId, EntityRelationsQuery query) {
+        EntityId rootId = query.getParameters().getEntityId();
+        List<Object> key = Arrays.asList(rootId, RELATIONS, query);
+        return get(rootId, key, () -> relationService.findByQuery(tenantId, query));
+    }
+
+    @Override
+    public <T> ListenableFuture<T> findEntity(EntityId entityId, Supplier<ListenableFuture<T>> loader) {
+        return get(entityId, Arrays.asList(entityId, ENTITY), loader);
+    }
+
+    @Override
+    public void evict(EntityId entityId) {
+        if (cacheEnabled) {
+            entries.invalidate(entityId);
+        }
+    }
+
+    @Override
+    public void evict(EntityRelation relation) {
+        evict(relation.getFrom());
+        evict(relation.getTo());
+    }
+
+    private <T> ListenableFuture<T> get(EntityId entityId, List<Object> key, Supplier<ListenableFuture<T>> loader) {
+        if (cacheEnabled) {
+            return getOrLoad(entries.get(entityId, id -> newEntityEntries()), key, loader, false);
+        } else if (coalesceLookups) {
+            return getOrLoad(pendingLookups, key, loader, true);
+        } else {
+            return loader.get();
+        }
+    }
+
+    /**
+     * Lookups of an entity are bounded too: the keys depend on the node configurations and the message metadata,
+     * e.g. the attribute keys of an enrichment node built from a pattern.
+     * The size is enforced on the calling thread, these maps are small.
+     */
+    private ConcurrentMap<List<Object>, ListenableFuture<?>> newEntityEntries() {
+        Cache<List<Object>, ListenableFuture<?>> entityEntries = Caffeine.newBuilder()
+                .maximumSize(maxSizePerEntity)
+                .executor(MoreExecutors.directExecutor())
+                .build();
+        return entityEntries.asMap();
+    }
+
+    /**
+     * The loader is invoked outside of the map lock. Failed lookups are never kept, so the next lookup retries them.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> ListenableFuture<T> getOrLoad(ConcurrentMap<List<Object>, ListenableFuture<?>> futures, List<Object> key,
+                                              Supplier<ListenableFuture<T>> loader, boolean removeOnCompletion) {
+        ListenableFuture<?> existing = futures.get(key);
+        if (existing != null) {
+            return (ListenableFuture<T>) existing;
+        }
+        SettableFuture<T> future = SettableFuture.create();
+        existing = futures.putIfAbsent(key, future);
+        if (existing != null) {
+            return (ListenableFuture<T>) existing;
+        }
+        try {
+            future.setFuture(loader.get());
+        } catch (Throwable t) {
+            future.setException(t);
+        }
+        future.addListener(() -> {
+            if (removeOnCompletion || isFailed(future)) {
+                futures.remove(key, future);
+            }
+        }, MoreExecutors.directExecutor());
+        return future;
+    }
+
+    private static boolean isFailed(ListenableFuture<?> future) {
+        try {
+            Futures.getDone(future);
+            return false;
+        } catch (ExecutionException | RuntimeException e) {
+            return true;
+        }
+    }
+}
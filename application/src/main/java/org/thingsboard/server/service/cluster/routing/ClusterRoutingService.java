@@ -21,7 +21,7 @@ import org.thingsboard.server.common.msg.cluster.ServerType;
 import org.thingsboard.server.service.cluster.discovery.DiscoveryServiceListener;
 
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
 
 /**
  * @author Andrew Shvayka
@@ -32,4 +32,12 @@ public interface ClusterRoutingService extends DiscoveryServiceListener {
 
     Optional<ServerAddress> resolveById(EntityId entityId);
 
+    int resolvePartition(EntityId entityId);
+
+    /**
+     * Partitions that changed their server during the last cluster topology update.
+     * Empty if routing is not partition based and any entity may have moved.
+     */
+    Optional<Set<Integer>> getMovedPartitions();
+
 }
@@ -32,13 +32,17 @@ import org.thingsboard.server.utils.MiscUtils;
 
 import javax.annotation.PostConstruct;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
- * Cluster service implementation based on consistent hash ring
+ * Cluster service implementation based on consistent hash ring.
+ * With "partitions" routing type entities are mapped to a fixed number of virtual partitions
+ * and the ring is only used to assign partitions to servers when the cluster topology changes.
  */
 
 @Service
@@ -52,6 +56,10 @@ public class ConsistentClusterRoutingService implements ClusterRoutingService {
     private String hashFunctionName;
     @Value("${cluster.vitrual_nodes_size}")
     private Integer virtualNodesSize;
+    @Value("${cluster.routing.type:consistent_hash}")
+    private String routingType;
+    @Value("${cluster.routing.partitions:1024}")
+    private Integer partitionsCount;
 
     private ServerInstance currentServer;
 
@@ -60,6 +68,10 @@ public class ConsistentClusterRoutingService implements ClusterRoutingService {
     private ConsistentHashCircle[] circles;
     private ConsistentHashCircle rootCircle;
 
+    private boolean partitioned;
+    private volatile PartitionTable partitionTable;
+    private volatile Set<Integer> movedPartitions = Collections.emptySet();
+
     @PostConstruct
     public void init() {
         log.info("Initializing Cluster routing service!");
@@ -70,11 +82,16 @@ public class ConsistentClusterRoutingService implements ClusterRoutingService {
             circles[serverType.ordinal()] = new ConsistentHashCircle();
         }
         rootCircle = circles[ServerType.CORE.ordinal()];
+        partitioned = "partitions".equalsIgnoreCase(routingType);
         addNode(discoveryService.getCurrentServer());
         for (ServerInstance instance : discoveryService.getOtherServers()) {
             addNode(instance);
         }
         logCircle();
+        if (partitioned) {
+            updatePartitionTable();
+            movedPartitions = Collections.emptySet();
+        }
         log.info("Cluster routing service initialized!");
     }
 
@@ -85,24 +102,49 @@ public class ConsistentClusterRoutingService implements ClusterRoutingService {
 
     @Override
     public Optional<ServerAddress> resolveById(EntityId entityId) {
+        if (partitioned) {
+            return resolveByPartition(resolvePartition(entityId));
+        }
         return resolveByUuid(rootCircle, entityId.getId());
     }
 
+    @Override
+    public int resolvePartition(EntityId entityId) {
+        UUID uuid = entityId.getId();
+        Assert.notNull(uuid);
+        return (int) Math.floorMod(mix(uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits()), (long) partitionsCount);
+    }
+
+    @Override
+    public Optional<Set<Integer>> getMovedPartitions() {
+        return partitioned ? Optional.of(movedPartitions) : Optional.empty();
+    }
+
+    private Optional<ServerAddress> resolveByPartition(int partition) {
+        return toAddress(partitionTable.getOwner(partition));
+    }
+
     private Optional<ServerAddress> resolveByUuid(ConsistentHashCircle circle, UUID uuid) {
         Assert.notNull(uuid);
+        return toAddress(findOwner(circle, hashFunction.newHasher().putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits()).hash().asLong()));
+    }
+
+    private ServerInstance findOwner(ConsistentHashCircle circle, Long hash) {
         if (circle.isEmpty()) {
-            return Optional.empty();
+            return null;
         }
-        Long hash = hashFunction.newHasher().putLong(uuid.getMostSignificantBits())
-                .putLong(uuid.getLeastSignificantBits()).hash().asLong();
         if (!circle.containsKey(hash)) {
             ConcurrentNavigableMap<Long, ServerInstance> tailMap =
                     circle.tailMap(hash);
             hash = tailMap.isEmpty() ?
                     circle.firstKey() : tailMap.firstKey();
         }
-        ServerInstance result = circle.get(hash);
-        if (!currentServer.equals(result)) {
+        return circle.get(hash);
+    }
+
+    private Optional<ServerAddress> toAddress(ServerInstance result) {
+        if (result != null && !currentServer.equals(result)) {
             return Optional.of(result.getServerAddress());
         } else {
             return Optional.empty();
@@ -114,6 +156,7 @@ public class ConsistentClusterRoutingService implements ClusterRoutingService {
         log.info("On server added event: {}", server);
         addNode(server);
         logCircle();
+        updatePartitionTable();
     }
 
     @Override
@@ -126,6 +169,33 @@ public class ConsistentClusterRoutingService implements ClusterRoutingService {
         log.info("On server removed event: {}", server);
         removeNode(server);
         logCircle();
+        updatePartitionTable();
+    }
+
+    private void updatePartitionTable() {
+        if (!partitioned) {
+            return;
+        }
+        ServerInstance[] owners = new ServerInstance[partitionsCount];
+        for (int i = 0; i < partitionsCount; i++) {
+            owners[i] = findOwner(rootCircle, hashFunction.newHasher().putInt(i).hash().asLong());
+        }
+        PartitionTable newTable = new PartitionTable(owners);
+        movedPartitions = Collections.unmodifiableSet(newTable.getMovedPartitions(partitionTable));
+        partitionTable = newTable;
+        log.info("Partition table updated, {} of {} partitions moved", movedPartitions.size(), partitionsCount);
+    }
+
+    /**
+     * Finalization step of MurmurHash3, spreads time based UUID bits over the whole value.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
     }
 
     private void addNode(ServerInstance instance) {
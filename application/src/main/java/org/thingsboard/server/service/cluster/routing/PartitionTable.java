@@ -0,0 +1,52 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.cluster.routing;
+
+import org.thingsboard.server.service.cluster.discovery.ServerInstance;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable mapping of virtual partitions to the servers that own them.
+ */
+public final class PartitionTable {
+
+    private final ServerInstance[] owners;
+
+    public PartitionTable(ServerInstance[] owners) {
+        this.owners = owners;
+    }
+
+    public int size() {
+        return owners.length;
+    }
+
+    public ServerInstance getOwner(int partition) {
+        return owners[partition];
+    }
+
+    public Set<Integer> getMovedPartitions(PartitionTable previous) {
+        Set<Integer> moved = new HashSet<>();
+        for (int i = 0; i < owners.length; i++) {
+            if (previous == null || i >= previous.owners.length || !Objects.equals(owners[i], previous.owners[i])) {
+                moved.add(i);
+            }
+        }
+        return moved;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.service.cluster.rpc;
 
+import com.google.protobuf.InvalidProtocolBufferException;
 import io.grpc.Channel;
 import io.grpc.ManagedChannel;
 import io.grpc.stub.StreamObserver;
@@ -25,6 +26,7 @@ import org.thingsboard.server.common.msg.cluster.ServerType;
 import org.thingsboard.server.gen.cluster.ClusterAPIProtos;
 
 import java.io.Closeable;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -42,6 +44,7 @@ public final class GrpcSession implements Closeable {
 
     private boolean connected;
     private ServerAddress remoteServer;
+    private final GrpcSessionStats stats = new GrpcSessionStats();
 
     public GrpcSession(GrpcSessionListener listener) {
         this(null, listener, null);
@@ -71,7 +74,12 @@ public final class GrpcSession implements Closeable {
                     listener.onConnected(GrpcSession.this);
                 }
                 if (connected) {
-                    listener.onReceiveClusterGrpcMsg(GrpcSession.this, clusterMessage);
+                    if (clusterMessage.getMessageType() == ClusterAPIProtos.MessageType.CLUSTER_MESSAGE_BATCH) {
+                        onBatch(clusterMessage);
+                    } else {
+                        stats.onReceived(1);
+                        listener.onReceiveClusterGrpcMsg(GrpcSession.this, clusterMessage);
+                    }
                 }
             }
 
@@ -94,10 +102,48 @@ public final class GrpcSession implements Closeable {
         }
     }
 
+    private void onBatch(ClusterAPIProtos.ClusterMessage batchMsg) {
+        ClusterAPIProtos.ClusterMessageBatch batch;
+        try {
+            batch = ClusterAPIProtos.ClusterMessageBatch.parseFrom(batchMsg.getPayload());
+        } catch (InvalidProtocolBufferException e) {
+            log.warn("[{}] Failed to decode cluster message batch from [{}]", sessionId, remoteServer, e);
+            return;
+        }
+        stats.onReceived(batch.getMessagesCount());
+        for (ClusterAPIProtos.ClusterMessage msg : batch.getMessagesList()) {
+            listener.onReceiveClusterGrpcMsg(GrpcSession.this, msg);
+        }
+    }
+
+    /**
+     * Sends the messages in a single frame. Server address is dropped from the batched messages,
+     * the receiver takes the sender address from the session.
+     */
+    public void sendMsgs(List<ClusterAPIProtos.ClusterMessage> msgs) {
+        if (msgs.size() == 1) {
+            sendMsg(msgs.get(0));
+            return;
+        }
+        ClusterAPIProtos.ClusterMessageBatch.Builder batch = ClusterAPIProtos.ClusterMessageBatch.newBuilder();
+        for (ClusterAPIProtos.ClusterMessage msg : msgs) {
+            batch.addMessages(msg.hasServerAddress() ? msg.toBuilder().clearServerAddress().build() : msg);
+        }
+        doSend(ClusterAPIProtos.ClusterMessage.newBuilder()
+                .setMessageType(ClusterAPIProtos.MessageType.CLUSTER_MESSAGE_BATCH)
+                .setPayload(batch.build().toByteString())
+                .build(), msgs.size());
+    }
+
     public void sendMsg(ClusterAPIProtos.ClusterMessage msg) {
+        doSend(msg, 1);
+    }
+
+    private void doSend(ClusterAPIProtos.ClusterMessage msg, int msgsCount) {
         if (connected) {
             try {
                 outputStream.onNext(msg);
+                stats.onSent(msgsCount, msg.getSerializedSize());
             } catch (Throwable t) {
                 try {
                     outputStream.onError(t);
@@ -0,0 +1,62 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.cluster.rpc;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Traffic counters of a single cluster RPC session.
+ */
+public final class GrpcSessionStats {
+
+    private final AtomicLong sentMsgs = new AtomicLong();
+    private final AtomicLong sentFrames = new AtomicLong();
+    private final AtomicLong sentBytes = new AtomicLong();
+    private final AtomicLong receivedMsgs = new AtomicLong();
+    private final AtomicLong receivedFrames = new AtomicLong();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final AtomicInteger maxQueueSize = new AtomicInteger();
+
+    public void onSent(int msgs, int bytes) {
+        sentMsgs.addAndGet(msgs);
+        sentFrames.incrementAndGet();
+        sentBytes.addAndGet(bytes);
+    }
+
+    public void onReceived(int msgs) {
+        receivedMsgs.addAndGet(msgs);
+        receivedFrames.incrementAndGet();
+    }
+
+    public void setQueueSize(int size) {
+        queueSize.set(size);
+        maxQueueSize.accumulateAndGet(size, Math::max);
+    }
+
+    public String getAndReset(long intervalMs) {
+        long seconds = Math.max(1, intervalMs / 1000);
+        long sent = sentMsgs.getAndSet(0);
+        long frames = sentFrames.getAndSet(0);
+        long bytes = sentBytes.getAndSet(0);
+        long received = receivedMsgs.getAndSet(0);
+        long receivedFramesCount = receivedFrames.getAndSet(0);
+        int maxQueue = maxQueueSize.getAndSet(queueSize.get());
+        return String.format("sent [%d msgs/s, %d frames/s, %d bytes/s] received [%d msgs/s, %d frames/s] queue [%d, max %d]",
+                sent / seconds, frames / seconds, bytes / seconds, received / seconds, receivedFramesCount / seconds,
+                queueSize.get(), maxQueue);
+    }
+}
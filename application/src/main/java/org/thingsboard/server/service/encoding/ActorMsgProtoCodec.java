@@ -0,0 +1,211 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.encoding;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.thingsboard.server.actors.ruleChain.RemoteToRuleChainTellNextMsg;
+import org.thingsboard.server.actors.ruleChain.RuleNodeToRuleChainTellNextMsg;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.EntityIdFactory;
+import org.thingsboard.server.common.data.id.RuleChainId;
+import org.thingsboard.server.common.data.id.RuleNodeId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.plugin.ComponentLifecycleEvent;
+import org.thingsboard.server.common.data.rpc.ToDeviceRpcRequestBody;
+import org.thingsboard.server.common.msg.TbActorMsg;
+import org.thingsboard.server.common.msg.TbMsg;
+import org.thingsboard.server.common.msg.TbMsgDataType;
+import org.thingsboard.server.common.msg.TbMsgMetaData;
+import org.thingsboard.server.common.msg.TbMsgTransactionData;
+import org.thingsboard.server.common.msg.cluster.ServerAddress;
+import org.thingsboard.server.common.msg.cluster.ServerType;
+import org.thingsboard.server.common.msg.plugin.ComponentLifecycleMsg;
+import org.thingsboard.server.common.msg.rpc.ToDeviceRpcRequest;
+import org.thingsboard.server.common.msg.system.ServiceToRuleEngineMsg;
+import org.thingsboard.server.gen.cluster.ClusterAPIProtos;
+import org.thingsboard.server.gen.transport.TransportProtos;
+import org.thingsboard.server.service.rpc.ToDeviceRpcRequestActorMsg;
+import org.thingsboard.server.service.transport.msg.TransportToDeviceActorMsgWrapper;
+
+import java.util.HashSet;
+import java.util.UUID;
+
+/**
+ * Protobuf encoding of the actor messages that are sent to other nodes on the hot path.
+ * Other messages are encoded with FST. Unlike {@link TbMsg#toByteArray(TbMsg)} keeps the cluster partition
+ * and missing rule chain and rule node ids of the TbMsg.
+ */
+final class ActorMsgProtoCodec {
+
+    private ActorMsgProtoCodec() {
+    }
+
+    /**
+     * @return encoded message or null if the message type has no protobuf schema
+     */
+    static ClusterAPIProtos.ActorMsgProto encode(TbActorMsg msg) {
+        ClusterAPIProtos.ActorMsgProto.Builder builder = ClusterAPIProtos.ActorMsgProto.newBuilder();
+        switch (msg.getMsgType()) {
+            case REMOTE_TO_RULE_CHAIN_TELL_NEXT_MSG:
+                RemoteToRuleChainTellNextMsg tellNextMsg = (RemoteToRuleChainTellNextMsg) msg;
+                builder.setRuleChainTellNextMsg(ClusterAPIProtos.RuleChainTellNextMsgProto.newBuilder()
+                        .setTenantIdMSB(tellNextMsg.getTenantId().getId().getMostSignificantBits())
+                        .setTenantIdLSB(tellNextMsg.getTenantId().getId().getLeastSignificantBits())
+                        .setRuleChainIdMSB(tellNextMsg.getRuleChainId().getId().getMostSignificantBits())
+                        .setRuleChainIdLSB(tellNextMsg.getRuleChainId().getId().getLeastSignificantBits())
+                        .setOriginatorIdMSB(tellNextMsg.getOriginator().getId().getMostSignificantBits())
+                        .setOriginatorIdLSB(tellNextMsg.getOriginator().getId().getLeastSignificantBits())
+                        .addAllRelationTypes(tellNextMsg.getRelationTypes())
+                        .setTbMsg(toProto(tellNextMsg.getMsg())));
+                break;
+            case SERVICE_TO_RULE_ENGINE_MSG:
+                ServiceToRuleEngineMsg serviceMsg = (ServiceToRuleEngineMsg) msg;
+                builder.setServiceToRuleEngineMsg(ClusterAPIProtos.ServiceToRuleEngineMsgProto.newBuilder()
+                        .setTenantIdMSB(serviceMsg.getTenantId().getId().getMostSignificantBits())
+                        .setTenantIdLSB(serviceMsg.getTenantId().getId().getLeastSignificantBits())
+                        .setTbMsg(toProto(serviceMsg.getTbMsg())));
+                break;
+            case TRANSPORT_TO_DEVICE_ACTOR_MSG:
+                builder.setTransportToDeviceActorMsg(((TransportToDeviceActorMsgWrapper) msg).getMsg().toByteString());
+                break;
+            case COMPONENT_LIFE_CYCLE_MSG:
+                ComponentLifecycleMsg lifecycleMsg = (ComponentLifecycleMsg) msg;
+                builder.setComponentLifecycleMsg(ClusterAPIProtos.ComponentLifecycleMsgProto.newBuilder()
+                        .setTenantIdMSB(lifecycleMsg.getTenantId().getId().getMostSignificantBits())
+                        .setTenantIdLSB(lifecycleMsg.getTenantId().getId().getLeastSignificantBits())
+                        .setEntityType(lifecycleMsg.getEntityId().getEntityType().name())
+                        .setEntityIdMSB(lifecycleMsg.getEntityId().getId().getMostSignificantBits())
+                        .setEntityIdLSB(lifecycleMsg.getEntityId().getId().getLeastSignificantBits())
+                        .setEvent(lifecycleMsg.getEvent().name()));
+                break;
+            case DEVICE_RPC_REQUEST_TO_DEVICE_ACTOR_MSG:
+                ToDeviceRpcRequestActorMsg rpcMsg = (ToDeviceRpcRequestActorMsg) msg;
+                ToDeviceRpcRequest request = rpcMsg.getMsg();
+                builder.setToDeviceRpcRequestActorMsg(ClusterAPIProtos.ToDeviceRpcRequestActorMsgProto.newBuilder()
+                        .setServerAddress(ClusterAPIProtos.ServerAddress.newBuilder()
+                                .setHost(rpcMsg.getServerAddress().getHost())
+                                .setPort(rpcMsg.getServerAddress().getPort()))
+                        .setRequestIdMSB(request.getId().getMostSignificantBits())
+                        .setRequestIdLSB(request.getId().getLeastSignificantBits())
+                        .setTenantIdMSB(request.getTenantId().getId().getMostSignificantBits())
+                        .setTenantIdLSB(request.getTenantId().getId().getLeastSignificantBits())
+                        .setDeviceIdMSB(request.getDeviceId().getId().getMostSignificantBits())
+                        .setDeviceIdLSB(request.getDeviceId().getId().getLeastSignificantBits())
+                        .setOneway(request.isOneway())
+                        .setExpirationTime(request.getExpirationTime())
+                        .setMethod(request.getBody().getMethod())
+                        .setParams(request.getBody().getParams()));
+                break;
+            default:
+                return null;
+        }
+        return builder.build();
+    }
+
+    static TbActorMsg decode(ClusterAPIProtos.ActorMsgProto proto) throws InvalidProtocolBufferException {
+        switch (proto.getMsgCase()) {
+            case RULECHAINTELLNEXTMSG:
+                ClusterAPIProtos.RuleChainTellNextMsgProto tellNextMsg = proto.getRuleChainTellNextMsg();
+                return new RemoteToRuleChainTellNextMsg(
+                        new RuleNodeToRuleChainTellNextMsg(
+                                new RuleNodeId(new UUID(tellNextMsg.getOriginatorIdMSB(), tellNextMsg.getOriginatorIdLSB())),
+                                new HashSet<>(tellNextMsg.getRelationTypesList()),
+                                fromProto(tellNextMsg.getTbMsg())),
+                        new TenantId(new UUID(tellNextMsg.getTenantIdMSB(), tellNextMsg.getTenantIdLSB())),
+                        new RuleChainId(new UUID(tellNextMsg.getRuleChainIdMSB(), tellNextMsg.getRuleChainIdLSB())));
+            case SERVICETORULEENGINEMSG:
+                ClusterAPIProtos.ServiceToRuleEngineMsgProto serviceMsg = proto.getServiceToRuleEngineMsg();
+                return new ServiceToRuleEngineMsg(new TenantId(new UUID(serviceMsg.getTenantIdMSB(), serviceMsg.getTenantIdLSB())),
+                        fromProto(serviceMsg.getTbMsg()));
+            case TRANSPORTTODEVICEACTORMSG:
+                return new TransportToDeviceActorMsgWrapper(TransportProtos.TransportToDeviceActorMsg.parseFrom(proto.getTransportToDeviceActorMsg()));
+            case COMPONENTLIFECYCLEMSG:
+                ClusterAPIProtos.ComponentLifecycleMsgProto lifecycleMsg = proto.getComponentLifecycleMsg();
+                return new ComponentLifecycleMsg(new TenantId(new UUID(lifecycleMsg.getTenantIdMSB(), lifecycleMsg.getTenantIdLSB())),
+                        EntityIdFactory.getByTypeAndUuid(lifecycleMsg.getEntityType(), new UUID(lifecycleMsg.getEntityIdMSB(), lifecycleMsg.getEntityIdLSB())),
+                        ComponentLifecycleEvent.valueOf(lifecycleMsg.getEvent()));
+            case TODEVICERPCREQUESTACTORMSG:
+                ClusterAPIProtos.ToDeviceRpcRequestActorMsgProto rpcMsg = proto.getToDeviceRpcRequestActorMsg();
+                return new ToDeviceRpcRequestActorMsg(
+                        new ServerAddress(rpcMsg.getServerAddress().getHost(), rpcMsg.getServerAddress().getPort(), ServerType.CORE),
+                        new ToDeviceRpcRequest(new UUID(rpcMsg.getRequestIdMSB(), rpcMsg.getRequestIdLSB()),
+                                new TenantId(new UUID(rpcMsg.getTenantIdMSB(), rpcMsg.getTenantIdLSB())),
+                                new DeviceId(new UUID(rpcMsg.getDeviceIdMSB(), rpcMsg.getDeviceIdLSB())),
+                                rpcMsg.getOneway(), rpcMsg.getExpirationTime(),
+                                new ToDeviceRpcRequestBody(rpcMsg.getMethod(), rpcMsg.getParams())));
+            default:
+                throw new IllegalArgumentException("Unsupported actor message: " + proto.getMsgCase());
+        }
+    }
+
+    private static ClusterAPIProtos.ClusterTbMsgProto toProto(TbMsg msg) {
+        ClusterAPIProtos.ClusterTbMsgProto.Builder builder = ClusterAPIProtos.ClusterTbMsgProto.newBuilder()
+                .setIdMSB(msg.getId().getMostSignificantBits())
+                .setIdLSB(msg.getId().getLeastSignificantBits())
+                .setType(msg.getType())
+                .setEntityType(msg.getOriginator().getEntityType().name())
+                .setEntityIdMSB(msg.getOriginator().getId().getMostSignificantBits())
+                .setEntityIdLSB(msg.getOriginator().getId().getLeastSignificantBits())
+                .setDataType(msg.getDataType().ordinal())
+                .setClusterPartition(msg.getClusterPartition());
+        if (msg.getData() != null) {
+            builder.setData(msg.getData());
+        }
+        if (msg.getMetaData() != null) {
+            builder.setHasMetaData(true).putAllMetaData(msg.getMetaData().getData());
+        }
+        TbMsgTransactionData transactionData = msg.getTransactionData();
+        if (transactionData != null) {
+            builder.setHasTransactionData(true)
+                    .setTransactionIdMSB(transactionData.getTransactionId().getMostSignificantBits())
+                    .setTransactionIdLSB(transactionData.getTransactionId().getLeastSignificantBits())
+                    .setTransactionEntityType(transactionData.getOriginatorId().getEntityType().name())
+                    .setTransactionEntityIdMSB(transactionData.getOriginatorId().getId().getMostSignificantBits())
+                    .setTransactionEntityIdLSB(transactionData.getOriginatorId().getId().getLeastSignificantBits());
+        }
+        if (msg.getRuleChainId() != null) {
+            builder.setRuleChainIdMSB(msg.getRuleChainId().getId().getMostSignificantBits());
+            builder.setRuleChainIdLSB(msg.getRuleChainId().getId().getLeastSignificantBits());
+        }
+        if (msg.getRuleNodeId() != null) {
+            builder.setRuleNodeIdMSB(msg.getRuleNodeId().getId().getMostSignificantBits());
+            builder.setRuleNodeIdLSB(msg.getRuleNodeId().getId().getLeastSignificantBits());
+        }
+        return builder.build();
+    }
+
+    private static TbMsg fromProto(ClusterAPIProtos.ClusterTbMsgProto proto) {
+        EntityId originator = EntityIdFactory.getByTypeAndUuid(proto.getEntityType(), new UUID(proto.getEntityIdMSB(), proto.getEntityIdLSB()));
+        TbMsgMetaData metaData = proto.getHasMetaData() ? new TbMsgMetaData(proto.getMetaDataMap()) : null;
+        TbMsgTransactionData transactionData = null;
+        if (proto.getHasTransactionData()) {
+            transactionData = new TbMsgTransactionData(new UUID(proto.getTransactionIdMSB(), proto.getTransactionIdLSB()),
+                    EntityIdFactory.getByTypeAndUuid(proto.getTransactionEntityType(),
+                            new UUID(proto.getTransactionEntityIdMSB(), proto.getTransactionEntityIdLSB())));
+        }
+        RuleChainId ruleChainId = null;
+        if (proto.getRuleChainIdMSB() != 0L || proto.getRuleChainIdLSB() != 0L) {
+            ruleChainId = new RuleChainId(new UUID(proto.getRuleChainIdMSB(), proto.getRuleChainIdLSB()));
+        }
+        RuleNodeId ruleNodeId = null;
+        if (proto.getRuleNodeIdMSB() != 0L || proto.getRuleNodeIdLSB() != 0L) {
+            ruleNodeId = new RuleNodeId(new UUID(proto.getRuleNodeIdMSB(), proto.getRuleNodeIdLSB()));
+        }
+        return new TbMsg(new UUID(proto.getIdMSB(), proto.getIdLSB()), proto.getType(), originator, metaData,
+                TbMsgDataType.values()[proto.getDataType()], proto.getData(), transactionData, ruleChainId, ruleNodeId, proto.getClusterPartition());
+    }
+}
@@ -25,10 +25,14 @@ public interface DataDecodingEncodingService {
 
     Optional<TbActorMsg> decode(byte[] byteArray);
 
+    Optional<TbActorMsg> decode(ClusterAPIProtos.ClusterMessage msg);
+
     byte[] encode(TbActorMsg msq);
 
     ClusterAPIProtos.ClusterMessage convertToProtoDataMessage(ServerAddress serverAddress,
                                                               TbActorMsg msg);
 
+    ClusterAPIProtos.ClusterMessage convertToProtoDataMessage(TbActorMsg msg);
+
 }
 
@@ -18,6 +18,7 @@ package org.thingsboard.server.service.encoding;
 import com.google.protobuf.ByteString;
 import lombok.extern.slf4j.Slf4j;
 import org.nustaq.serialization.FSTConfiguration;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.thingsboard.server.common.msg.TbActorMsg;
 import org.thingsboard.server.common.msg.cluster.ServerAddress;
@@ -26,24 +27,42 @@ import org.thingsboard.server.gen.cluster.ClusterAPIProtos;
 import java.util.Optional;
 
 import static org.thingsboard.server.gen.cluster.ClusterAPIProtos.MessageType.CLUSTER_ACTOR_MESSAGE;
+import static org.thingsboard.server.gen.cluster.ClusterAPIProtos.MessageType.CLUSTER_ACTOR_PROTO_MESSAGE;
 
 
 @Slf4j
 @Service
 public class ProtoWithFSTService implements DataDecodingEncodingService {
 
+    private static final String PROTOBUF_ENCODING = "protobuf";
 
     private final FSTConfiguration config = FSTConfiguration.createDefaultConfiguration();
+
+    @Value("${cluster.rpc.actor_msg_encoding:fst}")
+    private String actorMsgEncoding;
+
     @Override
     public Optional<TbActorMsg> decode(byte[] byteArray) {
         try {
             TbActorMsg msg = (TbActorMsg) config.asObject(byteArray);
             return Optional.of(msg);
+        } catch (Exception e) {
+            log.error("Error during deserialization message, [{}]", e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
 
-        } catch (IllegalArgumentException e) {
-            log.error("Error during deserialization message, [{}]", e.getMessage());
-           return Optional.empty();
+    @Override
+    public Optional<TbActorMsg> decode(ClusterAPIProtos.ClusterMessage msg) {
+        if (msg.getMessageType() == CLUSTER_ACTOR_PROTO_MESSAGE) {
+            try {
+                return Optional.of(ActorMsgProtoCodec.decode(ClusterAPIProtos.ActorMsgProto.parseFrom(msg.getPayload())));
+            } catch (Exception e) {
+                log.error("Error during decoding protobuf actor message, [{}]", e.getMessage(), e);
+                return Optional.empty();
+            }
         }
+        return decode(msg.getPayload().toByteArray());
     }
 
     @Override
@@ -54,15 +73,30 @@ public class ProtoWithFSTService implements DataDecodingEncodingService {
     @Override
     public ClusterAPIProtos.ClusterMessage convertToProtoDataMessage(ServerAddress serverAddress,
                                                                      TbActorMsg msg) {
-        return ClusterAPIProtos.ClusterMessage
-                .newBuilder()
+        return toClusterMessage(msg)
                 .setServerAddress(ClusterAPIProtos.ServerAddress
                         .newBuilder()
                         .setHost(serverAddress.getHost())
                         .setPort(serverAddress.getPort())
                         .build())
-                .setMessageType(CLUSTER_ACTOR_MESSAGE)
-                .setPayload(ByteString.copyFrom(encode(msg))).build();
+                .build();
+    }
 
+    @Override
+    public ClusterAPIProtos.ClusterMessage convertToProtoDataMessage(TbActorMsg msg) {
+        return toClusterMessage(msg).build();
+    }
+
+    private ClusterAPIProtos.ClusterMessage.Builder toClusterMessage(TbActorMsg msg) {
+        ClusterAPIProtos.ActorMsgProto proto = PROTOBUF_ENCODING.equalsIgnoreCase(actorMsgEncoding) ? ActorMsgProtoCodec.encode(msg) : null;
+        if (proto != null) {
+            return ClusterAPIProtos.ClusterMessage.newBuilder()
+                    .setMessageType(CLUSTER_ACTOR_PROTO_MESSAGE)
+                    .setPayload(proto.toByteString());
+        } else {
+            return ClusterAPIProtos.ClusterMessage.newBuilder()
+                    .setMessageType(CLUSTER_ACTOR_MESSAGE)
+                    .setPayload(ByteString.copyFrom(encode(msg)));
+        }
     }
 }
@@ -15,18 +15,41 @@
  */
 package org.thingsboard.server.service.install;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.thingsboard.server.dao.util.PsqlDao;
 import org.thingsboard.server.dao.util.SqlDao;
 
+@Slf4j
 @Service
 @SqlDao
 @PsqlDao
 @Profile("install")
 public class PsqlEntityDatabaseSchemaService extends SqlAbstractDatabaseSchemaService
         implements EntityDatabaseSchemaService {
+
+    private static final String SCHEMA_TRGM_IDX_SQL = "schema-entities-idx-psql-trgm.sql";
+
+    @Value("${sql.text_search.substring:false}")
+    private boolean substringSearch;
+
     public PsqlEntityDatabaseSchemaService() {
         super("schema-entities.sql", "schema-entities-idx.sql");
     }
+
+    @Override
+    public void createDatabaseSchema() throws Exception {
+        super.createDatabaseSchema();
+        if (substringSearch) {
+            log.info("Installing SQL DataBase schema trigram indexes part: " + SCHEMA_TRGM_IDX_SQL);
+            try {
+                executeQueryFromFile(SCHEMA_TRGM_IDX_SQL);
+            } catch (Exception e) {
+                log.warn("Failed to create trigram indexes, the substring search will scan the tenant entities. " +
+                        "Make sure the pg_trgm extension is available and run {} manually.", SCHEMA_TRGM_IDX_SQL, e);
+            }
+        }
+    }
 }
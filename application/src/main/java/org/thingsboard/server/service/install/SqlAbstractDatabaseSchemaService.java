@@ -55,21 +55,19 @@ public abstract class SqlAbstractDatabaseSchemaService implements DatabaseSchema
     public void createDatabaseSchema() throws Exception {
 
         log.info("Installing SQL DataBase schema part: " + schemaSql);
-
-        Path schemaFile = Paths.get(installScripts.getDataDir(), SQL_DIR, schemaSql);
-        try (Connection conn = DriverManager.getConnection(dbUrl, dbUserName, dbPassword)) {
-            String sql = new String(Files.readAllBytes(schemaFile), Charset.forName("UTF-8"));
-            conn.createStatement().execute(sql); //NOSONAR, ignoring because method used to load initial thingsboard database schema
-        }
+        executeQueryFromFile(schemaSql);
 
         if (schemaIdxSql != null) {
             log.info("Installing SQL DataBase schema indexes part: " + schemaIdxSql);
+            executeQueryFromFile(schemaIdxSql);
+        }
+    }
 
-            Path schemaIdxFile = Paths.get(installScripts.getDataDir(), SQL_DIR, schemaIdxSql);
-            try (Connection conn = DriverManager.getConnection(dbUrl, dbUserName, dbPassword)) {
-                String sql = new String(Files.readAllBytes(schemaIdxFile), Charset.forName("UTF-8"));
-                conn.createStatement().execute(sql); //NOSONAR, ignoring because method used to load initial thingsboard database schema
-            }
+    protected void executeQueryFromFile(String schemaFileName) throws Exception {
+        Path schemaFile = Paths.get(installScripts.getDataDir(), SQL_DIR, schemaFileName);
+        try (Connection conn = DriverManager.getConnection(dbUrl, dbUserName, dbPassword)) {
+            String sql = new String(Files.readAllBytes(schemaFile), Charset.forName("UTF-8"));
+            conn.createStatement().execute(sql); //NOSONAR, ignoring because method used to load initial thingsboard database schema
         }
     }
 
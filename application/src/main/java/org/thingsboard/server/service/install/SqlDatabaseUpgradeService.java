@@ -58,6 +58,7 @@ import static org.thingsboard.server.service.install.DatabaseHelper.TYPE;
 public class SqlDatabaseUpgradeService implements DatabaseEntitiesUpgradeService {
 
     private static final String SCHEMA_UPDATE_SQL = "schema_update.sql";
+    private static final String SCHEMA_ENTITIES_IDX_SQL = "schema-entities-idx.sql";
 
     @Value("${spring.datasource.url}")
     private String dbUrl;
@@ -221,6 +222,8 @@ public class SqlDatabaseUpgradeService implements DatabaseEntitiesUpgradeService
                             }
                         }
                     }
+                    log.info("Creating search text indexes ...");
+                    loadSql(Paths.get(installScripts.getDataDir(), "sql", SCHEMA_ENTITIES_IDX_SQL), conn);
                     log.info("Schema updated.");
                 }
                 break;
@@ -82,7 +82,7 @@ public abstract class AbstractJsInvokeService implements JsInvokeService {
         blackListedFunctions.computeIfAbsent(scriptId, key -> new AtomicInteger(0)).incrementAndGet();
     }
 
-    private String generateJsScript(JsScriptType scriptType, String functionName, String scriptBody, String... argNames) {
+    protected String generateJsScript(JsScriptType scriptType, String functionName, String scriptBody, String... argNames) {
         switch (scriptType) {
             case RULE_NODE_SCRIPT:
                 return RuleNodeScriptFactory.generateRuleNodeScript(functionName, scriptBody, argNames);
@@ -19,49 +19,56 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
-import delight.nashornsandbox.NashornSandbox;
-import delight.nashornsandbox.NashornSandboxes;
-import jdk.nashorn.api.scripting.NashornScriptEngineFactory;
+import delight.nashornsandbox.exceptions.ScriptCPUAbuseException;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.thingsboard.common.util.MetricsTags;
+import org.thingsboard.common.util.StatsCounter;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
-import javax.script.Invocable;
-import javax.script.ScriptEngine;
-import javax.script.ScriptException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 public abstract class AbstractNashornJsInvokeService extends AbstractJsInvokeService {
 
-    private NashornSandbox sandbox;
-    private ScriptEngine engine;
-    private ExecutorService monitorExecutorService;
+    private final Map<UUID, String> scriptIdToBodyMap = new ConcurrentHashMap<>();
+    private List<NashornJsEngine> engines;
+    private BlockingQueue<NashornJsEngine> enginePool;
+    private NashornCpuTimeMonitor cpuTimeMonitor;
     private ScheduledExecutorService timeoutExecutorService;
 
-    private final AtomicInteger jsPushedMsgs = new AtomicInteger(0);
-    private final AtomicInteger jsInvokeMsgs = new AtomicInteger(0);
-    private final AtomicInteger jsEvalMsgs = new AtomicInteger(0);
-    private final AtomicInteger jsFailedMsgs = new AtomicInteger(0);
-    private final AtomicInteger jsTimeoutMsgs = new AtomicInteger(0);
-    private final FutureCallback<UUID> evalCallback = new JsStatCallback<UUID>(jsEvalMsgs, jsTimeoutMsgs, jsFailedMsgs);
-    private final FutureCallback<Object> invokeCallback = new JsStatCallback<Object>(jsInvokeMsgs, jsTimeoutMsgs, jsFailedMsgs);
+    private StatsCounter jsPushedMsgs;
+    private StatsCounter jsInvokeMsgs;
+    private StatsCounter jsEvalMsgs;
+    private StatsCounter jsFailedMsgs;
+    private StatsCounter jsTimeoutMsgs;
+    private FutureCallback<UUID> evalCallback;
+    private FutureCallback<Object> invokeCallback;
 
     @Autowired
     @Getter
     private JsExecutorService jsExecutor;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${js.local.max_requests_timeout:0}")
     private long maxRequestsTimeout;
 
@@ -71,11 +78,11 @@ public abstract class AbstractNashornJsInvokeService extends AbstractJsInvokeSer
     @Scheduled(fixedDelayString = "${js.local.stats.print_interval_ms:10000}")
     public void printStats() {
         if (statsEnabled) {
-            int pushedMsgs = jsPushedMsgs.getAndSet(0);
-            int invokeMsgs = jsInvokeMsgs.getAndSet(0);
-            int evalMsgs = jsEvalMsgs.getAndSet(0);
-            int failed = jsFailedMsgs.getAndSet(0);
-            int timedOut = jsTimeoutMsgs.getAndSet(0);
+            int pushedMsgs = jsPushedMsgs.getAndReset();
+            int invokeMsgs = jsInvokeMsgs.getAndReset();
+            int evalMsgs = jsEvalMsgs.getAndReset();
+            int failed = jsFailedMsgs.getAndReset();
+            int timedOut = jsTimeoutMsgs.getAndReset();
             if (pushedMsgs > 0 || invokeMsgs > 0 || evalMsgs > 0 || failed > 0 || timedOut > 0) {
                 log.info("Nashorn JS Invoke Stats: pushed [{}] received [{}] invoke [{}] eval [{}] failed [{}] timedOut [{}]",
                         pushedMsgs, invokeMsgs + evalMsgs, invokeMsgs, evalMsgs, failed, timedOut);
@@ -85,27 +92,31 @@ public abstract class AbstractNashornJsInvokeService extends AbstractJsInvokeSer
 
     @PostConstruct
     public void init() {
+        jsPushedMsgs = new StatsCounter(meterRegistry, "tb.js.pushed", MetricsTags.EXECUTOR, "local");
+        jsInvokeMsgs = new StatsCounter(meterRegistry, "tb.js.invoke", MetricsTags.EXECUTOR, "local");
+        jsEvalMsgs = new StatsCounter(meterRegistry, "tb.js.eval", MetricsTags.EXECUTOR, "local");
+        jsFailedMsgs = new StatsCounter(meterRegistry, "tb.js.failed", MetricsTags.EXECUTOR, "local");
+        jsTimeoutMsgs = new StatsCounter(meterRegistry, "tb.js.timeout", MetricsTags.EXECUTOR, "local");
+        evalCallback = new JsStatCallback<>(jsEvalMsgs, jsTimeoutMsgs, jsFailedMsgs);
+        invokeCallback = new JsStatCallback<>(jsInvokeMsgs, jsTimeoutMsgs, jsFailedMsgs);
         if (maxRequestsTimeout > 0) {
             timeoutExecutorService = Executors.newSingleThreadScheduledExecutor(ThingsBoardThreadFactory.forName("nashorn-js-timeout"));
         }
-        if (useJsSandbox()) {
-            sandbox = NashornSandboxes.create();
-            monitorExecutorService = Executors.newWorkStealingPool(getMonitorThreadPoolSize());
-            sandbox.setExecutor(monitorExecutorService);
-            sandbox.setMaxCPUTime(getMaxCpuTime());
-            sandbox.allowNoBraces(false);
-            sandbox.allowLoadFunctions(true);
-            sandbox.setMaxPreparedStatements(30);
-        } else {
-            NashornScriptEngineFactory factory = new NashornScriptEngineFactory();
-            engine = factory.getScriptEngine(new String[]{"--no-java"});
+        int poolSize = getEnginePoolSize() > 0 ? getEnginePoolSize() : Runtime.getRuntime().availableProcessors();
+        engines = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            engines.add(useJsSandbox() ? NashornJsEngine.createSandboxed() : NashornJsEngine.create());
+        }
+        enginePool = new ArrayBlockingQueue<>(poolSize, false, engines);
+        if (useJsSandbox() && getMaxCpuTime() > 0) {
+            cpuTimeMonitor = new NashornCpuTimeMonitor(getMaxCpuTime());
         }
     }
 
     @PreDestroy
     public void stop() {
-        if (monitorExecutorService != null) {
-            monitorExecutorService.shutdownNow();
+        if (cpuTimeMonitor != null) {
+            cpuTimeMonitor.stop();
         }
         if (timeoutExecutorService != null) {
             timeoutExecutorService.shutdownNow();
@@ -114,25 +125,36 @@ public abstract class AbstractNashornJsInvokeService extends AbstractJsInvokeSer
 
     protected abstract boolean useJsSandbox();
 
-    protected abstract int getMonitorThreadPoolSize();
+    protected abstract int getEnginePoolSize();
 
     protected abstract long getMaxCpuTime();
 
+    @Override
+    protected String generateJsScript(JsScriptType scriptType, String functionName, String scriptBody, String... argNames) {
+        if (scriptType == JsScriptType.RULE_NODE_SCRIPT) {
+            return RuleNodeScriptFactory.generateLocalRuleNodeScript(functionName, scriptBody, argNames);
+        }
+        return super.generateJsScript(scriptType, functionName, scriptBody, argNames);
+    }
+
     @Override
     protected ListenableFuture<UUID> doEval(UUID scriptId, String functionName, String jsScript) {
-        jsPushedMsgs.incrementAndGet();
+        jsPushedMsgs.increment();
         ListenableFuture<UUID> result = jsExecutor.executeAsync(() -> {
+            NashornJsEngine engine = enginePool.take();
             try {
-                if (useJsSandbox()) {
-                    sandbox.eval(jsScript);
-                } else {
-                    engine.eval(jsScript);
-                }
+                executeWithCpuTimeLimit(() -> {
+                    engine.compile(scriptId, functionName, jsScript);
+                    return null;
+                });
+                scriptIdToBodyMap.put(scriptId, jsScript);
                 scriptIdToNameMap.put(scriptId, functionName);
                 return scriptId;
             } catch (Exception e) {
                 log.warn("Failed to compile JS script: {}", e.getMessage(), e);
                 throw new ExecutionException(e);
+            } finally {
+                enginePool.offer(engine);
             }
         });
         if (maxRequestsTimeout > 0) {
@@ -144,17 +166,21 @@ public abstract class AbstractNashornJsInvokeService extends AbstractJsInvokeSer
 
     @Override
     protected ListenableFuture<Object> doInvokeFunction(UUID scriptId, String functionName, Object[] args) {
-        jsPushedMsgs.incrementAndGet();
+        jsPushedMsgs.increment();
         ListenableFuture<Object> result = jsExecutor.executeAsync(() -> {
+            NashornJsEngine engine = enginePool.take();
             try {
-                if (useJsSandbox()) {
-                    return sandbox.getSandboxedInvocable().invokeFunction(functionName, args);
-                } else {
-                    return ((Invocable) engine).invokeFunction(functionName, args);
-                }
+                return executeWithCpuTimeLimit(() -> {
+                    if (!engine.isCompiled(scriptId)) {
+                        compileOnEngine(engine, scriptId, functionName);
+                    }
+                    return engine.invoke(scriptId, args);
+                });
             } catch (Exception e) {
                 onScriptExecutionError(scriptId);
                 throw new ExecutionException(e);
+            } finally {
+                enginePool.offer(engine);
             }
         });
 
@@ -165,11 +191,37 @@ public abstract class AbstractNashornJsInvokeService extends AbstractJsInvokeSer
         return result;
     }
 
-    protected void doRelease(UUID scriptId, String functionName) throws ScriptException {
-        if (useJsSandbox()) {
-            sandbox.eval(functionName + " = undefined;");
-        } else {
-            engine.eval(functionName + " = undefined;");
+    protected void doRelease(UUID scriptId, String functionName) {
+        scriptIdToBodyMap.remove(scriptId);
+        engines.forEach(engine -> engine.release(scriptId));
+    }
+
+    private void compileOnEngine(NashornJsEngine engine, UUID scriptId, String functionName) throws Exception {
+        String jsScript = scriptIdToBodyMap.get(scriptId);
+        if (jsScript == null) {
+            throw new RuntimeException("No compiled script found for scriptId: [" + scriptId + "]!");
+        }
+        engine.compile(scriptId, functionName, jsScript);
+        if (!scriptIdToBodyMap.containsKey(scriptId)) {
+            // Released while compiling
+            engine.release(scriptId);
+        }
+    }
+
+    private <T> T executeWithCpuTimeLimit(Callable<T> callable) throws Exception {
+        if (cpuTimeMonitor == null) {
+            return callable.call();
+        }
+        NashornCpuTimeMonitor.Invocation invocation = cpuTimeMonitor.start();
+        try {
+            return callable.call();
+        } catch (Exception e) {
+            if (invocation.isInterrupted()) {
+                throw new ScriptCPUAbuseException("Script used more than the allowed [" + getMaxCpuTime() + " ms] of CPU time.", true, e);
+            }
+            throw e;
+        } finally {
+            cpuTimeMonitor.finish(invocation);
         }
     }
 
@@ -0,0 +1,106 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.script;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.thingsboard.server.dao.util.BatchLoader;
+import org.thingsboard.server.gen.js.JsInvokeProtos;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Collects invocations of the same script with a BatchLoader per script and sends them with a single call of the sender.
+ * Every invocation is a separate key, so invocations with equal arguments are never merged.
+ */
+class JsInvokeBatcher {
+
+    private final ScheduledExecutorService scheduler;
+    private final long lingerMs;
+    private final int maxBatchSize;
+    private final Function<Batch, ListenableFuture<List<JsInvokeProtos.JsInvokeResponse>>> sender;
+
+    private final ConcurrentMap<UUID, BatchLoader<Invocation, JsInvokeProtos.JsInvokeResponse>> loaders = new ConcurrentHashMap<>();
+
+    /**
+     * @param sender sends the batch, responses are expected in the order of the batch invocations
+     */
+    JsInvokeBatcher(ScheduledExecutorService scheduler, long lingerMs, int maxBatchSize,
+                    Function<Batch, ListenableFuture<List<JsInvokeProtos.JsInvokeResponse>>> sender) {
+        this.scheduler = scheduler;
+        this.lingerMs = lingerMs;
+        this.maxBatchSize = maxBatchSize;
+        this.sender = sender;
+    }
+
+    ListenableFuture<JsInvokeProtos.JsInvokeResponse> add(UUID scriptId, String functionName, List<String> args) {
+        BatchLoader<Invocation, JsInvokeProtos.JsInvokeResponse> loader = loaders.computeIfAbsent(scriptId, id ->
+                new BatchLoader<>(invocations -> send(id, functionName, invocations), scheduler, lingerMs, maxBatchSize));
+        return loader.load(new Invocation(JsInvokeProtos.JsInvokeArgs.newBuilder().addAllArgs(args).build()));
+    }
+
+    /**
+     * Invocations added before the release are still sent.
+     */
+    void release(UUID scriptId) {
+        loaders.remove(scriptId);
+    }
+
+    private ListenableFuture<Map<Invocation, JsInvokeProtos.JsInvokeResponse>> send(UUID scriptId, String functionName, Set<Invocation> invocations) {
+        List<Invocation> ordered = new ArrayList<>(invocations);
+        Batch batch = new Batch(scriptId, functionName, ordered.stream().map(Invocation::getArgs).collect(Collectors.toList()));
+        return Futures.transform(sender.apply(batch), responses -> {
+            if (responses == null || responses.size() != ordered.size()) {
+                throw new RuntimeException("Expected " + ordered.size() + " responses to the batch but got " + (responses != null ? responses.size() : 0) + "!");
+            }
+            Map<Invocation, JsInvokeProtos.JsInvokeResponse> result = new HashMap<>();
+            for (int i = 0; i < ordered.size(); i++) {
+                result.put(ordered.get(i), responses.get(i));
+            }
+            return result;
+        }, MoreExecutors.directExecutor());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class Batch {
+        private final UUID scriptId;
+        private final String functionName;
+        private final List<JsInvokeProtos.JsInvokeArgs> invocations;
+    }
+
+    /**
+     * Compared by identity.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class Invocation {
+        private final JsInvokeProtos.JsInvokeArgs args;
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.script;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram with fixed buckets. Percentiles are reported as the upper bound of the bucket.
+ */
+class JsInvokeLatencyHistogram {
+
+    private static final long[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMs = new AtomicLong();
+    private final AtomicLong maxMs = new AtomicLong();
+
+    void record(long latencyMs) {
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_MS.length && latencyMs > BUCKET_BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalMs.addAndGet(latencyMs);
+        maxMs.accumulateAndGet(latencyMs, Math::max);
+    }
+
+    long getCount() {
+        return count.get();
+    }
+
+    long getPercentile(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(BUCKET_BOUNDS_MS[i], maxMs.get());
+            }
+        }
+        return maxMs.get();
+    }
+
+    @Override
+    public String toString() {
+        long total = count.get();
+        return "count [" + total + "] avg [" + (total > 0 ? totalMs.get() / total : 0) + "] p50 [" + getPercentile(50) +
+                "] p95 [" + getPercentile(95) + "] p99 [" + getPercentile(99) + "] max [" + maxMs.get() + "] ms";
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.script;
+
+import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.common.util.ThingsBoardThreadFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single thread watching the CPU time of all running sandboxed invocations.
+ * Replaces the per invocation monitor of the sandbox, so scripts are executed in the calling thread.
+ * The thread exceeding the limit is interrupted, the loops of sandboxed scripts check the interrupted flag.
+ */
+@Slf4j
+class NashornCpuTimeMonitor {
+
+    private final long maxCpuTimeNs;
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final boolean cpuTimeSupported;
+    private final Set<Invocation> invocations = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler;
+
+    NashornCpuTimeMonitor(long maxCpuTimeMs) {
+        this.maxCpuTimeNs = TimeUnit.MILLISECONDS.toNanos(maxCpuTimeMs);
+        this.cpuTimeSupported = threadBean.isThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled();
+        if (!cpuTimeSupported) {
+            log.warn("Thread CPU time is not supported by the JVM, wall clock time is used to limit JS execution");
+        }
+        long checkIntervalMs = Math.max(1, Math.min(100, maxCpuTimeMs / 10));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(ThingsBoardThreadFactory.forName("nashorn-js-cpu-monitor"));
+        this.scheduler.scheduleWithFixedDelay(this::check, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    Invocation start() {
+        Thread thread = Thread.currentThread();
+        Invocation invocation = new Invocation(thread, cpuTimeSupported ? threadBean.getCurrentThreadCpuTime() : System.nanoTime());
+        invocations.add(invocation);
+        return invocation;
+    }
+
+    void finish(Invocation invocation) {
+        invocations.remove(invocation);
+        if (invocation.finish()) {
+            // Clears the flag, so it doesn't affect the next task of the thread
+            Thread.interrupted();
+        }
+    }
+
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    private void check() {
+        for (Invocation invocation : invocations) {
+            long time = cpuTimeSupported ? threadBean.getThreadCpuTime(invocation.thread.getId()) : System.nanoTime();
+            if (time - invocation.startTime > maxCpuTimeNs) {
+                invocation.interrupt();
+            }
+        }
+    }
+
+    static class Invocation {
+        private final Thread thread;
+        private final long startTime;
+        private boolean finished;
+        private volatile boolean interrupted;
+
+        private Invocation(Thread thread, long startTime) {
+            this.thread = thread;
+            this.startTime = startTime;
+        }
+
+        boolean isInterrupted() {
+            return interrupted;
+        }
+
+        private synchronized void interrupt() {
+            if (!finished && !interrupted) {
+                interrupted = true;
+                thread.interrupt();
+            }
+        }
+
+        private synchronized boolean finish() {
+            finished = true;
+            return interrupted;
+        }
+    }
+}
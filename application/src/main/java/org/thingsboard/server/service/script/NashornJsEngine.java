@@ -0,0 +1,203 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.script;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import delight.nashornsandbox.NashornSandbox;
+import delight.nashornsandbox.NashornSandboxes;
+import jdk.nashorn.api.scripting.NashornScriptEngineFactory;
+import jdk.nashorn.api.scripting.ScriptObjectMirror;
+
+import javax.script.Compilable;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Nashorn engine of the local JS invoke service pool. Must be used by a single thread at a time.
+ * Every script is compiled once per engine, the function object is kept and called directly.
+ * Map arguments are passed as native JS objects and results are converted to {@link JsonNode}
+ * following the JSON.stringify rules, so no JSON strings are built on the way in and out.
+ */
+class NashornJsEngine {
+
+    private static final int MAX_RESULT_DEPTH = 512;
+    private static final long MAX_SAFE_LONG = 1L << 53;
+
+    private final NashornSandbox sandbox;
+    private final ScriptEngine engine;
+    private final Map<UUID, ScriptObjectMirror> functions = new ConcurrentHashMap<>();
+    private ScriptObjectMirror objectConstructor;
+
+    private NashornJsEngine(NashornSandbox sandbox, ScriptEngine engine) {
+        this.sandbox = sandbox;
+        this.engine = engine;
+    }
+
+    static NashornJsEngine create() {
+        NashornScriptEngineFactory factory = new NashornScriptEngineFactory();
+        return new NashornJsEngine(null, factory.getScriptEngine(new String[]{"--no-java"}));
+    }
+
+    /**
+     * The sandbox has no CPU time limit set, so it runs scripts in the calling thread.
+     * Loops of the sandboxed scripts still check the thread interrupted flag, see {@link NashornCpuTimeMonitor}.
+     */
+    static NashornJsEngine createSandboxed() {
+        NashornSandbox sandbox = NashornSandboxes.create();
+        sandbox.allowNoBraces(false);
+        sandbox.allowLoadFunctions(true);
+        sandbox.setMaxPreparedStatements(30);
+        return new NashornJsEngine(sandbox, null);
+    }
+
+    boolean isCompiled(UUID scriptId) {
+        return functions.containsKey(scriptId);
+    }
+
+    void compile(UUID scriptId, String functionName, String jsScript) throws ScriptException {
+        ScriptObjectMirror function;
+        if (sandbox != null) {
+            sandbox.eval(jsScript);
+            function = (ScriptObjectMirror) sandbox.get(functionName);
+            sandbox.eval(functionName + " = undefined;");
+        } else {
+            ((Compilable) engine).compile(jsScript).eval();
+            function = (ScriptObjectMirror) engine.get(functionName);
+            engine.put(functionName, null);
+        }
+        if (function == null || !function.isFunction()) {
+            throw new ScriptException("Function [" + functionName + "] is not defined by the script");
+        }
+        functions.put(scriptId, function);
+    }
+
+    JsonNode invoke(UUID scriptId, Object[] args) throws ScriptException {
+        ScriptObjectMirror function = functions.get(scriptId);
+        if (function == null) {
+            throw new ScriptException("No compiled script found for scriptId: [" + scriptId + "]!");
+        }
+        Object[] jsArgs = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            jsArgs[i] = args[i] instanceof Map ? toJsObject((Map<?, ?>) args[i]) : args[i];
+        }
+        return toJson(function.call(null, jsArgs), 0);
+    }
+
+    void release(UUID scriptId) {
+        functions.remove(scriptId);
+    }
+
+    private ScriptObjectMirror toJsObject(Map<?, ?> map) {
+        if (objectConstructor == null) {
+            objectConstructor = (ScriptObjectMirror) (sandbox != null ? sandbox.get("Object") : engine.get("Object"));
+        }
+        ScriptObjectMirror object = (ScriptObjectMirror) objectConstructor.newObject();
+        map.forEach((key, value) -> object.setMember(String.valueOf(key), value));
+        return object;
+    }
+
+    static JsonNode toJson(Object value) throws ScriptException {
+        return toJson(value, 0);
+    }
+
+    private static JsonNode toJson(Object value, int depth) throws ScriptException {
+        if (depth > MAX_RESULT_DEPTH) {
+            throw new ScriptException("Script result contains a circular structure or is nested too deep");
+        }
+        if (value == null || ScriptObjectMirror.isUndefined(value)) {
+            return NullNode.getInstance();
+        } else if (value instanceof CharSequence) {
+            return TextNode.valueOf(value.toString());
+        } else if (value instanceof Boolean) {
+            return BooleanNode.valueOf((Boolean) value);
+        } else if (value instanceof Number) {
+            return toJson((Number) value);
+        } else if (value instanceof ScriptObjectMirror) {
+            return toJson((ScriptObjectMirror) value, depth);
+        } else {
+            return TextNode.valueOf(value.toString());
+        }
+    }
+
+    private static JsonNode toJson(ScriptObjectMirror mirror, int depth) throws ScriptException {
+        if (mirror.isFunction()) {
+            return NullNode.getInstance();
+        }
+        if (isFunction(mirror.getMember("toJSON"))) {
+            return toJson(mirror.callMember("toJSON"), depth + 1);
+        }
+        switch (mirror.getClassName()) {
+            case "Number":
+            case "String":
+            case "Boolean":
+                return toJson(mirror.callMember("valueOf"), depth + 1);
+        }
+        if (mirror.isArray()) {
+            ArrayNode array = JsonNodeFactory.instance.arrayNode();
+            int length = ((Number) mirror.getMember("length")).intValue();
+            for (int i = 0; i < length; i++) {
+                Object element = mirror.getSlot(i);
+                array.add(isSkipped(element) ? NullNode.getInstance() : toJson(element, depth + 1));
+            }
+            return array;
+        }
+        ObjectNode object = JsonNodeFactory.instance.objectNode();
+        // getMember keeps undefined values, the Map methods of the mirror translate them to null
+        for (String key : mirror.keySet()) {
+            Object value = mirror.getMember(key);
+            if (!isSkipped(value)) {
+                object.set(key, toJson(value, depth + 1));
+            }
+        }
+        return object;
+    }
+
+    private static JsonNode toJson(Number number) {
+        if (number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            return IntNode.valueOf(number.intValue());
+        }
+        double value = number.doubleValue();
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return NullNode.getInstance();
+        }
+        // JSON.stringify prints integral numbers without the fraction part
+        if (number instanceof Long || (value == Math.rint(value) && Math.abs(value) <= MAX_SAFE_LONG)) {
+            long longValue = number.longValue();
+            return longValue == (int) longValue ? IntNode.valueOf((int) longValue) : LongNode.valueOf(longValue);
+        }
+        return DoubleNode.valueOf(value);
+    }
+
+    private static boolean isSkipped(Object value) {
+        return ScriptObjectMirror.isUndefined(value) || isFunction(value);
+    }
+
+    private static boolean isFunction(Object value) {
+        return value instanceof ScriptObjectMirror && ((ScriptObjectMirror) value).isFunction();
+    }
+}
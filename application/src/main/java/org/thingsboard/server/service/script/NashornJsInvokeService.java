@@ -28,8 +28,8 @@ public class NashornJsInvokeService extends AbstractNashornJsInvokeService {
     @Value("${js.local.use_js_sandbox}")
     private boolean useJsSandbox;
 
-    @Value("${js.local.monitor_thread_pool_size}")
-    private int monitorThreadPoolSize;
+    @Value("${js.local.engine_pool_size:0}")
+    private int enginePoolSize;
 
     @Value("${js.local.max_cpu_time}")
     private long maxCpuTime;
@@ -43,8 +43,8 @@ public class NashornJsInvokeService extends AbstractNashornJsInvokeService {
     }
 
     @Override
-    protected int getMonitorThreadPoolSize() {
-        return monitorThreadPoolSize;
+    protected int getEnginePoolSize() {
+        return enginePoolSize;
     }
 
     @Override
@@ -15,10 +15,14 @@
  */
 package org.thingsboard.server.service.script;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +30,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.thingsboard.common.util.MetricsTags;
+import org.thingsboard.common.util.StatsCounter;
+import org.thingsboard.common.util.ThingsBoardThreadFactory;
 import org.thingsboard.server.gen.js.JsInvokeProtos;
 import org.thingsboard.server.kafka.TBKafkaConsumerTemplate;
 import org.thingsboard.server.kafka.TBKafkaProducerTemplate;
@@ -36,23 +43,33 @@ import org.thingsboard.server.kafka.TbNodeIdProvider;
 import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @ConditionalOnProperty(prefix = "js", value = "evaluator", havingValue = "remote", matchIfMissing = true)
 @Service
 public class RemoteJsInvokeService extends AbstractJsInvokeService {
 
+    private static final ObjectMapper mapper = new ObjectMapper();
+
     @Autowired
     private TbNodeIdProvider nodeIdProvider;
 
     @Autowired
     private TbKafkaSettings kafkaSettings;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${js.remote.request_topic}")
     private String requestTopic;
 
@@ -75,35 +92,64 @@ public class RemoteJsInvokeService extends AbstractJsInvokeService {
     @Value("${js.remote.max_errors}")
     private int maxErrors;
 
+    @Value("${js.remote.batch.enabled:false}")
+    private boolean batchEnabled;
+
+    @Value("${js.remote.batch.linger_ms:5}")
+    private long batchLingerMs;
+
+    @Value("${js.remote.batch.max_size:100}")
+    private int batchMaxSize;
+
+    @Value("${js.remote.partition_by_script_id:false}")
+    private boolean partitionByScriptId;
+
     @Value("${js.remote.stats.enabled:false}")
     private boolean statsEnabled;
 
-    private final AtomicInteger kafkaPushedMsgs = new AtomicInteger(0);
-    private final AtomicInteger kafkaInvokeMsgs = new AtomicInteger(0);
-    private final AtomicInteger kafkaEvalMsgs = new AtomicInteger(0);
-    private final AtomicInteger kafkaFailedMsgs = new AtomicInteger(0);
-    private final AtomicInteger kafkaTimeoutMsgs = new AtomicInteger(0);
+    private StatsCounter kafkaPushedMsgs;
+    private StatsCounter kafkaInvokeMsgs;
+    private StatsCounter kafkaEvalMsgs;
+    private StatsCounter kafkaFailedMsgs;
+    private StatsCounter kafkaTimeoutMsgs;
+    private Timer invokeTimer;
+    private final ConcurrentMap<UUID, JsInvokeLatencyHistogram> invokeLatencies = new ConcurrentHashMap<>();
 
     @Scheduled(fixedDelayString = "${js.remote.stats.print_interval_ms}")
     public void printStats() {
         if (statsEnabled) {
-            int pushedMsgs = kafkaPushedMsgs.getAndSet(0);
-            int invokeMsgs = kafkaInvokeMsgs.getAndSet(0);
-            int evalMsgs = kafkaEvalMsgs.getAndSet(0);
-            int failed = kafkaFailedMsgs.getAndSet(0);
-            int timedOut = kafkaTimeoutMsgs.getAndSet(0);
+            int pushedMsgs = kafkaPushedMsgs.getAndReset();
+            int invokeMsgs = kafkaInvokeMsgs.getAndReset();
+            int evalMsgs = kafkaEvalMsgs.getAndReset();
+            int failed = kafkaFailedMsgs.getAndReset();
+            int timedOut = kafkaTimeoutMsgs.getAndReset();
             if (pushedMsgs > 0 || invokeMsgs > 0 || evalMsgs > 0 || failed > 0 || timedOut > 0) {
                 log.info("Kafka JS Invoke Stats: pushed [{}] received [{}] invoke [{}] eval [{}] failed [{}] timedOut [{}]",
                         pushedMsgs, invokeMsgs + evalMsgs, invokeMsgs, evalMsgs, failed, timedOut);
             }
+            for (UUID scriptId : invokeLatencies.keySet()) {
+                JsInvokeLatencyHistogram latencies = invokeLatencies.remove(scriptId);
+                if (latencies != null && latencies.getCount() > 0) {
+                    log.info("[{}] Kafka JS Invoke Latency: {}", scriptId, latencies);
+                }
+            }
         }
     }
 
     private TbKafkaRequestTemplate<JsInvokeProtos.RemoteJsRequest, JsInvokeProtos.RemoteJsResponse> kafkaTemplate;
     private Map<UUID, String> scriptIdToBodysMap = new ConcurrentHashMap<>();
+    private ScheduledExecutorService batchScheduler;
+    private JsInvokeBatcher batcher;
 
     @PostConstruct
     public void init() {
+        kafkaPushedMsgs = new StatsCounter(meterRegistry, "tb.js.pushed", MetricsTags.EXECUTOR, "remote");
+        kafkaInvokeMsgs = new StatsCounter(meterRegistry, "tb.js.invoke", MetricsTags.EXECUTOR, "remote");
+        kafkaEvalMsgs = new StatsCounter(meterRegistry, "tb.js.eval", MetricsTags.EXECUTOR, "remote");
+        kafkaFailedMsgs = new StatsCounter(meterRegistry, "tb.js.failed", MetricsTags.EXECUTOR, "remote");
+        kafkaTimeoutMsgs = new StatsCounter(meterRegistry, "tb.js.timeout", MetricsTags.EXECUTOR, "remote");
+        invokeTimer = meterRegistry.timer("tb.js.invoke.latency", MetricsTags.EXECUTOR, "remote");
+
         TBKafkaProducerTemplate.TBKafkaProducerTemplateBuilder<JsInvokeProtos.RemoteJsRequest> requestBuilder = TBKafkaProducerTemplate.builder();
         requestBuilder.settings(kafkaSettings);
         requestBuilder.clientId("producer-js-invoke-" + nodeIdProvider.getNodeId());
@@ -129,6 +175,11 @@ public class RemoteJsInvokeService extends AbstractJsInvokeService {
         builder.pollInterval(responsePollDuration);
         kafkaTemplate = builder.build();
         kafkaTemplate.init();
+
+        if (batchEnabled) {
+            batchScheduler = Executors.newSingleThreadScheduledExecutor(ThingsBoardThreadFactory.forName("remote-js-batch"));
+            batcher = new JsInvokeBatcher(batchScheduler, batchLingerMs, batchMaxSize, this::sendBatch);
+        }
     }
 
     @PreDestroy
@@ -136,6 +187,9 @@ public class RemoteJsInvokeService extends AbstractJsInvokeService {
         if (kafkaTemplate != null) {
             kafkaTemplate.stop();
         }
+        if (batchScheduler != null) {
+            batchScheduler.shutdownNow();
+        }
     }
 
     @Override
@@ -152,19 +206,19 @@ public class RemoteJsInvokeService extends AbstractJsInvokeService {
 
         log.trace("Post compile request for scriptId [{}]", scriptId);
         ListenableFuture<JsInvokeProtos.RemoteJsResponse> future = kafkaTemplate.post(UUID.randomUUID().toString(), jsRequestWrapper);
-        kafkaPushedMsgs.incrementAndGet();
+        kafkaPushedMsgs.increment();
         Futures.addCallback(future, new FutureCallback<JsInvokeProtos.RemoteJsResponse>() {
             @Override
             public void onSuccess(@Nullable JsInvokeProtos.RemoteJsResponse result) {
-                kafkaEvalMsgs.incrementAndGet();
+                kafkaEvalMsgs.increment();
             }
 
             @Override
             public void onFailure(Throwable t) {
                 if (t instanceof TimeoutException || (t.getCause() != null && t.getCause() instanceof TimeoutException)) {
-                    kafkaTimeoutMsgs.incrementAndGet();
+                    kafkaTimeoutMsgs.increment();
                 }
-                kafkaFailedMsgs.incrementAndGet();
+                kafkaFailedMsgs.increment();
             }
         }, MoreExecutors.directExecutor());
         return Futures.transform(future, response -> {
@@ -187,39 +241,49 @@ public class RemoteJsInvokeService extends AbstractJsInvokeService {
         if (scriptBody == null) {
             return Futures.immediateFailedFuture(new RuntimeException("No script body found for scriptId: [" + scriptId + "]!"));
         }
-        JsInvokeProtos.JsInvokeRequest.Builder jsRequestBuilder = JsInvokeProtos.JsInvokeRequest.newBuilder()
-                .setScriptIdMSB(scriptId.getMostSignificantBits())
-                .setScriptIdLSB(scriptId.getLeastSignificantBits())
-                .setFunctionName(functionName)
-                .setTimeout((int) maxRequestsTimeout)
-                .setScriptBody(scriptIdToBodysMap.get(scriptId));
-
-        for (int i = 0; i < args.length; i++) {
-            jsRequestBuilder.addArgs(args[i].toString());
+        List<String> jsArgs = new ArrayList<>(args.length);
+        for (Object arg : args) {
+            jsArgs.add(arg instanceof Map ? toJson(arg) : arg.toString());
         }
 
-        JsInvokeProtos.RemoteJsRequest jsRequestWrapper = JsInvokeProtos.RemoteJsRequest.newBuilder()
-                .setInvokeRequest(jsRequestBuilder.build())
-                .build();
-
-        ListenableFuture<JsInvokeProtos.RemoteJsResponse> future = kafkaTemplate.post(UUID.randomUUID().toString(), jsRequestWrapper);
-        kafkaPushedMsgs.incrementAndGet();
-        Futures.addCallback(future, new FutureCallback<JsInvokeProtos.RemoteJsResponse>() {
+        long startTs = System.currentTimeMillis();
+        ListenableFuture<JsInvokeProtos.JsInvokeResponse> future;
+        if (batcher != null) {
+            future = batcher.add(scriptId, functionName, jsArgs);
+        } else {
+            JsInvokeProtos.JsInvokeRequest.Builder jsRequestBuilder = JsInvokeProtos.JsInvokeRequest.newBuilder()
+                    .setScriptIdMSB(scriptId.getMostSignificantBits())
+                    .setScriptIdLSB(scriptId.getLeastSignificantBits())
+                    .setFunctionName(functionName)
+                    .setTimeout((int) maxRequestsTimeout)
+                    .setScriptBody(scriptBody)
+                    .addAllArgs(jsArgs);
+
+            JsInvokeProtos.RemoteJsRequest jsRequestWrapper = JsInvokeProtos.RemoteJsRequest.newBuilder()
+                    .setInvokeRequest(jsRequestBuilder.build())
+                    .build();
+
+            future = Futures.transform(kafkaTemplate.post(getRequestKey(scriptId), jsRequestWrapper),
+                    JsInvokeProtos.RemoteJsResponse::getInvokeResponse, MoreExecutors.directExecutor());
+            kafkaPushedMsgs.increment();
+        }
+        Futures.addCallback(future, new FutureCallback<JsInvokeProtos.JsInvokeResponse>() {
             @Override
-            public void onSuccess(@Nullable JsInvokeProtos.RemoteJsResponse result) {
-                kafkaInvokeMsgs.incrementAndGet();
+            public void onSuccess(@Nullable JsInvokeProtos.JsInvokeResponse result) {
+                kafkaInvokeMsgs.increment();
+                recordLatency(scriptId, startTs);
             }
 
             @Override
             public void onFailure(Throwable t) {
                 if (t instanceof TimeoutException || (t.getCause() != null && t.getCause() instanceof TimeoutException)) {
-                    kafkaTimeoutMsgs.incrementAndGet();
+                    kafkaTimeoutMsgs.increment();
                 }
-                kafkaFailedMsgs.incrementAndGet();
+                kafkaFailedMsgs.increment();
+                recordLatency(scriptId, startTs);
             }
         }, MoreExecutors.directExecutor());
-        return Futures.transform(future, response -> {
-            JsInvokeProtos.JsInvokeResponse invokeResult = response.getInvokeResponse();
+        return Futures.transform(future, invokeResult -> {
             if (invokeResult.getSuccess()) {
                 return invokeResult.getResult();
             } else {
@@ -229,8 +293,48 @@ public class RemoteJsInvokeService extends AbstractJsInvokeService {
         }, MoreExecutors.directExecutor());
     }
 
+    private ListenableFuture<List<JsInvokeProtos.JsInvokeResponse>> sendBatch(JsInvokeBatcher.Batch batch) {
+        UUID scriptId = batch.getScriptId();
+        String scriptBody = scriptIdToBodysMap.get(scriptId);
+        if (scriptBody == null) {
+            return Futures.immediateFailedFuture(new RuntimeException("No script body found for scriptId: [" + scriptId + "]!"));
+        }
+        JsInvokeProtos.JsInvokeBatchRequest jsRequest = JsInvokeProtos.JsInvokeBatchRequest.newBuilder()
+                .setScriptIdMSB(scriptId.getMostSignificantBits())
+                .setScriptIdLSB(scriptId.getLeastSignificantBits())
+                .setFunctionName(batch.getFunctionName())
+                .setTimeout((int) maxRequestsTimeout)
+                .setScriptBody(scriptBody)
+                .addAllInvocations(batch.getInvocations())
+                .build();
+
+        JsInvokeProtos.RemoteJsRequest jsRequestWrapper = JsInvokeProtos.RemoteJsRequest.newBuilder()
+                .setInvokeBatchRequest(jsRequest)
+                .build();
+
+        kafkaPushedMsgs.increment();
+        return Futures.transform(kafkaTemplate.post(getRequestKey(scriptId), jsRequestWrapper),
+                response -> response.getInvokeBatchResponse().getResponsesList(), MoreExecutors.directExecutor());
+    }
+
+    private String getRequestKey(UUID scriptId) {
+        // Requests with the same key go to the same partition and so to the same JS executor
+        return partitionByScriptId ? scriptId.toString() : UUID.randomUUID().toString();
+    }
+
+    private void recordLatency(UUID scriptId, long startTs) {
+        long latency = System.currentTimeMillis() - startTs;
+        invokeTimer.record(latency, TimeUnit.MILLISECONDS);
+        if (statsEnabled) {
+            invokeLatencies.computeIfAbsent(scriptId, id -> new JsInvokeLatencyHistogram()).record(latency);
+        }
+    }
+
     @Override
     protected void doRelease(UUID scriptId, String functionName) throws Exception {
+        if (batcher != null) {
+            batcher.release(scriptId);
+        }
         JsInvokeProtos.JsReleaseRequest jsRequest = JsInvokeProtos.JsReleaseRequest.newBuilder()
                 .setScriptIdMSB(scriptId.getMostSignificantBits())
                 .setScriptIdLSB(scriptId.getLeastSignificantBits())
@@ -252,4 +356,12 @@ public class RemoteJsInvokeService extends AbstractJsInvokeService {
         }
     }
 
+    private static String toJson(Object arg) {
+        try {
+            return mapper.writeValueAsString(arg);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot bind js args", e);
+        }
+    }
+
 }
@@ -29,6 +29,7 @@ import org.thingsboard.server.common.msg.TbMsg;
 import org.thingsboard.server.common.msg.TbMsgMetaData;
 
 import javax.script.ScriptException;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
@@ -59,15 +60,16 @@ public class RuleNodeJsScriptEngine implements org.thingsboard.rule.engine.api.S
         }
     }
 
-    private static String[] prepareArgs(TbMsg msg) {
+    private static Object[] prepareArgs(TbMsg msg) {
         try {
-            String[] args = new String[3];
+            Object[] args = new Object[3];
             if (msg.getData() != null) {
                 args[0] = msg.getData();
             } else {
                 args[0] = "";
             }
-            args[1] = mapper.writeValueAsString(msg.getMetaData().getData());
+            // Metadata is copy-on-write, the copy is a snapshot that is not affected by the later updates
+            args[1] = msg.getMetaData().copy().getData();
             args[2] = msg.getType();
             return args;
         } catch (Throwable th) {
@@ -202,9 +204,8 @@ public class RuleNodeJsScriptEngine implements org.thingsboard.rule.engine.api.S
 
     private JsonNode executeScript(TbMsg msg) throws ScriptException {
         try {
-            String[] inArgs = prepareArgs(msg);
-            String eval = sandboxService.invokeFunction(this.scriptId, inArgs[0], inArgs[1], inArgs[2]).get().toString();
-            return mapper.readTree(eval);
+            Object[] inArgs = prepareArgs(msg);
+            return toJsonNode(sandboxService.invokeFunction(this.scriptId, inArgs).get());
         } catch (ExecutionException e) {
             if (e.getCause() instanceof ScriptException) {
                 throw (ScriptException) e.getCause();
@@ -219,11 +220,11 @@ public class RuleNodeJsScriptEngine implements org.thingsboard.rule.engine.api.S
     }
 
     private ListenableFuture<JsonNode> executeScriptAsync(TbMsg msg) {
-        String[] inArgs = prepareArgs(msg);
-        return Futures.transformAsync(sandboxService.invokeFunction(this.scriptId, inArgs[0], inArgs[1], inArgs[2]),
+        Object[] inArgs = prepareArgs(msg);
+        return Futures.transformAsync(sandboxService.invokeFunction(this.scriptId, inArgs),
                 o -> {
                     try {
-                        return Futures.immediateFuture(mapper.readTree(o.toString()));
+                        return Futures.immediateFuture(toJsonNode(o));
                     } catch (Exception e) {
                         if (e.getCause() instanceof ScriptException) {
                             return Futures.immediateFailedFuture(e.getCause());
@@ -236,6 +237,13 @@ public class RuleNodeJsScriptEngine implements org.thingsboard.rule.engine.api.S
                 }, MoreExecutors.directExecutor());
     }
 
+    private static JsonNode toJsonNode(Object result) throws IOException {
+        if (result instanceof JsonNode) {
+            return (JsonNode) result;
+        }
+        return mapper.readTree(result.toString());
+    }
+
     public void destroy() {
         sandboxService.release(this.scriptId);
     }
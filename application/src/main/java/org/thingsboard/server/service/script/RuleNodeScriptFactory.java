@@ -27,11 +27,25 @@ public class RuleNodeScriptFactory {
             "    var metadata = JSON.parse(metadataStr); " +
             "    return JSON.stringify(%s(msg, metadata, msgType));" +
             "    function %s(%s, %s, %s) {";
+    // Local engines pass metadata as a native object and convert the returned value without JSON.stringify
+    private static final String LOCAL_JS_WRAPPER_PREFIX_TEMPLATE = "function %s(msgStr, metadata, msgType) { " +
+            "    var msg = JSON.parse(msgStr); " +
+            "    if (typeof metadata === 'string') { metadata = JSON.parse(metadata); } " +
+            "    return %s(msg, metadata, msgType);" +
+            "    function %s(%s, %s, %s) {";
     private static final String JS_WRAPPER_SUFFIX = "\n}" +
             "\n}";
 
 
     public static String generateRuleNodeScript(String functionName, String scriptBody, String... argNames) {
+        return generateRuleNodeScript(JS_WRAPPER_PREFIX_TEMPLATE, functionName, scriptBody, argNames);
+    }
+
+    public static String generateLocalRuleNodeScript(String functionName, String scriptBody, String... argNames) {
+        return generateRuleNodeScript(LOCAL_JS_WRAPPER_PREFIX_TEMPLATE, functionName, scriptBody, argNames);
+    }
+
+    private static String generateRuleNodeScript(String template, String functionName, String scriptBody, String... argNames) {
         String msgArg;
         String metadataArg;
         String msgTypeArg;
@@ -44,7 +58,7 @@ public class RuleNodeScriptFactory {
             metadataArg = METADATA;
             msgTypeArg = MSG_TYPE;
         }
-        String jsWrapperPrefix = String.format(JS_WRAPPER_PREFIX_TEMPLATE, functionName,
+        String jsWrapperPrefix = String.format(template, functionName,
                 RULE_NODE_FUNCTION_NAME, RULE_NODE_FUNCTION_NAME, msgArg, metadataArg, msgTypeArg);
         return jsWrapperPrefix + scriptBody + JS_WRAPPER_SUFFIX;
     }
@@ -0,0 +1,146 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.security.model.token;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thingsboard.server.common.data.id.UserId;
+import org.thingsboard.server.config.JwtSettings;
+import org.thingsboard.server.service.security.model.SecurityUser;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps users of the verified access tokens until the token expiration, so requests with a known token
+ * skip the signature check and the claims parsing.
+ * Also keeps the revoked tokens: tokens passed on logout and tokens of the users whose credentials were changed.
+ * Revocations are local to this node and are kept for the access token lifetime.
+ */
+@Component
+public class JwtTokenCache {
+
+    @Value("${security.jwt.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${security.jwt.cache.max_size:10000}")
+    private long maxSize;
+
+    @Autowired
+    private JwtSettings settings;
+
+    private Cache<String, VerifiedToken> verifiedTokens;
+    private Cache<String, Boolean> revokedTokens;
+    private Cache<UserId, Long> userRevocations;
+
+    @PostConstruct
+    public void init() {
+        if (cacheEnabled) {
+            verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfter(new Expiry<String, VerifiedToken>() {
+                        @Override
+                        public long expireAfterCreate(String token, VerifiedToken value, long currentTime) {
+                            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.getExpirationTime() - System.currentTimeMillis()));
+                        }
+
+                        @Override
+                        public long expireAfterUpdate(String token, VerifiedToken value, long currentTime, long currentDuration) {
+                            return expireAfterCreate(token, value, currentTime);
+                        }
+
+                        @Override
+                        public long expireAfterRead(String token, VerifiedToken value, long currentTime, long currentDuration) {
+                            return currentDuration;
+                        }
+                    })
+                    .build();
+        }
+        long tokenLifetimeMs = TimeUnit.SECONDS.toMillis(settings.getTokenExpirationTime());
+        revokedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(tokenLifetimeMs, TimeUnit.MILLISECONDS)
+                .build();
+        userRevocations = Caffeine.newBuilder()
+                .expireAfterWrite(tokenLifetimeMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Returns the user of the verified token or null if the token is unknown, expired or revoked.
+     */
+    public SecurityUser get(String token) {
+        if (verifiedTokens == null) {
+            return null;
+        }
+        VerifiedToken verifiedToken = verifiedTokens.getIfPresent(token);
+        if (verifiedToken == null) {
+            return null;
+        }
+        SecurityUser securityUser = verifiedToken.getSecurityUser();
+        if (verifiedToken.getExpirationTime() <= System.currentTimeMillis()
+                || isRevoked(token, securityUser.getId(), verifiedToken.getIssuedAt())) {
+            verifiedTokens.invalidate(token);
+            return null;
+        }
+        return securityUser;
+    }
+
+    public void put(String token, SecurityUser securityUser, long issuedAt, long expirationTime) {
+        if (verifiedTokens != null) {
+            verifiedTokens.put(token, new VerifiedToken(securityUser, issuedAt, expirationTime));
+        }
+    }
+
+    public boolean isRevoked(String token, UserId userId, long issuedAt) {
+        if (revokedTokens.getIfPresent(token) != null) {
+            return true;
+        }
+        Long revokedBefore = userRevocations.getIfPresent(userId);
+        return revokedBefore != null && issuedAt < revokedBefore;
+    }
+
+    public void revokeToken(String token) {
+        revokedTokens.put(token, Boolean.TRUE);
+        if (verifiedTokens != null) {
+            verifiedTokens.invalidate(token);
+        }
+    }
+
+    /**
+     * Revokes all the tokens of the user issued before the current second.
+     * Token issue time has a second precision, so tokens issued right after the revocation stay valid.
+     */
+    public void revokeUserTokens(UserId userId) {
+        long now = System.currentTimeMillis();
+        userRevocations.put(userId, now - now % 1000);
+        if (verifiedTokens != null) {
+            verifiedTokens.asMap().values().removeIf(verifiedToken -> verifiedToken.getSecurityUser().getId().equals(userId));
+        }
+    }
+
+    @Data
+    private static class VerifiedToken {
+        private final SecurityUser securityUser;
+        private final long issuedAt;
+        private final long expirationTime;
+    }
+}
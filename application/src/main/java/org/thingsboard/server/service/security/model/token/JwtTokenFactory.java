@@ -28,6 +28,7 @@ import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.id.UserId;
 import org.thingsboard.server.common.data.security.Authority;
 import org.thingsboard.server.config.JwtSettings;
+import org.thingsboard.server.service.security.exception.JwtExpiredTokenException;
 import org.thingsboard.server.service.security.model.SecurityUser;
 import org.thingsboard.server.service.security.model.UserPrincipal;
 
@@ -51,10 +52,12 @@ public class JwtTokenFactory {
     private static final String CUSTOMER_ID = "customerId";
 
     private final JwtSettings settings;
+    private final JwtTokenCache tokenCache;
 
     @Autowired
-    public JwtTokenFactory(JwtSettings settings) {
+    public JwtTokenFactory(JwtSettings settings, JwtTokenCache tokenCache) {
         this.settings = settings;
+        this.tokenCache = tokenCache;
     }
 
     /**
@@ -88,6 +91,7 @@ public class JwtTokenFactory {
         String token = Jwts.builder()
                 .setClaims(claims)
                 .setIssuer(settings.getTokenIssuer())
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(Date.from(currentTime.toInstant()))
                 .setExpiration(Date.from(currentTime.plusSeconds(settings.getTokenExpirationTime()).toInstant()))
                 .signWith(SignatureAlgorithm.HS512, settings.getTokenSigningKey())
@@ -96,9 +100,31 @@ public class JwtTokenFactory {
         return new AccessJwtToken(token, claims);
     }
 
+    /**
+     * Returns the user of the access token. Verified tokens are taken from the {@link JwtTokenCache}
+     * and are not parsed again until they expire or get revoked.
+     *
+     * @throws JwtExpiredTokenException if the token is expired or revoked
+     */
     public SecurityUser parseAccessJwtToken(RawAccessJwtToken rawAccessToken) {
-        Jws<Claims> jwsClaims = rawAccessToken.parseClaims(settings.getTokenSigningKey());
-        Claims claims = jwsClaims.getBody();
+        String token = rawAccessToken.getToken();
+        SecurityUser securityUser = tokenCache.get(token);
+        if (securityUser == null) {
+            Jws<Claims> jwsClaims = rawAccessToken.parseClaims(settings.getTokenSigningKey());
+            Claims claims = jwsClaims.getBody();
+            securityUser = toSecurityUser(claims);
+            long issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+            if (tokenCache.isRevoked(token, securityUser.getId(), issuedAt)) {
+                throw new JwtExpiredTokenException(rawAccessToken, "JWT Token revoked", null);
+            }
+            if (claims.getExpiration() != null) {
+                tokenCache.put(token, securityUser, issuedAt, claims.getExpiration().getTime());
+            }
+        }
+        return securityUser;
+    }
+
+    private SecurityUser toSecurityUser(Claims claims) {
         String subject = claims.getSubject();
         List<String> scopes = claims.get(SCOPES, List.class);
         if (scopes == null || scopes.isEmpty()) {
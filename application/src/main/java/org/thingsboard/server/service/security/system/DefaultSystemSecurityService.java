@@ -47,6 +47,7 @@ import org.thingsboard.server.dao.settings.AdminSettingsService;
 import org.thingsboard.server.dao.user.UserService;
 import org.thingsboard.server.dao.user.UserServiceImpl;
 import org.thingsboard.server.service.security.exception.UserPasswordExpiredException;
+import org.thingsboard.server.service.security.model.token.JwtTokenCache;
 import org.thingsboard.server.common.data.security.model.SecuritySettings;
 import org.thingsboard.server.common.data.security.model.UserPasswordPolicy;
 
@@ -76,6 +77,9 @@ public class DefaultSystemSecurityService implements SystemSecurityService {
     @Autowired
     private MailService mailService;
 
+    @Autowired
+    private JwtTokenCache tokenCache;
+
     @Resource
     private SystemSecurityService self;
 
@@ -123,6 +127,7 @@ public class DefaultSystemSecurityService implements SystemSecurityService {
             if (securitySettings.getMaxFailedLoginAttempts() != null && securitySettings.getMaxFailedLoginAttempts() > 0) {
                 if (failedLoginAttempts > securitySettings.getMaxFailedLoginAttempts() && userCredentials.isEnabled()) {
                     userService.setUserCredentialsEnabled(TenantId.SYS_TENANT_ID, userCredentials.getUserId(), false);
+                    tokenCache.revokeUserTokens(userCredentials.getUserId());
                     if (StringUtils.isNoneBlank(securitySettings.getUserLockoutNotificationEmail())) {
                         try {
                             mailService.sendAccountLockoutEmail(username, securitySettings.getUserLockoutNotificationEmail(), securitySettings.getMaxFailedLoginAttempts());
@@ -146,6 +146,8 @@ public class DefaultDeviceStateService implements DeviceStateService {
     private int initFetchPackSize;
 
     private volatile boolean clusterUpdatePending = false;
+    private volatile boolean rebalanceAllDevices = false;
+    private final Set<Integer> pendingMovedPartitions = ConcurrentHashMap.newKeySet();
 
     private ListeningScheduledExecutorService queueExecutor;
     private ConcurrentMap<TenantId, Set<DeviceId>> tenantDevices = new ConcurrentHashMap<>();
@@ -207,6 +209,12 @@ public class DefaultDeviceStateService implements DeviceStateService {
 
     @Override
     public void onClusterUpdate() {
+        Optional<Set<Integer>> movedPartitions = routingService.getMovedPartitions();
+        if (movedPartitions.isPresent()) {
+            pendingMovedPartitions.addAll(movedPartitions.get());
+        } else {
+            rebalanceAllDevices = true;
+        }
         if (!clusterUpdatePending) {
             clusterUpdatePending = true;
             queueExecutor.submit(this::onClusterUpdateSync);
@@ -239,6 +247,13 @@ public class DefaultDeviceStateService implements DeviceStateService {
 
     private void onClusterUpdateSync() {
         clusterUpdatePending = false;
+        boolean allDevices = rebalanceAllDevices;
+        rebalanceAllDevices = false;
+        Set<Integer> movedPartitions = new HashSet<>(pendingMovedPartitions);
+        pendingMovedPartitions.removeAll(movedPartitions);
+        if (!allDevices && movedPartitions.isEmpty()) {
+            return;
+        }
         List<Tenant> tenants = tenantService.findTenants(new TextPageLink(Integer.MAX_VALUE)).getData();
         for (Tenant tenant : tenants) {
             List<ListenableFuture<DeviceStateData>> fetchFutures = new ArrayList<>();
@@ -247,6 +262,9 @@ public class DefaultDeviceStateService implements DeviceStateService {
                 TextPageData<Device> page = deviceService.findDevicesByTenantId(tenant.getId(), pageLink);
                 pageLink = page.getNextPageLink();
                 for (Device device : page.getData()) {
+                    if (!allDevices && !movedPartitions.contains(routingService.resolvePartition(device.getId()))) {
+                        continue;
+                    }
                     if (!routingService.resolveById(device.getId()).isPresent()) {
                         if (!deviceStates.containsKey(device.getId())) {
                             fetchFutures.add(fetchDeviceState(device));
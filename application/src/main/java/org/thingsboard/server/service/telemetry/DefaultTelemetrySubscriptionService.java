@@ -18,6 +18,7 @@ package org.thingsboard.server.service.telemetry;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.InvalidProtocolBufferException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +27,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.thingsboard.common.util.DonAsynchron;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
+import org.thingsboard.rule.engine.api.RuleEngineEntityCache;
 import org.thingsboard.rule.engine.api.msg.DeviceAttributesEventNotificationMsg;
 import org.thingsboard.server.actors.service.ActorService;
 import org.thingsboard.server.common.data.DataConstants;
@@ -111,6 +113,9 @@ public class DefaultTelemetrySubscriptionService implements TelemetrySubscriptio
     @Autowired
     private EntityViewService entityViewService;
 
+    @Autowired
+    private RuleEngineEntityCache entityCache;
+
     @Autowired
     @Lazy
     private DeviceStateService stateService;
@@ -214,6 +219,7 @@ public class DefaultTelemetrySubscriptionService implements TelemetrySubscriptio
     @Override
     public void saveAndNotify(TenantId tenantId, EntityId entityId, String scope, List<AttributeKvEntry> attributes, FutureCallback<Void> callback) {
         ListenableFuture<List<Void>> saveFuture = attrService.save(tenantId, entityId, scope, attributes);
+        saveFuture.addListener(() -> entityCache.evict(entityId), MoreExecutors.directExecutor());
         addMainCallback(saveFuture, callback);
         addWsCallback(saveFuture, success -> onAttributesUpdate(entityId, scope, attributes));
     }
@@ -336,9 +342,16 @@ public class DefaultTelemetrySubscriptionService implements TelemetrySubscriptio
     @Override
     public void onClusterUpdate() {
         log.trace("Processing cluster onUpdate msg!");
+        Set<Integer> movedPartitions = routingService.getMovedPartitions().orElse(null);
+        if (movedPartitions != null && movedPartitions.isEmpty()) {
+            return;
+        }
         Iterator<Map.Entry<EntityId, Set<Subscription>>> deviceIterator = subscriptionsByEntityId.entrySet().iterator();
         while (deviceIterator.hasNext()) {
             Map.Entry<EntityId, Set<Subscription>> e = deviceIterator.next();
+            if (movedPartitions != null && !movedPartitions.contains(routingService.resolvePartition(e.getKey()))) {
+                continue;
+            }
             Set<Subscription> subscriptions = e.getValue();
             Optional<ServerAddress> newAddressOptional = routingService.resolveById(e.getKey());
             if (newAddressOptional.isPresent()) {
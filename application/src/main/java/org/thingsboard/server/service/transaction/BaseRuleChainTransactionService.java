@@ -15,9 +15,11 @@
  */
 package org.thingsboard.server.service.transaction;
 
+import com.google.common.util.concurrent.Striped;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
 import org.thingsboard.rule.engine.api.RuleChainTransactionService;
@@ -32,18 +34,18 @@ import org.thingsboard.server.service.executors.DbCallbackExecutorService;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.util.Optional;
-import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
 @Service
@@ -63,17 +65,29 @@ public class BaseRuleChainTransactionService implements RuleChainTransactionServ
     private int finalQueueSize;
     @Value("${actors.rule.transaction.duration}")
     private long duration;
+    @Value("${actors.rule.transaction.lock_stripes:1024}")
+    private int lockStripes;
+    @Value("${actors.rule.transaction.stats.enabled:false}")
+    private boolean statsEnabled;
 
-    private final Lock transactionLock = new ReentrantLock();
     private final ConcurrentMap<EntityId, BlockingQueue<TbTransactionTask>> transactionMap = new ConcurrentHashMap<>();
-    private final Queue<TbTransactionTask> timeoutQueue = new ConcurrentLinkedQueue<>();
 
-    private ExecutorService timeoutExecutor;
+    private final AtomicInteger queuedTasks = new AtomicInteger(0);
+    private final AtomicInteger startedTasks = new AtomicInteger(0);
+    private final AtomicLong startedTasksWaitTime = new AtomicLong(0);
+    private final AtomicLong maxWaitTime = new AtomicLong(0);
+    private final AtomicInteger expiredTasks = new AtomicInteger(0);
+    private final AtomicInteger rejectedTasks = new AtomicInteger(0);
+
+    private Striped<Lock> transactionLocks;
+    private ScheduledExecutorService timeoutExecutor;
 
     @PostConstruct
     public void init() {
-        timeoutExecutor = Executors.newSingleThreadExecutor(ThingsBoardThreadFactory.forName("rule-chain-transaction"));
-        executeOnTimeout();
+        transactionLocks = Striped.lock(lockStripes);
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, ThingsBoardThreadFactory.forName("rule-chain-transaction"));
+        executor.setRemoveOnCancelPolicy(true);
+        timeoutExecutor = executor;
     }
 
     @PreDestroy
@@ -85,26 +99,29 @@ public class BaseRuleChainTransactionService implements RuleChainTransactionServ
 
     @Override
     public void beginTransaction(TbMsg msg, Consumer<TbMsg> onStart, Consumer<TbMsg> onEnd, Consumer<Throwable> onFailure) {
-        transactionLock.lock();
+        EntityId originatorId = msg.getTransactionData().getOriginatorId();
+        Lock lock = transactionLocks.get(originatorId);
+        lock.lock();
         try {
-            BlockingQueue<TbTransactionTask> queue = transactionMap.computeIfAbsent(msg.getTransactionData().getOriginatorId(), id ->
+            BlockingQueue<TbTransactionTask> queue = transactionMap.computeIfAbsent(originatorId, id ->
                     new LinkedBlockingQueue<>(finalQueueSize));
 
-            TbTransactionTask transactionTask = new TbTransactionTask(msg, onStart, onEnd, onFailure, System.currentTimeMillis() + duration);
+            TbTransactionTask transactionTask = new TbTransactionTask(msg, onStart, onEnd, onFailure);
             int queueSize = queue.size();
             if (queueSize >= finalQueueSize) {
                 log.trace("Queue has no space: {}", transactionTask);
+                rejectedTasks.incrementAndGet();
                 executeOnFailure(transactionTask.getOnFailure(), "Queue has no space!");
             } else {
-                addMsgToQueues(queue, transactionTask);
+                addMsgToQueue(queue, transactionTask);
                 if (queueSize == 0) {
-                    executeOnSuccess(transactionTask.getOnStart(), transactionTask.getMsg());
+                    startTask(transactionTask);
                 } else {
                     log.trace("Msg [{}][{}] is waiting to start transaction!", msg.getId(), msg.getType());
                 }
             }
         } finally {
-            transactionLock.unlock();
+            lock.unlock();
         }
     }
 
@@ -126,31 +143,65 @@ public class BaseRuleChainTransactionService implements RuleChainTransactionServ
         });
     }
 
-    private void addMsgToQueues(BlockingQueue<TbTransactionTask> queue, TbTransactionTask transactionTask) {
+    @Scheduled(fixedDelayString = "${actors.rule.transaction.stats.print_interval_ms:10000}")
+    public void printStats() {
+        if (statsEnabled) {
+            int started = startedTasks.getAndSet(0);
+            long waitTime = startedTasksWaitTime.getAndSet(0);
+            log.info("Transactions: originators [{}] queued [{}] started [{}] avgWaitMs [{}] maxWaitMs [{}] expired [{}] rejected [{}]",
+                    transactionMap.size(), queuedTasks.get(), started, started > 0 ? waitTime / started : 0,
+                    maxWaitTime.getAndSet(0), expiredTasks.getAndSet(0), rejectedTasks.getAndSet(0));
+        }
+    }
+
+    private void addMsgToQueue(BlockingQueue<TbTransactionTask> queue, TbTransactionTask transactionTask) {
         queue.offer(transactionTask);
-        timeoutQueue.offer(transactionTask);
+        queuedTasks.incrementAndGet();
+        transactionTask.setTimeoutFuture(timeoutExecutor.schedule(() -> onTimeout(transactionTask), duration, TimeUnit.MILLISECONDS));
         log.trace("Added msg to queue, size: [{}]", queue.size());
     }
 
+    private void removeMsgFromQueue(EntityId originatorId, BlockingQueue<TbTransactionTask> queue, TbTransactionTask transactionTask) {
+        if (queue.remove(transactionTask)) {
+            queuedTasks.decrementAndGet();
+        }
+        if (queue.isEmpty()) {
+            transactionMap.remove(originatorId, queue);
+        }
+        log.trace("Removed msg from queue, size [{}]", queue.size());
+    }
+
+    private void startTask(TbTransactionTask transactionTask) {
+        long waitTime = System.currentTimeMillis() - transactionTask.getCreatedTime();
+        startedTasks.incrementAndGet();
+        startedTasksWaitTime.addAndGet(waitTime);
+        maxWaitTime.accumulateAndGet(waitTime, Math::max);
+        executeOnSuccess(transactionTask.getOnStart(), transactionTask.getMsg());
+    }
+
     private void endLocalTransaction(TbMsg msg, Consumer<TbMsg> onSuccess, Consumer<Throwable> onFailure) {
-        transactionLock.lock();
+        EntityId originatorId = msg.getTransactionData().getOriginatorId();
+        Lock lock = transactionLocks.get(originatorId);
+        lock.lock();
         try {
-            BlockingQueue<TbTransactionTask> queue = transactionMap.computeIfAbsent(msg.getTransactionData().getOriginatorId(), id ->
-                    new LinkedBlockingQueue<>(finalQueueSize));
+            BlockingQueue<TbTransactionTask> queue = transactionMap.get(originatorId);
 
-            TbTransactionTask currentTransactionTask = queue.peek();
+            TbTransactionTask currentTransactionTask = queue != null ? queue.peek() : null;
             if (currentTransactionTask != null) {
                 if (currentTransactionTask.getMsg().getTransactionData().getTransactionId().equals(msg.getTransactionData().getTransactionId())) {
                     currentTransactionTask.setCompleted(true);
-                    queue.poll();
-                    log.trace("Removed msg from queue, size [{}]", queue.size());
+                    ScheduledFuture<?> timeoutFuture = currentTransactionTask.getTimeoutFuture();
+                    if (timeoutFuture != null) {
+                        timeoutFuture.cancel(false);
+                    }
+                    removeMsgFromQueue(originatorId, queue, currentTransactionTask);
 
                     executeOnSuccess(currentTransactionTask.getOnEnd(), currentTransactionTask.getMsg());
                     executeOnSuccess(onSuccess, msg);
 
                     TbTransactionTask nextTransactionTask = queue.peek();
                     if (nextTransactionTask != null) {
-                        executeOnSuccess(nextTransactionTask.getOnStart(), nextTransactionTask.getMsg());
+                        startTask(nextTransactionTask);
                     }
                 } else {
                     log.trace("Task has expired!");
@@ -161,60 +212,37 @@ public class BaseRuleChainTransactionService implements RuleChainTransactionServ
                 executeOnFailure(onFailure, "Queue is empty, previous task has expired!");
             }
         } finally {
-            transactionLock.unlock();
+            lock.unlock();
         }
     }
 
-    private void executeOnTimeout() {
-        timeoutExecutor.submit(() -> {
-            while (true) {
-                TbTransactionTask transactionTask = timeoutQueue.peek();
-                if (transactionTask != null) {
-                    long sleepDuration = 0L;
-                    transactionLock.lock();
-                    try {
-                        if (transactionTask.isCompleted()) {
-                            timeoutQueue.poll();
-                        } else {
-                            long expIn = transactionTask.getExpirationTime() - System.currentTimeMillis();
-                            if (expIn < 0) {
-                                log.trace("Task has expired! Deleting it...[{}][{}]", transactionTask.getMsg().getId(), transactionTask.getMsg().getType());
-                                timeoutQueue.poll();
-                                executeOnFailure(transactionTask.getOnFailure(), "Task has expired!");
-
-                                BlockingQueue<TbTransactionTask> queue = transactionMap.get(transactionTask.getMsg().getTransactionData().getOriginatorId());
-                                if (queue != null) {
-                                    queue.poll();
-                                    TbTransactionTask nextTransactionTask = queue.peek();
-                                    if (nextTransactionTask != null) {
-                                        executeOnSuccess(nextTransactionTask.getOnStart(), nextTransactionTask.getMsg());
-                                    }
-                                }
-                            } else {
-                                sleepDuration = Math.min(expIn, duration);
-                            }
-                        }
-                    } finally {
-                        transactionLock.unlock();
-                    }
-                    if (sleepDuration > 0L) {
-                        try {
-                            log.trace("Task has not expired! Continue executing...[{}][{}]", transactionTask.getMsg().getId(), transactionTask.getMsg().getType());
-                            TimeUnit.MILLISECONDS.sleep(sleepDuration);
-                        } catch (InterruptedException e) {
-                            throw new IllegalStateException("Thread interrupted", e);
-                        }
-                    }
-                } else {
-                    try {
-                        log.trace("Queue is empty, waiting for tasks!");
-                        TimeUnit.SECONDS.sleep(1);
-                    } catch (InterruptedException e) {
-                        throw new IllegalStateException("Thread interrupted", e);
+    private void onTimeout(TbTransactionTask transactionTask) {
+        EntityId originatorId = transactionTask.getMsg().getTransactionData().getOriginatorId();
+        Lock lock = transactionLocks.get(originatorId);
+        lock.lock();
+        try {
+            if (transactionTask.isCompleted()) {
+                return;
+            }
+            log.trace("Task has expired! Deleting it...[{}][{}]", transactionTask.getMsg().getId(), transactionTask.getMsg().getType());
+            transactionTask.setCompleted(true);
+            expiredTasks.incrementAndGet();
+            executeOnFailure(transactionTask.getOnFailure(), "Task has expired!");
+
+            BlockingQueue<TbTransactionTask> queue = transactionMap.get(originatorId);
+            if (queue != null) {
+                boolean wasStarted = queue.peek() == transactionTask;
+                removeMsgFromQueue(originatorId, queue, transactionTask);
+                if (wasStarted) {
+                    TbTransactionTask nextTransactionTask = queue.peek();
+                    if (nextTransactionTask != null) {
+                        startTask(nextTransactionTask);
                     }
                 }
             }
-        });
+        } finally {
+            lock.unlock();
+        }
     }
 
     private void executeOnFailure(Consumer<Throwable> onFailure, String exception) {
@@ -19,6 +19,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.thingsboard.server.common.msg.TbMsg;
 
+import java.util.concurrent.ScheduledFuture;
 import java.util.function.Consumer;
 
 @Data
@@ -29,16 +30,17 @@ public final class TbTransactionTask {
     private final Consumer<TbMsg> onStart;
     private final Consumer<TbMsg> onEnd;
     private final Consumer<Throwable> onFailure;
-    private final long expirationTime;
+    private final long createdTime;
 
     private boolean isCompleted;
+    private ScheduledFuture<?> timeoutFuture;
 
-    public TbTransactionTask(TbMsg msg, Consumer<TbMsg> onStart, Consumer<TbMsg> onEnd, Consumer<Throwable> onFailure, long expirationTime) {
+    public TbTransactionTask(TbMsg msg, Consumer<TbMsg> onStart, Consumer<TbMsg> onEnd, Consumer<Throwable> onFailure) {
         this.msg = msg;
         this.onStart = onStart;
         this.onEnd = onEnd;
         this.onFailure = onFailure;
-        this.expirationTime = expirationTime;
+        this.createdTime = System.currentTimeMillis();
         this.isCompleted = false;
     }
 }
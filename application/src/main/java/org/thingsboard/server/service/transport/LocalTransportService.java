@@ -15,7 +15,6 @@
  */
 package org.thingsboard.server.service.transport;
 
-import akka.actor.ActorRef;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -209,7 +208,7 @@ public class LocalTransportService extends AbstractTransportService implements R
         if (address.isPresent()) {
             rpcService.tell(encodingService.convertToProtoDataMessage(address.get(), wrapper));
         } else {
-            actorContext.getAppActor().tell(wrapper, ActorRef.noSender());
+            actorContext.tellDeviceActor(wrapper);
         }
         if (callback != null) {
             callback.onSuccess(null);
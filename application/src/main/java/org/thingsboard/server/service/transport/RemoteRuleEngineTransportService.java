@@ -15,7 +15,6 @@
  */
 package org.thingsboard.server.service.transport;
 
-import akka.actor.ActorRef;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.BlockingBucket;
 import io.github.bucket4j.Bucket4j;
@@ -210,7 +209,7 @@ public class RemoteRuleEngineTransportService implements RuleEngineTransportServ
             rpcService.tell(encodingService.convertToProtoDataMessage(address.get(), wrapper));
         } else {
             log.trace("Pushing message to local server: {}", toDeviceActorMsg);
-            actorContext.getAppActor().tell(wrapper, ActorRef.noSender());
+            actorContext.tellDeviceActor(wrapper);
         }
     }
 
@@ -0,0 +1,201 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.device;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.actors.ActorSystemContext;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.dao.device.DeviceService;
+import org.thingsboard.server.gen.transport.TransportProtos.DeviceActorToTransportMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.DeviceSessionsCacheEntry;
+import org.thingsboard.server.gen.transport.TransportProtos.GetAttributeRequestMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.SessionEvent;
+import org.thingsboard.server.gen.transport.TransportProtos.SessionEventMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.SessionInfoProto;
+import org.thingsboard.server.gen.transport.TransportProtos.SessionType;
+import org.thingsboard.server.gen.transport.TransportProtos.SubscribeToRPCMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.TransportToDeviceActorMsg;
+import org.thingsboard.server.service.executors.DbCallbackExecutorService;
+import org.thingsboard.server.service.session.DeviceSessionCacheService;
+import org.thingsboard.server.service.state.DeviceStateService;
+import org.thingsboard.server.service.transport.RuleEngineTransportService;
+import org.thingsboard.server.service.transport.msg.TransportToDeviceActorMsgWrapper;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DeviceActorInitTest {
+
+    private static final String NODE_ID = "node";
+
+    private final TenantId tenantId = new TenantId(UUID.randomUUID());
+    private final DeviceId deviceId = new DeviceId(UUID.randomUUID());
+    private final UUID sessionId = UUID.randomUUID();
+
+    private ActorSystem actorSystem;
+    private DbCallbackExecutorService dbCallbackExecutor;
+    private SessionTimeoutSweeper sessionTimeoutSweeper;
+    private DeviceService deviceService;
+    private DeviceSessionCacheService sessionCacheService;
+    private RuleEngineTransportService transportService;
+    private ActorSystemContext systemContext;
+    private ActorRef deviceActor;
+
+    @Before
+    public void before() {
+        ActorSystemContext systemContext = new ActorSystemContext();
+        actorSystem = ActorSystem.create("test", systemContext.getConfig());
+        systemContext.setActorSystem(actorSystem);
+        dbCallbackExecutor = new DbCallbackExecutorService();
+        ReflectionTestUtils.setField(dbCallbackExecutor, "dbCallbackExecutorThreadPoolSize", 2);
+        dbCallbackExecutor.init();
+        deviceService = mock(DeviceService.class);
+        sessionCacheService = mock(DeviceSessionCacheService.class);
+        transportService = mock(RuleEngineTransportService.class);
+        when(sessionCacheService.get(deviceId)).thenReturn(DeviceSessionsCacheEntry.getDefaultInstance().toByteArray());
+        ReflectionTestUtils.setField(systemContext, "sessionInactivityTimeout", 60000L);
+        sessionTimeoutSweeper = new SessionTimeoutSweeper(60000L, 100L);
+        systemContext.setSessionTimeoutSweeper(sessionTimeoutSweeper);
+        ReflectionTestUtils.setField(systemContext, "dbCallbackExecutor", dbCallbackExecutor);
+        ReflectionTestUtils.setField(systemContext, "deviceService", deviceService);
+        ReflectionTestUtils.setField(systemContext, "deviceSessionCacheService", sessionCacheService);
+        ReflectionTestUtils.setField(systemContext, "ruleEngineTransportService", transportService);
+        ReflectionTestUtils.setField(systemContext, "deviceStateService", mock(DeviceStateService.class));
+        this.systemContext = systemContext;
+    }
+
+    @After
+    public void after() throws Exception {
+        Await.result(actorSystem.terminate(), Duration.create(10, TimeUnit.SECONDS));
+        dbCallbackExecutor.destroy();
+        sessionTimeoutSweeper.stop();
+    }
+
+    @Test
+    public void testMessagesReplayedInOrderAfterLookup() {
+        SettableFuture<Device> deviceFuture = SettableFuture.create();
+        when(deviceService.findDeviceByIdAsync(tenantId, deviceId)).thenReturn(deviceFuture);
+        startDeviceActor();
+        deviceActor.tell(sessionEvent(SessionEvent.OPEN), ActorRef.noSender());
+        deviceActor.tell(sessionEvent(SessionEvent.CLOSED), ActorRef.noSender());
+
+        verify(deviceService, timeout(1000)).findDeviceByIdAsync(tenantId, deviceId);
+        verify(sessionCacheService, never()).put(any(DeviceId.class), any(byte[].class));
+
+        deviceFuture.set(new Device(deviceId));
+        ArgumentCaptor<byte[]> dumps = ArgumentCaptor.forClass(byte[].class);
+        verify(sessionCacheService, timeout(1000).times(2)).put(eq(deviceId), dumps.capture());
+        verify(sessionCacheService).get(deviceId);
+        // session is opened first and then closed
+        assertEquals(1, sessionsCount(dumps.getAllValues().get(0)));
+        assertEquals(0, sessionsCount(dumps.getAllValues().get(1)));
+        verify(transportService, never()).process(any(String.class), any(DeviceActorToTransportMsg.class));
+    }
+
+    @Test
+    public void testPendingMessagesFailedOnLookupFailure() throws Exception {
+        SettableFuture<Device> deviceFuture = SettableFuture.create();
+        when(deviceService.findDeviceByIdAsync(tenantId, deviceId))
+                .thenReturn(deviceFuture)
+                .thenReturn(Futures.immediateFuture(new Device(deviceId)));
+        startDeviceActor();
+        deviceActor.tell(getAttributes(1), ActorRef.noSender());
+        deviceActor.tell(subscribeToRpc(false), ActorRef.noSender());
+        verify(deviceService, timeout(1000)).findDeviceByIdAsync(tenantId, deviceId);
+        deviceFuture.setException(new RuntimeException("db is down"));
+
+        ArgumentCaptor<DeviceActorToTransportMsg> responses = ArgumentCaptor.forClass(DeviceActorToTransportMsg.class);
+        verify(transportService, timeout(1000).times(2)).process(eq(NODE_ID), responses.capture());
+        List<DeviceActorToTransportMsg> msgs = responses.getAllValues();
+        assertTrue(msgs.get(0).getGetAttributesResponse().getError().contains("db is down"));
+        assertEquals(1, msgs.get(0).getGetAttributesResponse().getRequestId());
+        assertTrue(msgs.get(1).hasSessionCloseNotification());
+
+        // next message repeats the lookup
+        deviceActor.tell(subscribeToRpc(false), ActorRef.noSender());
+        verify(deviceService, timeout(1000).times(2)).findDeviceByIdAsync(tenantId, deviceId);
+        verify(sessionCacheService, timeout(1000)).put(eq(deviceId), any(byte[].class));
+    }
+
+    private void startDeviceActor() {
+        deviceActor = actorSystem.actorOf(Props.create(new DeviceActorCreator(systemContext, tenantId, deviceId)));
+    }
+
+    private TransportToDeviceActorMsgWrapper sessionEvent(SessionEvent event) {
+        return new TransportToDeviceActorMsgWrapper(TransportToDeviceActorMsg.newBuilder()
+                .setSessionInfo(sessionInfo())
+                .setSessionEvent(SessionEventMsg.newBuilder().setSessionType(SessionType.ASYNC).setEvent(event).build())
+                .build());
+    }
+
+    private TransportToDeviceActorMsgWrapper subscribeToRpc(boolean unsubscribe) {
+        return new TransportToDeviceActorMsgWrapper(TransportToDeviceActorMsg.newBuilder()
+                .setSessionInfo(sessionInfo())
+                .setSubscribeToRPC(SubscribeToRPCMsg.newBuilder().setUnsubscribe(unsubscribe).build())
+                .build());
+    }
+
+    private TransportToDeviceActorMsgWrapper getAttributes(int requestId) {
+        return new TransportToDeviceActorMsgWrapper(TransportToDeviceActorMsg.newBuilder()
+                .setSessionInfo(sessionInfo())
+                .setGetAttributes(GetAttributeRequestMsg.newBuilder().setRequestId(requestId).build())
+                .build());
+    }
+
+    private SessionInfoProto sessionInfo() {
+        return SessionInfoProto.newBuilder()
+                .setNodeId(NODE_ID)
+                .setSessionIdMSB(sessionId.getMostSignificantBits())
+                .setSessionIdLSB(sessionId.getLeastSignificantBits())
+                .setTenantIdMSB(tenantId.getId().getMostSignificantBits())
+                .setTenantIdLSB(tenantId.getId().getLeastSignificantBits())
+                .setDeviceIdMSB(deviceId.getId().getMostSignificantBits())
+                .setDeviceIdLSB(deviceId.getId().getLeastSignificantBits())
+                .build();
+    }
+
+    private static int sessionsCount(byte[] dump) {
+        try {
+            return DeviceSessionsCacheEntry.parseFrom(dump).getSessionsCount();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.device;
+
+import akka.actor.ActorNotFound;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import com.google.common.util.concurrent.Futures;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.rule.engine.api.msg.DeviceNameOrTypeUpdateMsg;
+import org.thingsboard.server.actors.ActorSystemContext;
+import org.thingsboard.server.actors.tenant.TenantActor;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.dao.device.DeviceService;
+import org.thingsboard.server.service.executors.DbCallbackExecutorService;
+import org.thingsboard.server.service.session.DeviceSessionCacheService;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class DeviceActorPassivationTest {
+
+    private static final int CYCLES = 3;
+    private static final int DEVICES_PER_CYCLE = 100;
+
+    private final TenantId tenantId = new TenantId(UUID.randomUUID());
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger restored = new AtomicInteger();
+    private final AtomicInteger passivated = new AtomicInteger();
+
+    private ActorSystemContext systemContext;
+    private ActorSystem actorSystem;
+    private ActorRef tenantActor;
+    private DbCallbackExecutorService dbCallbackExecutor;
+    private SessionTimeoutSweeper sessionTimeoutSweeper;
+
+    @Before
+    public void before() {
+        // real context object instead of a mock, so that millions of calls are not recorded
+        systemContext = new ActorSystemContext();
+        actorSystem = ActorSystem.create("test", systemContext.getConfig());
+        systemContext.setActorSystem(actorSystem);
+        ReflectionTestUtils.setField(systemContext, "deviceActorPassivationEnabled", true);
+        ReflectionTestUtils.setField(systemContext, "deviceActorIdleTimeout", 100L);
+        ReflectionTestUtils.setField(systemContext, "sessionInactivityTimeout", 60000L);
+        sessionTimeoutSweeper = new SessionTimeoutSweeper(60000L, 100L);
+        systemContext.setSessionTimeoutSweeper(sessionTimeoutSweeper);
+        ReflectionTestUtils.setField(systemContext, "deviceService", deviceService());
+        dbCallbackExecutor = new DbCallbackExecutorService();
+        ReflectionTestUtils.setField(dbCallbackExecutor, "dbCallbackExecutorThreadPoolSize", 2);
+        dbCallbackExecutor.init();
+        ReflectionTestUtils.setField(systemContext, "dbCallbackExecutor", dbCallbackExecutor);
+        ReflectionTestUtils.setField(systemContext, "deviceSessionCacheService", new DeviceSessionCacheService() {
+            @Override
+            public byte[] get(DeviceId deviceId) {
+                restored.incrementAndGet();
+                return new byte[0];
+            }
+
+            @Override
+            public byte[] put(DeviceId deviceId, byte[] sessions) {
+                passivated.incrementAndGet();
+                return sessions;
+            }
+        });
+        tenantActor = actorSystem.actorOf(Props.create(new TenantActor.ActorCreator(systemContext, tenantId)), "tenant");
+    }
+
+    @After
+    public void after() throws Exception {
+        Await.result(actorSystem.terminate(), Duration.create(10, TimeUnit.SECONDS));
+        dbCallbackExecutor.destroy();
+        sessionTimeoutSweeper.stop();
+    }
+
+    @Test
+    public void testIdleDeviceActorRecreatedOnNextMessage() throws Exception {
+        DeviceId deviceId = new DeviceId(UUID.randomUUID());
+        send(deviceId);
+        awaitEquals(1, passivated::get);
+        assertEquals(1, created.get());
+
+        send(deviceId);
+        send(deviceId);
+        awaitEquals(2, passivated::get);
+        assertEquals(2, created.get());
+        assertEquals(2, restored.get());
+    }
+
+    @Test
+    public void testPassivatedDeviceActorsRemovedFromRegistryAndTenant() throws Exception {
+        DeviceActorRegistry registry = systemContext.getDeviceActorRegistry();
+        for (int cycle = 1; cycle <= CYCLES; cycle++) {
+            List<DeviceId> deviceIds = new ArrayList<>(DEVICES_PER_CYCLE);
+            for (int i = 0; i < DEVICES_PER_CYCLE; i++) {
+                DeviceId deviceId = new DeviceId(UUID.randomUUID());
+                deviceIds.add(deviceId);
+                send(deviceId);
+            }
+            int expected = cycle * DEVICES_PER_CYCLE;
+            awaitEquals(expected, passivated::get);
+            assertEquals(expected, created.get());
+            awaitEquals(0, registry::size);
+            awaitEquals(0, () -> countDeviceActors(deviceIds));
+        }
+    }
+
+    private void send(DeviceId deviceId) {
+        tenantActor.tell(new DeviceNameOrTypeUpdateMsg(tenantId, deviceId, "Device", "default"), ActorRef.noSender());
+    }
+
+    private DeviceService deviceService() {
+        return (DeviceService) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{DeviceService.class}, (proxy, method, args) -> {
+            if ("findDeviceByIdAsync".equals(method.getName())) {
+                created.incrementAndGet();
+                Device device = new Device((DeviceId) args[1]);
+                device.setName("Device");
+                device.setType("default");
+                return Futures.immediateFuture(device);
+            }
+            return null;
+        });
+    }
+
+    private static void awaitEquals(int expected, IntSupplier actual) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(60);
+        while (actual.getAsInt() != expected) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Expected " + expected + " but was " + actual.getAsInt());
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private int countDeviceActors(List<DeviceId> deviceIds) {
+        int count = 0;
+        for (DeviceId deviceId : deviceIds) {
+            try {
+                Await.result(actorSystem.actorSelection(tenantActor.path().child(deviceId.toString()))
+                        .resolveOne(Duration.create(1, TimeUnit.SECONDS)), Duration.create(2, TimeUnit.SECONDS));
+                count++;
+            } catch (ActorNotFound e) {
+                // stopped and removed from the tenant actor children
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.device;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.DeadLetter;
+import akka.actor.Props;
+import akka.actor.UntypedActor;
+import akka.pattern.Patterns;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.thingsboard.server.actors.ActorSystemContext;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.msg.TbActorMsg;
+import org.thingsboard.server.common.msg.timeout.DeviceActorClientSideRpcTimeoutMsg;
+import org.thingsboard.server.gen.transport.TransportProtos;
+import org.thingsboard.server.service.transport.msg.TransportToDeviceActorMsgWrapper;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DeviceActorRegistryTest {
+
+    private final DeviceId deviceId = new DeviceId(UUID.randomUUID());
+    private final BlockingQueue<Object> tenantQueue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Object> deviceQueue = new LinkedBlockingQueue<>();
+
+    private ActorSystem actorSystem;
+    private ActorRef tenantActor;
+    private ActorRef deviceActor;
+    private DeviceActorRegistry registry;
+
+    @Before
+    public void before() {
+        actorSystem = ActorSystem.create("test");
+        tenantActor = actorSystem.actorOf(Props.create(QueueActor.class, tenantQueue));
+        deviceActor = actorSystem.actorOf(Props.create(QueueActor.class, deviceQueue));
+        registry = new DeviceActorRegistry();
+    }
+
+    @After
+    public void after() throws Exception {
+        Await.result(actorSystem.terminate(), Duration.create(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testUnknownDeviceRoutedThroughFallback() throws Exception {
+        TbActorMsg msg = msg();
+        registry.tell(deviceId, msg, tenantActor);
+        assertSame(msg, tenantQueue.poll(1, TimeUnit.SECONDS));
+        registry.onForwarded(deviceId);
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void testRegisteredDeviceRoutedDirectly() throws Exception {
+        registry.register(deviceId, deviceActor);
+        TbActorMsg msg = msg();
+        registry.tell(deviceId, msg, tenantActor);
+        assertSame(msg, deviceQueue.poll(1, TimeUnit.SECONDS));
+        assertNull(tenantQueue.poll());
+    }
+
+    @Test
+    public void testMessageNotOvertakingPendingOne() throws Exception {
+        TbActorMsg first = msg();
+        registry.tell(deviceId, first, tenantActor);
+        registry.register(deviceId, deviceActor);
+
+        TbActorMsg second = msg();
+        registry.tell(deviceId, second, tenantActor);
+        assertSame(first, tenantQueue.poll(1, TimeUnit.SECONDS));
+        assertSame(second, tenantQueue.poll(1, TimeUnit.SECONDS));
+        registry.onForwarded(deviceId);
+        registry.onForwarded(deviceId);
+
+        TbActorMsg third = msg();
+        registry.tell(deviceId, third, tenantActor);
+        assertSame(third, deviceQueue.poll(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testUnregisteredDeviceRoutedThroughFallback() throws Exception {
+        registry.register(deviceId, deviceActor);
+        registry.unregister(deviceId);
+        assertEquals(0, registry.size());
+
+        TbActorMsg msg = msg();
+        registry.tell(deviceId, msg, tenantActor);
+        assertSame(msg, tenantQueue.poll(1, TimeUnit.SECONDS));
+        assertNull(deviceQueue.poll());
+    }
+
+    @Test
+    public void testTryUnregisterStopsDirectDelivery() throws Exception {
+        registry.register(deviceId, deviceActor);
+        assertTrue(registry.tryUnregister(deviceId));
+        assertEquals(0, registry.size());
+
+        TbActorMsg msg = msg();
+        registry.tell(deviceId, msg, tenantActor);
+        assertSame(msg, tenantQueue.poll(1, TimeUnit.SECONDS));
+        registry.onForwarded(deviceId);
+
+        registry.register(deviceId, deviceActor);
+        TbActorMsg next = msg();
+        registry.tell(deviceId, next, tenantActor);
+        assertSame(next, deviceQueue.poll(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testDroppedFallbackMessageReleased() throws Exception {
+        ActorSystemContext systemContext = mock(ActorSystemContext.class);
+        when(systemContext.getDeviceActorRegistry()).thenReturn(registry);
+        when(systemContext.getAppActor()).thenReturn(tenantActor);
+        ActorRef listener = actorSystem.actorOf(Props.create(new DeviceActorRegistryDeadLetterListener.ActorCreator(systemContext)));
+        actorSystem.eventStream().subscribe(listener, DeadLetter.class);
+
+        Await.result(Patterns.gracefulStop(tenantActor, Duration.create(10, TimeUnit.SECONDS)), Duration.create(10, TimeUnit.SECONDS));
+        registry.tell(deviceId, transportMsg(), tenantActor);
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (registry.size() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, registry.size());
+
+        registry.register(deviceId, deviceActor);
+        TbActorMsg msg = msg();
+        registry.tell(deviceId, msg, tenantActor);
+        assertSame(msg, deviceQueue.poll(1, TimeUnit.SECONDS));
+    }
+
+    private TbActorMsg msg() {
+        return new DeviceActorClientSideRpcTimeoutMsg(0, 0);
+    }
+
+    private TbActorMsg transportMsg() {
+        return new TransportToDeviceActorMsgWrapper(TransportProtos.TransportToDeviceActorMsg.newBuilder()
+                .setSessionInfo(TransportProtos.SessionInfoProto.newBuilder()
+                        .setDeviceIdMSB(deviceId.getId().getMostSignificantBits())
+                        .setDeviceIdLSB(deviceId.getId().getLeastSignificantBits()))
+                .build());
+    }
+
+    static class QueueActor extends UntypedActor {
+
+        private final BlockingQueue<Object> queue;
+
+        public QueueActor(BlockingQueue<Object> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void onReceive(Object msg) {
+            queue.add(msg);
+        }
+    }
+}
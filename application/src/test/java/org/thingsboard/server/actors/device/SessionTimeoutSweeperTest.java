@@ -0,0 +1,102 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.device;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.actor.UntypedActor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.thingsboard.server.gen.transport.TransportProtos.SessionType;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class SessionTimeoutSweeperTest {
+
+    private static final long INACTIVITY_TIMEOUT = 300L;
+
+    private final BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+
+    private ActorSystem actorSystem;
+    private ActorRef actor;
+    private SessionTimeoutSweeper sweeper;
+
+    @Before
+    public void before() {
+        actorSystem = ActorSystem.create("test");
+        actor = actorSystem.actorOf(Props.create(QueueActor.class, received));
+        sweeper = new SessionTimeoutSweeper(INACTIVITY_TIMEOUT, 10L);
+    }
+
+    @After
+    public void after() throws Exception {
+        sweeper.stop();
+        Await.result(actorSystem.terminate(), Duration.create(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testExpiredSessionNotified() throws Exception {
+        sweeper.schedule(actor, session(System.currentTimeMillis()));
+        assertNull(received.poll(INACTIVITY_TIMEOUT / 2, TimeUnit.MILLISECONDS));
+        assertSame(SessionTimeoutCheckMsg.instance(), received.poll(INACTIVITY_TIMEOUT * 2, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testActivityPostponesTimeout() throws Exception {
+        SessionInfoMetaData session = session(System.currentTimeMillis());
+        sweeper.schedule(actor, session);
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(INACTIVITY_TIMEOUT / 2);
+            session.setLastActivityTime(System.currentTimeMillis());
+        }
+        assertNull(received.poll());
+        assertSame(SessionTimeoutCheckMsg.instance(), received.poll(INACTIVITY_TIMEOUT * 2, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testCancelledSessionNotNotified() throws Exception {
+        sweeper.schedule(actor, session(System.currentTimeMillis())).cancel();
+        sweeper.schedule(actor, session(0L)).cancel();
+        assertNull(received.poll(INACTIVITY_TIMEOUT * 2, TimeUnit.MILLISECONDS));
+    }
+
+    private static SessionInfoMetaData session(long lastActivityTime) {
+        return new SessionInfoMetaData(new SessionInfo(SessionType.ASYNC, "node"), lastActivityTime);
+    }
+
+    static class QueueActor extends UntypedActor {
+
+        private final BlockingQueue<Object> queue;
+
+        public QueueActor(BlockingQueue<Object> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void onReceive(Object msg) {
+            queue.add(msg);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.cache;
+
+import com.datastax.driver.core.utils.UUIDs;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.id.AssetId;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.kv.AttributeKvEntry;
+import org.thingsboard.server.common.data.kv.BaseAttributeKvEntry;
+import org.thingsboard.server.common.data.kv.StringDataEntry;
+import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.dao.attributes.AttributesService;
+import org.thingsboard.server.dao.relation.RelationService;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DefaultRuleEngineEntityCacheTest {
+
+    private static final TenantId TENANT_ID = new TenantId(UUIDs.timeBased());
+    private static final String SCOPE = "SERVER_SCOPE";
+    private static final long TTL_MS = 200;
+
+    private final List<AttributeKvEntry> attributes = Collections.singletonList(
+            new BaseAttributeKvEntry(new StringDataEntry("serialNumber", "SN-001"), 1L));
+
+    private AttributesService attributesService;
+    private DefaultRuleEngineEntityCache cache;
+
+    @Before
+    public void before() {
+        attributesService = mock(AttributesService.class);
+        when(attributesService.find(any(TenantId.class), any(EntityId.class), anyString(), anyCollectionOf(String.class)))
+                .thenReturn(Futures.immediateFuture(attributes));
+        cache = createCache(true);
+    }
+
+    @Test
+    public void testHitAndMiss() throws Exception {
+        DeviceId deviceId = new DeviceId(UUIDs.timeBased());
+
+        assertEquals(attributes, findAttributes(deviceId, "serialNumber"));
+        assertEquals(attributes, findAttributes(deviceId, "serialNumber"));
+        verify(attributesService, times(1)).find(eq(TENANT_ID), eq(deviceId), eq(SCOPE), anyCollectionOf(String.class));
+
+        findAttributes(deviceId, "serialNumber", "location");
+        findAttributes(new DeviceId(UUIDs.timeBased()), "serialNumber");
+        verify(attributesService, times(3)).find(any(TenantId.class), any(EntityId.class), eq(SCOPE), anyCollectionOf(String.class));
+    }
+
+    @Test
+    public void testInvalidatedOnUpdate() throws Exception {
+        DeviceId deviceId = new DeviceId(UUIDs.timeBased());
+        AssetId assetId = new AssetId(UUIDs.timeBased());
+
+        findAttributes(deviceId, "serialNumber");
+        findAttributes(assetId, "serialNumber");
+        cache.evict(deviceId);
+        findAttributes(deviceId, "serialNumber");
+        findAttributes(assetId, "serialNumber");
+        verify(attributesService, times(2)).find(eq(TENANT_ID), eq(deviceId), eq(SCOPE), anyCollectionOf(String.class));
+        verify(attributesService, times(1)).find(eq(TENANT_ID), eq(assetId), eq(SCOPE), anyCollectionOf(String.class));
+
+        cache.evict(new EntityRelation(assetId, deviceId, EntityRelation.CONTAINS_TYPE));
+        findAttributes(deviceId, "serialNumber");
+        findAttributes(assetId, "serialNumber");
+        verify(attributesService, times(3)).find(eq(TENANT_ID), eq(deviceId), eq(SCOPE), anyCollectionOf(String.class));
+        verify(attributesService, times(2)).find(eq(TENANT_ID), eq(assetId), eq(SCOPE), anyCollectionOf(String.class));
+    }
+
+    @Test
+    public void testExpiredAfterTtl() throws Exception {
+        DeviceId deviceId = new DeviceId(UUIDs.timeBased());
+
+        findAttributes(deviceId, "serialNumber");
+        Thread.sleep(TTL_MS * 2);
+        findAttributes(deviceId, "serialNumber");
+
+        verify(attributesService, times(2)).find(eq(TENANT_ID), eq(deviceId), eq(SCOPE), anyCollectionOf(String.class));
+    }
+
+    @Test
+    public void testLookupsPerEntityBounded() throws Exception {
+        DeviceId deviceId = new DeviceId(UUIDs.timeBased());
+
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 4; i++) {
+                findAttributes(deviceId, "key" + i);
+            }
+        }
+
+        verify(attributesService, atLeast(5)).find(eq(TENANT_ID), eq(deviceId), eq(SCOPE), anyCollectionOf(String.class));
+    }
+
+    @Test
+    public void testFailedLookupNotCached() throws Exception {
+        DeviceId deviceId = new DeviceId(UUIDs.timeBased());
+        when(attributesService.find(eq(TENANT_ID), eq(deviceId), eq(SCOPE), anyCollectionOf(String.class)))
+                .thenReturn(Futures.immediateFailedFuture(new RuntimeException("Database is not available")))
+                .thenReturn(Futures.immediateFuture(attributes));
+
+        try {
+            findAttributes(deviceId, "serialNumber");
+            fail("Lookup should fail");
+        } catch (ExecutionException e) {
+            assertEquals("Database is not available", e.getCause().getMessage());
+        }
+        assertEquals(attributes, findAttributes(deviceId, "serialNumber"));
+    }
+
+    @Test
+    public void testConcurrentLookupsCoalescedWhenDisabled() throws Exception {
+        cache = createCache(false);
+        DeviceId deviceId = new DeviceId(UUIDs.timeBased());
+        SettableFuture<List<AttributeKvEntry>> pending = SettableFuture.create();
+        when(attributesService.find(eq(TENANT_ID), eq(deviceId), eq(SCOPE), anyCollectionOf(String.class)))
+                .thenReturn(pending)
+                .thenReturn(Futures.immediateFuture(attributes));
+
+        ListenableFuture<List<AttributeKvEntry>> first = cache.findAttributes(TENANT_ID, deviceId, SCOPE, Collections.singletonList("serialNumber"));
+        ListenableFuture<List<AttributeKvEntry>> second = cache.findAttributes(TENANT_ID, deviceId, SCOPE, Collections.singletonList("serialNumber"));
+        assertSame(first, second);
+        pending.set(attributes);
+        assertTrue(first.isDone());
+
+        findAttributes(deviceId, "serialNumber");
+        verify(attributesService, times(2)).find(eq(TENANT_ID), eq(deviceId), eq(SCOPE), anyCollectionOf(String.class));
+    }
+
+    private List<AttributeKvEntry> findAttributes(EntityId entityId, String... keys) throws Exception {
+        return cache.findAttributes(TENANT_ID, entityId, SCOPE, Arrays.asList(keys)).get();
+    }
+
+    private DefaultRuleEngineEntityCache createCache(boolean enabled) {
+        DefaultRuleEngineEntityCache cache = new DefaultRuleEngineEntityCache();
+        ReflectionTestUtils.setField(cache, "cacheEnabled", enabled);
+        ReflectionTestUtils.setField(cache, "ttlMs", TTL_MS);
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "maxSizePerEntity", 2L);
+        ReflectionTestUtils.setField(cache, "coalesceLookups", true);
+        ReflectionTestUtils.setField(cache, "attributesService", attributesService);
+        ReflectionTestUtils.setField(cache, "relationService", mock(RelationService.class));
+        cache.init();
+        return cache;
+    }
+}
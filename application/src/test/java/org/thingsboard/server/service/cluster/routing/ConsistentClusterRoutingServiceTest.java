@@ -39,9 +39,14 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -84,6 +89,47 @@ public class ConsistentClusterRoutingServiceTest {
         testDevicesDispersion(devices);
     }
 
+    @Test
+    public void testPartitionRoutingMovesOnlyAffectedPartitions() {
+        ConsistentClusterRoutingService partitionedService = new ConsistentClusterRoutingService();
+        ReflectionTestUtils.setField(partitionedService, "discoveryService", discoveryService);
+        ReflectionTestUtils.setField(partitionedService, "hashFunctionName", hashFunctionName);
+        ReflectionTestUtils.setField(partitionedService, "virtualNodesSize", 16);
+        ReflectionTestUtils.setField(partitionedService, "routingType", "partitions");
+        ReflectionTestUtils.setField(partitionedService, "partitionsCount", 1024);
+        partitionedService.init();
+        assertTrue(partitionedService.getMovedPartitions().get().isEmpty());
+
+        List<DeviceId> devices = new ArrayList<>();
+        Map<DeviceId, Optional<ServerAddress>> before = new HashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            DeviceId deviceId = new DeviceId(UUIDs.timeBased());
+            devices.add(deviceId);
+            before.put(deviceId, partitionedService.resolveById(deviceId));
+        }
+
+        ServerInstance newServer = new ServerInstance(new ServerAddress(" 100.96.100.100", 9001, ServerType.CORE));
+        partitionedService.onServerAdded(newServer);
+        Set<Integer> moved = partitionedService.getMovedPartitions().get();
+        assertFalse(moved.isEmpty());
+        assertTrue(moved.size() < 1024 / 4);
+
+        for (DeviceId deviceId : devices) {
+            Optional<ServerAddress> after = partitionedService.resolveById(deviceId);
+            if (moved.contains(partitionedService.resolvePartition(deviceId))) {
+                assertEquals(Optional.of(newServer.getServerAddress()), after);
+            } else {
+                assertEquals(before.get(deviceId), after);
+            }
+        }
+
+        partitionedService.onServerRemoved(newServer);
+        assertEquals(moved, partitionedService.getMovedPartitions().get());
+        for (DeviceId deviceId : devices) {
+            assertEquals(before.get(deviceId), partitionedService.resolveById(deviceId));
+        }
+    }
+
     private void testDevicesDispersion(List<DeviceId> devices) {
         long start = System.currentTimeMillis();
         Map<ServerAddress, Integer> map = new HashMap<>();
@@ -0,0 +1,82 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.cluster.rpc;
+
+import com.google.protobuf.ByteString;
+import io.grpc.stub.StreamObserver;
+import org.junit.Test;
+import org.thingsboard.server.common.msg.cluster.ServerAddress;
+import org.thingsboard.server.common.msg.cluster.ServerType;
+import org.thingsboard.server.gen.cluster.ClusterAPIProtos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class GrpcSessionTest {
+
+    private final ServerAddress remoteServer = new ServerAddress("100.96.1.1", 9001, ServerType.CORE);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBatchDeliveredAsSeparateMessages() {
+        List<ClusterAPIProtos.ClusterMessage> frames = new ArrayList<>();
+        StreamObserver<ClusterAPIProtos.ClusterMessage> wire = mock(StreamObserver.class);
+        doAnswer(invocation -> frames.add((ClusterAPIProtos.ClusterMessage) invocation.getArguments()[0])).when(wire).onNext(any());
+
+        GrpcSession sender = new GrpcSession(remoteServer, mock(GrpcSessionListener.class), null);
+        sender.setOutputStream(wire);
+
+        List<ClusterAPIProtos.ClusterMessage> received = new ArrayList<>();
+        GrpcSessionListener receiverListener = mock(GrpcSessionListener.class);
+        doAnswer(invocation -> received.add((ClusterAPIProtos.ClusterMessage) invocation.getArguments()[1]))
+                .when(receiverListener).onReceiveClusterGrpcMsg(any(), any());
+        GrpcSession receiver = new GrpcSession(remoteServer, receiverListener, null);
+        receiver.initInputStream();
+
+        ClusterAPIProtos.ClusterMessage first = toMsg(ClusterAPIProtos.MessageType.CLUSTER_ACTOR_MESSAGE, "first");
+        ClusterAPIProtos.ClusterMessage second = toMsg(ClusterAPIProtos.MessageType.CLUSTER_TELEMETRY_TS_UPDATE_MESSAGE, "second");
+        sender.sendMsgs(Arrays.asList(first, second));
+        sender.sendMsgs(Arrays.asList(first));
+
+        assertEquals(2, frames.size());
+        assertEquals(ClusterAPIProtos.MessageType.CLUSTER_MESSAGE_BATCH, frames.get(0).getMessageType());
+        assertEquals(first, frames.get(1));
+
+        frames.forEach(receiver.getInputStream()::onNext);
+        assertEquals(3, received.size());
+        assertFalse(received.get(0).hasServerAddress());
+        assertEquals(first.getPayload(), received.get(0).getPayload());
+        assertEquals(second.getMessageType(), received.get(1).getMessageType());
+        assertEquals(second.getPayload(), received.get(1).getPayload());
+        assertEquals(first, received.get(2));
+    }
+
+    private ClusterAPIProtos.ClusterMessage toMsg(ClusterAPIProtos.MessageType type, String payload) {
+        return ClusterAPIProtos.ClusterMessage.newBuilder()
+                .setMessageType(type)
+                .setServerAddress(ClusterAPIProtos.ServerAddress.newBuilder()
+                        .setHost(remoteServer.getHost()).setPort(remoteServer.getPort()).build())
+                .setPayload(ByteString.copyFromUtf8(payload))
+                .build();
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.encoding;
+
+import com.datastax.driver.core.utils.UUIDs;
+import com.google.protobuf.ByteString;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.actors.ruleChain.RemoteToRuleChainTellNextMsg;
+import org.thingsboard.server.actors.ruleChain.RuleNodeToRuleChainTellNextMsg;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.RuleChainId;
+import org.thingsboard.server.common.data.id.RuleNodeId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.plugin.ComponentLifecycleEvent;
+import org.thingsboard.server.common.data.rpc.ToDeviceRpcRequestBody;
+import org.thingsboard.server.common.msg.TbActorMsg;
+import org.thingsboard.server.common.msg.TbMsg;
+import org.thingsboard.server.common.msg.TbMsgMetaData;
+import org.thingsboard.server.common.msg.cluster.ServerAddress;
+import org.thingsboard.server.common.msg.cluster.ServerType;
+import org.thingsboard.server.common.msg.plugin.ComponentLifecycleMsg;
+import org.thingsboard.server.common.msg.rpc.ToDeviceRpcRequest;
+import org.thingsboard.server.common.msg.system.ServiceToRuleEngineMsg;
+import org.thingsboard.server.gen.cluster.ClusterAPIProtos;
+import org.thingsboard.server.gen.transport.TransportProtos;
+import org.thingsboard.server.service.rpc.ToDeviceRpcRequestActorMsg;
+import org.thingsboard.server.service.transport.msg.TransportToDeviceActorMsgWrapper;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProtoWithFSTServiceTest {
+
+    private static final ServerAddress SERVER = new ServerAddress("100.96.1.1", 9001, ServerType.CORE);
+
+    private ProtoWithFSTService protoService;
+    private ProtoWithFSTService fstService;
+
+    @Before
+    public void before() {
+        protoService = createService("protobuf");
+        fstService = createService("fst");
+    }
+
+    @Test
+    public void testRuleChainTellNextMsg() {
+        RemoteToRuleChainTellNextMsg msg = createTellNextMsg();
+        assertEquals(msg, roundTrip(msg));
+    }
+
+    @Test
+    public void testServiceToRuleEngineMsg() {
+        TbMsg tbMsg = new TbMsg(UUIDs.timeBased(), "ATTRIBUTES_UPDATED", new DeviceId(UUIDs.timeBased()), new TbMsgMetaData(),
+                "{}", null, null, 0L);
+        ServiceToRuleEngineMsg msg = new ServiceToRuleEngineMsg(new TenantId(UUIDs.timeBased()), tbMsg);
+        assertEquals(msg, roundTrip(msg));
+    }
+
+    @Test
+    public void testTransportToDeviceActorMsg() {
+        TransportToDeviceActorMsgWrapper msg = new TransportToDeviceActorMsgWrapper(TransportProtos.TransportToDeviceActorMsg.newBuilder()
+                .setSessionInfo(TransportProtos.SessionInfoProto.newBuilder()
+                        .setTenantIdMSB(1L).setTenantIdLSB(2L).setDeviceIdMSB(3L).setDeviceIdLSB(4L))
+                .build());
+        assertEquals(msg, roundTrip(msg));
+    }
+
+    @Test
+    public void testComponentLifecycleMsg() {
+        ComponentLifecycleMsg msg = new ComponentLifecycleMsg(new TenantId(UUIDs.timeBased()), new RuleChainId(UUIDs.timeBased()),
+                ComponentLifecycleEvent.UPDATED);
+        ComponentLifecycleMsg decoded = (ComponentLifecycleMsg) roundTrip(msg);
+        assertEquals(msg.getTenantId(), decoded.getTenantId());
+        assertEquals(msg.getEntityId(), decoded.getEntityId());
+        assertEquals(msg.getEvent(), decoded.getEvent());
+    }
+
+    @Test
+    public void testToDeviceRpcRequestActorMsg() {
+        ToDeviceRpcRequestActorMsg msg = new ToDeviceRpcRequestActorMsg(SERVER, new ToDeviceRpcRequest(UUIDs.timeBased(),
+                new TenantId(UUIDs.timeBased()), new DeviceId(UUIDs.timeBased()), true, System.currentTimeMillis(),
+                new ToDeviceRpcRequestBody("setGpio", "{\"pin\":1}")));
+        ToDeviceRpcRequestActorMsg decoded = (ToDeviceRpcRequestActorMsg) roundTrip(msg);
+        assertEquals(msg.getServerAddress(), decoded.getServerAddress());
+        assertEquals(msg.getMsg(), decoded.getMsg());
+    }
+
+    @Test
+    public void testFstFallback() {
+        RemoteToRuleChainTellNextMsg msg = createTellNextMsg();
+        ClusterAPIProtos.ClusterMessage fstMsg = fstService.convertToProtoDataMessage(SERVER, msg);
+        assertEquals(ClusterAPIProtos.MessageType.CLUSTER_ACTOR_MESSAGE, fstMsg.getMessageType());
+        assertEquals(Optional.of(msg), protoService.decode(fstMsg));
+
+        ClusterAPIProtos.ClusterMessage protoMsg = protoService.convertToProtoDataMessage(SERVER, msg);
+        assertEquals(ClusterAPIProtos.MessageType.CLUSTER_ACTOR_PROTO_MESSAGE, protoMsg.getMessageType());
+        assertTrue(protoMsg.getPayload().size() < fstMsg.getPayload().size());
+    }
+
+    @Test
+    public void testCorruptedPayload() {
+        ClusterAPIProtos.ClusterMessage msg = ClusterAPIProtos.ClusterMessage.newBuilder()
+                .setMessageType(ClusterAPIProtos.MessageType.CLUSTER_ACTOR_PROTO_MESSAGE)
+                .setPayload(ByteString.copyFromUtf8("corrupted"))
+                .build();
+        assertFalse(protoService.decode(msg).isPresent());
+    }
+
+    private TbActorMsg roundTrip(TbActorMsg msg) {
+        ClusterAPIProtos.ClusterMessage encoded = protoService.convertToProtoDataMessage(SERVER, msg);
+        assertEquals(ClusterAPIProtos.MessageType.CLUSTER_ACTOR_PROTO_MESSAGE, encoded.getMessageType());
+        return protoService.decode(encoded).get();
+    }
+
+    static ProtoWithFSTService createService(String encoding) {
+        ProtoWithFSTService service = new ProtoWithFSTService();
+        ReflectionTestUtils.setField(service, "actorMsgEncoding", encoding);
+        return service;
+    }
+
+    static RemoteToRuleChainTellNextMsg createTellNextMsg() {
+        TbMsgMetaData metaData = new TbMsgMetaData();
+        metaData.putValue("deviceName", "Thermostat A1");
+        metaData.putValue("deviceType", "thermostat");
+        metaData.putValue("ts", String.valueOf(System.currentTimeMillis()));
+        RuleChainId ruleChainId = new RuleChainId(UUIDs.timeBased());
+        TbMsg tbMsg = new TbMsg(UUIDs.timeBased(), "POST_TELEMETRY_REQUEST", new DeviceId(UUIDs.timeBased()), metaData,
+                "{\"temperature\":21.5,\"humidity\":48}", ruleChainId, new RuleNodeId(UUIDs.timeBased()), 3L);
+        return new RemoteToRuleChainTellNextMsg(new RuleNodeToRuleChainTellNextMsg(new RuleNodeId(UUIDs.timeBased()),
+                new HashSet<>(Arrays.asList("Success", "Post telemetry")), tbMsg), new TenantId(UUIDs.timeBased()), ruleChainId);
+    }
+}
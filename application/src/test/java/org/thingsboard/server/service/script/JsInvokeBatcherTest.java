@@ -0,0 +1,109 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.script;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.thingsboard.server.gen.js.JsInvokeProtos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class JsInvokeBatcherTest {
+
+    private ScheduledExecutorService scheduler;
+    private List<JsInvokeBatcher.Batch> batches;
+
+    @Before
+    public void before() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        batches = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @After
+    public void after() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testInvocationsBatchedPerScript() throws Exception {
+        JsInvokeBatcher batcher = new JsInvokeBatcher(scheduler, 50, 100, this::echo);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        ListenableFuture<JsInvokeProtos.JsInvokeResponse> a = batcher.add(first, "f1", Collections.singletonList("a"));
+        ListenableFuture<JsInvokeProtos.JsInvokeResponse> b = batcher.add(second, "f2", Collections.singletonList("b"));
+        ListenableFuture<JsInvokeProtos.JsInvokeResponse> c = batcher.add(first, "f1", Collections.singletonList("c"));
+
+        assertEquals("a", a.get(1, TimeUnit.SECONDS).getResult());
+        assertEquals("b", b.get(1, TimeUnit.SECONDS).getResult());
+        assertEquals("c", c.get(1, TimeUnit.SECONDS).getResult());
+        assertEquals(2, batches.size());
+        JsInvokeBatcher.Batch firstBatch = batches.stream().filter(batch -> batch.getScriptId().equals(first)).findFirst().get();
+        assertEquals("f1", firstBatch.getFunctionName());
+        assertEquals(2, firstBatch.getInvocations().size());
+    }
+
+    @Test
+    public void testInvocationsWithEqualArgumentsNotMerged() throws Exception {
+        JsInvokeBatcher batcher = new JsInvokeBatcher(scheduler, 60000, 2, this::echo);
+        UUID scriptId = UUID.randomUUID();
+        ListenableFuture<JsInvokeProtos.JsInvokeResponse> first = batcher.add(scriptId, "f", Collections.singletonList("a"));
+        ListenableFuture<JsInvokeProtos.JsInvokeResponse> second = batcher.add(scriptId, "f", Collections.singletonList("a"));
+
+        assertEquals("a", first.get(1, TimeUnit.SECONDS).getResult());
+        assertEquals("a", second.get(1, TimeUnit.SECONDS).getResult());
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).getInvocations().size());
+    }
+
+    @Test
+    public void testMissingResponsesFailBatch() throws Exception {
+        JsInvokeBatcher batcher = new JsInvokeBatcher(scheduler, 60000, 2,
+                batch -> Futures.immediateFuture(Collections.singletonList(JsInvokeProtos.JsInvokeResponse.newBuilder().setSuccess(true).build())));
+        UUID scriptId = UUID.randomUUID();
+        ListenableFuture<JsInvokeProtos.JsInvokeResponse> first = batcher.add(scriptId, "f", Collections.singletonList("a"));
+        ListenableFuture<JsInvokeProtos.JsInvokeResponse> second = batcher.add(scriptId, "f", Collections.singletonList("b"));
+        for (ListenableFuture<JsInvokeProtos.JsInvokeResponse> future : Arrays.asList(first, second)) {
+            try {
+                future.get(1, TimeUnit.SECONDS);
+                fail("Batch without all the responses should fail");
+            } catch (ExecutionException e) {
+                assertEquals("Expected 2 responses to the batch but got 1!", e.getCause().getMessage());
+            }
+        }
+    }
+
+    private ListenableFuture<List<JsInvokeProtos.JsInvokeResponse>> echo(JsInvokeBatcher.Batch batch) {
+        batches.add(batch);
+        return Futures.immediateFuture(batch.getInvocations().stream()
+                .map(invocation -> JsInvokeProtos.JsInvokeResponse.newBuilder().setSuccess(true).setResult(invocation.getArgs(0)).build())
+                .collect(Collectors.toList()));
+    }
+}
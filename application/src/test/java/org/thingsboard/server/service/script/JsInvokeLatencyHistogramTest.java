@@ -0,0 +1,42 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.script;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsInvokeLatencyHistogramTest {
+
+    @Test
+    public void testPercentiles() {
+        JsInvokeLatencyHistogram histogram = new JsInvokeLatencyHistogram();
+        assertEquals(0, histogram.getPercentile(99));
+        for (int i = 0; i < 90; i++) {
+            histogram.record(3);
+        }
+        for (int i = 0; i < 9; i++) {
+            histogram.record(40);
+        }
+        histogram.record(12000);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(5, histogram.getPercentile(50));
+        assertEquals(50, histogram.getPercentile(95));
+        assertEquals(50, histogram.getPercentile(99));
+        assertEquals(12000, histogram.getPercentile(100));
+    }
+}
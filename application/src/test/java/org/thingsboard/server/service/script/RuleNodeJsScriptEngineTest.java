@@ -103,6 +103,42 @@ public class RuleNodeJsScriptEngineTest {
         scriptEngine.destroy();
     }
 
+    @Test
+    public void resultConvertedAsJsonStringify() throws ScriptException {
+        String function = "return {msg: {a: 1.5, b: msg.passed * 2, c: [1, undefined, function() {}], d: undefined, " +
+                "e: new Date(0), f: NaN, g: new String('s')}, metadata: metadata};";
+        scriptEngine = new RuleNodeJsScriptEngine(jsSandboxService, ruleNodeId, function);
+        TbMsgMetaData metaData = new TbMsgMetaData();
+        metaData.putValue("temp", "7");
+        TbMsg msg = new TbMsg(UUIDs.timeBased(), "USER", null, metaData, "{\"passed\": 5}", null, null, 0L);
+
+        TbMsg actual = scriptEngine.executeUpdate(msg);
+
+        String expectedJson = "{\"a\":1.5,\"b\":10,\"c\":[1,null,null],\"e\":\"1970-01-01T00:00:00.000Z\",\"f\":null,\"g\":\"s\"}";
+        assertEquals(expectedJson, actual.getData());
+        assertEquals("7", actual.getMetaData().getValue("temp"));
+        scriptEngine.destroy();
+    }
+
+    @Test
+    public void sandboxedScriptInterruptedOnCpuTimeLimit() throws Exception {
+        TestNashornJsInvokeService sandboxService = new TestNashornJsInvokeService(true, 1, 100, 3);
+        try {
+            TbMsg msg = new TbMsg(UUIDs.timeBased(), "USER", null, new TbMsgMetaData(), "{}", null, null, 0L);
+            ScriptEngine infiniteLoop = new RuleNodeJsScriptEngine(sandboxService, ruleNodeId, "while (true) { msg.a = 1; } return true;");
+            try {
+                infiniteLoop.executeFilter(msg);
+                fail("Script should be interrupted");
+            } catch (ScriptException e) {
+                assertTrue(e.getMessage().contains("CPU time"));
+            }
+            ScriptEngine filter = new RuleNodeJsScriptEngine(sandboxService, ruleNodeId, "return msg.a === undefined;");
+            assertTrue(filter.executeFilter(msg));
+        } finally {
+            sandboxService.stop();
+        }
+    }
+
     @Test
     public void metadataAccessibleForFilter() throws ScriptException {
         String function = "return metadata.humidity < 15;";
@@ -191,8 +227,10 @@ public class RuleNodeJsScriptEngineTest {
         }
 
         finishLatch.await();
-        assertTrue(scriptIds.size() == 1);
-        assertTrue(failedCount.get() == 0);
+        // Every eval registers its own script id, and each one is gone from the service once released
+        assertEquals(repeat * 10, scriptIds.size());
+        assertTrue(jsSandboxService.scriptIdToNameMap.isEmpty());
+        assertEquals(0, failedCount.get());
 
         CountDownLatch nextStart = new CountDownLatch(repeat);
         CountDownLatch nextFinish = new CountDownLatch(repeat);
@@ -201,8 +239,17 @@ public class RuleNodeJsScriptEngineTest {
         }
 
         nextFinish.await();
-        assertTrue(scriptIds.size() == 1);
-        assertTrue(failedCount.get() == 0);
+        assertEquals(2 * repeat * 10, scriptIds.size());
+        assertTrue(jsSandboxService.scriptIdToNameMap.isEmpty());
+        assertEquals(0, failedCount.get());
+        for (UUID scriptId : scriptIds.keySet()) {
+            try {
+                jsSandboxService.invokeFunction(scriptId, "{}", "{}", "TEXT").get();
+                fail("Released script [" + scriptId + "] is still invokable");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause().getMessage().startsWith("No compiled script found"));
+            }
+        }
         service.shutdownNow();
     }
 
@@ -15,29 +15,49 @@
  */
 package org.thingsboard.server.service.script;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
 public class TestNashornJsInvokeService extends AbstractNashornJsInvokeService {
 
     private boolean useJsSandbox;
-    private final int monitorThreadPoolSize;
+    private final int enginePoolSize;
     private final long maxCpuTime;
     private final int maxErrors;
+    private final JsExecutorService jsExecutor;
 
-    public TestNashornJsInvokeService(boolean useJsSandbox, int monitorThreadPoolSize, long maxCpuTime, int maxErrors) {
+    public TestNashornJsInvokeService(boolean useJsSandbox, int enginePoolSize, long maxCpuTime, int maxErrors) {
         this.useJsSandbox = useJsSandbox;
-        this.monitorThreadPoolSize = monitorThreadPoolSize;
+        this.enginePoolSize = enginePoolSize;
         this.maxCpuTime = maxCpuTime;
         this.maxErrors = maxErrors;
+        this.jsExecutor = new JsExecutorService() {
+            @Override
+            protected int getThreadPollSize() {
+                return 4;
+            }
+        };
+        this.jsExecutor.init();
+        ReflectionTestUtils.setField(this, AbstractNashornJsInvokeService.class, "jsExecutor", jsExecutor, JsExecutorService.class);
+        ReflectionTestUtils.setField(this, AbstractNashornJsInvokeService.class, "meterRegistry", new SimpleMeterRegistry(), MeterRegistry.class);
         init();
     }
 
+    @Override
+    public void stop() {
+        super.stop();
+        jsExecutor.destroy();
+    }
+
     @Override
     protected boolean useJsSandbox() {
         return useJsSandbox;
     }
 
     @Override
-    protected int getMonitorThreadPoolSize() {
-        return monitorThreadPoolSize;
+    protected int getEnginePoolSize() {
+        return enginePoolSize;
     }
 
     @Override
@@ -0,0 +1,109 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.security.model.token;
+
+import com.datastax.driver.core.utils.UUIDs;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.id.UserId;
+import org.thingsboard.server.common.data.security.Authority;
+import org.thingsboard.server.config.JwtSettings;
+import org.thingsboard.server.service.security.exception.JwtExpiredTokenException;
+import org.thingsboard.server.service.security.model.SecurityUser;
+import org.thingsboard.server.service.security.model.UserPrincipal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class JwtTokenFactoryTest {
+
+    private JwtTokenCache tokenCache;
+    private JwtTokenFactory tokenFactory;
+
+    @Before
+    public void before() {
+        JwtSettings settings = new JwtSettings();
+        settings.setTokenExpirationTime(9000);
+        settings.setRefreshTokenExpTime(604800);
+        settings.setTokenIssuer("thingsboard.io");
+        settings.setTokenSigningKey("testSigningKey");
+        tokenCache = new JwtTokenCache();
+        ReflectionTestUtils.setField(tokenCache, "cacheEnabled", true);
+        ReflectionTestUtils.setField(tokenCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(tokenCache, "settings", settings);
+        tokenCache.init();
+        tokenFactory = new JwtTokenFactory(settings, tokenCache);
+    }
+
+    @Test
+    public void testVerifiedTokenCached() {
+        SecurityUser user = createUser();
+        String token = tokenFactory.createAccessJwtToken(user).getToken();
+
+        SecurityUser parsed = tokenFactory.parseAccessJwtToken(new RawAccessJwtToken(token));
+        assertEquals(user.getId(), parsed.getId());
+        assertEquals(user.getTenantId(), parsed.getTenantId());
+        assertEquals(Authority.TENANT_ADMIN, parsed.getAuthority());
+        assertSame(parsed, tokenFactory.parseAccessJwtToken(new RawAccessJwtToken(token)));
+    }
+
+    @Test
+    public void testTokenRevokedOnLogout() {
+        SecurityUser user = createUser();
+        String token = tokenFactory.createAccessJwtToken(user).getToken();
+        tokenFactory.parseAccessJwtToken(new RawAccessJwtToken(token));
+
+        tokenCache.revokeToken(token);
+        assertRevoked(token);
+    }
+
+    @Test
+    public void testUserTokensRevokedOnCredentialsChange() throws Exception {
+        SecurityUser user = createUser();
+        String token = tokenFactory.createAccessJwtToken(user).getToken();
+        tokenFactory.parseAccessJwtToken(new RawAccessJwtToken(token));
+
+        // token issue time has a second precision
+        Thread.sleep(1000);
+        tokenCache.revokeUserTokens(user.getId());
+        assertRevoked(token);
+
+        String newToken = tokenFactory.createAccessJwtToken(user).getToken();
+        assertEquals(user.getId(), tokenFactory.parseAccessJwtToken(new RawAccessJwtToken(newToken)).getId());
+    }
+
+    private void assertRevoked(String token) {
+        try {
+            tokenFactory.parseAccessJwtToken(new RawAccessJwtToken(token));
+            fail("Revoked token should not be accepted");
+        } catch (JwtExpiredTokenException e) {
+            assertEquals("JWT Token revoked", e.getMessage());
+        }
+    }
+
+    private SecurityUser createUser() {
+        SecurityUser user = new SecurityUser(new UserId(UUIDs.timeBased()));
+        user.setTenantId(new TenantId(UUIDs.timeBased()));
+        user.setEmail("tenant@thingsboard.org");
+        user.setAuthority(Authority.TENANT_ADMIN);
+        user.setEnabled(true);
+        user.setUserPrincipal(new UserPrincipal(UserPrincipal.Type.USER_NAME, user.getEmail()));
+        return user;
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.transaction;
+
+import com.datastax.driver.core.utils.UUIDs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.msg.TbMsg;
+import org.thingsboard.server.common.msg.TbMsgMetaData;
+import org.thingsboard.server.service.cluster.routing.ClusterRoutingService;
+import org.thingsboard.server.service.cluster.rpc.ClusterRpcService;
+import org.thingsboard.server.service.executors.DbCallbackExecutorService;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BaseRuleChainTransactionServiceTest {
+
+    private static final int QUEUE_SIZE = 2;
+    private static final long DURATION_MS = 200;
+
+    private BaseRuleChainTransactionService service;
+
+    private final List<TbMsg> started = new CopyOnWriteArrayList<>();
+    private final List<TbMsg> ended = new CopyOnWriteArrayList<>();
+    private final List<String> failures = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void before() {
+        ClusterRoutingService routingService = mock(ClusterRoutingService.class);
+        when(routingService.resolveById(any(EntityId.class))).thenReturn(Optional.empty());
+        DbCallbackExecutorService callbackExecutor = mock(DbCallbackExecutorService.class);
+        when(callbackExecutor.executeAsync(any(Callable.class))).thenAnswer(invocation -> {
+            ((Callable<?>) invocation.getArguments()[0]).call();
+            return null;
+        });
+
+        service = new BaseRuleChainTransactionService();
+        ReflectionTestUtils.setField(service, "routingService", routingService);
+        ReflectionTestUtils.setField(service, "clusterRpcService", mock(ClusterRpcService.class));
+        ReflectionTestUtils.setField(service, "callbackExecutor", callbackExecutor);
+        ReflectionTestUtils.setField(service, "finalQueueSize", QUEUE_SIZE);
+        ReflectionTestUtils.setField(service, "duration", DURATION_MS);
+        ReflectionTestUtils.setField(service, "lockStripes", 16);
+        service.init();
+    }
+
+    @After
+    public void after() {
+        service.destroy();
+    }
+
+    @Test
+    public void testTransactionsOfOriginatorRunOneAtATime() {
+        DeviceId deviceId = new DeviceId(UUIDs.timeBased());
+        TbMsg first = msg(deviceId);
+        TbMsg second = msg(deviceId);
+
+        begin(first);
+        begin(second);
+        assertEquals(1, started.size());
+        assertEquals(first, started.get(0));
+
+        service.endTransaction(first, msg -> {
+        }, e -> failures.add(e.getMessage()));
+        assertEquals(2, started.size());
+        assertEquals(second, started.get(1));
+        assertEquals(1, ended.size());
+        assertEquals(first, ended.get(0));
+        assertTrue(failures.isEmpty());
+    }
+
+    @Test
+    public void testTransactionsOfOtherOriginatorsNotQueued() {
+        begin(msg(new DeviceId(UUIDs.timeBased())));
+        begin(msg(new DeviceId(UUIDs.timeBased())));
+
+        assertEquals(2, started.size());
+    }
+
+    @Test
+    public void testFullQueueRejected() {
+        DeviceId deviceId = new DeviceId(UUIDs.timeBased());
+        for (int i = 0; i < QUEUE_SIZE + 1; i++) {
+            begin(msg(deviceId));
+        }
+
+        assertEquals(1, started.size());
+        assertEquals(1, failures.size());
+        assertEquals("Queue has no space!", failures.get(0));
+    }
+
+    @Test
+    public void testExpiredTransactionStartsNext() throws InterruptedException {
+        DeviceId deviceId = new DeviceId(UUIDs.timeBased());
+        TbMsg first = msg(deviceId);
+        begin(first);
+        Thread.sleep(DURATION_MS / 2);
+        TbMsg second = msg(deviceId);
+        begin(second);
+
+        await(started, 2);
+        assertEquals(1, failures.size());
+        assertEquals("Task has expired!", failures.get(0));
+        assertEquals(second, started.get(1));
+
+        service.endTransaction(first, msg -> {
+        }, e -> failures.add(e.getMessage()));
+        assertEquals(2, failures.size());
+        assertTrue(ended.isEmpty());
+    }
+
+    @Test
+    public void testEndedTransactionDoesNotExpire() throws InterruptedException {
+        TbMsg msg = msg(new DeviceId(UUIDs.timeBased()));
+        begin(msg);
+        service.endTransaction(msg, m -> {
+        }, e -> failures.add(e.getMessage()));
+
+        Thread.sleep(DURATION_MS * 2);
+        assertEquals(1, ended.size());
+        assertTrue(failures.isEmpty());
+    }
+
+    private void begin(TbMsg msg) {
+        service.beginTransaction(msg, started::add, ended::add, e -> failures.add(e.getMessage()));
+    }
+
+    private static void await(List<?> list, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (list.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(size, list.size());
+    }
+
+    private static TbMsg msg(DeviceId deviceId) {
+        return new TbMsg(UUIDs.timeBased(), "POST_TELEMETRY_REQUEST", deviceId, new TbMsgMetaData(), "{}", null, null, 0L);
+    }
+}
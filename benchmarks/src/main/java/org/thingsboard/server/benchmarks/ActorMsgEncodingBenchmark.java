@@ -0,0 +1,71 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thingsboard.server.common.msg.TbActorMsg;
+import org.thingsboard.server.gen.cluster.ClusterAPIProtos;
+import org.thingsboard.server.service.encoding.ProtoWithFSTService;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares FST and protobuf encoding of a remote rule chain message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActorMsgEncodingBenchmark {
+
+    @Param({"fst", "protobuf"})
+    public String encoding;
+
+    private ProtoWithFSTService service;
+    private TbActorMsg msg;
+    private ClusterAPIProtos.ClusterMessage encoded;
+
+    @Setup
+    public void setup() {
+        service = new ProtoWithFSTService();
+        Fixtures.setField(service, "actorMsgEncoding", encoding);
+        msg = Fixtures.tellNextMsg();
+        encoded = service.convertToProtoDataMessage(msg);
+    }
+
+    @Benchmark
+    public ClusterAPIProtos.ClusterMessage encode() {
+        return service.convertToProtoDataMessage(msg);
+    }
+
+    @Benchmark
+    public Optional<TbActorMsg> decode() {
+        return service.decode(encoded);
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two result files written by {@link BenchmarkRunner}.
+ * Arguments: &lt;base result&gt; &lt;head result&gt; [max regression, %].
+ * A change is reported as a regression only if it exceeds the score errors of both runs.
+ * With the max regression set the process exits with status 1 if any benchmark regressed more than that.
+ */
+public class BenchmarkComparator {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparator <base result> <head result> [max regression, %]");
+            System.exit(2);
+        }
+        Map<String, Score> base = read(new File(args[0]));
+        Map<String, Score> head = read(new File(args[1]));
+        double maxRegression = args.length > 2 ? Double.parseDouble(args[2]) : Double.MAX_VALUE;
+
+        boolean failed = false;
+        System.out.println(String.format("%-90s %15s %15s %10s", "Benchmark", "Base", "Head", "Change"));
+        for (Map.Entry<String, Score> entry : base.entrySet()) {
+            Score baseScore = entry.getValue();
+            Score headScore = head.get(entry.getKey());
+            if (headScore == null) {
+                System.out.println(String.format("%-90s %15.3f %15s %10s", entry.getKey(), baseScore.value, "-", "removed"));
+                continue;
+            }
+            double change = (headScore.value - baseScore.value) / baseScore.value * 100;
+            double regression = baseScore.higherIsBetter ? -change : change;
+            boolean significant = Math.abs(headScore.value - baseScore.value) > baseScore.error + headScore.error;
+            String mark = "";
+            if (significant && regression > 0) {
+                mark = " REGRESSION";
+                failed |= regression > maxRegression;
+            } else if (significant) {
+                mark = " IMPROVEMENT";
+            }
+            System.out.println(String.format("%-90s %15.3f %15.3f %+9.1f%%%s %s", entry.getKey(), baseScore.value, headScore.value,
+                    change, mark, headScore.unit));
+        }
+        for (String name : head.keySet()) {
+            if (!base.containsKey(name)) {
+                System.out.println(String.format("%-90s %15s %15.3f %10s", name, "-", head.get(name).value, "added"));
+            }
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Score> read(File file) throws IOException {
+        Map<String, Score> result = new LinkedHashMap<>();
+        for (JsonNode benchmark : mapper.readTree(file)) {
+            StringBuilder name = new StringBuilder(benchmark.get("benchmark").asText()
+                    .replace(BenchmarkRunner.class.getPackage().getName() + ".", ""));
+            JsonNode params = benchmark.get("params");
+            if (params != null) {
+                Map<String, String> sorted = new TreeMap<>();
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> param = fields.next();
+                    sorted.put(param.getKey(), param.getValue().asText());
+                }
+                name.append(sorted);
+            }
+            JsonNode metric = benchmark.get("primaryMetric");
+            double error = metric.get("scoreError").asDouble();
+            result.put(name.toString(), new Score(metric.get("score").asDouble(), Double.isNaN(error) ? 0 : error,
+                    metric.get("scoreUnit").asText(), "thrpt".equals(benchmark.get("mode").asText())));
+        }
+        return result;
+    }
+
+    private static class Score {
+
+        private final double value;
+        private final double error;
+        private final String unit;
+        private final boolean higherIsBetter;
+
+        private Score(double value, double error, String unit, boolean higherIsBetter) {
+            this.value = value;
+            this.error = error;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the benchmarks and writes the results in the JMH JSON format, so that the results of two commits
+ * can be compared with {@link BenchmarkComparator}:
+ * <pre>
+ * mvn install -Pbenchmarks -DskipTests
+ * java -jar benchmarks/target/benchmarks-*-jar-with-dependencies.jar -o base.json
+ * (checkout and build the other commit)
+ * java -jar benchmarks/target/benchmarks-*-jar-with-dependencies.jar -o head.json
+ * java -cp benchmarks/target/benchmarks-*-jar-with-dependencies.jar org.thingsboard.server.benchmarks.BenchmarkComparator base.json head.json
+ * </pre>
+ * Arguments: [-o result file] [benchmark regexp...], e.g. "TbMsg" runs the TbMsg serialization benchmarks only.
+ * The result file is benchmarks-&lt;git revision&gt;.json by default.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String result = null;
+        List<String> includes = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("-o".equals(args[i]) && i + 1 < args.length) {
+                result = args[++i];
+            } else {
+                includes.add(args[i]);
+            }
+        }
+        if (result == null) {
+            result = "benchmarks-" + revision() + ".json";
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .resultFormat(ResultFormatType.JSON)
+                .result(result);
+        includes.forEach(options::include);
+        new Runner(options.build()).run();
+        System.out.println("Results are written to " + result);
+    }
+
+    private static String revision() {
+        try {
+            Process process = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String revision = reader.readLine();
+                if (process.waitFor() == 0 && revision != null && !revision.isEmpty()) {
+                    return revision.trim();
+                }
+            }
+        } catch (Exception e) {
+            // not a git checkout
+        }
+        return String.valueOf(System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.benchmarks;
+
+import com.datastax.driver.core.utils.UUIDs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.msg.cluster.ServerAddress;
+import org.thingsboard.server.common.msg.cluster.ServerType;
+import org.thingsboard.server.service.cluster.discovery.DiscoveryService;
+import org.thingsboard.server.service.cluster.discovery.ServerInstance;
+import org.thingsboard.server.service.cluster.routing.ConsistentClusterRoutingService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolution of the server that owns the entity, done for each message routed in the cluster.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClusterRoutingBenchmark {
+
+    private static final int ENTITIES = 1024;
+
+    @Param({"consistent_hash", "partitions"})
+    public String routingType;
+
+    @Param({"3", "12"})
+    public int servers;
+
+    private ConsistentClusterRoutingService routingService;
+    private EntityId[] entityIds;
+    private int next;
+
+    @Setup
+    public void setup() {
+        List<ServerInstance> others = new ArrayList<>();
+        for (int i = 1; i < servers; i++) {
+            others.add(new ServerInstance(new ServerAddress("10.0.0." + i, 9001, ServerType.CORE)));
+        }
+        routingService = new ConsistentClusterRoutingService();
+        Fixtures.setField(routingService, "discoveryService", new StaticDiscoveryService(
+                new ServerInstance(new ServerAddress("10.0.0.0", 9001, ServerType.CORE)), others));
+        Fixtures.setField(routingService, "hashFunctionName", "murmur3_128");
+        Fixtures.setField(routingService, "virtualNodesSize", 16);
+        Fixtures.setField(routingService, "routingType", routingType);
+        Fixtures.setField(routingService, "partitionsCount", 1024);
+        routingService.init();
+        entityIds = new EntityId[ENTITIES];
+        for (int i = 0; i < ENTITIES; i++) {
+            entityIds[i] = new DeviceId(UUIDs.timeBased());
+        }
+    }
+
+    @Benchmark
+    public Optional<ServerAddress> resolveById() {
+        return routingService.resolveById(entityIds[next++ & (ENTITIES - 1)]);
+    }
+
+    private static class StaticDiscoveryService implements DiscoveryService {
+
+        private final ServerInstance currentServer;
+        private final List<ServerInstance> otherServers;
+
+        private StaticDiscoveryService(ServerInstance currentServer, List<ServerInstance> otherServers) {
+            this.currentServer = currentServer;
+            this.otherServers = otherServers;
+        }
+
+        @Override
+        public void publishCurrentServer() {
+        }
+
+        @Override
+        public void unpublishCurrentServer() {
+        }
+
+        @Override
+        public ServerInstance getCurrentServer() {
+            return currentServer;
+        }
+
+        @Override
+        public List<ServerInstance> getOtherServers() {
+            return otherServers;
+        }
+    }
+}
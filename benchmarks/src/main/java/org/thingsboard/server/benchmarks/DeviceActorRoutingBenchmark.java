@@ -0,0 +1,202 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.benchmarks;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import com.google.common.util.concurrent.Futures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thingsboard.server.actors.ActorSystemContext;
+import org.thingsboard.server.actors.device.SessionTimeoutSweeper;
+import org.thingsboard.server.actors.tenant.TenantActor;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.dao.device.DeviceService;
+import org.thingsboard.server.gen.transport.TransportProtos.SessionInfoProto;
+import org.thingsboard.server.gen.transport.TransportProtos.SubscriptionInfoProto;
+import org.thingsboard.server.gen.transport.TransportProtos.TransportToDeviceActorMsg;
+import org.thingsboard.server.service.executors.DbCallbackExecutorService;
+import org.thingsboard.server.service.session.DeviceSessionCacheService;
+import org.thingsboard.server.service.transport.msg.TransportToDeviceActorMsgWrapper;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transport messages of a single tenant delivered to the device actors through the Tenant Actor mailbox
+ * and through the device actor registry. Each invocation sends one message to each device of the thread
+ * and waits until the device actors have processed them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeviceActorRoutingBenchmark {
+
+    private static final int DEVICES_PER_THREAD = 100;
+
+    @Param({"tenant_actor", "registry"})
+    public String route;
+
+    private final TenantId tenantId = new TenantId(UUID.randomUUID());
+    // processed messages of the devices of each sender thread
+    private final ConcurrentMap<DeviceId, AtomicLong> processed = new ConcurrentHashMap<>();
+
+    private ActorSystem actorSystem;
+    private ActorSystemContext systemContext;
+    private ActorRef tenantActor;
+    private DbCallbackExecutorService dbCallbackExecutor;
+    private SessionTimeoutSweeper sessionTimeoutSweeper;
+
+    @Setup
+    public void setup() {
+        systemContext = new ActorSystemContext();
+        actorSystem = ActorSystem.create("benchmark", systemContext.getConfig());
+        systemContext.setActorSystem(actorSystem);
+        Fixtures.setField(systemContext, "sessionInactivityTimeout", 60000L);
+        sessionTimeoutSweeper = new SessionTimeoutSweeper(60000L, 100L);
+        systemContext.setSessionTimeoutSweeper(sessionTimeoutSweeper);
+        dbCallbackExecutor = new DbCallbackExecutorService();
+        Fixtures.setField(dbCallbackExecutor, "dbCallbackExecutorThreadPoolSize", 2);
+        dbCallbackExecutor.init();
+        Fixtures.setField(systemContext, "dbCallbackExecutor", dbCallbackExecutor);
+        Fixtures.setField(systemContext, "deviceService", deviceService());
+        Fixtures.setField(systemContext, "deviceSessionCacheService", new DeviceSessionCacheService() {
+            @Override
+            public byte[] get(DeviceId deviceId) {
+                return new byte[0];
+            }
+
+            @Override
+            public byte[] put(DeviceId deviceId, byte[] sessions) {
+                AtomicLong counter = processed.get(deviceId);
+                if (counter != null) {
+                    counter.incrementAndGet();
+                }
+                return sessions;
+            }
+        });
+        tenantActor = actorSystem.actorOf(Props.create(new TenantActor.ActorCreator(systemContext, tenantId)), "tenant");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Await.result(actorSystem.terminate(), Duration.create(10, TimeUnit.SECONDS));
+        dbCallbackExecutor.destroy();
+        sessionTimeoutSweeper.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DEVICES_PER_THREAD)
+    public void send(Sender sender) {
+        sender.sendAndAwait(this);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    @OperationsPerInvocation(DEVICES_PER_THREAD)
+    public void sendContended(Sender sender) {
+        sender.sendAndAwait(this);
+    }
+
+    private void tell(TransportToDeviceActorMsgWrapper msg) {
+        if ("registry".equals(route)) {
+            systemContext.getDeviceActorRegistry().tell(msg.getDeviceId(), msg, tenantActor);
+        } else {
+            tenantActor.tell(msg, ActorRef.noSender());
+        }
+    }
+
+    private DeviceService deviceService() {
+        return (DeviceService) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{DeviceService.class}, (proxy, method, args) -> {
+            if ("findDeviceByIdAsync".equals(method.getName())) {
+                Device device = new Device((DeviceId) args[1]);
+                device.setName("Device");
+                device.setType("default");
+                return Futures.immediateFuture(device);
+            }
+            return null;
+        });
+    }
+
+    @State(Scope.Thread)
+    public static class Sender {
+
+        private final TransportToDeviceActorMsgWrapper[] msgs = new TransportToDeviceActorMsgWrapper[DEVICES_PER_THREAD];
+        private final AtomicLong processed = new AtomicLong();
+        private long sent;
+
+        @Setup
+        public void setup(DeviceActorRoutingBenchmark benchmark) {
+            UUID tenantUuid = benchmark.tenantId.getId();
+            for (int i = 0; i < DEVICES_PER_THREAD; i++) {
+                UUID deviceId = UUID.randomUUID();
+                UUID sessionId = UUID.randomUUID();
+                SessionInfoProto sessionInfo = SessionInfoProto.newBuilder()
+                        .setNodeId("node")
+                        .setSessionIdMSB(sessionId.getMostSignificantBits())
+                        .setSessionIdLSB(sessionId.getLeastSignificantBits())
+                        .setTenantIdMSB(tenantUuid.getMostSignificantBits())
+                        .setTenantIdLSB(tenantUuid.getLeastSignificantBits())
+                        .setDeviceIdMSB(deviceId.getMostSignificantBits())
+                        .setDeviceIdLSB(deviceId.getLeastSignificantBits())
+                        .build();
+                msgs[i] = new TransportToDeviceActorMsgWrapper(TransportToDeviceActorMsg.newBuilder()
+                        .setSessionInfo(sessionInfo)
+                        .setSubscriptionInfo(SubscriptionInfoProto.newBuilder().setLastActivityTime(System.currentTimeMillis()).build())
+                        .build());
+                benchmark.processed.put(msgs[i].getDeviceId(), processed);
+            }
+        }
+
+        private void sendAndAwait(DeviceActorRoutingBenchmark benchmark) {
+            for (TransportToDeviceActorMsgWrapper msg : msgs) {
+                benchmark.tell(msg);
+            }
+            sent += msgs.length;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (processed.get() < sent) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Device actors processed " + processed.get() + " of " + sent + " messages");
+                }
+                Thread.yield();
+            }
+        }
+    }
+}
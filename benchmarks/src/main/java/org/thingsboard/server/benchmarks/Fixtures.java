@@ -0,0 +1,87 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.benchmarks;
+
+import com.datastax.driver.core.utils.UUIDs;
+import com.google.common.io.Resources;
+import org.springframework.util.ReflectionUtils;
+import org.thingsboard.server.actors.ruleChain.RemoteToRuleChainTellNextMsg;
+import org.thingsboard.server.actors.ruleChain.RuleNodeToRuleChainTellNextMsg;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.RuleChainId;
+import org.thingsboard.server.common.data.id.RuleNodeId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.TbMsg;
+import org.thingsboard.server.common.msg.TbMsgMetaData;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Payloads and messages shaped like the ones of a typical device: a thermostat that posts telemetry
+ * and client attributes over MQTT. JSON payloads are kept under /fixtures.
+ */
+final class Fixtures {
+
+    static final String TELEMETRY = "telemetry.json";
+    static final String TELEMETRY_TS = "telemetry-ts.json";
+    static final String ATTRIBUTES = "attributes.json";
+
+    private Fixtures() {
+    }
+
+    static String json(String name) {
+        try {
+            return Resources.toString(Resources.getResource("fixtures/" + name), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static TbMsgMetaData deviceMetaData() {
+        TbMsgMetaData metaData = new TbMsgMetaData();
+        metaData.putValue("deviceName", "Thermostat A1");
+        metaData.putValue("deviceType", "thermostat");
+        metaData.putValue("ts", "1577836800000");
+        metaData.putValue("ss_location", "Building 7");
+        metaData.putValue("cs_serialNumber", "SN-001-A1-4452");
+        return metaData;
+    }
+
+    static TbMsg tbMsg(String payload) {
+        return new TbMsg(UUIDs.timeBased(), "POST_TELEMETRY_REQUEST", new DeviceId(UUIDs.timeBased()), deviceMetaData(),
+                json(payload), new RuleChainId(UUIDs.timeBased()), new RuleNodeId(UUIDs.timeBased()), 3L);
+    }
+
+    static RemoteToRuleChainTellNextMsg tellNextMsg() {
+        TbMsg tbMsg = tbMsg(TELEMETRY);
+        return new RemoteToRuleChainTellNextMsg(new RuleNodeToRuleChainTellNextMsg(new RuleNodeId(UUIDs.timeBased()),
+                new HashSet<>(Arrays.asList("Success", "Post telemetry")), tbMsg), new TenantId(UUIDs.timeBased()), tbMsg.getRuleChainId());
+    }
+
+    /**
+     * Sets the field that Spring injects from the configuration.
+     */
+    static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.benchmarks;
+
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thingsboard.server.common.transport.adaptor.JsonConverter;
+import org.thingsboard.server.gen.transport.TransportProtos.PostAttributeMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.PostTelemetryMsg;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of the device payloads received by the transports, including the JSON parsing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonConverterBenchmark {
+
+    @Param({Fixtures.TELEMETRY, Fixtures.TELEMETRY_TS})
+    public String telemetry;
+
+    private final JsonParser parser = new JsonParser();
+
+    private String telemetryJson;
+    private String attributesJson;
+
+    @Setup
+    public void setup() {
+        telemetryJson = Fixtures.json(telemetry);
+        attributesJson = Fixtures.json(Fixtures.ATTRIBUTES);
+    }
+
+    @Benchmark
+    public PostTelemetryMsg convertToTelemetryProto() {
+        return JsonConverter.convertToTelemetryProto(parser.parse(telemetryJson));
+    }
+
+    @Benchmark
+    public PostAttributeMsg convertToAttributesProto() {
+        return JsonConverter.convertToAttributesProto(parser.parse(attributesJson));
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thingsboard.rule.engine.api.util.TbMetaDataPattern;
+import org.thingsboard.rule.engine.api.util.TbNodeUtils;
+import org.thingsboard.server.common.msg.TbMsgMetaData;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Substitution of the message metadata into the rule node configuration patterns,
+ * compiled for each message and compiled once on the rule node init.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetaDataPatternBenchmark {
+
+    @Param({"ALARM_${deviceType}", "${deviceName} at ${ss_location}: ${cs_serialNumber} reported at ${ts}", "General Alarm"})
+    public String pattern;
+
+    private TbMsgMetaData metaData;
+    private TbMetaDataPattern compiled;
+
+    @Setup
+    public void setup() {
+        metaData = Fixtures.deviceMetaData();
+        compiled = TbNodeUtils.compilePattern(pattern);
+    }
+
+    @Benchmark
+    public String processPattern() {
+        return TbNodeUtils.processPattern(pattern, metaData);
+    }
+
+    @Benchmark
+    public String processCompiledPattern() {
+        return compiled.process(metaData);
+    }
+}
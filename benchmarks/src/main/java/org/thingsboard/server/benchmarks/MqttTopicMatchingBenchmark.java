@@ -0,0 +1,89 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thingsboard.mqtt.MqttTopicTrie;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Lookup of the subscriptions matching the topic of an incoming PUBLISH: the topic trie
+ * against the scan of the compiled filters it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MqttTopicMatchingBenchmark {
+
+    private static final String[] DEVICE_FILTERS = {
+            "v1/devices/me/attributes",
+            "v1/devices/me/attributes/response/+",
+            "v1/devices/me/rpc/request/+",
+            "v1/devices/me/rpc/response/+"
+    };
+
+    @Param({"4", "100", "1000"})
+    public int subscriptions;
+
+    private final String topic = "v1/devices/me/rpc/request/42";
+
+    private MqttTopicTrie<Integer> trie;
+    private List<Pattern> patterns;
+
+    @Setup
+    public void setup() {
+        trie = new MqttTopicTrie<>();
+        patterns = new ArrayList<>();
+        for (int i = 0; i < subscriptions; i++) {
+            String filter = i < DEVICE_FILTERS.length ? DEVICE_FILTERS[i] : "v1/gateway/device-" + i + "/+/#";
+            trie.put(filter, i);
+            patterns.add(Pattern.compile(filter.replace("+", "[^/]+").replace("#", ".+") + "$"));
+        }
+    }
+
+    @Benchmark
+    public List<Integer> trie() {
+        return trie.match(topic);
+    }
+
+    @Benchmark
+    public List<Integer> regex() {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < patterns.size(); i++) {
+            if (patterns.get(i).matcher(topic).matches()) {
+                result.add(i);
+            }
+        }
+        return result;
+    }
+}
@@ -41,10 +41,14 @@ public interface RelationService {
 
     ListenableFuture<Boolean> saveRelationAsync(TenantId tenantId, EntityRelation relation);
 
+    boolean saveRelations(TenantId tenantId, List<EntityRelation> relations);
+
     boolean deleteRelation(TenantId tenantId, EntityRelation relation);
 
     ListenableFuture<Boolean> deleteRelationAsync(TenantId tenantId, EntityRelation relation);
 
+    boolean deleteRelations(TenantId tenantId, List<EntityRelation> relations);
+
     boolean deleteRelation(TenantId tenantId, EntityId from, EntityId to, String relationType, RelationTypeGroup typeGroup);
 
     ListenableFuture<Boolean> deleteRelationAsync(TenantId tenantId, EntityId from, EntityId to, String relationType, RelationTypeGroup typeGroup);
@@ -17,6 +17,7 @@ package org.thingsboard.server.common.data.alarm;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -26,6 +27,9 @@ import org.thingsboard.server.common.data.HasTenantId;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.List;
 
 /**
@@ -36,6 +40,8 @@ import java.util.List;
 @AllArgsConstructor
 public class Alarm extends BaseData<AlarmId> implements HasName, HasTenantId {
 
+    private static final ObjectMapper mapper = new ObjectMapper();
+
     private TenantId tenantId;
     private String type;
     private EntityId originator;
@@ -79,4 +85,15 @@ public class Alarm extends BaseData<AlarmId> implements HasName, HasTenantId {
     public String getName() {
         return type;
     }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(details != null ? mapper.writeValueAsString(details) : null);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        String detailsStr = (String) in.readObject();
+        details = detailsStr != null ? mapper.readTree(detailsStr) : null;
+    }
 }
@@ -100,6 +100,21 @@ public enum MsgType {
 
     SESSION_TIMEOUT_MSG,
 
+    /**
+     * Message that is sent by the idle Device Actor to Tenant Actor to request the stop and by Tenant Actor back to confirm it.
+     */
+    DEVICE_ACTOR_PASSIVATE_MSG,
+
+    /**
+     * Message that is sent by Device Actor to Tenant Actor if it is no longer idle when the stop is confirmed.
+     */
+    DEVICE_ACTOR_PASSIVATION_CANCEL_MSG,
+
+    /**
+     * Message that is sent by Device Actor to itself when the device and its sessions are loaded.
+     */
+    DEVICE_ACTOR_INIT_MSG,
+
     STATS_PERSIST_TICK_MSG,
 
 
@@ -15,35 +15,50 @@
  */
 package org.thingsboard.server.common.msg;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by ashvayka on 13.01.18.
+ *
+ * Copy-on-write: {@link #copy()} shares the data map with the copy,
+ * the map is duplicated by the first {@link #putValue(String, String)} of any of the sharing instances.
  */
-@Data
+@EqualsAndHashCode(of = "data")
+@ToString(of = "data")
 @NoArgsConstructor
 public final class TbMsgMetaData implements Serializable {
 
-    private final Map<String, String> data = new ConcurrentHashMap<>();
+    private volatile Map<String, String> data = new ConcurrentHashMap<>();
+    private transient volatile boolean shared;
 
     public TbMsgMetaData(Map<String, String> data) {
         data.forEach((key, val) -> putValue(key, val));
     }
 
+    private TbMsgMetaData(Map<String, String> data, boolean shared) {
+        this.data = data;
+        this.shared = shared;
+    }
+
+    public Map<String, String> getData() {
+        return Collections.unmodifiableMap(data);
+    }
+
     public String getValue(String key) {
         return data.get(key);
     }
 
     public void putValue(String key, String value) {
         if (key != null && value != null) {
-            data.put(key, value);
+            getWritableData().put(key, value);
         }
     }
 
@@ -51,7 +66,20 @@ public final class TbMsgMetaData implements Serializable {
         return new HashMap<>(data);
     }
 
-    public TbMsgMetaData copy() {
-        return new TbMsgMetaData(new ConcurrentHashMap<>(data));
+    public synchronized TbMsgMetaData copy() {
+        shared = true;
+        return new TbMsgMetaData(data, true);
+    }
+
+    private Map<String, String> getWritableData() {
+        if (shared) {
+            synchronized (this) {
+                if (shared) {
+                    data = new ConcurrentHashMap<>(data);
+                    shared = false;
+                }
+            }
+        }
+        return data;
     }
 }
@@ -0,0 +1,50 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.msg;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TbMsgMetaDataTest {
+
+    @Test
+    public void testCopiesAreIndependent() {
+        TbMsgMetaData original = new TbMsgMetaData(Collections.singletonMap("key", "v1"));
+        TbMsgMetaData first = original.copy();
+        TbMsgMetaData second = first.copy();
+        assertEquals(original, first);
+
+        first.putValue("key", "v2");
+        second.putValue("other", "v3");
+        original.putValue("key", "v4");
+
+        assertEquals("v4", original.getValue("key"));
+        assertNull(original.getValue("other"));
+        assertEquals("v2", first.getValue("key"));
+        assertNull(first.getValue("other"));
+        assertEquals("v1", second.getValue("key"));
+        assertEquals("v3", second.getValue("other"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testDataIsReadOnly() {
+        new TbMsgMetaData().copy().getData().put("key", "value");
+    }
+}
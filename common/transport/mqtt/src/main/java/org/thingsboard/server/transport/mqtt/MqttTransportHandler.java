@@ -39,6 +39,7 @@ import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.StringUtils;
+import org.thingsboard.mqtt.MqttTopicTrie;
 import org.thingsboard.server.common.msg.EncryptionUtil;
 import org.thingsboard.server.common.transport.SessionMsgListener;
 import org.thingsboard.server.common.transport.TransportService;
@@ -55,7 +56,6 @@ import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceX509Ce
 import org.thingsboard.server.transport.mqtt.adaptors.MqttTransportAdaptor;
 import org.thingsboard.server.transport.mqtt.session.DeviceSessionCtx;
 import org.thingsboard.server.transport.mqtt.session.GatewaySessionHandler;
-import org.thingsboard.server.transport.mqtt.session.MqttTopicMatcher;
 import org.thingsboard.server.transport.mqtt.util.SslUtil;
 
 import javax.net.ssl.SSLPeerUnverifiedException;
@@ -65,8 +65,6 @@ import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 import static io.netty.handler.codec.mqtt.MqttConnectReturnCode.CONNECTION_ACCEPTED;
 import static io.netty.handler.codec.mqtt.MqttConnectReturnCode.CONNECTION_REFUSED_BAD_USER_NAME_OR_PASSWORD;
@@ -93,7 +91,7 @@ public class MqttTransportHandler extends ChannelInboundHandlerAdapter implement
     private final MqttTransportAdaptor adaptor;
     private final TransportService transportService;
     private final SslHandler sslHandler;
-    private final ConcurrentMap<MqttTopicMatcher, Integer> mqttQoSMap;
+    private final MqttTopicTrie<Integer> mqttQoSMap;
 
     private volatile SessionInfoProto sessionInfo;
     private volatile InetSocketAddress address;
@@ -106,7 +104,7 @@ public class MqttTransportHandler extends ChannelInboundHandlerAdapter implement
         this.transportService = context.getTransportService();
         this.adaptor = context.getAdaptor();
         this.sslHandler = sslHandler;
-        this.mqttQoSMap = new ConcurrentHashMap<>();
+        this.mqttQoSMap = new MqttTopicTrie<>();
         this.deviceSessionCtx = new DeviceSessionCtx(sessionId, mqttQoSMap);
     }
 
@@ -301,7 +299,7 @@ public class MqttTransportHandler extends ChannelInboundHandlerAdapter implement
 
     private void registerSubQoS(String topic, List<Integer> grantedQoSList, MqttQoS reqQoS) {
         grantedQoSList.add(getMinSupportedQos(reqQoS));
-        mqttQoSMap.put(new MqttTopicMatcher(topic), getMinSupportedQos(reqQoS));
+        mqttQoSMap.replace(topic, getMinSupportedQos(reqQoS));
     }
 
     private void processUnsubscribe(ChannelHandlerContext ctx, MqttUnsubscribeMessage mqttMsg) {
@@ -310,7 +308,7 @@ public class MqttTransportHandler extends ChannelInboundHandlerAdapter implement
         }
         log.trace("[{}] Processing subscription [{}]!", sessionId, mqttMsg.variableHeader().messageId());
         for (String topicName : mqttMsg.payload().topics()) {
-            mqttQoSMap.remove(new MqttTopicMatcher(topicName));
+            mqttQoSMap.removeAll(topicName);
             try {
                 switch (topicName) {
                     case MqttTopics.DEVICE_ATTRIBUTES_TOPIC: {
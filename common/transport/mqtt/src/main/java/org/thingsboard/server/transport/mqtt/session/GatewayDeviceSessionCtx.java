@@ -16,13 +16,13 @@
 package org.thingsboard.server.transport.mqtt.session;
 
 import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.mqtt.MqttTopicTrie;
 import org.thingsboard.server.common.transport.SessionMsgListener;
 import org.thingsboard.server.gen.transport.TransportProtos;
 import org.thingsboard.server.gen.transport.TransportProtos.DeviceInfoProto;
 import org.thingsboard.server.gen.transport.TransportProtos.SessionInfoProto;
 
 import java.util.UUID;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Created by ashvayka on 19.01.17.
@@ -33,7 +33,7 @@ public class GatewayDeviceSessionCtx extends MqttDeviceAwareSessionContext imple
     private final GatewaySessionHandler parent;
     private final SessionInfoProto sessionInfo;
 
-    public GatewayDeviceSessionCtx(GatewaySessionHandler parent, DeviceInfoProto deviceInfo, ConcurrentMap<MqttTopicMatcher, Integer> mqttQoSMap) {
+    public GatewayDeviceSessionCtx(GatewaySessionHandler parent, DeviceInfoProto deviceInfo, MqttTopicTrie<Integer> mqttQoSMap) {
         super(UUID.randomUUID(), mqttQoSMap);
         this.parent = parent;
         this.sessionInfo = SessionInfoProto.newBuilder()
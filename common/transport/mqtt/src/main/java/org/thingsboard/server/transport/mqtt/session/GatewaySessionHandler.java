@@ -30,6 +30,7 @@ import io.netty.handler.codec.mqtt.MqttMessage;
 import io.netty.handler.codec.mqtt.MqttPublishMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.StringUtils;
+import org.thingsboard.mqtt.MqttTopicTrie;
 import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.common.transport.TransportService;
 import org.thingsboard.server.common.transport.TransportServiceCallback;
@@ -53,7 +54,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Created by ashvayka on 19.01.17.
@@ -70,7 +70,7 @@ public class GatewaySessionHandler {
     private final DeviceInfoProto gateway;
     private final UUID sessionId;
     private final Map<String, GatewayDeviceSessionCtx> devices;
-    private final ConcurrentMap<MqttTopicMatcher, Integer> mqttQoSMap;
+    private final MqttTopicTrie<Integer> mqttQoSMap;
     private final ChannelHandlerContext channel;
     private final DeviceSessionCtx deviceSessionCtx;
 
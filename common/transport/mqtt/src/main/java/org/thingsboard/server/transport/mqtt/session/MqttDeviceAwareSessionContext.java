@@ -16,36 +16,30 @@
 package org.thingsboard.server.transport.mqtt.session;
 
 import io.netty.handler.codec.mqtt.MqttQoS;
+import org.thingsboard.mqtt.MqttTopicTrie;
 import org.thingsboard.server.common.transport.session.DeviceAwareSessionContext;
 
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentMap;
-import java.util.stream.Collectors;
 
 /**
  * Created by ashvayka on 30.08.18.
  */
 public abstract class MqttDeviceAwareSessionContext extends DeviceAwareSessionContext {
 
-    private final ConcurrentMap<MqttTopicMatcher, Integer> mqttQoSMap;
+    private final MqttTopicTrie<Integer> mqttQoSMap;
 
-    public MqttDeviceAwareSessionContext(UUID sessionId, ConcurrentMap<MqttTopicMatcher, Integer> mqttQoSMap) {
+    public MqttDeviceAwareSessionContext(UUID sessionId, MqttTopicTrie<Integer> mqttQoSMap) {
         super(sessionId);
         this.mqttQoSMap = mqttQoSMap;
     }
 
-    public ConcurrentMap<MqttTopicMatcher, Integer> getMqttQoSMap() {
+    public MqttTopicTrie<Integer> getMqttQoSMap() {
         return mqttQoSMap;
     }
 
     public MqttQoS getQoSForTopic(String topic) {
-        List<Integer> qosList = mqttQoSMap.entrySet()
-                .stream()
-                .filter(entry -> entry.getKey().matches(topic))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toList());
+        List<Integer> qosList = mqttQoSMap.match(topic);
         if (!qosList.isEmpty()) {
             return MqttQoS.valueOf(qosList.get(0));
         } else {
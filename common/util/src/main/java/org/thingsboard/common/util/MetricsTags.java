@@ -0,0 +1,31 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.common.util;
+
+/**
+ * Names of the tags shared by the published metrics. The node type tag is added to all metrics of the node
+ * by the management.metrics.tags.node_type property.
+ */
+public final class MetricsTags {
+
+    public static final String TENANT = "tenant";
+    public static final String QUEUE = "queue";
+    public static final String EXECUTOR = "executor";
+    public static final String NODE_TYPE = "node_type";
+
+    private MetricsTags() {
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.common.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counter published to the meter registry that also keeps the count since the last reset,
+ * which is what the periodic statistics logs print.
+ */
+public class StatsCounter {
+
+    private final AtomicInteger intervalCount = new AtomicInteger();
+    private final Counter counter;
+
+    public StatsCounter(MeterRegistry meterRegistry, String name, String... tags) {
+        this.counter = meterRegistry.counter(name, tags);
+    }
+
+    public void increment() {
+        intervalCount.incrementAndGet();
+        counter.increment();
+    }
+
+    public void add(int delta) {
+        intervalCount.addAndGet(delta);
+        counter.increment(delta);
+    }
+
+    public int get() {
+        return intervalCount.get();
+    }
+
+    public int getAndReset() {
+        return intervalCount.getAndSet(0);
+    }
+}
@@ -18,6 +18,7 @@ package org.thingsboard.server.dao;
 import com.google.common.util.concurrent.ListenableFuture;
 import org.thingsboard.server.common.data.id.TenantId;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -29,6 +30,8 @@ public interface Dao<T> {
 
     ListenableFuture<T> findByIdAsync(TenantId tenantId, UUID id);
 
+    ListenableFuture<List<T>> findByIdsAsync(TenantId tenantId, Collection<UUID> ids);
+
     T save(TenantId tenantId, T t);
 
     boolean removeById(TenantId tenantId, UUID id);
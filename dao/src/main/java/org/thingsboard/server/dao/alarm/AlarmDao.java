@@ -40,4 +40,6 @@ public interface AlarmDao extends Dao<Alarm> {
     Alarm save(TenantId tenantId, Alarm alarm);
 
     ListenableFuture<List<AlarmInfo>> findAlarms(TenantId tenantId, AlarmQuery query);
+
+    ListenableFuture<AlarmSeverityIndex> findAlarmSeverityIndex(TenantId tenantId, EntityId entityId);
 }
@@ -0,0 +1,74 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.alarm;
+
+import org.thingsboard.server.common.data.alarm.AlarmSearchStatus;
+import org.thingsboard.server.common.data.alarm.AlarmSeverity;
+import org.thingsboard.server.common.data.alarm.AlarmStatus;
+
+import java.io.Serializable;
+
+/**
+ * Number of alarms related to an entity, grouped by alarm status and severity.
+ * Allows to resolve the highest alarm severity without fetching the alarms itself.
+ */
+public class AlarmSeverityIndex implements Serializable {
+
+    private static final long serialVersionUID = 4281902451329736542L;
+
+    private static final AlarmStatus[] STATUSES = AlarmStatus.values();
+    private static final AlarmSeverity[] SEVERITIES = AlarmSeverity.values();
+
+    private final long[][] counts = new long[STATUSES.length][SEVERITIES.length];
+
+    public AlarmSeverityIndex() {
+    }
+
+    public void add(AlarmStatus status, AlarmSeverity severity, long delta) {
+        counts[status.ordinal()][severity.ordinal()] += delta;
+    }
+
+    public long getCount(AlarmStatus status, AlarmSeverity severity) {
+        return counts[status.ordinal()][severity.ordinal()];
+    }
+
+    /**
+     * Uses the same status matching as alarm queries: search status takes precedence over status
+     * and no filter at all means any alarm.
+     */
+    public AlarmSeverity getHighestSeverity(AlarmSearchStatus searchStatus, AlarmStatus status) {
+        for (AlarmSeverity severity : SEVERITIES) {
+            for (AlarmStatus alarmStatus : STATUSES) {
+                if (counts[alarmStatus.ordinal()][severity.ordinal()] > 0 && matches(alarmStatus, searchStatus, status)) {
+                    return severity;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(AlarmStatus alarmStatus, AlarmSearchStatus searchStatus, AlarmStatus status) {
+        if (searchStatus != null) {
+            return searchStatus == AlarmSearchStatus.ANY
+                    || searchStatus == alarmStatus.getClearSearchStatus()
+                    || searchStatus == alarmStatus.getAckSearchStatus();
+        } else if (status != null) {
+            return status == alarmStatus;
+        } else {
+            return true;
+        }
+    }
+}
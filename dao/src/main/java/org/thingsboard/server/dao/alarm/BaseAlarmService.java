@@ -23,6 +23,8 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
@@ -38,7 +40,6 @@ import org.thingsboard.server.common.data.alarm.AlarmStatus;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.page.TimePageData;
-import org.thingsboard.server.common.data.page.TimePageLink;
 import org.thingsboard.server.common.data.relation.EntityRelation;
 import org.thingsboard.server.common.data.relation.EntityRelationsQuery;
 import org.thingsboard.server.common.data.relation.EntitySearchDirection;
@@ -54,7 +55,9 @@ import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
@@ -63,6 +66,8 @@ import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static org.thingsboard.server.common.data.CacheConstants.ALARM_CACHE;
+import static org.thingsboard.server.common.data.CacheConstants.ALARM_SEVERITY_CACHE;
 import static org.thingsboard.server.dao.service.Validator.validateId;
 
 @Service
@@ -70,6 +75,7 @@ import static org.thingsboard.server.dao.service.Validator.validateId;
 public class BaseAlarmService extends AbstractEntityService implements AlarmService {
 
     public static final String ALARM_RELATION_PREFIX = "ALARM_";
+    private static final int SEVERITY_INDEX_STRIPES = 256;
 
     @Autowired
     private AlarmDao alarmDao;
@@ -80,6 +86,12 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
     @Autowired
     private EntityService entityService;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final SeverityIndexStripe[] severityIndexStripes = Stream.generate(SeverityIndexStripe::new)
+            .limit(SEVERITY_INDEX_STRIPES).toArray(SeverityIndexStripe[]::new);
+
     protected ExecutorService readResultsProcessingExecutor;
 
     @PostConstruct
@@ -105,7 +117,7 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
                 alarm.setEndTs(alarm.getStartTs());
             }
             if (alarm.getId() == null) {
-                Alarm existing = alarmDao.findLatestByOriginatorAndType(alarm.getTenantId(), alarm.getOriginator(), alarm.getType()).get();
+                Alarm existing = findLatestByOriginatorAndType(alarm.getTenantId(), alarm.getOriginator(), alarm.getType()).get();
                 if (existing == null || existing.getStatus().isCleared()) {
                     return createAlarm(alarm);
                 } else {
@@ -120,7 +132,20 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
     }
 
     public ListenableFuture<Alarm> findLatestByOriginatorAndType(TenantId tenantId, EntityId originator, String type) {
-        return alarmDao.findLatestByOriginatorAndType(tenantId, originator, type);
+        Cache cache = cacheManager.getCache(ALARM_CACHE);
+        List<Object> alarmKey = Arrays.asList(originator, type);
+        Cache.ValueWrapper cached = cache.get(alarmKey);
+        if (cached != null) {
+            Alarm alarm = (Alarm) cached.get();
+            return Futures.immediateFuture(alarm != null ? new Alarm(alarm) : null);
+        }
+        return Futures.transform(alarmDao.findLatestByOriginatorAndType(tenantId, originator, type), alarm -> {
+            // "No alarm" is not cached: an alarm created on another node would not evict it from the local cache
+            if (alarm != null) {
+                cache.putIfAbsent(alarmKey, new Alarm(alarm));
+            }
+            return alarm;
+        }, MoreExecutors.directExecutor());
     }
 
     @Override
@@ -131,8 +156,17 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
             if (alarm == null) {
                 return false;
             }
-            deleteEntityRelations(tenantId, alarm.getId());
-            return alarmDao.deleteAlarm(tenantId, alarm);
+            beginSeverityIndexUpdate(tenantId);
+            try {
+                Set<EntityId> relatedEntities = findRelatedEntities(alarm);
+                deleteEntityRelations(tenantId, alarm.getId());
+                cacheManager.getCache(ALARM_CACHE).evict(Arrays.asList(alarm.getOriginator(), alarm.getType()));
+                Boolean result = alarmDao.deleteAlarm(tenantId, alarm);
+                evictSeverityIndex(tenantId, relatedEntities);
+                return result;
+            } finally {
+                endSeverityIndexUpdate(tenantId);
+            }
         } catch (ExecutionException | InterruptedException e) {
             throw new RuntimeException(e);
         }
@@ -140,24 +174,37 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
 
     private Alarm createAlarm(Alarm alarm) throws InterruptedException, ExecutionException {
         log.debug("New Alarm : {}", alarm);
-        Alarm saved = alarmDao.save(alarm.getTenantId(), alarm);
-        createAlarmRelations(saved);
-        return saved;
+        beginSeverityIndexUpdate(alarm.getTenantId());
+        try {
+            Alarm saved = alarmDao.save(alarm.getTenantId(), alarm);
+            cacheManager.getCache(ALARM_CACHE).put(Arrays.asList(saved.getOriginator(), saved.getType()), new Alarm(saved));
+            Set<EntityId> relatedEntities = createAlarmRelations(saved);
+            evictSeverityIndex(saved.getTenantId(), relatedEntities);
+            return saved;
+        } finally {
+            endSeverityIndexUpdate(alarm.getTenantId());
+        }
     }
 
-    private void createAlarmRelations(Alarm alarm) throws InterruptedException, ExecutionException {
+    private Set<EntityId> createAlarmRelations(Alarm alarm) throws InterruptedException, ExecutionException {
+        Set<EntityId> relatedEntities = new LinkedHashSet<>();
         if (alarm.isPropagate()) {
-            List<EntityId> parentEntities = getParentEntities(alarm);
-            for (EntityId parentId : parentEntities) {
-                createAlarmRelation(alarm.getTenantId(), parentId, alarm.getId(), alarm.getStatus(), true);
+            relatedEntities.addAll(getParentEntities(alarm));
+        }
+        relatedEntities.add(alarm.getOriginator());
+        List<EntityRelation> relations = new ArrayList<>();
+        for (EntityId entityId : relatedEntities) {
+            for (String relationType : getAlarmRelationTypes(alarm.getStatus(), true)) {
+                relations.add(new EntityRelation(entityId, alarm.getId(), relationType, RelationTypeGroup.ALARM));
             }
         }
-        createAlarmRelation(alarm.getTenantId(), alarm.getOriginator(), alarm.getId(), alarm.getStatus(), true);
+        createRelations(alarm.getTenantId(), relations);
+        return relatedEntities;
     }
 
     private List<EntityId> getParentEntities(Alarm alarm) throws InterruptedException, ExecutionException {
         EntityRelationsQuery query = new EntityRelationsQuery();
-        RelationsSearchParameters parameters = new RelationsSearchParameters(alarm.getOriginator(), EntitySearchDirection.TO, Integer.MAX_VALUE, false);
+        RelationsSearchParameters parameters = new RelationsSearchParameters(alarm.getOriginator(), EntitySearchDirection.TO, 0, false);
         query.setParameters(parameters);
         List<String> propagateRelationTypes = alarm.getPropagateRelationTypes();
         Stream<EntityRelation> relations = relationService.findByQuery(alarm.getTenantId(), query).get().stream();
@@ -185,20 +232,28 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
     private Alarm updateAlarm(Alarm oldAlarm, Alarm newAlarm) {
         AlarmStatus oldStatus = oldAlarm.getStatus();
         AlarmStatus newStatus = newAlarm.getStatus();
+        AlarmSeverity oldSeverity = oldAlarm.getSeverity();
+        AlarmSeverity newSeverity = newAlarm.getSeverity();
         boolean oldPropagate = oldAlarm.isPropagate();
         boolean newPropagate = newAlarm.isPropagate();
-        Alarm result = alarmDao.save(newAlarm.getTenantId(), merge(oldAlarm, newAlarm));
-        if (!oldPropagate && newPropagate) {
-            try {
-                createAlarmRelations(result);
-            } catch (InterruptedException | ExecutionException e) {
-                log.warn("Failed to update alarm relations [{}]", result, e);
-                throw new RuntimeException(e);
+        beginSeverityIndexUpdate(newAlarm.getTenantId());
+        try {
+            Alarm result = alarmDao.save(newAlarm.getTenantId(), merge(oldAlarm, newAlarm));
+            updateCachedAlarm(result);
+            if (!oldPropagate && newPropagate) {
+                try {
+                    evictSeverityIndex(result.getTenantId(), createAlarmRelations(result));
+                } catch (InterruptedException | ExecutionException e) {
+                    log.warn("Failed to update alarm relations [{}]", result, e);
+                    throw new RuntimeException(e);
+                }
+            } else if (oldStatus != newStatus || oldSeverity != newSeverity) {
+                updateRelations(result, oldStatus);
             }
-        } else if (oldStatus != newStatus) {
-            updateRelations(oldAlarm, oldStatus, newStatus);
+            return result;
+        } finally {
+            endSeverityIndexUpdate(newAlarm.getTenantId());
         }
-        return result;
     }
 
     @Override
@@ -214,8 +269,7 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
                     AlarmStatus newStatus = oldStatus.isCleared() ? AlarmStatus.CLEARED_ACK : AlarmStatus.ACTIVE_ACK;
                     alarm.setStatus(newStatus);
                     alarm.setAckTs(ackTime);
-                    alarmDao.save(alarm.getTenantId(), alarm);
-                    updateRelations(alarm, oldStatus, newStatus);
+                    saveWithRelations(alarm, oldStatus);
                     return true;
                 }
             }
@@ -238,14 +292,24 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
                     if (details != null) {
                         alarm.setDetails(details);
                     }
-                    alarmDao.save(alarm.getTenantId(), alarm);
-                    updateRelations(alarm, oldStatus, newStatus);
+                    saveWithRelations(alarm, oldStatus);
                     return true;
                 }
             }
         });
     }
 
+    private void saveWithRelations(Alarm alarm, AlarmStatus oldStatus) {
+        beginSeverityIndexUpdate(alarm.getTenantId());
+        try {
+            alarmDao.save(alarm.getTenantId(), alarm);
+            updateCachedAlarm(alarm);
+            updateRelations(alarm, oldStatus);
+        } finally {
+            endSeverityIndexUpdate(alarm.getTenantId());
+        }
+    }
+
     @Override
     public ListenableFuture<Alarm> findAlarmByIdAsync(TenantId tenantId, AlarmId alarmId) {
         log.trace("Executing findAlarmById [{}]", alarmId);
@@ -300,55 +364,97 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
     @Override
     public AlarmSeverity findHighestAlarmSeverity(TenantId tenantId, EntityId entityId, AlarmSearchStatus alarmSearchStatus,
                                                   AlarmStatus alarmStatus) {
-        TimePageLink nextPageLink = new TimePageLink(100);
-        boolean hasNext = true;
-        AlarmSeverity highestSeverity = null;
-        AlarmQuery query;
-        while (hasNext && AlarmSeverity.CRITICAL != highestSeverity) {
-            query = new AlarmQuery(entityId, nextPageLink, alarmSearchStatus, alarmStatus, false);
-            List<AlarmInfo> alarms;
+        Cache cache = cacheManager.getCache(ALARM_SEVERITY_CACHE);
+        AlarmSeverityIndex index = cache.get(entityId, AlarmSeverityIndex.class);
+        if (index == null) {
+            SeverityIndexStripe stripe = getSeverityIndexStripe(tenantId);
+            long generation;
+            synchronized (stripe) {
+                generation = stripe.pendingUpdates == 0 ? stripe.generation : -1;
+            }
             try {
-                alarms = alarmDao.findAlarms(tenantId, query).get();
+                index = alarmDao.findAlarmSeverityIndex(tenantId, entityId).get();
             } catch (ExecutionException | InterruptedException e) {
                 log.warn("Failed to find highest alarm severity. EntityId: [{}], AlarmSearchStatus: [{}], AlarmStatus: [{}]",
                         entityId, alarmSearchStatus, alarmStatus);
                 throw new RuntimeException(e);
             }
-            hasNext = alarms.size() == nextPageLink.getLimit();
-            if (hasNext) {
-                nextPageLink = new TimePageData<>(alarms, nextPageLink).getNextPageLink();
-            }
-            AlarmSeverity severity = detectHighestSeverity(alarms);
-            if (severity == null) {
-                continue;
-            }
-            if (severity == AlarmSeverity.CRITICAL || highestSeverity == null) {
-                highestSeverity = severity;
-            } else {
-                highestSeverity = highestSeverity.compareTo(severity) < 0 ? highestSeverity : severity;
+            synchronized (stripe) {
+                if (generation >= 0 && stripe.generation == generation) {
+                    cache.putIfAbsent(entityId, index);
+                }
             }
         }
-        return highestSeverity;
+        return index.getHighestSeverity(alarmSearchStatus, alarmStatus);
     }
 
-    private AlarmSeverity detectHighestSeverity(List<AlarmInfo> alarms) {
-        if (!alarms.isEmpty()) {
-            List<AlarmInfo> sorted = new ArrayList(alarms);
-            sorted.sort(Comparator.comparing(Alarm::getSeverity));
-            return sorted.get(0).getSeverity();
-        } else {
-            return null;
+    private void deleteRelations(TenantId tenantId, List<EntityRelation> alarmRelations) {
+        log.debug("Deleting Alarm relations: {}", alarmRelations);
+        relationService.deleteRelations(tenantId, alarmRelations);
+    }
+
+    private void createRelations(TenantId tenantId, List<EntityRelation> alarmRelations) {
+        log.debug("Creating Alarm relations: {}", alarmRelations);
+        relationService.saveRelations(tenantId, alarmRelations);
+    }
+
+    /**
+     * Alarm writes of the tenant are wrapped in begin/end calls. An index read from the database is cached
+     * only if no write of the tenant was in progress or started while it was read: otherwise the index could miss
+     * the write and the write would not be applied to it.
+     */
+    private void beginSeverityIndexUpdate(TenantId tenantId) {
+        SeverityIndexStripe stripe = getSeverityIndexStripe(tenantId);
+        synchronized (stripe) {
+            stripe.pendingUpdates++;
+            stripe.generation++;
+        }
+    }
+
+    private void endSeverityIndexUpdate(TenantId tenantId) {
+        SeverityIndexStripe stripe = getSeverityIndexStripe(tenantId);
+        synchronized (stripe) {
+            stripe.pendingUpdates--;
+            stripe.generation++;
+        }
+    }
+
+    /**
+     * Every alarm write evicts the indexes of the related entities, they are rebuilt from the database on the next severity request.
+     * The cached index is never modified in place: a read-modify-write of a shared redis entry would lose the concurrent
+     * updates of other nodes. A node may still cache an index read before the write of another node, the alarmSeverities
+     * TTL (caffeine spec or redis.ttl.alarmSeverities) bounds how long it is served.
+     */
+    private void evictSeverityIndex(TenantId tenantId, Collection<EntityId> entityIds) {
+        Cache cache = cacheManager.getCache(ALARM_SEVERITY_CACHE);
+        SeverityIndexStripe stripe = getSeverityIndexStripe(tenantId);
+        synchronized (stripe) {
+            entityIds.forEach(cache::evict);
         }
     }
 
-    private void deleteRelation(TenantId tenantId, EntityRelation alarmRelation) {
-        log.debug("Deleting Alarm relation: {}", alarmRelation);
-        relationService.deleteRelation(tenantId, alarmRelation);
+    private SeverityIndexStripe getSeverityIndexStripe(TenantId tenantId) {
+        return severityIndexStripes[(tenantId.hashCode() & Integer.MAX_VALUE) % SEVERITY_INDEX_STRIPES];
+    }
+
+    private static final class SeverityIndexStripe {
+        private int pendingUpdates;
+        private long generation;
     }
 
-    private void createRelation(TenantId tenantId, EntityRelation alarmRelation) {
-        log.debug("Creating Alarm relation: {}", alarmRelation);
-        relationService.saveRelation(tenantId, alarmRelation);
+    /**
+     * The cache holds the latest alarm per originator and type, so an update of an older alarm only evicts the entry.
+     */
+    private void updateCachedAlarm(Alarm alarm) {
+        Cache cache = cacheManager.getCache(ALARM_CACHE);
+        List<Object> alarmKey = Arrays.asList(alarm.getOriginator(), alarm.getType());
+        Cache.ValueWrapper cached = cache.get(alarmKey);
+        Alarm cachedAlarm = cached != null ? (Alarm) cached.get() : null;
+        if (cachedAlarm != null && cachedAlarm.getId().equals(alarm.getId())) {
+            cache.put(alarmKey, new Alarm(alarm));
+        } else {
+            cache.evict(alarmKey);
+        }
     }
 
     private Alarm merge(Alarm existing, Alarm alarm) {
@@ -382,37 +488,51 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
         return existing;
     }
 
-    private void updateRelations(Alarm alarm, AlarmStatus oldStatus, AlarmStatus newStatus) {
+    private void updateRelations(Alarm alarm, AlarmStatus oldStatus) {
+        AlarmStatus newStatus = alarm.getStatus();
         try {
-            List<EntityRelation> relations = relationService.findByToAsync(alarm.getTenantId(), alarm.getId(), RelationTypeGroup.ALARM).get();
-            Set<EntityId> parents = relations.stream().map(EntityRelation::getFrom).collect(Collectors.toSet());
-            for (EntityId parentId : parents) {
-                updateAlarmRelation(alarm.getTenantId(), parentId, alarm.getId(), oldStatus, newStatus);
+            Set<EntityId> relatedEntities = findRelatedEntities(alarm);
+            if (oldStatus != newStatus) {
+                Set<String> oldRelationTypes = getAlarmRelationTypes(oldStatus, false);
+                Set<String> newRelationTypes = getAlarmRelationTypes(newStatus, false);
+                List<EntityRelation> deleted = new ArrayList<>();
+                List<EntityRelation> created = new ArrayList<>();
+                for (EntityId entityId : relatedEntities) {
+                    for (String relationType : oldRelationTypes) {
+                        if (!newRelationTypes.contains(relationType)) {
+                            deleted.add(new EntityRelation(entityId, alarm.getId(), relationType, RelationTypeGroup.ALARM));
+                        }
+                    }
+                    for (String relationType : newRelationTypes) {
+                        if (!oldRelationTypes.contains(relationType)) {
+                            created.add(new EntityRelation(entityId, alarm.getId(), relationType, RelationTypeGroup.ALARM));
+                        }
+                    }
+                }
+                deleteRelations(alarm.getTenantId(), deleted);
+                createRelations(alarm.getTenantId(), created);
             }
+            evictSeverityIndex(alarm.getTenantId(), relatedEntities);
         } catch (ExecutionException | InterruptedException e) {
             log.warn("[{}] Failed to update relations. Old status: [{}], New status: [{}]", alarm.getId(), oldStatus, newStatus);
             throw new RuntimeException(e);
         }
     }
 
-    private void createAlarmRelation(TenantId tenantId, EntityId entityId, EntityId alarmId, AlarmStatus status, boolean createAnyRelation) {
-        if (createAnyRelation) {
-            createRelation(tenantId, new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + AlarmSearchStatus.ANY.name(), RelationTypeGroup.ALARM));
-        }
-        createRelation(tenantId, new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + status.name(), RelationTypeGroup.ALARM));
-        createRelation(tenantId, new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + status.getClearSearchStatus().name(), RelationTypeGroup.ALARM));
-        createRelation(tenantId, new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + status.getAckSearchStatus().name(), RelationTypeGroup.ALARM));
-    }
-
-    private void deleteAlarmRelation(TenantId tenantId, EntityId entityId, EntityId alarmId, AlarmStatus status) {
-        deleteRelation(tenantId, new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + status.name(), RelationTypeGroup.ALARM));
-        deleteRelation(tenantId, new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + status.getClearSearchStatus().name(), RelationTypeGroup.ALARM));
-        deleteRelation(tenantId, new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + status.getAckSearchStatus().name(), RelationTypeGroup.ALARM));
+    private Set<EntityId> findRelatedEntities(Alarm alarm) throws ExecutionException, InterruptedException {
+        List<EntityRelation> relations = relationService.findByToAsync(alarm.getTenantId(), alarm.getId(), RelationTypeGroup.ALARM).get();
+        return relations.stream().map(EntityRelation::getFrom).collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
-    private void updateAlarmRelation(TenantId tenantId, EntityId entityId, EntityId alarmId, AlarmStatus oldStatus, AlarmStatus newStatus) {
-        deleteAlarmRelation(tenantId, entityId, alarmId, oldStatus);
-        createAlarmRelation(tenantId, entityId, alarmId, newStatus, false);
+    private Set<String> getAlarmRelationTypes(AlarmStatus status, boolean withAnyRelation) {
+        Set<String> relationTypes = new LinkedHashSet<>();
+        if (withAnyRelation) {
+            relationTypes.add(ALARM_RELATION_PREFIX + AlarmSearchStatus.ANY.name());
+        }
+        relationTypes.add(ALARM_RELATION_PREFIX + status.name());
+        relationTypes.add(ALARM_RELATION_PREFIX + status.getClearSearchStatus().name());
+        relationTypes.add(ALARM_RELATION_PREFIX + status.getAckSearchStatus().name());
+        return relationTypes;
     }
 
     private <T> ListenableFuture<T> getAndUpdate(TenantId tenantId, AlarmId alarmId, Function<Alarm, T> function) {
@@ -31,6 +31,8 @@ import org.thingsboard.server.common.data.alarm.AlarmQuery;
 import org.thingsboard.server.common.data.alarm.AlarmSearchStatus;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.page.TimePageData;
+import org.thingsboard.server.common.data.page.TimePageLink;
 import org.thingsboard.server.common.data.relation.EntityRelation;
 import org.thingsboard.server.common.data.relation.RelationTypeGroup;
 import org.thingsboard.server.dao.model.ModelConstants;
@@ -57,6 +59,8 @@ import static org.thingsboard.server.dao.model.ModelConstants.ALARM_TYPE_PROPERT
 @NoSqlDao
 public class CassandraAlarmDao extends CassandraAbstractModelDao<AlarmEntity, Alarm> implements AlarmDao {
 
+    private static final int SEVERITY_INDEX_PAGE_SIZE = 1000;
+
     @Autowired
     private RelationDao relationDao;
 
@@ -129,6 +133,28 @@ public class CassandraAlarmDao extends CassandraAbstractModelDao<AlarmEntity, Al
         }, MoreExecutors.directExecutor());
     }
 
+    @Override
+    public ListenableFuture<AlarmSeverityIndex> findAlarmSeverityIndex(TenantId tenantId, EntityId entityId) {
+        log.trace("Try to build alarm severity index for entity [{}]", entityId);
+        return fillAlarmSeverityIndex(tenantId, entityId, new AlarmSeverityIndex(), new TimePageLink(SEVERITY_INDEX_PAGE_SIZE));
+    }
+
+    private ListenableFuture<AlarmSeverityIndex> fillAlarmSeverityIndex(TenantId tenantId, EntityId entityId, AlarmSeverityIndex index, TimePageLink pageLink) {
+        AlarmQuery query = new AlarmQuery(entityId, pageLink, AlarmSearchStatus.ANY, null, false);
+        return Futures.transformAsync(findAlarms(tenantId, query), alarms -> {
+            for (AlarmInfo alarm : alarms) {
+                if (alarm != null) {
+                    index.add(alarm.getStatus(), alarm.getSeverity(), 1);
+                }
+            }
+            if (alarms.size() == pageLink.getLimit()) {
+                return fillAlarmSeverityIndex(tenantId, entityId, index, new TimePageData<>(alarms, pageLink).getNextPageLink());
+            } else {
+                return Futures.immediateFuture(index);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
     @Override
     public ListenableFuture<Alarm> findAlarmByIdAsync(TenantId tenantId, UUID key) {
         log.debug("Get alarm by id {}", key);
@@ -22,7 +22,6 @@ import com.google.common.util.concurrent.MoreExecutors;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
@@ -45,6 +44,7 @@ import org.thingsboard.server.common.data.relation.EntityRelation;
 import org.thingsboard.server.common.data.relation.EntitySearchDirection;
 import org.thingsboard.server.dao.customer.CustomerDao;
 import org.thingsboard.server.dao.entity.AbstractEntityService;
+import org.thingsboard.server.dao.entity.EntityBatchLoader;
 import org.thingsboard.server.dao.entityview.EntityViewService;
 import org.thingsboard.server.dao.exception.DataValidationException;
 import org.thingsboard.server.dao.service.DataValidator;
@@ -89,6 +89,9 @@ public class BaseAssetService extends AbstractEntityService implements AssetServ
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private EntityBatchLoader entityBatchLoader;
+
     @Override
     public Asset findAssetById(TenantId tenantId, AssetId assetId) {
         log.trace("Executing findAssetById [{}]", assetId);
@@ -100,7 +103,7 @@ public class BaseAssetService extends AbstractEntityService implements AssetServ
     public ListenableFuture<Asset> findAssetByIdAsync(TenantId tenantId, AssetId assetId) {
         log.trace("Executing findAssetById [{}]", assetId);
         validateId(assetId, INCORRECT_ASSET_ID + assetId);
-        return assetDao.findByIdAsync(tenantId, assetId.getId());
+        return entityBatchLoader.findAssetById(tenantId, assetId);
     }
 
     @Cacheable(cacheNames = ASSET_CACHE, key = "{#tenantId, #name}")
@@ -132,6 +135,9 @@ public class BaseAssetService extends AbstractEntityService implements AssetServ
                 }
             }
         }
+        if (asset.getId() != null) {
+            entityBatchLoader.evictAsset(asset.getId());
+        }
         return savedAsset;
     }
 
@@ -169,10 +175,10 @@ public class BaseAssetService extends AbstractEntityService implements AssetServ
         List<Object> list = new ArrayList<>();
         list.add(asset.getTenantId());
         list.add(asset.getName());
-        Cache cache = cacheManager.getCache(ASSET_CACHE);
-        cache.evict(list);
+        cacheManager.getCache(ASSET_CACHE).evict(list);
 
         assetDao.removeById(tenantId, assetId.getId());
+        entityBatchLoader.evictAsset(assetId);
     }
 
     @Override
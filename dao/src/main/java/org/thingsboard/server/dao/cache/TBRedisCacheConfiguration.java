@@ -17,6 +17,7 @@ package org.thingsboard.server.dao.cache;
 
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
@@ -26,20 +27,34 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.ConverterRegistry;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.format.support.DefaultFormattingConversionService;
 import org.springframework.util.Assert;
 import org.thingsboard.server.common.data.id.EntityId;
 import redis.clients.jedis.JedisPoolConfig;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.thingsboard.server.common.data.CacheConstants.ALARM_CACHE;
+import static org.thingsboard.server.common.data.CacheConstants.ALARM_SEVERITY_CACHE;
+
 @Configuration
-@ConditionalOnProperty(prefix = "cache", value = "type", havingValue = "redis", matchIfMissing = false)
+@ConditionalOnExpression("'${cache.type:caffeine}'=='redis' || '${cache.type:caffeine}'=='hybrid'")
 @EnableCaching
 @Data
 public abstract class TBRedisCacheConfiguration {
 
+    private static final String HYBRID_CACHE_TYPE = "hybrid";
+
     @Value("${redis.pool_config.maxTotal}")
     private int maxTotal;
 
@@ -73,6 +88,27 @@ public abstract class TBRedisCacheConfiguration {
     @Value("${redis.pool_config.blockWhenExhausted}")
     private boolean blockWhenExhausted;
 
+    @Value("${cache.type:caffeine}")
+    private String cacheType;
+
+    @Value("${cache.hybrid.l1.ttl_ms:60000}")
+    private long l1TtlMs;
+
+    @Value("${cache.hybrid.l1.max_size:10000}")
+    private long l1MaxSize;
+
+    @Value("${cache.hybrid.invalidation_channel:tb_cache_invalidation}")
+    private String invalidationChannel;
+
+    @Value("${cache.hybrid.stats.enabled:false}")
+    private boolean hybridStatsEnabled;
+
+    @Value("${redis.ttl.alarms:60}")
+    private long alarmsTtl;
+
+    @Value("${redis.ttl.alarmSeverities:300}")
+    private long alarmSeveritiesTtl;
+
     @Bean
     public RedisConnectionFactory redisConnectionFactory() {
         return loadFactory();
@@ -85,8 +121,40 @@ public abstract class TBRedisCacheConfiguration {
         DefaultFormattingConversionService redisConversionService = new DefaultFormattingConversionService();
         RedisCacheConfiguration.registerDefaultConverters(redisConversionService);
         registerDefaultConverters(redisConversionService);
-        RedisCacheConfiguration configuration = RedisCacheConfiguration.defaultCacheConfig().withConversionService(redisConversionService);
-        return RedisCacheManager.builder(cf).cacheDefaults(configuration).build();
+        RedisCacheConfiguration configuration = RedisCacheConfiguration.defaultCacheConfig()
+                .withConversionService(redisConversionService);
+        if (HYBRID_CACHE_TYPE.equals(cacheType)) {
+            // Plain redis mode keeps the Java serialization, so the nodes of the previous version can read its entries
+            configuration = configuration.serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new TbCacheValueSerializer()));
+        }
+        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
+        cacheConfigurations.put(ALARM_CACHE, configuration.entryTtl(Duration.ofSeconds(alarmsTtl)));
+        cacheConfigurations.put(ALARM_SEVERITY_CACHE, configuration.entryTtl(Duration.ofSeconds(alarmSeveritiesTtl)));
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(cf).cacheDefaults(configuration)
+                .withInitialCacheConfigurations(cacheConfigurations).build();
+        if (HYBRID_CACHE_TYPE.equals(cacheType)) {
+            byte[] channel = invalidationChannel.getBytes(StandardCharsets.UTF_8);
+            return new TbHybridCacheManager(redisCacheManager, redisConversionService, l1TtlMs, l1MaxSize, message -> {
+                RedisConnection connection = cf.getConnection();
+                try {
+                    connection.publish(channel, message);
+                } finally {
+                    connection.close();
+                }
+            }, hybridStatsEnabled);
+        } else {
+            return redisCacheManager;
+        }
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "cache", value = "type", havingValue = HYBRID_CACHE_TYPE)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory cf, CacheManager cacheManager) {
+        TbHybridCacheManager hybridCacheManager = (TbHybridCacheManager) cacheManager;
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(cf);
+        container.addMessageListener((message, pattern) -> hybridCacheManager.onInvalidation(message.getBody()), new ChannelTopic(invalidationChannel));
+        return container;
     }
 
     @Bean
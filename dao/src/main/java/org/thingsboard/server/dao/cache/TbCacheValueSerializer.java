@@ -0,0 +1,274 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.EntityType;
+import org.thingsboard.server.common.data.id.CustomerId;
+import org.thingsboard.server.common.data.id.DeviceCredentialsId;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.EntityIdFactory;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.id.UUIDBased;
+import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.relation.RelationTypeGroup;
+import org.thingsboard.server.common.data.security.DeviceCredentials;
+import org.thingsboard.server.common.data.security.DeviceCredentialsType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes devices, device credentials and relations (including relation lists) in a compact binary form.
+ * Any other value falls back to the Java serialization. Java serialization streams always start with 0xAC,
+ * so values written by the default Redis serializer are still readable.
+ * Used by the hybrid cache only: the nodes of the previous version can't read the compact form.
+ */
+public class TbCacheValueSerializer implements RedisSerializer<Object> {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static final byte DEVICE = 1;
+    private static final byte DEVICE_CREDENTIALS = 2;
+    private static final byte RELATION = 3;
+    private static final byte RELATION_LIST = 4;
+
+    private final JdkSerializationRedisSerializer fallback = new JdkSerializationRedisSerializer(getClass().getClassLoader());
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte type = getType(value);
+        if (type == 0) {
+            return fallback.serialize(value);
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(type);
+            switch (type) {
+                case DEVICE:
+                    writeDevice(out, (Device) value);
+                    break;
+                case DEVICE_CREDENTIALS:
+                    writeDeviceCredentials(out, (DeviceCredentials) value);
+                    break;
+                case RELATION:
+                    writeRelation(out, (EntityRelation) value);
+                    break;
+                default:
+                    List<?> relations = (List<?>) value;
+                    out.writeInt(relations.size());
+                    for (Object relation : relations) {
+                        writeRelation(out, (EntityRelation) relation);
+                    }
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Failed to serialize cache value: " + value, e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] < DEVICE || bytes[0] > RELATION_LIST) {
+            return fallback.deserialize(bytes);
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1));
+            switch (bytes[0]) {
+                case DEVICE:
+                    return readDevice(in);
+                case DEVICE_CREDENTIALS:
+                    return readDeviceCredentials(in);
+                case RELATION:
+                    return readRelation(in);
+                default:
+                    int size = in.readInt();
+                    List<EntityRelation> relations = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        relations.add(readRelation(in));
+                    }
+                    return relations;
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Failed to deserialize cache value", e);
+        }
+    }
+
+    private static byte getType(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        Class<?> valueClass = value.getClass();
+        if (valueClass == Device.class) {
+            return DEVICE;
+        } else if (valueClass == DeviceCredentials.class) {
+            return DEVICE_CREDENTIALS;
+        } else if (valueClass == EntityRelation.class) {
+            return RELATION;
+        } else if (valueClass == ArrayList.class && ((List<?>) value).stream().allMatch(item -> item != null && item.getClass() == EntityRelation.class)) {
+            return RELATION_LIST;
+        }
+        return 0;
+    }
+
+    private static void writeDevice(DataOutputStream out, Device device) throws IOException {
+        writeUuid(out, device.getId());
+        out.writeLong(device.getCreatedTime());
+        writeUuid(out, device.getTenantId());
+        writeUuid(out, device.getCustomerId());
+        writeString(out, device.getName());
+        writeString(out, device.getType());
+        writeString(out, device.getLabel());
+        writeJson(out, device.getAdditionalInfo());
+    }
+
+    private static Device readDevice(DataInputStream in) throws IOException {
+        UUID id = readUuid(in);
+        Device device = new Device(id != null ? new DeviceId(id) : null);
+        device.setCreatedTime(in.readLong());
+        UUID tenantId = readUuid(in);
+        device.setTenantId(tenantId != null ? new TenantId(tenantId) : null);
+        UUID customerId = readUuid(in);
+        device.setCustomerId(customerId != null ? new CustomerId(customerId) : null);
+        device.setName(readString(in));
+        device.setType(readString(in));
+        device.setLabel(readString(in));
+        device.setAdditionalInfo(readJson(in));
+        return device;
+    }
+
+    private static void writeDeviceCredentials(DataOutputStream out, DeviceCredentials credentials) throws IOException {
+        writeUuid(out, credentials.getId());
+        out.writeLong(credentials.getCreatedTime());
+        writeUuid(out, credentials.getDeviceId());
+        writeString(out, credentials.getCredentialsType() != null ? credentials.getCredentialsType().name() : null);
+        writeString(out, credentials.getCredentialsId());
+        writeString(out, credentials.getCredentialsValue());
+    }
+
+    private static DeviceCredentials readDeviceCredentials(DataInputStream in) throws IOException {
+        UUID id = readUuid(in);
+        DeviceCredentials credentials = new DeviceCredentials(id != null ? new DeviceCredentialsId(id) : null);
+        credentials.setCreatedTime(in.readLong());
+        UUID deviceId = readUuid(in);
+        credentials.setDeviceId(deviceId != null ? new DeviceId(deviceId) : null);
+        String credentialsType = readString(in);
+        credentials.setCredentialsType(credentialsType != null ? DeviceCredentialsType.valueOf(credentialsType) : null);
+        credentials.setCredentialsId(readString(in));
+        credentials.setCredentialsValue(readString(in));
+        return credentials;
+    }
+
+    private static void writeRelation(DataOutputStream out, EntityRelation relation) throws IOException {
+        writeEntityId(out, relation.getFrom());
+        writeEntityId(out, relation.getTo());
+        writeString(out, relation.getType());
+        writeString(out, relation.getTypeGroup() != null ? relation.getTypeGroup().name() : null);
+        writeJson(out, relation.getAdditionalInfo());
+    }
+
+    private static EntityRelation readRelation(DataInputStream in) throws IOException {
+        EntityRelation relation = new EntityRelation();
+        relation.setFrom(readEntityId(in));
+        relation.setTo(readEntityId(in));
+        relation.setType(readString(in));
+        String typeGroup = readString(in);
+        relation.setTypeGroup(typeGroup != null ? RelationTypeGroup.valueOf(typeGroup) : null);
+        relation.setAdditionalInfo(readJson(in));
+        return relation;
+    }
+
+    private static void writeEntityId(DataOutputStream out, EntityId entityId) throws IOException {
+        writeString(out, entityId != null ? entityId.getEntityType().name() : null);
+        if (entityId != null) {
+            out.writeLong(entityId.getId().getMostSignificantBits());
+            out.writeLong(entityId.getId().getLeastSignificantBits());
+        }
+    }
+
+    private static EntityId readEntityId(DataInputStream in) throws IOException {
+        String entityType = readString(in);
+        if (entityType == null) {
+            return null;
+        }
+        return EntityIdFactory.getByTypeAndUuid(EntityType.valueOf(entityType), new UUID(in.readLong(), in.readLong()));
+    }
+
+    private static void writeUuid(DataOutputStream out, UUIDBased id) throws IOException {
+        out.writeBoolean(id != null);
+        if (id != null) {
+            out.writeLong(id.getId().getMostSignificantBits());
+            out.writeLong(id.getId().getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    private static void writeJson(DataOutputStream out, JsonNode json) throws IOException {
+        writeBytes(out, json != null ? mapper.writeValueAsBytes(json) : null);
+    }
+
+    private static JsonNode readJson(DataInputStream in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes != null ? mapper.readTree(bytes) : null;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes != null ? bytes.length : -1);
+        if (bytes != null) {
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
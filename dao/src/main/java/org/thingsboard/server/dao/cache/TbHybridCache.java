@@ -0,0 +1,160 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Local (L1) cache in front of the shared (L2) cache. Every modification goes to L2 first
+ * and is then announced to other nodes, which drop the key from their L1.
+ * Reads that race with a remote modification may keep a stale L1 value until it expires.
+ */
+public class TbHybridCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> l1;
+    private final Cache l2;
+    private final Function<Object, String> keyConverter;
+    private final BiConsumer<String, String> invalidationPublisher;
+
+    private final AtomicLong l1Hits = new AtomicLong();
+    private final AtomicLong l2Hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong l2TimeNanos = new AtomicLong();
+
+    /**
+     * @param invalidationPublisher notifies other nodes about a modified key (cache name, key or null for all keys)
+     */
+    public TbHybridCache(String name, com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> l1, Cache l2,
+                         Function<Object, String> keyConverter, BiConsumer<String, String> invalidationPublisher) {
+        this.name = name;
+        this.l1 = l1;
+        this.l2 = l2;
+        this.keyConverter = keyConverter;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l2.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = keyConverter.apply(key);
+        ValueWrapper value = l1.getIfPresent(localKey);
+        if (value != null) {
+            l1Hits.incrementAndGet();
+            return value;
+        }
+        long startTs = System.nanoTime();
+        value = l2.get(key);
+        l2TimeNanos.addAndGet(System.nanoTime() - startTs);
+        if (value != null) {
+            l2Hits.incrementAndGet();
+            l1.put(localKey, value);
+        } else {
+            misses.incrementAndGet();
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value = l2.get(key, valueLoader);
+        l1.put(keyConverter.apply(key), new SimpleValueWrapper(value));
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        l2.put(key, value);
+        String localKey = keyConverter.apply(key);
+        l1.put(localKey, new SimpleValueWrapper(value));
+        invalidationPublisher.accept(name, localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = l2.putIfAbsent(key, value);
+        String localKey = keyConverter.apply(key);
+        l1.invalidate(localKey);
+        if (existing == null) {
+            invalidationPublisher.accept(name, localKey);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        l2.evict(key);
+        String localKey = keyConverter.apply(key);
+        l1.invalidate(localKey);
+        invalidationPublisher.accept(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        l2.clear();
+        l1.invalidateAll();
+        invalidationPublisher.accept(name, null);
+    }
+
+    void invalidateLocal(String localKey) {
+        if (localKey != null) {
+            l1.invalidate(localKey);
+        } else {
+            l1.invalidateAll();
+        }
+    }
+
+    String getAndResetStats() {
+        long l1HitsCount = l1Hits.getAndSet(0);
+        long l2HitsCount = l2Hits.getAndSet(0);
+        long missesCount = misses.getAndSet(0);
+        long l2Requests = l2HitsCount + missesCount;
+        long l2AvgTimeUs = l2Requests > 0 ? l2TimeNanos.getAndSet(0) / l2Requests / 1000 : 0;
+        return String.format("[%s] l1Hits [%d] l2Hits [%d] misses [%d] l2AvgTimeUs [%d] l1Size [%d]",
+                name, l1HitsCount, l2HitsCount, missesCount, l2AvgTimeUs, l1.estimatedSize());
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Wraps every cache of the shared cache manager into {@link TbHybridCache}.
+ * Invalidation messages are published through the provided publisher and should be delivered
+ * to {@link #onInvalidation(byte[])} of every node, including the sender.
+ */
+@Slf4j
+public class TbHybridCacheManager implements CacheManager {
+
+    private static final TypeDescriptor STRING_TYPE = TypeDescriptor.valueOf(String.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TbHybridCache> caches = new ConcurrentHashMap<>();
+
+    private final CacheManager l2CacheManager;
+    private final ConversionService conversionService;
+    private final long l1TtlMs;
+    private final long l1MaxSize;
+    private final Consumer<byte[]> publisher;
+    private final boolean statsEnabled;
+
+    public TbHybridCacheManager(CacheManager l2CacheManager, ConversionService conversionService, long l1TtlMs, long l1MaxSize,
+                                Consumer<byte[]> publisher, boolean statsEnabled) {
+        this.l2CacheManager = l2CacheManager;
+        this.conversionService = conversionService;
+        this.l1TtlMs = l1TtlMs;
+        this.l1MaxSize = l1MaxSize;
+        this.publisher = publisher;
+        this.statsEnabled = statsEnabled;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TbHybridCache cache = caches.get(name);
+        if (cache == null) {
+            Cache l2 = l2CacheManager.getCache(name);
+            if (l2 == null) {
+                return null;
+            }
+            cache = caches.computeIfAbsent(name, n -> new TbHybridCache(n,
+                    Caffeine.newBuilder()
+                            .expireAfterWrite(l1TtlMs, TimeUnit.MILLISECONDS)
+                            .maximumSize(l1MaxSize)
+                            .build(),
+                    l2, this::convertKey, this::publish));
+        }
+        return cache;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return l2CacheManager.getCacheNames();
+    }
+
+    public void onInvalidation(byte[] message) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(message));
+            String senderId = in.readUTF();
+            String cacheName = in.readUTF();
+            String key = in.readBoolean() ? in.readUTF() : null;
+            if (!nodeId.equals(senderId)) {
+                TbHybridCache cache = caches.get(cacheName);
+                if (cache != null) {
+                    cache.invalidateLocal(key);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to process cache invalidation message", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache.hybrid.stats.print_interval_ms:60000}")
+    public void printStats() {
+        if (statsEnabled) {
+            caches.values().forEach(cache -> log.info("Hybrid cache {}", cache.getAndResetStats()));
+        }
+    }
+
+    private void publish(String cacheName, String key) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(nodeId);
+            out.writeUTF(cacheName);
+            out.writeBoolean(key != null);
+            if (key != null) {
+                out.writeUTF(key);
+            }
+            out.flush();
+            publisher.accept(bytes.toByteArray());
+        } catch (Exception e) {
+            log.warn("[{}] Failed to publish cache invalidation for key [{}]", cacheName, key, e);
+        }
+    }
+
+    private String convertKey(Object key) {
+        if (key instanceof String) {
+            return (String) key;
+        }
+        if (conversionService.canConvert(TypeDescriptor.forObject(key), STRING_TYPE)) {
+            return conversionService.convert(key, String.class);
+        }
+        return key.toString();
+    }
+}
@@ -23,7 +23,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
@@ -48,6 +47,7 @@ import org.thingsboard.server.common.data.security.DeviceCredentials;
 import org.thingsboard.server.common.data.security.DeviceCredentialsType;
 import org.thingsboard.server.dao.customer.CustomerDao;
 import org.thingsboard.server.dao.entity.AbstractEntityService;
+import org.thingsboard.server.dao.entity.EntityBatchLoader;
 import org.thingsboard.server.dao.entityview.EntityViewService;
 import org.thingsboard.server.dao.exception.DataValidationException;
 import org.thingsboard.server.dao.service.DataValidator;
@@ -97,6 +97,9 @@ public class DeviceServiceImpl extends AbstractEntityService implements DeviceSe
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private EntityBatchLoader entityBatchLoader;
+
     @Override
     public Device findDeviceById(TenantId tenantId, DeviceId deviceId) {
         log.trace("Executing findDeviceById [{}]", deviceId);
@@ -108,7 +111,7 @@ public class DeviceServiceImpl extends AbstractEntityService implements DeviceSe
     public ListenableFuture<Device> findDeviceByIdAsync(TenantId tenantId, DeviceId deviceId) {
         log.trace("Executing findDeviceById [{}]", deviceId);
         validateId(deviceId, INCORRECT_DEVICE_ID + deviceId);
-        return deviceDao.findByIdAsync(tenantId, deviceId.getId());
+        return entityBatchLoader.findDeviceById(tenantId, deviceId);
     }
 
     @Cacheable(cacheNames = DEVICE_CACHE, key = "{#tenantId, #name}")
@@ -150,6 +153,9 @@ public class DeviceServiceImpl extends AbstractEntityService implements DeviceSe
                 }
             }
         }
+        if (device.getId() != null) {
+            entityBatchLoader.evictDevice(device.getId());
+        }
         if (device.getId() == null) {
             DeviceCredentials deviceCredentials = new DeviceCredentials();
             deviceCredentials.setDeviceId(new DeviceId(savedDevice.getUuidId()));
@@ -199,10 +205,10 @@ public class DeviceServiceImpl extends AbstractEntityService implements DeviceSe
         List<Object> list = new ArrayList<>();
         list.add(device.getTenantId());
         list.add(device.getName());
-        Cache cache = cacheManager.getCache(DEVICE_CACHE);
-        cache.evict(list);
+        cacheManager.getCache(DEVICE_CACHE).evict(list);
 
         deviceDao.removeById(tenantId, deviceId.getId());
+        entityBatchLoader.evictDevice(deviceId);
     }
 
     @Override
@@ -0,0 +1,214 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.entity;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.thingsboard.common.util.ThingsBoardThreadFactory;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.EntityView;
+import org.thingsboard.server.common.data.asset.Asset;
+import org.thingsboard.server.common.data.id.AssetId;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityViewId;
+import org.thingsboard.server.common.data.id.IdBased;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.id.UUIDBased;
+import org.thingsboard.server.dao.Dao;
+import org.thingsboard.server.dao.asset.AssetDao;
+import org.thingsboard.server.dao.device.DeviceDao;
+import org.thingsboard.server.dao.entityview.EntityViewDao;
+import org.thingsboard.server.dao.util.BatchLoader;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+import static org.thingsboard.server.common.data.CacheConstants.ASSET_CACHE;
+import static org.thingsboard.server.common.data.CacheConstants.DEVICE_CACHE;
+import static org.thingsboard.server.common.data.CacheConstants.ENTITY_VIEW_CACHE;
+
+/**
+ * Resolves devices, assets and entity views by id. Cached entities are returned right away,
+ * lookups of the other ones requested within the batch window are merged into one query per tenant.
+ * Entities are cached by the "{#entityId}" key and returned as copies, so callers may modify them.
+ * Services evict the entities through the loader, so a batch that was loading while an entity changed
+ * doesn't put the stale entity back into the cache.
+ */
+@Component
+@Slf4j
+public class EntityBatchLoader {
+
+    @Value("${database.entities.batch_loader.enabled:true}")
+    private boolean enabled;
+
+    @Value("${database.entities.batch_loader.window_ms:2}")
+    private long windowMs;
+
+    @Value("${database.entities.batch_loader.max_batch_size:500}")
+    private int maxBatchSize;
+
+    @Autowired
+    private DeviceDao deviceDao;
+
+    @Autowired
+    private AssetDao assetDao;
+
+    @Autowired
+    private EntityViewDao entityViewDao;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private ScheduledExecutorService scheduler;
+    private EntityLoader<Device> devices;
+    private EntityLoader<Asset> assets;
+    private EntityLoader<EntityView> entityViews;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(ThingsBoardThreadFactory.forName("entity-batch-loader"));
+        devices = new EntityLoader<>(DEVICE_CACHE, deviceDao, Device::new);
+        assets = new EntityLoader<>(ASSET_CACHE, assetDao, Asset::new);
+        entityViews = new EntityLoader<>(ENTITY_VIEW_CACHE, entityViewDao, EntityView::new);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public ListenableFuture<Device> findDeviceById(TenantId tenantId, DeviceId deviceId) {
+        return devices.load(tenantId, deviceId);
+    }
+
+    public ListenableFuture<Asset> findAssetById(TenantId tenantId, AssetId assetId) {
+        return assets.load(tenantId, assetId);
+    }
+
+    public ListenableFuture<EntityView> findEntityViewById(TenantId tenantId, EntityViewId entityViewId) {
+        return entityViews.load(tenantId, entityViewId);
+    }
+
+    /**
+     * Should be called after the device is saved or removed from the database.
+     */
+    public void evictDevice(DeviceId deviceId) {
+        devices.evict(deviceId);
+    }
+
+    public void evictAsset(AssetId assetId) {
+        assets.evict(assetId);
+    }
+
+    public void evictEntityView(EntityViewId entityViewId) {
+        entityViews.evict(entityViewId);
+    }
+
+    @Data
+    private static class BatchKey {
+        private final TenantId tenantId;
+        private final UUID id;
+    }
+
+    private class EntityLoader<T extends IdBased<?>> {
+
+        private final String cacheName;
+        private final Dao<T> dao;
+        private final Function<T, T> copyFunction;
+        private final BatchLoader<BatchKey, T> batchLoader;
+        private long evictions;
+
+        EntityLoader(String cacheName, Dao<T> dao, Function<T, T> copyFunction) {
+            this.cacheName = cacheName;
+            this.dao = dao;
+            this.copyFunction = copyFunction;
+            this.batchLoader = new BatchLoader<>(this::loadBatch, scheduler, windowMs, maxBatchSize);
+        }
+
+        @SuppressWarnings("unchecked")
+        ListenableFuture<T> load(TenantId tenantId, UUIDBased id) {
+            if (!enabled) {
+                return dao.findByIdAsync(tenantId, id.getId());
+            }
+            Cache.ValueWrapper cached = cacheManager.getCache(cacheName).get(Collections.singletonList(id));
+            if (cached != null && cached.get() != null) {
+                return Futures.immediateFuture(copyFunction.apply((T) cached.get()));
+            }
+            return Futures.transform(batchLoader.load(new BatchKey(tenantId, id.getId())),
+                    entity -> entity != null ? copyFunction.apply(entity) : null, MoreExecutors.directExecutor());
+        }
+
+        void evict(UUIDBased id) {
+            synchronized (this) {
+                evictions++;
+                cacheManager.getCache(cacheName).evict(Collections.singletonList(id));
+            }
+        }
+
+        /**
+         * Loaded entities are cached only if nothing was evicted from the cache since the batch was sent.
+         */
+        private ListenableFuture<Map<BatchKey, T>> loadBatch(Set<BatchKey> keys) {
+            long evictionsBeforeLoad;
+            synchronized (this) {
+                evictionsBeforeLoad = evictions;
+            }
+            Map<TenantId, List<UUID>> idsByTenant = new HashMap<>();
+            for (BatchKey key : keys) {
+                idsByTenant.computeIfAbsent(key.getTenantId(), tenantId -> new ArrayList<>()).add(key.getId());
+            }
+            List<ListenableFuture<Map<BatchKey, T>>> futures = new ArrayList<>(idsByTenant.size());
+            idsByTenant.forEach((tenantId, ids) -> futures.add(Futures.transform(dao.findByIdsAsync(tenantId, ids), entities -> {
+                Map<BatchKey, T> result = new HashMap<>();
+                for (T entity : entities) {
+                    result.put(new BatchKey(tenantId, entity.getUuidId()), entity);
+                }
+                synchronized (this) {
+                    if (evictions == evictionsBeforeLoad) {
+                        Cache cache = cacheManager.getCache(cacheName);
+                        entities.forEach(entity -> cache.put(Collections.singletonList(entity.getId()), entity));
+                    }
+                }
+                return result;
+            }, MoreExecutors.directExecutor())));
+            return Futures.transform(Futures.allAsList(futures), results -> {
+                Map<BatchKey, T> result = new HashMap<>();
+                results.forEach(result::putAll);
+                return result;
+            }, MoreExecutors.directExecutor());
+        }
+    }
+}
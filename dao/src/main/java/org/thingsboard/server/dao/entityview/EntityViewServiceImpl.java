@@ -45,6 +45,7 @@ import org.thingsboard.server.common.data.relation.EntityRelation;
 import org.thingsboard.server.common.data.relation.EntitySearchDirection;
 import org.thingsboard.server.dao.customer.CustomerDao;
 import org.thingsboard.server.dao.entity.AbstractEntityService;
+import org.thingsboard.server.dao.entity.EntityBatchLoader;
 import org.thingsboard.server.dao.exception.DataValidationException;
 import org.thingsboard.server.dao.service.DataValidator;
 import org.thingsboard.server.dao.service.PaginatedRemover;
@@ -89,6 +90,9 @@ public class EntityViewServiceImpl extends AbstractEntityService implements Enti
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private EntityBatchLoader entityBatchLoader;
+
     @Caching(evict = {
             @CacheEvict(cacheNames = ENTITY_VIEW_CACHE, key = "{#entityView.tenantId, #entityView.entityId}"),
             @CacheEvict(cacheNames = ENTITY_VIEW_CACHE, key = "{#entityView.tenantId, #entityView.name}"),
@@ -98,6 +102,9 @@ public class EntityViewServiceImpl extends AbstractEntityService implements Enti
         log.trace("Executing save entity view [{}]", entityView);
         entityViewValidator.validate(entityView, EntityView::getTenantId);
         EntityView savedEntityView = entityViewDao.save(entityView.getTenantId(), entityView);
+        if (entityView.getId() != null) {
+            entityBatchLoader.evictEntityView(entityView.getId());
+        }
         return savedEntityView;
     }
 
@@ -217,7 +224,7 @@ public class EntityViewServiceImpl extends AbstractEntityService implements Enti
     public ListenableFuture<EntityView> findEntityViewByIdAsync(TenantId tenantId, EntityViewId entityViewId) {
         log.trace("Executing findEntityViewById [{}]", entityViewId);
         validateId(entityViewId, INCORRECT_ENTITY_VIEW_ID + entityViewId);
-        return entityViewDao.findByIdAsync(tenantId, entityViewId.getId());
+        return entityBatchLoader.findEntityViewById(tenantId, entityViewId);
     }
 
     @Override
@@ -262,6 +269,7 @@ public class EntityViewServiceImpl extends AbstractEntityService implements Enti
         cacheManager.getCache(ENTITY_VIEW_CACHE).evict(Arrays.asList(entityView.getTenantId(), entityView.getEntityId()));
         cacheManager.getCache(ENTITY_VIEW_CACHE).evict(Arrays.asList(entityView.getTenantId(), entityView.getName()));
         entityViewDao.removeById(tenantId, entityViewId.getId());
+        entityBatchLoader.evictEntityView(entityViewId);
     }
 
     @Override
@@ -36,9 +36,13 @@ import org.thingsboard.server.dao.model.ModelConstants;
 import org.thingsboard.server.dao.model.wrapper.EntityResultSet;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
@@ -179,6 +183,17 @@ public abstract class CassandraAbstractModelDao<E extends BaseEntity<D>, D> exte
         return findOneByStatementAsync(tenantId, query);
     }
 
+    @Override
+    public ListenableFuture<List<D>> findByIdsAsync(TenantId tenantId, Collection<UUID> keys) {
+        log.debug("Get entities by keys {}", keys);
+        List<ListenableFuture<D>> futures = new ArrayList<>(keys.size());
+        for (UUID key : keys) {
+            futures.add(findByIdAsync(tenantId, key));
+        }
+        return Futures.transform(Futures.allAsList(futures),
+                entities -> entities.stream().filter(Objects::nonNull).collect(Collectors.toList()), MoreExecutors.directExecutor());
+    }
+
     @Override
     public boolean removeById(TenantId tenantId, UUID key) {
         Statement delete = QueryBuilder.delete().all().from(getColumnFamilyName()).where(eq(ModelConstants.ID_PROPERTY, key));
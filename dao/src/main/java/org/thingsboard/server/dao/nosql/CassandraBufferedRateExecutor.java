@@ -18,6 +18,7 @@ package org.thingsboard.server.dao.nosql;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.ResultSetFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -57,21 +58,23 @@ public class CassandraBufferedRateExecutor extends AbstractBufferedRateExecutor<
             @Value("${cassandra.query.tenant_rate_limits.enabled}") boolean tenantRateLimitsEnabled,
             @Value("${cassandra.query.tenant_rate_limits.configuration}") String tenantRateLimitsConfiguration,
             @Value("${cassandra.query.tenant_rate_limits.print_tenant_names}") boolean printTenantNames,
-            @Value("${cassandra.query.print_queries_freq:0}") int printQueriesFreq) {
-        super(queueLimit, concurrencyLimit, maxWaitTime, dispatcherThreads, callbackThreads, pollMs, tenantRateLimitsEnabled, tenantRateLimitsConfiguration, printQueriesFreq);
+            @Value("${cassandra.query.print_queries_freq:0}") int printQueriesFreq,
+            MeterRegistry meterRegistry) {
+        super(queueLimit, concurrencyLimit, maxWaitTime, dispatcherThreads, callbackThreads, pollMs, tenantRateLimitsEnabled, tenantRateLimitsConfiguration, printQueriesFreq,
+                meterRegistry);
         this.printTenantNames = printTenantNames;
     }
 
     @Scheduled(fixedDelayString = "${cassandra.query.rate_limit_print_interval_ms}")
     public void printStats() {
         int queueSize = getQueueSize();
-        int totalAddedValue = totalAdded.getAndSet(0);
-        int totalLaunchedValue = totalLaunched.getAndSet(0);
-        int totalReleasedValue = totalReleased.getAndSet(0);
-        int totalFailedValue = totalFailed.getAndSet(0);
-        int totalExpiredValue = totalExpired.getAndSet(0);
-        int totalRejectedValue = totalRejected.getAndSet(0);
-        int totalRateLimitedValue = totalRateLimited.getAndSet(0);
+        int totalAddedValue = totalAdded.getAndReset();
+        int totalLaunchedValue = totalLaunched.getAndReset();
+        int totalReleasedValue = totalReleased.getAndReset();
+        int totalFailedValue = totalFailed.getAndReset();
+        int totalExpiredValue = totalExpired.getAndReset();
+        int totalRejectedValue = totalRejected.getAndReset();
+        int totalRateLimitedValue = totalRateLimited.getAndReset();
         int rateLimitedTenantsValue = rateLimitedTenants.size();
         int concurrencyLevelValue = concurrencyLevel.get();
         if (queueSize > 0 || totalAddedValue > 0 || totalLaunchedValue > 0 || totalReleasedValue > 0 ||
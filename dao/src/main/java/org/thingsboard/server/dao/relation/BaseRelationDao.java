@@ -23,7 +23,9 @@ import com.datastax.driver.core.Row;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.datastax.driver.core.querybuilder.Select;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.thingsboard.server.common.data.EntityType;
@@ -32,6 +34,7 @@ import org.thingsboard.server.common.data.id.EntityIdFactory;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.page.TimePageLink;
 import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.relation.EntitySearchDirection;
 import org.thingsboard.server.common.data.relation.RelationTypeGroup;
 import org.thingsboard.server.dao.model.ModelConstants;
 import org.thingsboard.server.dao.model.type.RelationTypeGroupCodec;
@@ -43,6 +46,8 @@ import javax.annotation.PostConstruct;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
 
@@ -159,6 +164,15 @@ public class BaseRelationDao extends CassandraAbstractAsyncDao implements Relati
         return getBooleanListenableFuture(future);
     }
 
+    @Override
+    public boolean saveRelations(TenantId tenantId, List<EntityRelation> relations) {
+        List<ListenableFuture<Boolean>> futures = new ArrayList<>(relations.size());
+        for (EntityRelation relation : relations) {
+            futures.add(saveRelationAsync(tenantId, relation));
+        }
+        return allApplied(futures);
+    }
+
     private BoundStatement getSaveRelationStatement(TenantId tenantId, EntityRelation relation) {
         BoundStatement stmt = getSaveStmt().bind()
                 .setUUID(0, relation.getFrom().getId())
@@ -181,6 +195,40 @@ public class BaseRelationDao extends CassandraAbstractAsyncDao implements Relati
         return deleteRelationAsync(tenantId, relation.getFrom(), relation.getTo(), relation.getType(), relation.getTypeGroup());
     }
 
+    @Override
+    public boolean deleteRelations(TenantId tenantId, List<EntityRelation> relations) {
+        List<ListenableFuture<Boolean>> futures = new ArrayList<>(relations.size());
+        for (EntityRelation relation : relations) {
+            futures.add(deleteRelationAsync(tenantId, relation));
+        }
+        return allApplied(futures);
+    }
+
+    @Override
+    public ListenableFuture<Set<EntityRelation>> findRelationsRecursively(TenantId tenantId, EntityId rootId, EntitySearchDirection direction,
+                                                                          RelationTypeGroup typeGroup, int maxLevel, boolean fetchLastLevelOnly) {
+        return RelationGraphTraversal.traverse(rootId, direction, maxLevel, fetchLastLevelOnly, entityIds -> {
+            List<ListenableFuture<List<EntityRelation>>> futures = new ArrayList<>(entityIds.size());
+            for (EntityId entityId : entityIds) {
+                futures.add(direction == EntitySearchDirection.FROM ?
+                        findAllByFrom(tenantId, entityId, typeGroup) : findAllByTo(tenantId, entityId, typeGroup));
+            }
+            return Futures.transform(Futures.allAsList(futures), relations -> {
+                List<EntityRelation> result = new ArrayList<>();
+                relations.forEach(result::addAll);
+                return result;
+            }, MoreExecutors.directExecutor());
+        });
+    }
+
+    private boolean allApplied(List<ListenableFuture<Boolean>> futures) {
+        try {
+            return Futures.allAsList(futures).get().stream().allMatch(Boolean.TRUE::equals);
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public boolean deleteRelation(TenantId tenantId, EntityId from, EntityId to, String relationType, RelationTypeGroup typeGroup) {
         BoundStatement stmt = getDeleteRelationStatement(tenantId, from, to, relationType, typeGroup);
@@ -22,6 +22,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
@@ -44,10 +45,8 @@ import org.thingsboard.server.dao.exception.DataValidationException;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.function.BiConsumer;
 
@@ -69,6 +68,9 @@ public class BaseRelationService implements RelationService {
     @Autowired
     private CacheManager cacheManager;
 
+    @Value("${database.relations.max_level:50}")
+    private int maxLevelLimit;
+
     @Override
     public ListenableFuture<Boolean> checkRelation(TenantId tenantId, EntityId from, EntityId to, String relationType, RelationTypeGroup typeGroup) {
         log.trace("Executing checkRelation [{}][{}][{}][{}]", from, to, relationType, typeGroup);
@@ -121,6 +123,21 @@ public class BaseRelationService implements RelationService {
         return relationDao.saveRelationAsync(tenantId, relation);
     }
 
+    @Override
+    public boolean saveRelations(TenantId tenantId, List<EntityRelation> relations) {
+        log.trace("Executing saveRelations [{}]", relations);
+        relations.forEach(this::validate);
+        if (relations.isEmpty()) {
+            return true;
+        }
+        try {
+            return relationDao.saveRelations(tenantId, relations);
+        } finally {
+            Cache cache = cacheManager.getCache(RELATIONS_CACHE);
+            relations.forEach(relation -> cacheEviction(relation, cache));
+        }
+    }
+
     @Caching(evict = {
             @CacheEvict(cacheNames = RELATIONS_CACHE, key = "{#relation.from, #relation.to, #relation.type, #relation.typeGroup}"),
             @CacheEvict(cacheNames = RELATIONS_CACHE, key = "{#relation.from, #relation.type, #relation.typeGroup, 'FROM'}"),
@@ -149,6 +166,21 @@ public class BaseRelationService implements RelationService {
         return relationDao.deleteRelationAsync(tenantId, relation);
     }
 
+    @Override
+    public boolean deleteRelations(TenantId tenantId, List<EntityRelation> relations) {
+        log.trace("Executing deleteRelations [{}]", relations);
+        relations.forEach(this::validate);
+        if (relations.isEmpty()) {
+            return true;
+        }
+        try {
+            return relationDao.deleteRelations(tenantId, relations);
+        } finally {
+            Cache cache = cacheManager.getCache(RELATIONS_CACHE);
+            relations.forEach(relation -> cacheEviction(relation, cache));
+        }
+    }
+
     @Caching(evict = {
             @CacheEvict(cacheNames = RELATIONS_CACHE, key = "{#from, #to, #relationType, #typeGroup}"),
             @CacheEvict(cacheNames = RELATIONS_CACHE, key = "{#from, #relationType, #typeGroup, 'FROM'}"),
@@ -452,7 +484,6 @@ public class BaseRelationService implements RelationService {
 
     @Override
     public ListenableFuture<List<EntityRelation>> findByQuery(TenantId tenantId, EntityRelationsQuery query) {
-        //boolean fetchLastLevelOnly = true;
         log.trace("Executing findByQuery [{}]", query);
         RelationsSearchParameters params = query.getParameters();
         final List<EntityTypeFilter> filters = query.getFilters();
@@ -461,9 +492,19 @@ public class BaseRelationService implements RelationService {
         }
 
         int maxLvl = params.getMaxLevel() > 0 ? params.getMaxLevel() : Integer.MAX_VALUE;
+        if (maxLvl > maxLevelLimit) {
+            if (params.getMaxLevel() > 0) {
+                log.warn("[{}] Relation query level {} exceeds the limit {}", params.getEntityId(), maxLvl, maxLevelLimit);
+            }
+            if (params.isFetchLastLevelOnly()) {
+                return Futures.immediateFuture(Collections.emptyList());
+            }
+            maxLvl = maxLevelLimit;
+        }
+        RelationTypeGroup relationTypeGroup = params.getRelationTypeGroup() != null ? params.getRelationTypeGroup() : RelationTypeGroup.COMMON;
 
         try {
-            ListenableFuture<Set<EntityRelation>> relationSet = findRelationsRecursively(tenantId, params.getEntityId(), params.getDirection(), params.getRelationTypeGroup(), maxLvl, params.isFetchLastLevelOnly(), new ConcurrentHashMap<>());
+            ListenableFuture<Set<EntityRelation>> relationSet = relationDao.findRelationsRecursively(tenantId, params.getEntityId(), params.getDirection(), relationTypeGroup, maxLvl, params.isFetchLastLevelOnly());
             return Futures.transform(relationSet, input -> {
                 List<EntityRelation> relations = new ArrayList<>();
                 if (filters == null || filters.isEmpty()) {
@@ -578,55 +619,4 @@ public class BaseRelationService implements RelationService {
             return false;
         }
     }
-
-    private ListenableFuture<Set<EntityRelation>> findRelationsRecursively(final TenantId tenantId, final EntityId rootId, final EntitySearchDirection direction,
-                                                                           RelationTypeGroup relationTypeGroup, int lvl, boolean fetchLastLevelOnly,
-                                                                           final ConcurrentHashMap<EntityId, Boolean> uniqueMap) throws Exception {
-        if (lvl == 0) {
-            return Futures.immediateFuture(Collections.emptySet());
-        }
-        lvl--;
-        //TODO: try to remove this blocking operation
-        Set<EntityRelation> children = new HashSet<>(findRelations(tenantId, rootId, direction, relationTypeGroup).get());
-        Set<EntityId> childrenIds = new HashSet<>();
-        for (EntityRelation childRelation : children) {
-            log.trace("Found Relation: {}", childRelation);
-            EntityId childId;
-            if (direction == EntitySearchDirection.FROM) {
-                childId = childRelation.getTo();
-            } else {
-                childId = childRelation.getFrom();
-            }
-            if (uniqueMap.putIfAbsent(childId, Boolean.TRUE) == null) {
-                log.trace("Adding Relation: {}", childId);
-                if (childrenIds.add(childId)) {
-                    log.trace("Added Relation: {}", childId);
-                }
-            }
-        }
-        List<ListenableFuture<Set<EntityRelation>>> futures = new ArrayList<>();
-        for (EntityId entityId : childrenIds) {
-            futures.add(findRelationsRecursively(tenantId, entityId, direction, relationTypeGroup, lvl, fetchLastLevelOnly, uniqueMap));
-        }
-        //TODO: try to remove this blocking operation
-        List<Set<EntityRelation>> relations = Futures.successfulAsList(futures).get();
-        if (fetchLastLevelOnly && lvl > 0) {
-            children.clear();
-        }
-        relations.forEach(r -> r.forEach(children::add));
-        return Futures.immediateFuture(children);
-    }
-
-    private ListenableFuture<List<EntityRelation>> findRelations(final TenantId tenantId, final EntityId rootId, final EntitySearchDirection direction, RelationTypeGroup relationTypeGroup) {
-        ListenableFuture<List<EntityRelation>> relations;
-        if (relationTypeGroup == null) {
-            relationTypeGroup = RelationTypeGroup.COMMON;
-        }
-        if (direction == EntitySearchDirection.FROM) {
-            relations = findByFromAsync(tenantId, rootId, relationTypeGroup);
-        } else {
-            relations = findByToAsync(tenantId, rootId, relationTypeGroup);
-        }
-        return relations;
-    }
 }
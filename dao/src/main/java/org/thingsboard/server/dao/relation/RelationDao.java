@@ -21,9 +21,11 @@ import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.page.TimePageLink;
 import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.relation.EntitySearchDirection;
 import org.thingsboard.server.common.data.relation.RelationTypeGroup;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * Created by ashvayka on 25.04.17.
@@ -46,10 +48,14 @@ public interface RelationDao {
 
     ListenableFuture<Boolean> saveRelationAsync(TenantId tenantId, EntityRelation relation);
 
+    boolean saveRelations(TenantId tenantId, List<EntityRelation> relations);
+
     boolean deleteRelation(TenantId tenantId, EntityRelation relation);
 
     ListenableFuture<Boolean> deleteRelationAsync(TenantId tenantId, EntityRelation relation);
 
+    boolean deleteRelations(TenantId tenantId, List<EntityRelation> relations);
+
     boolean deleteRelation(TenantId tenantId, EntityId from, EntityId to, String relationType, RelationTypeGroup typeGroup);
 
     ListenableFuture<Boolean> deleteRelationAsync(TenantId tenantId, EntityId from, EntityId to, String relationType, RelationTypeGroup typeGroup);
@@ -60,4 +66,11 @@ public interface RelationDao {
 
     ListenableFuture<List<EntityRelation>> findRelations(TenantId tenantId, EntityId from, String relationType, RelationTypeGroup typeGroup, EntityType toType, TimePageLink pageLink);
 
+    /**
+     * Finds relations reachable from the root entity in the given direction within maxLevel hops.
+     * If fetchLastLevelOnly is set, only relations of the maxLevel-th level are returned.
+     */
+    ListenableFuture<Set<EntityRelation>> findRelationsRecursively(TenantId tenantId, EntityId rootId, EntitySearchDirection direction,
+                                                                   RelationTypeGroup typeGroup, int maxLevel, boolean fetchLastLevelOnly);
+
 }
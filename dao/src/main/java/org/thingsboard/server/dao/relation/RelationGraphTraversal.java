@@ -0,0 +1,86 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.relation;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.relation.EntitySearchDirection;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Breadth-first traversal of the relation graph that loads the whole level with a single request
+ * and never blocks waiting for it. Every entity is expanded only once, so cycles are safe.
+ * Relations of the level N are the ones that start at entities found on the level N - 1.
+ */
+public final class RelationGraphTraversal {
+
+    private final EntitySearchDirection direction;
+    private final int maxLevel;
+    private final boolean fetchLastLevelOnly;
+    private final Function<Set<EntityId>, ListenableFuture<List<EntityRelation>>> levelLoader;
+
+    private final Set<EntityId> visited = new HashSet<>();
+    private final Set<EntityRelation> result = new HashSet<>();
+
+    private RelationGraphTraversal(EntitySearchDirection direction, int maxLevel, boolean fetchLastLevelOnly,
+                                   Function<Set<EntityId>, ListenableFuture<List<EntityRelation>>> levelLoader) {
+        this.direction = direction;
+        this.maxLevel = maxLevel;
+        this.fetchLastLevelOnly = fetchLastLevelOnly;
+        this.levelLoader = levelLoader;
+    }
+
+    /**
+     * @param levelLoader fetches relations of all the given entities in the traversal direction.
+     */
+    public static ListenableFuture<Set<EntityRelation>> traverse(EntityId rootId, EntitySearchDirection direction, int maxLevel, boolean fetchLastLevelOnly,
+                                                                 Function<Set<EntityId>, ListenableFuture<List<EntityRelation>>> levelLoader) {
+        RelationGraphTraversal traversal = new RelationGraphTraversal(direction, maxLevel, fetchLastLevelOnly, levelLoader);
+        traversal.visited.add(rootId);
+        return traversal.expand(Collections.singleton(rootId), 1);
+    }
+
+    /**
+     * Levels are processed one after another, so the state is never accessed concurrently.
+     */
+    private ListenableFuture<Set<EntityRelation>> expand(Set<EntityId> entityIds, int level) {
+        if (entityIds.isEmpty() || level > maxLevel) {
+            return Futures.immediateFuture(result);
+        }
+        return Futures.transformAsync(levelLoader.apply(entityIds), relations -> {
+            boolean collect = !fetchLastLevelOnly || level == maxLevel;
+            Set<EntityId> nextLevel = new HashSet<>();
+            for (EntityRelation relation : relations) {
+                if (collect) {
+                    result.add(relation);
+                }
+                EntityId entityId = direction == EntitySearchDirection.FROM ? relation.getTo() : relation.getFrom();
+                if (visited.add(entityId)) {
+                    nextLevel.add(entityId);
+                }
+            }
+            return expand(nextLevel, level + 1);
+        }, MoreExecutors.directExecutor());
+    }
+}
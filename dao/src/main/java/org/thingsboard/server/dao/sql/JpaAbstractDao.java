@@ -21,14 +21,17 @@ import com.google.common.util.concurrent.ListenableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.transaction.annotation.Transactional;
+import org.thingsboard.server.common.data.UUIDConverter;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.dao.Dao;
 import org.thingsboard.server.dao.DaoUtil;
 import org.thingsboard.server.dao.model.BaseEntity;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.thingsboard.server.common.data.UUIDConverter.fromTimeUUID;
 
@@ -78,6 +81,13 @@ public abstract class JpaAbstractDao<E extends BaseEntity<D>, D>
         return service.submit(() -> DaoUtil.getData(getCrudRepository().findById(fromTimeUUID(key))));
     }
 
+    @Override
+    public ListenableFuture<List<D>> findByIdsAsync(TenantId tenantId, Collection<UUID> keys) {
+        log.debug("Get entities by keys async {}", keys);
+        List<String> ids = keys.stream().map(UUIDConverter::fromTimeUUID).collect(Collectors.toList());
+        return service.submit(() -> DaoUtil.convertDataList(Lists.newArrayList(getCrudRepository().findAllById(ids))));
+    }
+
     @Override
     @Transactional
     public boolean removeById(TenantId tenantId, UUID id) {
@@ -15,16 +15,55 @@
  */
 package org.thingsboard.server.dao.sql;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.thingsboard.server.common.data.page.TextPageLink;
 import org.thingsboard.server.dao.model.BaseEntity;
 import org.thingsboard.server.dao.model.SearchTextEntity;
 
+import java.util.Optional;
+
+import static org.thingsboard.server.common.data.UUIDConverter.fromTimeUUID;
+import static org.thingsboard.server.dao.model.ModelConstants.NULL_UUID_STR;
+
 /**
  * Created by Valerii Sosliuk on 5/6/2017.
  */
 public abstract class JpaAbstractSearchTextDao <E extends BaseEntity<D>, D> extends JpaAbstractDao<E, D> {
 
+    @Value("${sql.text_search.substring:false}")
+    private boolean substringSearch;
+
     @Override
     protected void setSearchText(E entity) {
         ((SearchTextEntity) entity).setSearchText(((SearchTextEntity) entity).getSearchTextSource().toLowerCase());
     }
+
+    /**
+     * @return LIKE pattern of the search text, matching either the prefix or, if sql.text_search.substring is enabled, any part of it
+     */
+    protected String getTextSearchPattern(TextPageLink pageLink) {
+        String textSearch = pageLink.getTextSearch() != null ? pageLink.getTextSearch().toLowerCase() : "";
+        return substringSearch ? "%" + textSearch + "%" : textSearch + "%";
+    }
+
+    /**
+     * Entities are paged by (search_text, id), the page starts after the entity with these search text and id offsets.
+     * Page links without the text offset continue from the entity with the id offset, or from the first page if it was removed.
+     */
+    protected String getTextOffset(TextPageLink pageLink) {
+        if (pageLink.getTextOffset() != null) {
+            return pageLink.getTextOffset().toLowerCase();
+        }
+        if (pageLink.getIdOffset() != null) {
+            Optional<E> entity = getCrudRepository().findById(fromTimeUUID(pageLink.getIdOffset()));
+            if (entity.isPresent()) {
+                return ((SearchTextEntity) entity.get()).getSearchTextSource().toLowerCase();
+            }
+        }
+        return "";
+    }
+
+    protected String getIdOffset(TextPageLink pageLink) {
+        return pageLink.getIdOffset() == null ? NULL_UUID_STR : fromTimeUUID(pageLink.getIdOffset());
+    }
 }
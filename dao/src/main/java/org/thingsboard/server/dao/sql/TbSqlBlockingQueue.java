@@ -17,7 +17,12 @@ package org.thingsboard.server.dao.sql;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.common.util.MetricsTags;
+import org.thingsboard.common.util.StatsCounter;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
 
 import java.util.ArrayList;
@@ -27,7 +32,6 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -35,16 +39,23 @@ import java.util.stream.Collectors;
 public class TbSqlBlockingQueue<E> implements TbSqlQueue<E> {
 
     private final BlockingQueue<TbSqlQueueElement<E>> queue = new LinkedBlockingQueue<>();
-    private final AtomicInteger addedCount = new AtomicInteger();
-    private final AtomicInteger savedCount = new AtomicInteger();
-    private final AtomicInteger failedCount = new AtomicInteger();
     private final TbSqlBlockingQueueParams params;
+    private final StatsCounter addedCount;
+    private final StatsCounter savedCount;
+    private final StatsCounter failedCount;
+    private final Timer saveTimer;
 
     private ExecutorService executor;
     private ScheduledLogExecutorComponent logExecutor;
 
-    public TbSqlBlockingQueue(TbSqlBlockingQueueParams params) {
+    public TbSqlBlockingQueue(TbSqlBlockingQueueParams params, MeterRegistry meterRegistry) {
         this.params = params;
+        Tags tags = Tags.of(MetricsTags.QUEUE, params.getLogName());
+        meterRegistry.gaugeCollectionSize("tb.sql.queue.size", tags, queue);
+        this.addedCount = new StatsCounter(meterRegistry, "tb.sql.queue.added", MetricsTags.QUEUE, params.getLogName());
+        this.savedCount = new StatsCounter(meterRegistry, "tb.sql.queue.saved", MetricsTags.QUEUE, params.getLogName());
+        this.failedCount = new StatsCounter(meterRegistry, "tb.sql.queue.failed", MetricsTags.QUEUE, params.getLogName());
+        this.saveTimer = meterRegistry.timer("tb.sql.queue.save", tags);
     }
 
     @Override
@@ -68,9 +79,10 @@ public class TbSqlBlockingQueue<E> implements TbSqlQueue<E> {
                     queue.drainTo(entities, batchSize - 1);
                     boolean fullPack = entities.size() == batchSize;
                     log.debug("[{}] Going to save {} entities", logName, entities.size());
-                    saveFunction.accept(entities.stream().map(TbSqlQueueElement::getEntity).collect(Collectors.toList()));
+                    List<E> batch = entities.stream().map(TbSqlQueueElement::getEntity).collect(Collectors.toList());
+                    saveTimer.record(() -> saveFunction.accept(batch));
+                    savedCount.add(entities.size());
                     entities.forEach(v -> v.getFuture().set(null));
-                    savedCount.addAndGet(entities.size());
                     if (!fullPack) {
                         long remainingDelay = maxDelay - (System.currentTimeMillis() - currentTs);
                         if (remainingDelay > 0) {
@@ -78,7 +90,7 @@ public class TbSqlBlockingQueue<E> implements TbSqlQueue<E> {
                         }
                     }
                 } catch (Exception e) {
-                    failedCount.addAndGet(entities.size());
+                    failedCount.add(entities.size());
                     entities.forEach(entityFutureWrapper -> entityFutureWrapper.getFuture().setException(e));
                     if (e instanceof InterruptedException) {
                         log.info("[{}] Queue polling was interrupted", logName);
@@ -95,7 +107,7 @@ public class TbSqlBlockingQueue<E> implements TbSqlQueue<E> {
         logExecutor.scheduleAtFixedRate(() -> {
             if (queue.size() > 0 || addedCount.get() > 0 || savedCount.get() > 0 || failedCount.get() > 0) {
                 log.info("[{}] queueSize [{}] totalAdded [{}] totalSaved [{}] totalFailed [{}]",
-                        params.getLogName(), queue.size(), addedCount.getAndSet(0), savedCount.getAndSet(0), failedCount.getAndSet(0));
+                        params.getLogName(), queue.size(), addedCount.getAndReset(), savedCount.getAndReset(), failedCount.getAndReset());
             }
         }, params.getStatsPrintIntervalMs(), params.getStatsPrintIntervalMs(), TimeUnit.MILLISECONDS);
     }
@@ -111,7 +123,7 @@ public class TbSqlBlockingQueue<E> implements TbSqlQueue<E> {
     public ListenableFuture<Void> add(E element) {
         SettableFuture<Void> future = SettableFuture.create();
         queue.add(new TbSqlQueueElement<>(future, element));
-        addedCount.incrementAndGet();
+        addedCount.increment();
         return future;
     }
 }
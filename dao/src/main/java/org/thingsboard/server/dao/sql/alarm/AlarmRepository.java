@@ -16,6 +16,7 @@
 package org.thingsboard.server.dao.sql.alarm;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
@@ -29,10 +30,21 @@ import java.util.List;
  * Created by Valerii Sosliuk on 5/21/2017.
  */
 @SqlDao
-public interface AlarmRepository extends CrudRepository<AlarmEntity, String> {
+public interface AlarmRepository extends CrudRepository<AlarmEntity, String>, JpaSpecificationExecutor<AlarmEntity> {
 
     @Query("SELECT a FROM AlarmEntity a WHERE a.originatorId = :originatorId AND a.type = :alarmType ORDER BY startTs DESC")
     List<AlarmEntity> findLatestByOriginatorAndType(@Param("originatorId") String originatorId,
                                                     @Param("alarmType") String alarmType,
                                                     Pageable pageable);
+
+    @Query("SELECT a.status, a.severity, count(a) FROM AlarmEntity a, RelationEntity r " +
+            "WHERE r.fromId = :fromId AND r.fromType = :fromType " +
+            "AND r.relationTypeGroup = :relationTypeGroup AND r.relationType = :relationType " +
+            "AND r.toType = :toType AND r.toId = a.id " +
+            "GROUP BY a.status, a.severity")
+    List<Object[]> countAlarmsByStatusAndSeverity(@Param("fromId") String fromId,
+                                                   @Param("fromType") String fromType,
+                                                   @Param("relationTypeGroup") String relationTypeGroup,
+                                                   @Param("relationType") String relationType,
+                                                   @Param("toType") String toType);
 }
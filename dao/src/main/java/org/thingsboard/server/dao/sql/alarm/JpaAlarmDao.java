@@ -20,7 +20,9 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Component;
 import org.thingsboard.server.common.data.EntityType;
@@ -29,22 +31,34 @@ import org.thingsboard.server.common.data.alarm.Alarm;
 import org.thingsboard.server.common.data.alarm.AlarmInfo;
 import org.thingsboard.server.common.data.alarm.AlarmQuery;
 import org.thingsboard.server.common.data.alarm.AlarmSearchStatus;
+import org.thingsboard.server.common.data.alarm.AlarmSeverity;
+import org.thingsboard.server.common.data.alarm.AlarmStatus;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.relation.EntityRelation;
 import org.thingsboard.server.common.data.relation.RelationTypeGroup;
 import org.thingsboard.server.dao.DaoUtil;
 import org.thingsboard.server.dao.alarm.AlarmDao;
+import org.thingsboard.server.dao.alarm.AlarmSeverityIndex;
 import org.thingsboard.server.dao.alarm.BaseAlarmService;
 import org.thingsboard.server.dao.model.sql.AlarmEntity;
+import org.thingsboard.server.dao.model.sql.RelationEntity;
 import org.thingsboard.server.dao.relation.RelationDao;
 import org.thingsboard.server.dao.sql.JpaAbstractDao;
+import org.thingsboard.server.dao.sql.JpaAbstractSearchTimeDao;
 import org.thingsboard.server.dao.util.SqlDao;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+import static org.springframework.data.jpa.domain.Specifications.where;
+
 /**
  * Created by Valerii Sosliuk on 5/19/2017.
  */
@@ -59,6 +73,12 @@ public class JpaAlarmDao extends JpaAbstractDao<AlarmEntity, Alarm> implements A
     @Autowired
     private RelationDao relationDao;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${sql.alarms.single_query_fetch:true}")
+    private boolean singleQueryFetch;
+
     @Override
     protected Class<AlarmEntity> getEntityClass() {
         return AlarmEntity.class;
@@ -103,6 +123,9 @@ public class JpaAlarmDao extends JpaAbstractDao<AlarmEntity, Alarm> implements A
             searchStatusName = query.getStatus().name();
         }
         String relationType = BaseAlarmService.ALARM_RELATION_PREFIX + searchStatusName;
+        if (singleQueryFetch) {
+            return findAlarmsByRelation(affectedEntity, relationType, query);
+        }
         ListenableFuture<List<EntityRelation>> relations = relationDao.findRelations(tenantId, affectedEntity, relationType, RelationTypeGroup.ALARM, EntityType.ALARM, query.getPageLink());
         return Futures.transformAsync(relations, input -> {
             List<ListenableFuture<AlarmInfo>> alarmFutures = new ArrayList<>(input.size());
@@ -114,4 +137,54 @@ public class JpaAlarmDao extends JpaAbstractDao<AlarmEntity, Alarm> implements A
             return Futures.successfulAsList(alarmFutures);
         }, MoreExecutors.directExecutor());
     }
+
+    @Override
+    public ListenableFuture<AlarmSeverityIndex> findAlarmSeverityIndex(TenantId tenantId, EntityId entityId) {
+        log.trace("Try to build alarm severity index for entity [{}]", entityId);
+        return service.submit(() -> {
+            AlarmSeverityIndex index = new AlarmSeverityIndex();
+            List<Object[]> counts = alarmRepository.countAlarmsByStatusAndSeverity(
+                    UUIDConverter.fromTimeUUID(entityId.getId()),
+                    entityId.getEntityType().name(),
+                    RelationTypeGroup.ALARM.name(),
+                    BaseAlarmService.ALARM_RELATION_PREFIX + AlarmSearchStatus.ANY.name(),
+                    EntityType.ALARM.name());
+            for (Object[] count : counts) {
+                index.add((AlarmStatus) count[0], (AlarmSeverity) count[1], ((Number) count[2]).longValue());
+            }
+            return index;
+        });
+    }
+
+    private ListenableFuture<List<AlarmInfo>> findAlarmsByRelation(EntityId affectedEntity, String relationType, AlarmQuery query) {
+        Specification<AlarmEntity> timeSearchSpec = JpaAbstractSearchTimeDao.getTimeSearchPageSpec(query.getPageLink(), "id");
+        Specification<AlarmEntity> relationSpec = (root, criteriaQuery, criteriaBuilder) -> {
+            Root<RelationEntity> relation = criteriaQuery.from(RelationEntity.class);
+            return criteriaBuilder.and(
+                    criteriaBuilder.equal(relation.get("fromId"), UUIDConverter.fromTimeUUID(affectedEntity.getId())),
+                    criteriaBuilder.equal(relation.get("fromType"), affectedEntity.getEntityType().name()),
+                    criteriaBuilder.equal(relation.get("relationType"), relationType),
+                    criteriaBuilder.equal(relation.get("relationTypeGroup"), RelationTypeGroup.ALARM.name()),
+                    criteriaBuilder.equal(relation.get("toType"), EntityType.ALARM.name()),
+                    criteriaBuilder.equal(relation.get("toId"), root.get("id")));
+        };
+        Specification<AlarmEntity> spec = where(timeSearchSpec).and(relationSpec);
+        boolean ascOrder = query.getPageLink().isAscOrder();
+        int limit = query.getPageLink().getLimit();
+        return service.submit(() -> {
+            // Selects the page only: a Page returned by the specification executor would also run a count query
+            CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<AlarmEntity> criteriaQuery = criteriaBuilder.createQuery(AlarmEntity.class);
+            Root<AlarmEntity> root = criteriaQuery.from(AlarmEntity.class);
+            criteriaQuery.select(root)
+                    .where(spec.toPredicate(root, criteriaQuery, criteriaBuilder))
+                    .orderBy(ascOrder ? criteriaBuilder.asc(root.get("id")) : criteriaBuilder.desc(root.get("id")));
+            List<Alarm> alarms = DaoUtil.convertDataList(entityManager.createQuery(criteriaQuery).setMaxResults(limit).getResultList());
+            List<AlarmInfo> result = new ArrayList<>(alarms.size());
+            for (Alarm alarm : alarms) {
+                result.add(new AlarmInfo(alarm));
+            }
+            return result;
+        });
+    }
 }
@@ -31,20 +31,24 @@ import java.util.List;
 public interface AssetRepository extends CrudRepository<AssetEntity, String> {
 
     @Query("SELECT a FROM AssetEntity a WHERE a.tenantId = :tenantId " +
-            "AND LOWER(a.searchText) LIKE LOWER(CONCAT(:textSearch, '%')) " +
-            "AND a.id > :idOffset ORDER BY a.id")
+            "AND a.searchText LIKE :textSearch " +
+            "AND a.searchText >= :textOffset AND (a.searchText > :textOffset OR a.id > :idOffset) " +
+            "ORDER BY a.searchText, a.id")
     List<AssetEntity> findByTenantId(@Param("tenantId") String tenantId,
                                      @Param("textSearch") String textSearch,
+                                     @Param("textOffset") String textOffset,
                                      @Param("idOffset") String idOffset,
                                      Pageable pageable);
 
     @Query("SELECT a FROM AssetEntity a WHERE a.tenantId = :tenantId " +
             "AND a.customerId = :customerId " +
-            "AND LOWER(a.searchText) LIKE LOWER(CONCAT(:textSearch, '%')) " +
-            "AND a.id > :idOffset ORDER BY a.id")
+            "AND a.searchText LIKE :textSearch " +
+            "AND a.searchText >= :textOffset AND (a.searchText > :textOffset OR a.id > :idOffset) " +
+            "ORDER BY a.searchText, a.id")
     List<AssetEntity> findByTenantIdAndCustomerId(@Param("tenantId") String tenantId,
                                                   @Param("customerId") String customerId,
                                                   @Param("textSearch") String textSearch,
+                                                  @Param("textOffset") String textOffset,
                                                   @Param("idOffset") String idOffset,
                                                   Pageable pageable);
 
@@ -56,22 +60,26 @@ public interface AssetRepository extends CrudRepository<AssetEntity, String> {
 
     @Query("SELECT a FROM AssetEntity a WHERE a.tenantId = :tenantId " +
             "AND a.type = :type " +
-            "AND LOWER(a.searchText) LIKE LOWER(CONCAT(:textSearch, '%')) " +
-            "AND a.id > :idOffset ORDER BY a.id")
+            "AND a.searchText LIKE :textSearch " +
+            "AND a.searchText >= :textOffset AND (a.searchText > :textOffset OR a.id > :idOffset) " +
+            "ORDER BY a.searchText, a.id")
     List<AssetEntity> findByTenantIdAndType(@Param("tenantId") String tenantId,
                                             @Param("type") String type,
                                             @Param("textSearch") String textSearch,
+                                            @Param("textOffset") String textOffset,
                                             @Param("idOffset") String idOffset,
                                             Pageable pageable);
 
     @Query("SELECT a FROM AssetEntity a WHERE a.tenantId = :tenantId " +
             "AND a.customerId = :customerId AND a.type = :type " +
-            "AND LOWER(a.searchText) LIKE LOWER(CONCAT(:textSearch, '%')) " +
-            "AND a.id > :idOffset ORDER BY a.id")
+            "AND a.searchText LIKE :textSearch " +
+            "AND a.searchText >= :textOffset AND (a.searchText > :textOffset OR a.id > :idOffset) " +
+            "ORDER BY a.searchText, a.id")
     List<AssetEntity> findByTenantIdAndCustomerIdAndType(@Param("tenantId") String tenantId,
                                                          @Param("customerId") String customerId,
                                                          @Param("type") String type,
                                                          @Param("textSearch") String textSearch,
+                                                         @Param("textOffset") String textOffset,
                                                          @Param("idOffset") String idOffset,
                                                          Pageable pageable);
 
@@ -34,13 +34,11 @@ import org.thingsboard.server.dao.util.SqlDao;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.thingsboard.server.common.data.UUIDConverter.fromTimeUUID;
 import static org.thingsboard.server.common.data.UUIDConverter.fromTimeUUIDs;
-import static org.thingsboard.server.dao.model.ModelConstants.NULL_UUID_STR;
 
 /**
  * Created by Valerii Sosliuk on 5/19/2017.
@@ -67,8 +65,9 @@ public class JpaAssetDao extends JpaAbstractSearchTextDao<AssetEntity, Asset> im
         return DaoUtil.convertDataList(assetRepository
                 .findByTenantId(
                         fromTimeUUID(tenantId),
-                        Objects.toString(pageLink.getTextSearch(), ""),
-                        pageLink.getIdOffset() == null ? NULL_UUID_STR : fromTimeUUID(pageLink.getIdOffset()),
+                        getTextSearchPattern(pageLink),
+                        getTextOffset(pageLink),
+                        getIdOffset(pageLink),
                         new PageRequest(0, pageLink.getLimit())));
     }
 
@@ -84,8 +83,9 @@ public class JpaAssetDao extends JpaAbstractSearchTextDao<AssetEntity, Asset> im
                 .findByTenantIdAndCustomerId(
                         fromTimeUUID(tenantId),
                         fromTimeUUID(customerId),
-                        Objects.toString(pageLink.getTextSearch(), ""),
-                        pageLink.getIdOffset() == null ? NULL_UUID_STR : fromTimeUUID(pageLink.getIdOffset()),
+                        getTextSearchPattern(pageLink),
+                        getTextOffset(pageLink),
+                        getIdOffset(pageLink),
                         new PageRequest(0, pageLink.getLimit())));
     }
 
@@ -107,8 +107,9 @@ public class JpaAssetDao extends JpaAbstractSearchTextDao<AssetEntity, Asset> im
                 .findByTenantIdAndType(
                         fromTimeUUID(tenantId),
                         type,
-                        Objects.toString(pageLink.getTextSearch(), ""),
-                        pageLink.getIdOffset() == null ? NULL_UUID_STR : fromTimeUUID(pageLink.getIdOffset()),
+                        getTextSearchPattern(pageLink),
+                        getTextOffset(pageLink),
+                        getIdOffset(pageLink),
                         new PageRequest(0, pageLink.getLimit())));
     }
 
@@ -119,8 +120,9 @@ public class JpaAssetDao extends JpaAbstractSearchTextDao<AssetEntity, Asset> im
                         fromTimeUUID(tenantId),
                         fromTimeUUID(customerId),
                         type,
-                        Objects.toString(pageLink.getTextSearch(), ""),
-                        pageLink.getIdOffset() == null ? NULL_UUID_STR : fromTimeUUID(pageLink.getIdOffset()),
+                        getTextSearchPattern(pageLink),
+                        getTextOffset(pageLink),
+                        getIdOffset(pageLink),
                         new PageRequest(0, pageLink.getLimit())));
     }
 
@@ -31,10 +31,12 @@ import java.util.List;
 public interface CustomerRepository extends CrudRepository<CustomerEntity, String> {
 
     @Query("SELECT c FROM CustomerEntity c WHERE c.tenantId = :tenantId " +
-            "AND LOWER(c.searchText) LIKE LOWER(CONCAT(:textSearch, '%')) " +
-            "AND c.id > :idOffset ORDER BY c.id")
+            "AND c.searchText LIKE :textSearch " +
+            "AND c.searchText >= :textOffset AND (c.searchText > :textOffset OR c.id > :idOffset) " +
+            "ORDER BY c.searchText, c.id")
     List<CustomerEntity> findByTenantId(@Param("tenantId") String tenantId,
                                         @Param("textSearch") String textSearch,
+                                        @Param("textOffset") String textOffset,
                                         @Param("idOffset") String idOffset,
                                         Pageable pageable);
 
@@ -29,12 +29,9 @@ import org.thingsboard.server.dao.sql.JpaAbstractSearchTextDao;
 import org.thingsboard.server.dao.util.SqlDao;
 
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
-import static org.thingsboard.server.dao.model.ModelConstants.NULL_UUID_STR;
-
 /**
  * Created by Valerii Sosliuk on 5/6/2017.
  */
@@ -59,8 +56,9 @@ public class JpaCustomerDao extends JpaAbstractSearchTextDao<CustomerEntity, Cus
     public List<Customer> findCustomersByTenantId(UUID tenantId, TextPageLink pageLink) {
         return DaoUtil.convertDataList(customerRepository.findByTenantId(
                 UUIDConverter.fromTimeUUID(tenantId),
-                Objects.toString(pageLink.getTextSearch(), ""),
-                pageLink.getIdOffset() == null ? NULL_UUID_STR : UUIDConverter.fromTimeUUID(pageLink.getIdOffset()),
+                getTextSearchPattern(pageLink),
+                getTextOffset(pageLink),
+                getIdOffset(pageLink),
                 new PageRequest(0, pageLink.getLimit())));
     }
 
@@ -33,47 +33,57 @@ public interface DeviceRepository extends CrudRepository<DeviceEntity, String> {
 
     @Query("SELECT d FROM DeviceEntity d WHERE d.tenantId = :tenantId " +
             "AND d.customerId = :customerId " +
-            "AND LOWER(d.searchText) LIKE LOWER(CONCAT(:searchText, '%')) " +
-            "AND d.id > :idOffset ORDER BY d.id")
+            "AND d.searchText LIKE :searchText " +
+            "AND d.searchText >= :textOffset AND (d.searchText > :textOffset OR d.id > :idOffset) " +
+            "ORDER BY d.searchText, d.id")
     List<DeviceEntity> findByTenantIdAndCustomerId(@Param("tenantId") String tenantId,
                                                    @Param("customerId") String customerId,
                                                    @Param("searchText") String searchText,
+                                                   @Param("textOffset") String textOffset,
                                                    @Param("idOffset") String idOffset,
                                                    Pageable pageable);
 
     @Query("SELECT d FROM DeviceEntity d WHERE d.tenantId = :tenantId " +
-            "AND d.id > :idOffset ORDER BY d.id")
+            "AND d.searchText >= :textOffset AND (d.searchText > :textOffset OR d.id > :idOffset) " +
+            "ORDER BY d.searchText, d.id")
     List<DeviceEntity> findByTenantId(@Param("tenantId") String tenantId,
+                                      @Param("textOffset") String textOffset,
                                       @Param("idOffset") String idOffset,
                                       Pageable pageable);
 
     @Query("SELECT d FROM DeviceEntity d WHERE d.tenantId = :tenantId " +
-            "AND LOWER(d.searchText) LIKE LOWER(CONCAT(:textSearch, '%')) " +
-            "AND d.id > :idOffset ORDER BY d.id")
+            "AND d.searchText LIKE :textSearch " +
+            "AND d.searchText >= :textOffset AND (d.searchText > :textOffset OR d.id > :idOffset) " +
+            "ORDER BY d.searchText, d.id")
     List<DeviceEntity> findByTenantId(@Param("tenantId") String tenantId,
                                       @Param("textSearch") String textSearch,
+                                      @Param("textOffset") String textOffset,
                                       @Param("idOffset") String idOffset,
                                       Pageable pageable);
 
     @Query("SELECT d FROM DeviceEntity d WHERE d.tenantId = :tenantId " +
             "AND d.type = :type " +
-            "AND LOWER(d.searchText) LIKE LOWER(CONCAT(:textSearch, '%')) " +
-            "AND d.id > :idOffset ORDER BY d.id")
+            "AND d.searchText LIKE :textSearch " +
+            "AND d.searchText >= :textOffset AND (d.searchText > :textOffset OR d.id > :idOffset) " +
+            "ORDER BY d.searchText, d.id")
     List<DeviceEntity> findByTenantIdAndType(@Param("tenantId") String tenantId,
                                              @Param("type") String type,
                                              @Param("textSearch") String textSearch,
+                                             @Param("textOffset") String textOffset,
                                              @Param("idOffset") String idOffset,
                                              Pageable pageable);
 
     @Query("SELECT d FROM DeviceEntity d WHERE d.tenantId = :tenantId " +
             "AND d.customerId = :customerId " +
             "AND d.type = :type " +
-            "AND LOWER(d.searchText) LIKE LOWER(CONCAT(:textSearch, '%')) " +
-            "AND d.id > :idOffset ORDER BY d.id")
+            "AND d.searchText LIKE :textSearch " +
+            "AND d.searchText >= :textOffset AND (d.searchText > :textOffset OR d.id > :idOffset) " +
+            "ORDER BY d.searchText, d.id")
     List<DeviceEntity> findByTenantIdAndCustomerIdAndType(@Param("tenantId") String tenantId,
                                                           @Param("customerId") String customerId,
                                                           @Param("type") String type,
                                                           @Param("textSearch") String textSearch,
+                                                          @Param("textOffset") String textOffset,
                                                           @Param("idOffset") String idOffset,
                                                           Pageable pageable);
 
@@ -36,13 +36,11 @@ import org.thingsboard.server.dao.util.SqlDao;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.thingsboard.server.common.data.UUIDConverter.fromTimeUUID;
 import static org.thingsboard.server.common.data.UUIDConverter.fromTimeUUIDs;
-import static org.thingsboard.server.dao.model.ModelConstants.NULL_UUID_STR;
 
 /**
  * Created by Valerii Sosliuk on 5/6/2017.
@@ -70,14 +68,16 @@ public class JpaDeviceDao extends JpaAbstractSearchTextDao<DeviceEntity, Device>
             return DaoUtil.convertDataList(
                     deviceRepository.findByTenantId(
                             fromTimeUUID(tenantId),
-                            pageLink.getIdOffset() == null ? NULL_UUID_STR : fromTimeUUID(pageLink.getIdOffset()),
+                            getTextOffset(pageLink),
+                            getIdOffset(pageLink),
                             new PageRequest(0, pageLink.getLimit())));
         } else {
             return DaoUtil.convertDataList(
                     deviceRepository.findByTenantId(
                             fromTimeUUID(tenantId),
-                            Objects.toString(pageLink.getTextSearch(), ""),
-                            pageLink.getIdOffset() == null ? NULL_UUID_STR : fromTimeUUID(pageLink.getIdOffset()),
+                            getTextSearchPattern(pageLink),
+                            getTextOffset(pageLink),
+                            getIdOffset(pageLink),
                             new PageRequest(0, pageLink.getLimit())));
         }
     }
@@ -93,8 +93,9 @@ public class JpaDeviceDao extends JpaAbstractSearchTextDao<DeviceEntity, Device>
                 deviceRepository.findByTenantIdAndCustomerId(
                         fromTimeUUID(tenantId),
                         fromTimeUUID(customerId),
-                        Objects.toString(pageLink.getTextSearch(), ""),
-                        pageLink.getIdOffset() == null ? NULL_UUID_STR : fromTimeUUID(pageLink.getIdOffset()),
+                        getTextSearchPattern(pageLink),
+                        getTextOffset(pageLink),
+                        getIdOffset(pageLink),
                         new PageRequest(0, pageLink.getLimit())));
     }
 
@@ -116,8 +117,9 @@ public class JpaDeviceDao extends JpaAbstractSearchTextDao<DeviceEntity, Device>
                 deviceRepository.findByTenantIdAndType(
                         fromTimeUUID(tenantId),
                         type,
-                        Objects.toString(pageLink.getTextSearch(), ""),
-                        pageLink.getIdOffset() == null ? NULL_UUID_STR : fromTimeUUID(pageLink.getIdOffset()),
+                        getTextSearchPattern(pageLink),
+                        getTextOffset(pageLink),
+                        getIdOffset(pageLink),
                         new PageRequest(0, pageLink.getLimit())));
     }
 
@@ -128,8 +130,9 @@ public class JpaDeviceDao extends JpaAbstractSearchTextDao<DeviceEntity, Device>
                         fromTimeUUID(tenantId),
                         fromTimeUUID(customerId),
                         type,
-                        Objects.toString(pageLink.getTextSearch(), ""),
-                        pageLink.getIdOffset() == null ? NULL_UUID_STR : fromTimeUUID(pageLink.getIdOffset()),
+                        getTextSearchPattern(pageLink),
+                        getTextOffset(pageLink),
+                        getIdOffset(pageLink),
                         new PageRequest(0, pageLink.getLimit())));
     }
 
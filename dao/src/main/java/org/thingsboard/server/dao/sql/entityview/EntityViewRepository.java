@@ -31,42 +31,50 @@ import java.util.List;
 public interface EntityViewRepository extends CrudRepository<EntityViewEntity, String> {
 
     @Query("SELECT e FROM EntityViewEntity e WHERE e.tenantId = :tenantId " +
-            "AND LOWER(e.searchText) LIKE LOWER(CONCAT(:textSearch, '%')) " +
-            "AND e.id > :idOffset ORDER BY e.id")
+            "AND e.searchText LIKE :textSearch " +
+            "AND e.searchText >= :textOffset AND (e.searchText > :textOffset OR e.id > :idOffset) " +
+            "ORDER BY e.searchText, e.id")
     List<EntityViewEntity> findByTenantId(@Param("tenantId") String tenantId,
                                           @Param("textSearch") String textSearch,
+                                          @Param("textOffset") String textOffset,
                                           @Param("idOffset") String idOffset,
                                           Pageable pageable);
 
     @Query("SELECT e FROM EntityViewEntity e WHERE e.tenantId = :tenantId " +
             "AND e.type = :type " +
-            "AND LOWER(e.searchText) LIKE LOWER(CONCAT(:textSearch, '%')) " +
-            "AND e.id > :idOffset ORDER BY e.id")
+            "AND e.searchText LIKE :textSearch " +
+            "AND e.searchText >= :textOffset AND (e.searchText > :textOffset OR e.id > :idOffset) " +
+            "ORDER BY e.searchText, e.id")
     List<EntityViewEntity> findByTenantIdAndType(@Param("tenantId") String tenantId,
                                                  @Param("type") String type,
                                                  @Param("textSearch") String textSearch,
+                                                 @Param("textOffset") String textOffset,
                                                  @Param("idOffset") String idOffset,
                                                  Pageable pageable);
 
     @Query("SELECT e FROM EntityViewEntity e WHERE e.tenantId = :tenantId " +
             "AND e.customerId = :customerId " +
-            "AND LOWER(e.searchText) LIKE LOWER(CONCAT(:searchText, '%')) " +
-            "AND e.id > :idOffset ORDER BY e.id")
+            "AND e.searchText LIKE :searchText " +
+            "AND e.searchText >= :textOffset AND (e.searchText > :textOffset OR e.id > :idOffset) " +
+            "ORDER BY e.searchText, e.id")
     List<EntityViewEntity> findByTenantIdAndCustomerId(@Param("tenantId") String tenantId,
                                                        @Param("customerId") String customerId,
                                                        @Param("searchText") String searchText,
+                                                       @Param("textOffset") String textOffset,
                                                        @Param("idOffset") String idOffset,
                                                        Pageable pageable);
 
     @Query("SELECT e FROM EntityViewEntity e WHERE e.tenantId = :tenantId " +
             "AND e.customerId = :customerId " +
             "AND e.type = :type " +
-            "AND LOWER(e.searchText) LIKE LOWER(CONCAT(:searchText, '%')) " +
-            "AND e.id > :idOffset ORDER BY e.id")
+            "AND e.searchText LIKE :searchText " +
+            "AND e.searchText >= :textOffset AND (e.searchText > :textOffset OR e.id > :idOffset) " +
+            "ORDER BY e.searchText, e.id")
     List<EntityViewEntity> findByTenantIdAndCustomerIdAndType(@Param("tenantId") String tenantId,
                                                               @Param("customerId") String customerId,
                                                               @Param("type") String type,
                                                               @Param("searchText") String searchText,
+                                                              @Param("textOffset") String textOffset,
                                                               @Param("idOffset") String idOffset,
                                                               Pageable pageable);
 
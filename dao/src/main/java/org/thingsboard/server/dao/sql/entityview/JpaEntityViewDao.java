@@ -35,12 +35,10 @@ import org.thingsboard.server.dao.util.SqlDao;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.thingsboard.server.common.data.UUIDConverter.fromTimeUUID;
-import static org.thingsboard.server.dao.model.ModelConstants.NULL_UUID_STR;
 
 /**
  * Created by Victor Basanets on 8/31/2017.
@@ -68,8 +66,9 @@ public class JpaEntityViewDao extends JpaAbstractSearchTextDao<EntityViewEntity,
         return DaoUtil.convertDataList(
                 entityViewRepository.findByTenantId(
                         fromTimeUUID(tenantId),
-                        Objects.toString(pageLink.getTextSearch(), ""),
-                        pageLink.getIdOffset() == null ? NULL_UUID_STR : fromTimeUUID(pageLink.getIdOffset()),
+                        getTextSearchPattern(pageLink),
+                        getTextOffset(pageLink),
+                        getIdOffset(pageLink),
                         new PageRequest(0, pageLink.getLimit())));
     }
 
@@ -79,8 +78,9 @@ public class JpaEntityViewDao extends JpaAbstractSearchTextDao<EntityViewEntity,
                 entityViewRepository.findByTenantIdAndType(
                         fromTimeUUID(tenantId),
                         type,
-                        Objects.toString(pageLink.getTextSearch(), ""),
-                        pageLink.getIdOffset() == null ? NULL_UUID_STR : fromTimeUUID(pageLink.getIdOffset()),
+                        getTextSearchPattern(pageLink),
+                        getTextOffset(pageLink),
+                        getIdOffset(pageLink),
                         new PageRequest(0, pageLink.getLimit())));
     }
 
@@ -98,8 +98,9 @@ public class JpaEntityViewDao extends JpaAbstractSearchTextDao<EntityViewEntity,
                 entityViewRepository.findByTenantIdAndCustomerId(
                         fromTimeUUID(tenantId),
                         fromTimeUUID(customerId),
-                        Objects.toString(pageLink.getTextSearch(), ""),
-                        pageLink.getIdOffset() == null ? NULL_UUID_STR : fromTimeUUID(pageLink.getIdOffset()),
+                        getTextSearchPattern(pageLink),
+                        getTextOffset(pageLink),
+                        getIdOffset(pageLink),
                         new PageRequest(0, pageLink.getLimit())
                 ));
     }
@@ -111,8 +112,9 @@ public class JpaEntityViewDao extends JpaAbstractSearchTextDao<EntityViewEntity,
                         fromTimeUUID(tenantId),
                         fromTimeUUID(customerId),
                         type,
-                        Objects.toString(pageLink.getTextSearch(), ""),
-                        pageLink.getIdOffset() == null ? NULL_UUID_STR : fromTimeUUID(pageLink.getIdOffset()),
+                        getTextSearchPattern(pageLink),
+                        getTextOffset(pageLink),
+                        getIdOffset(pageLink),
                         new PageRequest(0, pageLink.getLimit())
                 ));
     }
@@ -16,19 +16,32 @@
 package org.thingsboard.server.dao.sql.relation;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.thingsboard.server.dao.model.sql.RelationCompositeKey;
 import org.thingsboard.server.dao.model.sql.RelationEntity;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
 
 @Slf4j
 public abstract class AbstractRelationInsertRepository implements RelationInsertRepository {
 
+    private static final String DELETE = "DELETE FROM relation WHERE from_id = ? AND from_type = ? AND relation_type_group = ? " +
+            "AND relation_type = ? AND to_id = ? AND to_type = ?";
+
     @PersistenceContext
     protected EntityManager entityManager;
 
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
     protected Query getQuery(RelationEntity entity, String query) {
         Query nativeQuery = entityManager.createNativeQuery(query, RelationEntity.class);
         if (entity.getAdditionalInfo() == null) {
@@ -48,4 +61,55 @@ public abstract class AbstractRelationInsertRepository implements RelationInsert
     @Modifying
     protected abstract RelationEntity processSaveOrUpdate(RelationEntity entity);
 
+    /**
+     * @param query insert or update statement with the relation columns in the order of the primary key followed by additional_info
+     */
+    protected void batchSaveOrUpdate(String query, List<RelationEntity> entities) {
+        jdbcTemplate.batchUpdate(query, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                RelationEntity entity = entities.get(i);
+                ps.setString(1, entity.getFromId());
+                ps.setString(2, entity.getFromType());
+                ps.setString(3, entity.getRelationTypeGroup());
+                ps.setString(4, entity.getRelationType());
+                ps.setString(5, entity.getToId());
+                ps.setString(6, entity.getToType());
+                ps.setString(7, entity.getAdditionalInfo() != null ? entity.getAdditionalInfo().toString() : null);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entities.size();
+            }
+        });
+    }
+
+    @Override
+    public boolean delete(List<RelationCompositeKey> keys) {
+        int[] result = jdbcTemplate.batchUpdate(DELETE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                RelationCompositeKey key = keys.get(i);
+                ps.setString(1, key.getFromId());
+                ps.setString(2, key.getFromType());
+                ps.setString(3, key.getRelationTypeGroup());
+                ps.setString(4, key.getRelationType());
+                ps.setString(5, key.getToId());
+                ps.setString(6, key.getToType());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return keys.size();
+            }
+        });
+        for (int deleted : result) {
+            if (deleted == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
 }
\ No newline at end of file
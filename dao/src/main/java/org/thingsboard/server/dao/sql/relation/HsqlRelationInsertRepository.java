@@ -22,6 +22,8 @@ import org.thingsboard.server.dao.model.sql.RelationEntity;
 import org.thingsboard.server.dao.util.HsqlDao;
 import org.thingsboard.server.dao.util.SqlDao;
 
+import java.util.List;
+
 @HsqlDao
 @SqlDao
 @Repository
@@ -34,11 +36,22 @@ public class HsqlRelationInsertRepository extends AbstractRelationInsertReposito
             "WHEN MATCHED THEN UPDATE SET relation.additional_info = R.additional_info " +
             "WHEN NOT MATCHED THEN INSERT (from_id, from_type, to_id, to_type, relation_type_group, relation_type, additional_info) VALUES (R.from_id, R.from_type, R.to_id, R.to_type, R.relation_type_group, R.relation_type, R.additional_info)";
 
+    private static final String BATCH_INSERT_ON_CONFLICT_DO_UPDATE = "MERGE INTO relation USING (VALUES ?, ?, ?, ?, ?, ?, ?) R " +
+            "(from_id, from_type, relation_type_group, relation_type, to_id, to_type, additional_info) " +
+            "ON (relation.from_id = R.from_id AND relation.from_type = R.from_type AND relation.relation_type_group = R.relation_type_group AND relation.relation_type = R.relation_type AND relation.to_id = R.to_id AND relation.to_type = R.to_type) " +
+            "WHEN MATCHED THEN UPDATE SET relation.additional_info = R.additional_info " +
+            "WHEN NOT MATCHED THEN INSERT (from_id, from_type, relation_type_group, relation_type, to_id, to_type, additional_info) VALUES (R.from_id, R.from_type, R.relation_type_group, R.relation_type, R.to_id, R.to_type, R.additional_info)";
+
     @Override
     public RelationEntity saveOrUpdate(RelationEntity entity) {
         return processSaveOrUpdate(entity);
     }
 
+    @Override
+    public void saveOrUpdate(List<RelationEntity> entities) {
+        batchSaveOrUpdate(BATCH_INSERT_ON_CONFLICT_DO_UPDATE, entities);
+    }
+
     @Override
     protected RelationEntity processSaveOrUpdate(RelationEntity entity) {
         getQuery(entity, INSERT_ON_CONFLICT_DO_UPDATE).executeUpdate();
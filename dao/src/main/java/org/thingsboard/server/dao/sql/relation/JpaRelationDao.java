@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.dao.sql.relation;
 
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.ListenableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,24 +24,32 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.UUIDConverter;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.page.TimePageLink;
 import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.relation.EntitySearchDirection;
 import org.thingsboard.server.common.data.relation.RelationTypeGroup;
 import org.thingsboard.server.dao.DaoUtil;
 import org.thingsboard.server.dao.model.sql.RelationCompositeKey;
 import org.thingsboard.server.dao.model.sql.RelationEntity;
 import org.thingsboard.server.dao.relation.RelationDao;
+import org.thingsboard.server.dao.relation.RelationGraphTraversal;
 import org.thingsboard.server.dao.sql.JpaAbstractDaoListeningExecutorService;
 import org.thingsboard.server.dao.sql.JpaAbstractSearchTimeDao;
 import org.thingsboard.server.dao.util.SqlDao;
 
 import javax.persistence.criteria.Predicate;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.springframework.data.jpa.domain.Specifications.where;
 import static org.thingsboard.server.common.data.UUIDConverter.fromTimeUUID;
@@ -53,12 +62,17 @@ import static org.thingsboard.server.common.data.UUIDConverter.fromTimeUUID;
 @SqlDao
 public class JpaRelationDao extends JpaAbstractDaoListeningExecutorService implements RelationDao {
 
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
     @Autowired
     private RelationRepository relationRepository;
 
     @Autowired
     private RelationInsertRepository relationInsertRepository;
 
+    @Autowired(required = false)
+    private PsqlRelationQueryRepository relationQueryRepository;
+
     @Override
     public ListenableFuture<List<EntityRelation>> findAllByFrom(TenantId tenantId, EntityId from, RelationTypeGroup typeGroup) {
         return service.submit(() -> DaoUtil.convertDataList(
@@ -128,6 +142,15 @@ public class JpaRelationDao extends JpaAbstractDaoListeningExecutorService imple
         return service.submit(() -> relationInsertRepository.saveOrUpdate(new RelationEntity(relation)) != null);
     }
 
+    @Transactional
+    @Override
+    public boolean saveRelations(TenantId tenantId, List<EntityRelation> relations) {
+        if (!relations.isEmpty()) {
+            relationInsertRepository.saveOrUpdate(relations.stream().map(RelationEntity::new).collect(Collectors.toList()));
+        }
+        return true;
+    }
+
     @Override
     public boolean deleteRelation(TenantId tenantId, EntityRelation relation) {
         RelationCompositeKey key = new RelationCompositeKey(relation);
@@ -141,6 +164,15 @@ public class JpaRelationDao extends JpaAbstractDaoListeningExecutorService imple
                 () -> deleteRelationIfExists(key));
     }
 
+    @Transactional
+    @Override
+    public boolean deleteRelations(TenantId tenantId, List<EntityRelation> relations) {
+        if (relations.isEmpty()) {
+            return true;
+        }
+        return relationInsertRepository.delete(relations.stream().map(RelationCompositeKey::new).collect(Collectors.toList()));
+    }
+
     @Override
     public boolean deleteRelation(TenantId tenantId, EntityId from, EntityId to, String relationType, RelationTypeGroup typeGroup) {
         RelationCompositeKey key = getRelationCompositeKey(from, to, relationType, typeGroup);
@@ -197,6 +229,40 @@ public class JpaRelationDao extends JpaAbstractDaoListeningExecutorService imple
                 DaoUtil.convertDataList(relationRepository.findAll(where(timeSearchSpec).and(fieldsSpec), pageable).getContent()));
     }
 
+    @Override
+    public ListenableFuture<Set<EntityRelation>> findRelationsRecursively(TenantId tenantId, EntityId rootId, EntitySearchDirection direction,
+                                                                          RelationTypeGroup typeGroup, int maxLevel, boolean fetchLastLevelOnly) {
+        if (relationQueryRepository != null) {
+            return service.submit(() -> new HashSet<>(DaoUtil.convertDataList(
+                    relationQueryRepository.findRelationsRecursively(
+                            UUIDConverter.fromTimeUUID(rootId.getId()),
+                            rootId.getEntityType().name(),
+                            direction,
+                            typeGroup.name(),
+                            maxLevel,
+                            fetchLastLevelOnly))));
+        }
+        return RelationGraphTraversal.traverse(rootId, direction, maxLevel, fetchLastLevelOnly,
+                entityIds -> service.submit(() -> findAllByEntities(entityIds, direction, typeGroup)));
+    }
+
+    private List<EntityRelation> findAllByEntities(Set<EntityId> entityIds, EntitySearchDirection direction, RelationTypeGroup typeGroup) {
+        Map<EntityType, List<String>> idsByType = new EnumMap<>(EntityType.class);
+        for (EntityId entityId : entityIds) {
+            idsByType.computeIfAbsent(entityId.getEntityType(), type -> new ArrayList<>()).add(UUIDConverter.fromTimeUUID(entityId.getId()));
+        }
+        List<EntityRelation> relations = new ArrayList<>();
+        idsByType.forEach((entityType, ids) -> {
+            for (List<String> partition : Lists.partition(ids, MAX_IDS_PER_QUERY)) {
+                List<RelationEntity> entities = direction == EntitySearchDirection.FROM ?
+                        relationRepository.findAllByFromTypeAndFromIdInAndRelationTypeGroup(entityType.name(), partition, typeGroup.name()) :
+                        relationRepository.findAllByToTypeAndToIdInAndRelationTypeGroup(entityType.name(), partition, typeGroup.name());
+                relations.addAll(DaoUtil.convertDataList(entities));
+            }
+        });
+        return relations;
+    }
+
     private Specification<RelationEntity> getEntityFieldsSpec(EntityId from, String relationType, RelationTypeGroup typeGroup, EntityType childType) {
         return (root, criteriaQuery, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
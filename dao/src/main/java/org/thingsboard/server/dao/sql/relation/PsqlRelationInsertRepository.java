@@ -21,6 +21,8 @@ import org.thingsboard.server.dao.model.sql.RelationEntity;
 import org.thingsboard.server.dao.util.PsqlDao;
 import org.thingsboard.server.dao.util.SqlDao;
 
+import java.util.List;
+
 @PsqlDao
 @SqlDao
 @Repository
@@ -31,11 +33,20 @@ public class PsqlRelationInsertRepository extends AbstractRelationInsertReposito
             " VALUES (:fromId, :fromType, :toId, :toType, :relationTypeGroup, :relationType, :additionalInfo) " +
             "ON CONFLICT (from_id, from_type, relation_type_group, relation_type, to_id, to_type) DO UPDATE SET additional_info = :additionalInfo returning *";
 
+    private static final String BATCH_INSERT_ON_CONFLICT_DO_UPDATE = "INSERT INTO relation (from_id, from_type, relation_type_group, relation_type, to_id, to_type, additional_info)" +
+            " VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (from_id, from_type, relation_type_group, relation_type, to_id, to_type) DO UPDATE SET additional_info = EXCLUDED.additional_info";
+
     @Override
     public RelationEntity saveOrUpdate(RelationEntity entity) {
         return processSaveOrUpdate(entity);
     }
 
+    @Override
+    public void saveOrUpdate(List<RelationEntity> entities) {
+        batchSaveOrUpdate(BATCH_INSERT_ON_CONFLICT_DO_UPDATE, entities);
+    }
+
     @Override
     protected RelationEntity processSaveOrUpdate(RelationEntity entity) {
         return (RelationEntity) getQuery(entity, INSERT_ON_CONFLICT_DO_UPDATE).getSingleResult();
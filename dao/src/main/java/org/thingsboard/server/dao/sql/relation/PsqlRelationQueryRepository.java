@@ -0,0 +1,84 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sql.relation;
+
+import org.springframework.stereotype.Repository;
+import org.thingsboard.server.common.data.relation.EntitySearchDirection;
+import org.thingsboard.server.dao.model.sql.RelationEntity;
+import org.thingsboard.server.dao.util.PsqlDao;
+import org.thingsboard.server.dao.util.SqlDao;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+/**
+ * Resolves the whole relation query with a single recursive statement that walks the graph breadth-first, like RelationGraphTraversal.
+ * Every row of the recursive part is a whole level: the entities to expand and all the entities found so far,
+ * so an entity is expanded only once whatever number of paths lead to it and the query stops on cycles.
+ * The entities found so far are removed from the next level with EXCEPT, a hashed set difference,
+ * instead of matching every relation against the whole list.
+ * The relations of the level N are the ones that start at entities found on the level N - 1.
+ * The depth of the walk is limited by the caller, see database.relations.max_level.
+ */
+@PsqlDao
+@SqlDao
+@Repository
+public class PsqlRelationQueryRepository {
+
+    private static final String RELATION_COLUMNS = "r.from_id, r.from_type, r.to_id, r.to_type, r.relation_type_group, r.relation_type, r.additional_info";
+
+    private static final String FIND_RELATIONS_RECURSIVELY = "WITH RECURSIVE walk(lvl, ids, types, visited_ids, visited_types) AS (" +
+            " SELECT 1, ARRAY[CAST(:rootId AS varchar)], ARRAY[CAST(:rootType AS varchar)]," +
+            " ARRAY[CAST(:rootId AS varchar)], ARRAY[CAST(:rootType AS varchar)]" +
+            " UNION ALL" +
+            " SELECT w.lvl + 1, CAST(n.ids AS varchar[]), CAST(n.types AS varchar[])," +
+            " CAST(w.visited_ids || n.ids AS varchar[]), CAST(w.visited_types || n.types AS varchar[])" +
+            " FROM walk w CROSS JOIN LATERAL (" +
+            " SELECT array_agg(e.id) AS ids, array_agg(e.type) AS types FROM (" +
+            " SELECT r.%2$s_id, r.%2$s_type" +
+            " FROM unnest(w.ids, w.types) AS s(id, type) JOIN relation r ON r.%1$s_id = s.id AND r.%1$s_type = s.type" +
+            " WHERE r.relation_type_group = :typeGroup" +
+            " EXCEPT" +
+            " SELECT v.id, v.type FROM unnest(w.visited_ids, w.visited_types) AS v(id, type)) e(id, type)) n" +
+            " WHERE w.lvl < :maxLevel AND n.ids IS NOT NULL)" +
+            " SELECT " + RELATION_COLUMNS +
+            " FROM walk w CROSS JOIN unnest(w.ids, w.types) AS s(id, type) JOIN relation r ON r.%1$s_id = s.id AND r.%1$s_type = s.type" +
+            " WHERE r.relation_type_group = :typeGroup";
+
+    private static final String FIND_RELATIONS_FROM_RECURSIVELY = String.format(FIND_RELATIONS_RECURSIVELY, "from", "to");
+    private static final String FIND_RELATIONS_TO_RECURSIVELY = String.format(FIND_RELATIONS_RECURSIVELY, "to", "from");
+    private static final String LAST_LEVEL_ONLY = " AND w.lvl = :maxLevel";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @SuppressWarnings("unchecked")
+    public List<RelationEntity> findRelationsRecursively(String rootId, String rootType, EntitySearchDirection direction,
+                                                         String typeGroup, int maxLevel, boolean fetchLastLevelOnly) {
+        return entityManager.createNativeQuery(getQuery(direction, fetchLastLevelOnly), RelationEntity.class)
+                .setParameter("rootId", rootId)
+                .setParameter("rootType", rootType)
+                .setParameter("typeGroup", typeGroup)
+                .setParameter("maxLevel", maxLevel)
+                .getResultList();
+    }
+
+    static String getQuery(EntitySearchDirection direction, boolean fetchLastLevelOnly) {
+        String query = direction == EntitySearchDirection.FROM ? FIND_RELATIONS_FROM_RECURSIVELY : FIND_RELATIONS_TO_RECURSIVELY;
+        return fetchLastLevelOnly ? query + LAST_LEVEL_ONLY : query;
+    }
+}
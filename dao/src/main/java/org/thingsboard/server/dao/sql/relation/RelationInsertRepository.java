@@ -15,10 +15,25 @@
  */
 package org.thingsboard.server.dao.sql.relation;
 
+import org.thingsboard.server.dao.model.sql.RelationCompositeKey;
 import org.thingsboard.server.dao.model.sql.RelationEntity;
 
+import java.util.List;
+
 public interface RelationInsertRepository {
 
     RelationEntity saveOrUpdate(RelationEntity entity);
 
+    /**
+     * Inserts or updates the relations in one JDBC batch.
+     */
+    void saveOrUpdate(List<RelationEntity> entities);
+
+    /**
+     * Deletes the relations in one JDBC batch.
+     *
+     * @return true if all the relations existed before the delete
+     */
+    boolean delete(List<RelationCompositeKey> keys);
+
 }
\ No newline at end of file
@@ -22,6 +22,7 @@ import org.thingsboard.server.dao.model.sql.RelationCompositeKey;
 import org.thingsboard.server.dao.model.sql.RelationEntity;
 import org.thingsboard.server.dao.util.SqlDao;
 
+import java.util.Collection;
 import java.util.List;
 
 @SqlDao
@@ -46,6 +47,14 @@ public interface RelationRepository
                                                                                    String relationType,
                                                                                    String relationTypeGroup);
 
+    List<RelationEntity> findAllByFromTypeAndFromIdInAndRelationTypeGroup(String fromType,
+                                                                          Collection<String> fromIds,
+                                                                          String relationTypeGroup);
+
+    List<RelationEntity> findAllByToTypeAndToIdInAndRelationTypeGroup(String toType,
+                                                                      Collection<String> toIds,
+                                                                      String relationTypeGroup);
+
     List<RelationEntity> findAllByFromIdAndFromType(String fromId,
                                                     String fromType);
 
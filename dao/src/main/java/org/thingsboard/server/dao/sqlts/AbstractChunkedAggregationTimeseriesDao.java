@@ -65,7 +65,7 @@ public abstract class AbstractChunkedAggregationTimeseriesDao extends AbstractSq
                 .maxDelay(tsMaxDelay)
                 .statsPrintIntervalMs(tsStatsPrintIntervalMs)
                 .build();
-        tsQueue = new TbSqlBlockingQueue<>(tsParams);
+        tsQueue = new TbSqlBlockingQueue<>(tsParams, meterRegistry);
         tsQueue.init(logExecutor, v -> insertRepository.saveOrUpdate(v));
     }
 
@@ -21,6 +21,7 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -96,6 +97,9 @@ public abstract class AbstractSqlTimeseriesDao extends JpaAbstractDaoListeningEx
     @Autowired
     protected ScheduledLogExecutorComponent logExecutor;
 
+    @Autowired
+    protected MeterRegistry meterRegistry;
+
     @Value("${sql.ts.batch_size:1000}")
     protected int tsBatchSize;
 
@@ -113,7 +117,7 @@ public abstract class AbstractSqlTimeseriesDao extends JpaAbstractDaoListeningEx
                 .maxDelay(tsLatestMaxDelay)
                 .statsPrintIntervalMs(tsLatestStatsPrintIntervalMs)
                 .build();
-        tsLatestQueue = new TbSqlBlockingQueue<>(tsLatestParams);
+        tsLatestQueue = new TbSqlBlockingQueue<>(tsLatestParams, meterRegistry);
         tsLatestQueue.init(logExecutor, v -> insertLatestTsRepository.saveOrUpdate(v));
     }
 
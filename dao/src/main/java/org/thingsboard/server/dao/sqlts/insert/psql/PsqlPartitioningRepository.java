@@ -15,7 +15,11 @@
  */
 package org.thingsboard.server.dao.sqlts.insert.psql;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.thingsboard.server.dao.timeseries.PsqlPartition;
 import org.thingsboard.server.dao.util.PsqlDao;
@@ -23,6 +27,14 @@ import org.thingsboard.server.dao.util.SqlTsDao;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @SqlTsDao
 @PsqlDao
@@ -38,4 +50,93 @@ public class PsqlPartitioningRepository {
                 .executeUpdate();
     }
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Finds the tables named as the ts_kv partitions, including the ones that are detached but not dropped yet.
+     *
+     * @return true for the tables that are attached to ts_kv
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Boolean> findPartitions() {
+        List<Object[]> rows = entityManager.createNativeQuery("SELECT c.relname, EXISTS (SELECT 1 FROM pg_inherits i " +
+                "JOIN pg_class p ON p.oid = i.inhparent WHERE i.inhrelid = c.oid AND p.relname = 'ts_kv') FROM pg_class c " +
+                "WHERE c.relkind = 'r' AND c.relname LIKE 'ts\\_kv\\_%' " +
+                "AND c.relnamespace = (SELECT n.oid FROM pg_namespace n WHERE n.nspname = current_schema())")
+                .getResultList();
+        Map<String, Boolean> partitions = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            partitions.put((String) row[0], (Boolean) row[1]);
+        }
+        return partitions;
+    }
+
+    public void detach(PsqlPartition partition) {
+        entityManager.createNativeQuery(partition.getDetachQuery())
+                .executeUpdate();
+    }
+
+    public void drop(PsqlPartition partition) {
+        entityManager.createNativeQuery(partition.getDropQuery())
+                .executeUpdate();
+    }
+
+    /**
+     * Runs the task if the PostgreSQL advisory lock is not held by another node, so that it runs on one node of the cluster at a time.
+     * The lock is held by the connection of this method, the task runs the repository methods in their own transactions.
+     *
+     * @return false if the lock is held by another node and the task was not run
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean runExclusively(long lockId, Runnable task) {
+        Boolean locked = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!queryLock(connection, "SELECT pg_try_advisory_lock(?)", lockId)) {
+                return false;
+            }
+            try {
+                task.run();
+            } finally {
+                queryLock(connection, "SELECT pg_advisory_unlock(?)", lockId);
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(locked);
+    }
+
+    /**
+     * Deletes up to the limit of entries of the series older than the expiration time, starting from the since timestamp.
+     */
+    public int deleteExpired(UUID entityId, int keyId, long since, long expirationTs, int limit) {
+        return entityManager.createNativeQuery("DELETE FROM ts_kv WHERE (entity_id, key, ts) IN " +
+                "(SELECT entity_id, key, ts FROM ts_kv WHERE entity_id = :entityId AND key = :key " +
+                "AND ts >= :since AND ts < :expirationTs LIMIT :limit)")
+                .setParameter("entityId", entityId)
+                .setParameter("key", keyId)
+                .setParameter("since", since)
+                .setParameter("expirationTs", expirationTs)
+                .setParameter("limit", limit)
+                .executeUpdate();
+    }
+
+    /**
+     * Deletes up to the limit of entries of all entities older than the expiration time.
+     */
+    public int deleteExpired(long expirationTs, int limit) {
+        return entityManager.createNativeQuery("DELETE FROM ts_kv WHERE (entity_id, key, ts) IN " +
+                "(SELECT entity_id, key, ts FROM ts_kv WHERE ts < :expirationTs LIMIT :limit)")
+                .setParameter("expirationTs", expirationTs)
+                .setParameter("limit", limit)
+                .executeUpdate();
+    }
+
+    private static boolean queryLock(Connection connection, String query, long lockId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setLong(1, lockId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
 }
@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.dao.sqlts.psql;
 
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +24,7 @@ import org.springframework.stereotype.Component;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.kv.TsKvEntry;
+import org.thingsboard.server.dao.exception.IncorrectParameterException;
 import org.thingsboard.server.dao.model.sqlts.ts.TsKvEntity;
 import org.thingsboard.server.dao.sqlts.AbstractChunkedAggregationTimeseriesDao;
 import org.thingsboard.server.dao.sqlts.EntityContainer;
@@ -57,6 +59,9 @@ public class JpaPsqlTimeseriesDao extends AbstractChunkedAggregationTimeseriesDa
     @Autowired
     private PsqlPartitioningRepository partitioningRepository;
 
+    @Autowired
+    private PsqlTimeseriesRetentionService retentionService;
+
     private SqlTsPartitionDate tsFormat;
     private PsqlPartition indefinitePartition;
 
@@ -81,8 +86,13 @@ public class JpaPsqlTimeseriesDao extends AbstractChunkedAggregationTimeseriesDa
 
     @Override
     public ListenableFuture<Void> save(TenantId tenantId, EntityId entityId, TsKvEntry tsKvEntry, long ttl) {
+        if (retentionService.rejectExpired(tsKvEntry.getTs())) {
+            return Futures.immediateFailedFuture(new IncorrectParameterException(
+                    "Timeseries entry [" + tsKvEntry.getKey() + "] of [" + entityId + "] with ts [" + tsKvEntry.getTs() + "] is out of the system retention!"));
+        }
         String strKey = tsKvEntry.getKey();
         Integer keyId = getOrSaveKeyId(strKey);
+        retentionService.onSave(entityId, keyId, tsKvEntry.getTs(), ttl);
         TsKvEntity entity = new TsKvEntity();
         entity.setEntityId(entityId.getId());
         entity.setTs(tsKvEntry.getTs());
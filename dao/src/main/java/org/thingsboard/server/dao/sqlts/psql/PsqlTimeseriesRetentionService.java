@@ -0,0 +1,347 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sqlts.psql;
+
+import com.google.common.util.concurrent.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thingsboard.common.util.StatsCounter;
+import org.thingsboard.common.util.ThingsBoardThreadFactory;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.dao.sqlts.insert.psql.PsqlPartitioningRepository;
+import org.thingsboard.server.dao.timeseries.PsqlPartition;
+import org.thingsboard.server.dao.timeseries.SqlTsPartitionDate;
+import org.thingsboard.server.dao.util.PsqlDao;
+import org.thingsboard.server.dao.util.SqlTsDao;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes expired timeseries from the partitioned ts_kv table.
+ * <p>
+ * Partitions that end before the system retention (sql.ttl.ts.ts_key_value_ttl) are detached and dropped,
+ * which is a metadata operation regardless of the partition size. The system retention is the upper bound:
+ * the data of the partition that contains the retention boundary is removed together with this partition.
+ * Only one node of the cluster drops the partitions at a time, see {@link PsqlPartitioningRepository#runExclusively}.
+ * <p>
+ * Series saved with a TTL shorter than the system retention (e.g. configured for the tenant in the rule chain)
+ * do not match the partition bounds, so their data is removed by a background delete in chunks of
+ * sql.ttl.ts.delete_batch_size rows limited to sql.ttl.ts.delete_rate_limit rows per second.
+ * The TTL is tracked per series (entity and key) together with the range of timestamps saved with it,
+ * and only the entries of the series within this range are deleted. Each run moves the start of the range
+ * to the expiration timestamp and stops tracking the series once all its entries are removed.
+ * Once a tracked series is saved without a short TTL, it is never deleted before the system retention,
+ * since the rows do not store their TTL.
+ * These TTLs are kept in memory for at most sql.ttl.ts.max_tracked_series series, so data of the series
+ * that are not saved since the restart or do not fit the limit is removed with the partitions only.
+ * Each node deletes the series saved through it, the partitions are dropped by one node only.
+ */
+@Component
+@Slf4j
+@SqlTsDao
+@PsqlDao
+public class PsqlTimeseriesRetentionService {
+
+    private static final String PARTITION_PREFIX = "ts_kv_";
+    private static final long PARTITION_LOCK_ID = "ts_kv_retention".hashCode();
+
+    private final ConcurrentMap<SeriesKey, SeriesTtl> seriesTtls = new ConcurrentHashMap<>();
+
+    @Autowired
+    private PsqlPartitioningRepository partitioningRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${sql.ttl.ts.enabled:false}")
+    private boolean enabled;
+
+    @Value("${sql.ttl.ts.execution_interval_ms:86400000}")
+    private long executionIntervalMs;
+
+    @Value("${sql.ttl.ts.ts_key_value_ttl:0}")
+    private long systemTtl;
+
+    @Value("${sql.ttl.ts.delete_batch_size:1000}")
+    private int deleteBatchSize;
+
+    @Value("${sql.ttl.ts.delete_rate_limit:10000}")
+    private double deleteRateLimit;
+
+    @Value("${sql.ttl.ts.max_tracked_series:1000000}")
+    private int maxTrackedSeries;
+
+    @Value("${sql.postgres.ts_key_value_partitioning:MONTHS}")
+    private String partitioning;
+
+    private long systemTtlMs;
+    private SqlTsPartitionDate tsFormat;
+    private DateTimeFormatter partitionDateFormatter;
+    private RateLimiter deleteRateLimiter;
+    private StatsCounter rejectedCounter;
+    private StatsCounter untrackedCounter;
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        systemTtlMs = TimeUnit.SECONDS.toMillis(systemTtl);
+        Optional<SqlTsPartitionDate> partition = SqlTsPartitionDate.parse(partitioning);
+        if (!partition.isPresent()) {
+            throw new RuntimeException("Failed to parse partitioning property: " + partitioning + "!");
+        }
+        tsFormat = partition.get();
+        partitionDateFormatter = toFormatter(tsFormat);
+        deleteRateLimiter = RateLimiter.create(deleteRateLimit);
+        rejectedCounter = new StatsCounter(meterRegistry, "tb.sql.ts.ttl.rejected");
+        untrackedCounter = new StatsCounter(meterRegistry, "tb.sql.ts.ttl.untracked");
+        executor = Executors.newSingleThreadScheduledExecutor(ThingsBoardThreadFactory.forName("sql-ts-ttl"));
+        executor.scheduleWithFixedDelay(this::cleanUp, executionIntervalMs, executionIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Records the TTL of the saved entry. TTL in seconds, 0 means the system retention.
+     */
+    public void onSave(EntityId entityId, int keyId, long ts, long ttl) {
+        if (!enabled) {
+            return;
+        }
+        SeriesKey key = new SeriesKey(entityId.getId(), keyId);
+        SeriesTtl current = seriesTtls.get(key);
+        long ttlMs = TimeUnit.SECONDS.toMillis(Math.max(ttl, 0));
+        if (ttlMs == 0 || (systemTtlMs > 0 && ttlMs >= systemTtlMs)) {
+            ttlMs = 0;
+            if (current == null) {
+                return;
+            }
+        } else if (current == null && seriesTtls.size() >= maxTrackedSeries) {
+            untrackedCounter.increment();
+            return;
+        }
+        if (current == null || !current.covers(ttlMs, ts)) {
+            // the end of the range is extended by the execution interval, so that the map is not updated on every save
+            seriesTtls.merge(key, new SeriesTtl(ttlMs, ts, ts + executionIntervalMs), SeriesTtl::merge);
+        }
+    }
+
+    /**
+     * Counts the entry as rejected if it is already out of the system retention.
+     * The caller fails the save of the rejected entry.
+     *
+     * @return true if the entry with this timestamp is already out of the system retention and should not be saved
+     */
+    public boolean rejectExpired(long ts) {
+        if (enabled && systemTtlMs > 0 && ts < System.currentTimeMillis() - systemTtlMs) {
+            rejectedCounter.increment();
+            return true;
+        }
+        return false;
+    }
+
+    void cleanUp() {
+        int rejected = rejectedCounter.getAndReset();
+        if (rejected > 0) {
+            log.warn("Rejected {} timeseries entries out of the system retention since the last clean up", rejected);
+        }
+        int untracked = untrackedCounter.getAndReset();
+        if (untracked > 0) {
+            log.warn("Skipped {} timeseries entries saved with a short TTL: {} series are tracked already, " +
+                    "the entries are removed with the partitions only", untracked, maxTrackedSeries);
+        }
+        long now = System.currentTimeMillis();
+        if (systemTtlMs > 0) {
+            try {
+                if (!partitioningRepository.runExclusively(PARTITION_LOCK_ID, () -> removeOutOfRetention(now - systemTtlMs))) {
+                    log.debug("Timeseries out of the system retention are removed by another node");
+                }
+            } catch (Exception e) {
+                log.warn("Failed to remove timeseries out of the system retention", e);
+            }
+        }
+        for (Map.Entry<SeriesKey, SeriesTtl> entry : seriesTtls.entrySet()) {
+            SeriesKey key = entry.getKey();
+            SeriesTtl seriesTtl = entry.getValue();
+            if (seriesTtl.isKeep()) {
+                if (systemTtlMs > 0 && seriesTtl.getUntil() <= now - systemTtlMs) {
+                    // the entries of the series are dropped with the partitions already
+                    seriesTtls.remove(key, seriesTtl);
+                }
+                continue;
+            }
+            long expirationTs = now - seriesTtl.getTtlMs();
+            if (seriesTtl.getSince() >= expirationTs) {
+                continue;
+            }
+            try {
+                deleteExpired(key, seriesTtl.getSince(), expirationTs);
+                seriesTtls.computeIfPresent(key, (k, current) -> current.expire(seriesTtl.getSince(), expirationTs));
+            } catch (Exception e) {
+                log.warn("[{}][{}] Failed to remove expired timeseries", key.getEntityId(), key.getKeyId(), e);
+            }
+        }
+    }
+
+    private void removeOutOfRetention(long expirationTs) {
+        if (tsFormat == SqlTsPartitionDate.INDEFINITE) {
+            deleteExpired(null, 0, expirationTs);
+        } else {
+            dropExpiredPartitions(expirationTs);
+        }
+    }
+
+    private void dropExpiredPartitions(long expirationTs) {
+        for (Map.Entry<String, Boolean> entry : partitioningRepository.findPartitions().entrySet()) {
+            String name = entry.getKey();
+            Optional<PsqlPartition> partition = toPartition(name);
+            if (partition.isPresent() && partition.get().getEnd() <= expirationTs) {
+                log.info("Dropping expired partition: {}", name);
+                try {
+                    if (entry.getValue()) {
+                        partitioningRepository.detach(partition.get());
+                    }
+                    partitioningRepository.drop(partition.get());
+                } catch (Exception e) {
+                    log.warn("Failed to drop expired partition: {}", name, e);
+                }
+            }
+        }
+    }
+
+    private void deleteExpired(SeriesKey key, long since, long expirationTs) {
+        if (since >= expirationTs) {
+            return;
+        }
+        int deleted;
+        long total = 0;
+        do {
+            if (key != null) {
+                deleted = partitioningRepository.deleteExpired(key.getEntityId(), key.getKeyId(), since, expirationTs, deleteBatchSize);
+            } else {
+                deleted = partitioningRepository.deleteExpired(expirationTs, deleteBatchSize);
+            }
+            if (deleted > 0) {
+                // charged after the delete, so that the series without expired entries do not wait for the limiter
+                deleteRateLimiter.acquire(deleted);
+            }
+            total += deleted;
+        } while (deleted == deleteBatchSize);
+        if (total > 0) {
+            log.debug("[{}] Removed {} expired timeseries", key, total);
+        }
+    }
+
+    Optional<PsqlPartition> toPartition(String name) {
+        if (!name.startsWith(PARTITION_PREFIX)) {
+            return Optional.empty();
+        }
+        String partitionDate = name.substring(PARTITION_PREFIX.length());
+        try {
+            LocalDateTime start = LocalDateTime.parse(partitionDate, partitionDateFormatter);
+            return Optional.of(new PsqlPartition(toMills(start), toMills(tsFormat.plusTo(start)), partitionDate));
+        } catch (DateTimeParseException e) {
+            log.debug("Skipping partition that does not match the partitioning {}: {}", tsFormat, name);
+            return Optional.empty();
+        }
+    }
+
+    private static DateTimeFormatter toFormatter(SqlTsPartitionDate tsFormat) {
+        return new DateTimeFormatterBuilder()
+                .appendPattern(tsFormat.getPattern())
+                .parseDefaulting(ChronoField.MONTH_OF_YEAR, 1)
+                .parseDefaulting(ChronoField.DAY_OF_MONTH, 1)
+                .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
+                .parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0)
+                .toFormatter();
+    }
+
+    private static long toMills(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    @Data
+    private static class SeriesKey {
+        private final UUID entityId;
+        private final int keyId;
+    }
+
+    /**
+     * TTL of the entries of the series saved between since and until, 0 means the series is kept
+     * until the system retention.
+     */
+    @Data
+    private static class SeriesTtl {
+        private final long ttlMs;
+        private final long since;
+        private final long until;
+
+        private boolean isKeep() {
+            return ttlMs == 0;
+        }
+
+        private boolean covers(long ttlMs, long ts) {
+            return ts <= until && (isKeep() || (ttlMs != 0 && ttlMs <= this.ttlMs && ts >= since));
+        }
+
+        /**
+         * @return the TTL without the entries deleted before the expiration timestamp, or null if no entries are left
+         */
+        private SeriesTtl expire(long deletedSince, long expirationTs) {
+            if (isKeep() || since < deletedSince) {
+                // saved since the delete
+                return this;
+            }
+            if (until < expirationTs) {
+                return null;
+            }
+            return new SeriesTtl(ttlMs, Math.max(since, expirationTs), until);
+        }
+
+        private static SeriesTtl merge(SeriesTtl a, SeriesTtl b) {
+            if (a.isKeep() || b.isKeep()) {
+                return new SeriesTtl(0, Long.MAX_VALUE, Math.max(a.until, b.until));
+            }
+            return new SeriesTtl(Math.max(a.ttlMs, b.ttlMs), Math.min(a.since, b.since), Math.max(a.until, b.until));
+        }
+    }
+}
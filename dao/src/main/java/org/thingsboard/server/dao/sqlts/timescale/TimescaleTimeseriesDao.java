@@ -75,7 +75,7 @@ public class TimescaleTimeseriesDao extends AbstractSqlTimeseriesDao implements
                 .maxDelay(tsMaxDelay)
                 .statsPrintIntervalMs(tsStatsPrintIntervalMs)
                 .build();
-        tsQueue = new TbSqlBlockingQueue<>(tsParams);
+        tsQueue = new TbSqlBlockingQueue<>(tsParams, meterRegistry);
         tsQueue.init(logExecutor, v -> insertRepository.saveOrUpdate(v));
     }
 
@@ -37,4 +37,12 @@ public class PsqlPartition {
     private String createStatement(long start, long end, String partitionDate) {
         return "CREATE TABLE IF NOT EXISTS " + TABLE_REGEX + partitionDate + " PARTITION OF ts_kv(PRIMARY KEY (entity_id, key, ts)) FOR VALUES FROM (" + start + ") TO (" + end + ")";
     }
+
+    public String getDetachQuery() {
+        return "ALTER TABLE ts_kv DETACH PARTITION " + TABLE_REGEX + partitionDate;
+    }
+
+    public String getDropQuery() {
+        return "DROP TABLE IF EXISTS " + TABLE_REGEX + partitionDate;
+    }
 }
\ No newline at end of file
@@ -20,7 +20,13 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.common.util.MetricsTags;
+import org.thingsboard.common.util.StatsCounter;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.msg.tools.TbRateLimits;
@@ -50,19 +56,23 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
     private final String perTenantLimitsConfiguration;
     private final ConcurrentMap<TenantId, TbRateLimits> perTenantLimits = new ConcurrentHashMap<>();
     protected final ConcurrentMap<TenantId, AtomicInteger> rateLimitedTenants = new ConcurrentHashMap<>();
+    private final ConcurrentMap<TenantId, Counter> rateLimitedTenantCounters = new ConcurrentHashMap<>();
 
-    protected final AtomicInteger concurrencyLevel = new AtomicInteger();
-    protected final AtomicInteger totalAdded = new AtomicInteger();
-    protected final AtomicInteger totalLaunched = new AtomicInteger();
-    protected final AtomicInteger totalReleased = new AtomicInteger();
-    protected final AtomicInteger totalFailed = new AtomicInteger();
-    protected final AtomicInteger totalExpired = new AtomicInteger();
-    protected final AtomicInteger totalRejected = new AtomicInteger();
-    protected final AtomicInteger totalRateLimited = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+    private final Timer executionTimer;
+    protected final AtomicInteger concurrencyLevel;
+    protected final StatsCounter totalAdded;
+    protected final StatsCounter totalLaunched;
+    protected final StatsCounter totalReleased;
+    protected final StatsCounter totalFailed;
+    protected final StatsCounter totalExpired;
+    protected final StatsCounter totalRejected;
+    protected final StatsCounter totalRateLimited;
     protected final AtomicInteger printQueriesIdx = new AtomicInteger();
 
     public AbstractBufferedRateExecutor(int queueLimit, int concurrencyLimit, long maxWaitTime, int dispatcherThreads, int callbackThreads, long pollMs,
-                                        boolean perTenantLimitsEnabled, String perTenantLimitsConfiguration, int printQueriesFreq) {
+                                        boolean perTenantLimitsEnabled, String perTenantLimitsConfiguration, int printQueriesFreq,
+                                        MeterRegistry meterRegistry) {
         this.maxWaitTime = maxWaitTime;
         this.pollMs = pollMs;
         this.concurrencyLimit = concurrencyLimit;
@@ -73,6 +83,17 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
         this.timeoutExecutor = Executors.newSingleThreadScheduledExecutor(ThingsBoardThreadFactory.forName("nosql-timeout"));
         this.perTenantLimitsEnabled = perTenantLimitsEnabled;
         this.perTenantLimitsConfiguration = perTenantLimitsConfiguration;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gaugeCollectionSize("tb.nosql.queue.size", Tags.empty(), queue);
+        this.concurrencyLevel = meterRegistry.gauge("tb.nosql.concurrency", new AtomicInteger());
+        this.totalAdded = new StatsCounter(meterRegistry, "tb.nosql.tasks.added");
+        this.totalLaunched = new StatsCounter(meterRegistry, "tb.nosql.tasks.launched");
+        this.totalReleased = new StatsCounter(meterRegistry, "tb.nosql.tasks.released");
+        this.totalFailed = new StatsCounter(meterRegistry, "tb.nosql.tasks.failed");
+        this.totalExpired = new StatsCounter(meterRegistry, "tb.nosql.tasks.expired");
+        this.totalRejected = new StatsCounter(meterRegistry, "tb.nosql.tasks.rejected");
+        this.totalRateLimited = new StatsCounter(meterRegistry, "tb.nosql.tasks.rate_limited");
+        this.executionTimer = meterRegistry.timer("tb.nosql.tasks.execution");
         for (int i = 0; i < dispatcherThreads; i++) {
             dispatcherExecutor.submit(this::dispatch);
         }
@@ -90,7 +111,9 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
                 TbRateLimits rateLimits = perTenantLimits.computeIfAbsent(task.getTenantId(), id -> new TbRateLimits(perTenantLimitsConfiguration));
                 if (!rateLimits.tryConsume()) {
                     rateLimitedTenants.computeIfAbsent(task.getTenantId(), tId -> new AtomicInteger(0)).incrementAndGet();
-                    totalRateLimited.incrementAndGet();
+                    rateLimitedTenantCounters.computeIfAbsent(task.getTenantId(),
+                            tId -> meterRegistry.counter("tb.nosql.tenant.rate_limited", MetricsTags.TENANT, tId.getId().toString())).increment();
+                    totalRateLimited.increment();
                     settableFuture.setException(new TenantRateLimitException());
                     perTenantLimitReached = true;
                 }
@@ -98,10 +121,10 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
         }
         if (!perTenantLimitReached) {
             try {
-                totalAdded.incrementAndGet();
+                totalAdded.increment();
                 queue.add(new AsyncTaskContext<>(UUID.randomUUID(), task, settableFuture, System.currentTimeMillis()));
             } catch (IllegalStateException e) {
-                totalRejected.incrementAndGet();
+                totalRejected.increment();
                 settableFuture.setException(e);
             }
         }
@@ -146,14 +169,16 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
                     concurrencyLevel.incrementAndGet();
                     long timeout = finalTaskCtx.getCreateTime() + maxWaitTime - System.currentTimeMillis();
                     if (timeout > 0) {
-                        totalLaunched.incrementAndGet();
+                        totalLaunched.increment();
+                        long launchTime = System.nanoTime();
                         ListenableFuture<V> result = execute(finalTaskCtx);
                         result = Futures.withTimeout(result, timeout, TimeUnit.MILLISECONDS, timeoutExecutor);
                         Futures.addCallback(result, new FutureCallback<V>() {
                             @Override
                             public void onSuccess(@Nullable V result) {
                                 logTask("Releasing", finalTaskCtx);
-                                totalReleased.incrementAndGet();
+                                executionTimer.record(System.nanoTime() - launchTime, TimeUnit.NANOSECONDS);
+                                totalReleased.increment();
                                 concurrencyLevel.decrementAndGet();
                                 finalTaskCtx.getFuture().set(result);
                             }
@@ -165,7 +190,8 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
                                 } else {
                                     logTask("Failed", finalTaskCtx);
                                 }
-                                totalFailed.incrementAndGet();
+                                executionTimer.record(System.nanoTime() - launchTime, TimeUnit.NANOSECONDS);
+                                totalFailed.increment();
                                 concurrencyLevel.decrementAndGet();
                                 finalTaskCtx.getFuture().setException(t);
                                 log.debug("[{}] Failed to execute task: {}", finalTaskCtx.getId(), finalTaskCtx.getTask(), t);
@@ -173,7 +199,7 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
                         }, callbackExecutor);
                     } else {
                         logTask("Expired Before Execution", finalTaskCtx);
-                        totalExpired.incrementAndGet();
+                        totalExpired.increment();
                         concurrencyLevel.decrementAndGet();
                         taskCtx.getFuture().setException(new TimeoutException());
                     }
@@ -185,7 +211,7 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
             } catch (Throwable e) {
                 if (taskCtx != null) {
                     log.debug("[{}] Failed to execute task: {}", taskCtx.getId(), taskCtx, e);
-                    totalFailed.incrementAndGet();
+                    totalFailed.increment();
                     concurrencyLevel.decrementAndGet();
                 } else {
                     log.debug("Failed to queue task:", e);
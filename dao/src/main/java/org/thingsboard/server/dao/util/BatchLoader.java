@@ -0,0 +1,121 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.util;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects keys requested within the batch window and loads them with a single call of the batch function.
+ * Keys requested again before their batch is sent share the same future.
+ * The batch is sent earlier once it reaches the max batch size.
+ */
+@Slf4j
+public class BatchLoader<K, V> {
+
+    private final Function<Set<K>, ListenableFuture<Map<K, V>>> batchFunction;
+    private final ScheduledExecutorService scheduler;
+    private final long windowMs;
+    private final int maxBatchSize;
+
+    private final Object lock = new Object();
+    private Map<K, SettableFuture<V>> pending = new HashMap<>();
+    private long batchId;
+
+    /**
+     * @param batchFunction loads values of all the keys of the batch; keys missing in the result are resolved with null
+     */
+    public BatchLoader(Function<Set<K>, ListenableFuture<Map<K, V>>> batchFunction,
+                       ScheduledExecutorService scheduler, long windowMs, int maxBatchSize) {
+        this.batchFunction = batchFunction;
+        this.scheduler = scheduler;
+        this.windowMs = windowMs;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public ListenableFuture<V> load(K key) {
+        SettableFuture<V> future;
+        Map<K, SettableFuture<V>> fullBatch = null;
+        synchronized (lock) {
+            future = pending.get(key);
+            if (future != null) {
+                return future;
+            }
+            future = SettableFuture.create();
+            pending.put(key, future);
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = nextBatch();
+            } else if (pending.size() == 1) {
+                long scheduledBatchId = batchId;
+                scheduler.schedule(() -> flush(scheduledBatchId), windowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (fullBatch != null) {
+            execute(fullBatch);
+        }
+        return future;
+    }
+
+    private void flush(long scheduledBatchId) {
+        Map<K, SettableFuture<V>> batch;
+        synchronized (lock) {
+            if (scheduledBatchId != batchId) {
+                return;
+            }
+            batch = nextBatch();
+        }
+        execute(batch);
+    }
+
+    private Map<K, SettableFuture<V>> nextBatch() {
+        Map<K, SettableFuture<V>> batch = pending;
+        pending = new HashMap<>();
+        batchId++;
+        return batch;
+    }
+
+    private void execute(Map<K, SettableFuture<V>> batch) {
+        ListenableFuture<Map<K, V>> resultFuture;
+        try {
+            resultFuture = batchFunction.apply(batch.keySet());
+        } catch (Throwable t) {
+            resultFuture = Futures.immediateFailedFuture(t);
+        }
+        Futures.addCallback(resultFuture, new FutureCallback<Map<K, V>>() {
+            @Override
+            public void onSuccess(Map<K, V> result) {
+                batch.forEach((key, future) -> future.set(result != null ? result.get(key) : null));
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                log.debug("Failed to load batch of {} keys", batch.size(), t);
+                batch.values().forEach(future -> future.setException(t));
+            }
+        }, MoreExecutors.directExecutor());
+    }
+}
@@ -0,0 +1,28 @@
+--
+-- Copyright © 2016-2020 The Thingsboard Authors
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--     http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Trigram indexes for the substring search of devices, assets, entity views and customers (sql.text_search.substring).
+-- The pg_trgm extension is shipped with PostgreSQL contrib, creating it may require the superuser role.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_device_search_text_trgm ON device USING gin (search_text gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_asset_search_text_trgm ON asset USING gin (search_text gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_entity_view_search_text_trgm ON entity_view USING gin (search_text gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_customer_search_text_trgm ON customer USING gin (search_text gin_trgm_ops);
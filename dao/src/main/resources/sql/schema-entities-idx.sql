@@ -32,4 +32,17 @@ CREATE INDEX IF NOT EXISTS idx_asset_customer_id ON asset(tenant_id, customer_id
 
 CREATE INDEX IF NOT EXISTS idx_asset_customer_id_and_type ON asset(tenant_id, customer_id, type);
 
-CREATE INDEX IF NOT EXISTS idx_asset_type ON asset(tenant_id, type);
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_asset_type ON asset(tenant_id, type);
+CREATE INDEX IF NOT EXISTS idx_device_search_text ON device(tenant_id, search_text, id);
+
+CREATE INDEX IF NOT EXISTS idx_device_customer_id_and_search_text ON device(tenant_id, customer_id, search_text, id);
+
+CREATE INDEX IF NOT EXISTS idx_asset_search_text ON asset(tenant_id, search_text, id);
+
+CREATE INDEX IF NOT EXISTS idx_asset_customer_id_and_search_text ON asset(tenant_id, customer_id, search_text, id);
+
+CREATE INDEX IF NOT EXISTS idx_entity_view_search_text ON entity_view(tenant_id, search_text, id);
+
+CREATE INDEX IF NOT EXISTS idx_entity_view_customer_id_and_search_text ON entity_view(tenant_id, customer_id, search_text, id);
+
+CREATE INDEX IF NOT EXISTS idx_customer_search_text ON customer(tenant_id, search_text, id);
@@ -0,0 +1,126 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.cache;
+
+import com.datastax.driver.core.utils.UUIDs;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.id.AssetId;
+import org.thingsboard.server.common.data.id.CustomerId;
+import org.thingsboard.server.common.data.id.DeviceCredentialsId;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.relation.RelationTypeGroup;
+import org.thingsboard.server.common.data.security.DeviceCredentials;
+import org.thingsboard.server.common.data.security.DeviceCredentialsType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TbHybridCacheManagerTest {
+
+    private static final String CACHE = "devices";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private List<TbHybridCacheManager> nodes;
+    private Cache redis;
+
+    @Before
+    public void before() {
+        // ConcurrentMapCacheManager stands in for redis, published messages are delivered to all nodes
+        ConcurrentMapCacheManager redisCacheManager = new ConcurrentMapCacheManager();
+        redis = redisCacheManager.getCache(CACHE);
+        nodes = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            nodes.add(new TbHybridCacheManager(redisCacheManager, new DefaultFormattingConversionService(), 60000, 100,
+                    message -> nodes.forEach(node -> node.onInvalidation(message)), false));
+        }
+    }
+
+    @Test
+    public void testLocalCacheInvalidatedOnOtherNodes() {
+        Cache first = nodes.get(0).getCache(CACHE);
+        Cache second = nodes.get(1).getCache(CACHE);
+
+        first.put("key", "v1");
+        assertEquals("v1", second.get("key").get());
+
+        redis.put("key", "v2");
+        assertEquals("v1", second.get("key").get());
+
+        first.put("key", "v3");
+        assertEquals("v3", second.get("key").get());
+
+        second.evict("key");
+        assertNull(first.get("key"));
+
+        first.put("key", "v4");
+        assertEquals("v4", second.get("key").get());
+        second.clear();
+        assertNull(first.get("key"));
+    }
+
+    @Test
+    public void testValueLoadedOnce() {
+        Cache first = nodes.get(0).getCache(CACHE);
+        Cache second = nodes.get(1).getCache(CACHE);
+        Object value = new Object();
+        assertSame(value, first.get("key", () -> value));
+        assertSame(value, second.get("key", () -> {
+            throw new IllegalStateException("Value should be taken from the shared cache");
+        }));
+    }
+
+    @Test
+    public void testSerializerRoundTrip() throws Exception {
+        TbCacheValueSerializer serializer = new TbCacheValueSerializer();
+
+        Device device = new Device(new DeviceId(UUIDs.timeBased()));
+        device.setCreatedTime(System.currentTimeMillis());
+        device.setTenantId(new TenantId(UUIDs.timeBased()));
+        device.setCustomerId(new CustomerId(UUIDs.timeBased()));
+        device.setName("Device A");
+        device.setType("default");
+        device.setAdditionalInfo(mapper.readTree("{\"gateway\":true}"));
+        Device deviceCopy = (Device) serializer.deserialize(serializer.serialize(device));
+        assertEquals(device, deviceCopy);
+        assertEquals(device.getAdditionalInfo(), deviceCopy.getAdditionalInfo());
+
+        DeviceCredentials credentials = new DeviceCredentials(new DeviceCredentialsId(UUIDs.timeBased()));
+        credentials.setDeviceId(device.getId());
+        credentials.setCredentialsType(DeviceCredentialsType.ACCESS_TOKEN);
+        credentials.setCredentialsId("token");
+        assertEquals(credentials, serializer.deserialize(serializer.serialize(credentials)));
+
+        EntityRelation relation = new EntityRelation(new AssetId(UUIDs.timeBased()), device.getId(), EntityRelation.CONTAINS_TYPE, RelationTypeGroup.COMMON);
+        List<EntityRelation> relations = new ArrayList<>(Arrays.asList(relation, new EntityRelation(relation)));
+        assertEquals(relations, serializer.deserialize(serializer.serialize(relations)));
+
+        assertEquals("other", serializer.deserialize(serializer.serialize("other")));
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.entity;
+
+import com.datastax.driver.core.utils.UUIDs;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.dao.asset.AssetDao;
+import org.thingsboard.server.dao.device.DeviceDao;
+import org.thingsboard.server.dao.entityview.EntityViewDao;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.thingsboard.server.common.data.CacheConstants.DEVICE_CACHE;
+
+public class EntityBatchLoaderTest {
+
+    private static final TenantId TENANT_ID = new TenantId(UUIDs.timeBased());
+
+    private DeviceDao deviceDao;
+    private CacheManager cacheManager;
+    private EntityBatchLoader loader;
+
+    @Before
+    public void before() {
+        deviceDao = mock(DeviceDao.class);
+        cacheManager = new ConcurrentMapCacheManager();
+        loader = new EntityBatchLoader();
+        ReflectionTestUtils.setField(loader, "enabled", true);
+        ReflectionTestUtils.setField(loader, "windowMs", 60000L);
+        ReflectionTestUtils.setField(loader, "deviceDao", deviceDao);
+        ReflectionTestUtils.setField(loader, "assetDao", mock(AssetDao.class));
+        ReflectionTestUtils.setField(loader, "entityViewDao", mock(EntityViewDao.class));
+        ReflectionTestUtils.setField(loader, "cacheManager", cacheManager);
+    }
+
+    @After
+    public void after() {
+        loader.destroy();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDevicesLoadedWithSingleQueryAndCached() throws Exception {
+        start(2);
+        Device first = device();
+        Device second = device();
+        when(deviceDao.findByIdsAsync(eq(TENANT_ID), anyCollectionOf(UUID.class))).thenReturn(Futures.immediateFuture(Arrays.asList(first, second)));
+
+        ListenableFuture<Device> firstFuture = loader.findDeviceById(TENANT_ID, first.getId());
+        ListenableFuture<Device> secondFuture = loader.findDeviceById(TENANT_ID, second.getId());
+
+        assertEquals(first, firstFuture.get(1, TimeUnit.SECONDS));
+        assertEquals(second, secondFuture.get(1, TimeUnit.SECONDS));
+        ArgumentCaptor<Collection> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(deviceDao, times(1)).findByIdsAsync(eq(TENANT_ID), ids.capture());
+        assertEquals(new HashSet<>(Arrays.asList(first.getUuidId(), second.getUuidId())), new HashSet<>(ids.getValue()));
+
+        Device cached = loader.findDeviceById(TENANT_ID, first.getId()).get(1, TimeUnit.SECONDS);
+        assertEquals(first, cached);
+        assertNotSame(first, cached);
+        verify(deviceDao, times(1)).findByIdsAsync(any(TenantId.class), anyCollectionOf(UUID.class));
+    }
+
+    @Test
+    public void testMissingDeviceResolvedWithNull() throws Exception {
+        start(2);
+        Device existing = device();
+        DeviceId missingId = new DeviceId(UUIDs.timeBased());
+        when(deviceDao.findByIdsAsync(eq(TENANT_ID), anyCollectionOf(UUID.class))).thenReturn(Futures.immediateFuture(Collections.singletonList(existing)));
+
+        ListenableFuture<Device> missing = loader.findDeviceById(TENANT_ID, missingId);
+        ListenableFuture<Device> found = loader.findDeviceById(TENANT_ID, existing.getId());
+
+        assertNull(missing.get(1, TimeUnit.SECONDS));
+        assertEquals(existing, found.get(1, TimeUnit.SECONDS));
+        assertNull(cacheManager.getCache(DEVICE_CACHE).get(Collections.singletonList(missingId)));
+    }
+
+    @Test
+    public void testFailedLoadNotCachedAndRetried() throws Exception {
+        start(1);
+        Device device = device();
+        when(deviceDao.findByIdsAsync(eq(TENANT_ID), anyCollectionOf(UUID.class)))
+                .thenReturn(Futures.immediateFailedFuture(new RuntimeException("Database is not available")))
+                .thenReturn(Futures.immediateFuture(Collections.singletonList(device)));
+
+        try {
+            loader.findDeviceById(TENANT_ID, device.getId()).get(1, TimeUnit.SECONDS);
+            fail("Load should fail");
+        } catch (ExecutionException e) {
+            assertEquals("Database is not available", e.getCause().getMessage());
+        }
+        assertNull(cacheManager.getCache(DEVICE_CACHE).get(Collections.singletonList(device.getId())));
+
+        assertEquals(device, loader.findDeviceById(TENANT_ID, device.getId()).get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testDeviceEvictedDuringLoadNotCached() throws Exception {
+        start(1);
+        Device device = device();
+        SettableFuture<List<Device>> dbResult = SettableFuture.create();
+        when(deviceDao.findByIdsAsync(eq(TENANT_ID), anyCollectionOf(UUID.class))).thenReturn(dbResult);
+
+        ListenableFuture<Device> future = loader.findDeviceById(TENANT_ID, device.getId());
+        loader.evictDevice(device.getId());
+        dbResult.set(Collections.singletonList(device));
+
+        assertEquals(device, future.get(1, TimeUnit.SECONDS));
+        assertNull(cacheManager.getCache(DEVICE_CACHE).get(Collections.singletonList(device.getId())));
+    }
+
+    @Test
+    public void testEvictRemovesCachedDevice() throws Exception {
+        start(1);
+        Device device = device();
+        when(deviceDao.findByIdsAsync(eq(TENANT_ID), anyCollectionOf(UUID.class))).thenReturn(Futures.immediateFuture(Collections.singletonList(device)));
+
+        loader.findDeviceById(TENANT_ID, device.getId()).get(1, TimeUnit.SECONDS);
+        assertNotNull(cacheManager.getCache(DEVICE_CACHE).get(Collections.singletonList(device.getId())));
+
+        loader.evictDevice(device.getId());
+        assertNull(cacheManager.getCache(DEVICE_CACHE).get(Collections.singletonList(device.getId())));
+        loader.findDeviceById(TENANT_ID, device.getId()).get(1, TimeUnit.SECONDS);
+        verify(deviceDao, times(2)).findByIdsAsync(eq(TENANT_ID), anyCollectionOf(UUID.class));
+    }
+
+    private void start(int maxBatchSize) {
+        ReflectionTestUtils.setField(loader, "maxBatchSize", maxBatchSize);
+        loader.init();
+    }
+
+    private static Device device() {
+        Device device = new Device(new DeviceId(UUIDs.timeBased()));
+        device.setTenantId(TENANT_ID);
+        device.setName("Device " + device.getUuidId());
+        device.setType("default");
+        return device;
+    }
+}
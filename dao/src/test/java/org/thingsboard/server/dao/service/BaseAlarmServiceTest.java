@@ -24,6 +24,7 @@ import org.thingsboard.server.common.data.Tenant;
 import org.thingsboard.server.common.data.alarm.Alarm;
 import org.thingsboard.server.common.data.alarm.AlarmInfo;
 import org.thingsboard.server.common.data.alarm.AlarmQuery;
+import org.thingsboard.server.common.data.alarm.AlarmSearchStatus;
 import org.thingsboard.server.common.data.alarm.AlarmSeverity;
 import org.thingsboard.server.common.data.alarm.AlarmStatus;
 import org.thingsboard.server.common.data.id.AssetId;
@@ -267,4 +268,92 @@ public abstract class BaseAlarmServiceTest extends AbstractServiceTest {
         Assert.assertEquals(0, fromParentRelations.size());
 
     }
+
+    @Test
+    public void testFindLatestAlarmAfterUpdates() throws ExecutionException, InterruptedException {
+        AssetId childId = new AssetId(UUIDs.timeBased());
+
+        Assert.assertNull(alarmService.findLatestByOriginatorAndType(tenantId, childId, TEST_ALARM).get());
+
+        long ts = System.currentTimeMillis();
+        Alarm alarm = Alarm.builder().tenantId(tenantId).originator(childId)
+                .type(TEST_ALARM)
+                .severity(AlarmSeverity.CRITICAL).status(AlarmStatus.ACTIVE_UNACK)
+                .startTs(ts).build();
+
+        Alarm created = alarmService.createOrUpdateAlarm(alarm);
+
+        Alarm latest = alarmService.findLatestByOriginatorAndType(tenantId, childId, TEST_ALARM).get();
+        Assert.assertEquals(created.getId(), latest.getId());
+        Assert.assertEquals(AlarmStatus.ACTIVE_UNACK, latest.getStatus());
+
+        Assert.assertTrue(alarmService.clearAlarm(tenantId, created.getId(), null, System.currentTimeMillis()).get());
+
+        latest = alarmService.findLatestByOriginatorAndType(tenantId, childId, TEST_ALARM).get();
+        Assert.assertEquals(created.getId(), latest.getId());
+        Assert.assertEquals(AlarmStatus.CLEARED_UNACK, latest.getStatus());
+
+        Alarm next = alarmService.createOrUpdateAlarm(Alarm.builder().tenantId(tenantId).originator(childId)
+                .type(TEST_ALARM)
+                .severity(AlarmSeverity.MAJOR).status(AlarmStatus.ACTIVE_UNACK)
+                .startTs(System.currentTimeMillis()).build());
+        Assert.assertNotEquals(created.getId(), next.getId());
+
+        Assert.assertTrue(alarmService.ackAlarm(tenantId, created.getId(), System.currentTimeMillis()).get());
+
+        latest = alarmService.findLatestByOriginatorAndType(tenantId, childId, TEST_ALARM).get();
+        Assert.assertEquals(next.getId(), latest.getId());
+        Assert.assertEquals(AlarmStatus.ACTIVE_UNACK, latest.getStatus());
+
+        Assert.assertTrue(alarmService.deleteAlarm(tenantId, next.getId()));
+
+        latest = alarmService.findLatestByOriginatorAndType(tenantId, childId, TEST_ALARM).get();
+        Assert.assertEquals(created.getId(), latest.getId());
+    }
+
+    @Test
+    public void testFindHighestAlarmSeverity() throws ExecutionException, InterruptedException {
+        AssetId parentId = new AssetId(UUIDs.timeBased());
+        AssetId childId = new AssetId(UUIDs.timeBased());
+
+        EntityRelation relation = new EntityRelation(parentId, childId, EntityRelation.CONTAINS_TYPE);
+        Assert.assertTrue(relationService.saveRelationAsync(tenantId, relation).get());
+
+        Assert.assertNull(alarmService.findHighestAlarmSeverity(tenantId, parentId, null, null));
+
+        Alarm major = alarmService.createOrUpdateAlarm(Alarm.builder().tenantId(tenantId).originator(childId)
+                .type(TEST_ALARM).propagate(true)
+                .severity(AlarmSeverity.MAJOR).status(AlarmStatus.ACTIVE_UNACK)
+                .startTs(System.currentTimeMillis()).build());
+
+        Assert.assertEquals(AlarmSeverity.MAJOR, alarmService.findHighestAlarmSeverity(tenantId, parentId, null, null));
+        Assert.assertEquals(AlarmSeverity.MAJOR, alarmService.findHighestAlarmSeverity(tenantId, childId, AlarmSearchStatus.ACTIVE, null));
+
+        Alarm critical = alarmService.createOrUpdateAlarm(Alarm.builder().tenantId(tenantId).originator(childId)
+                .type(TEST_ALARM + "_2").propagate(true)
+                .severity(AlarmSeverity.CRITICAL).status(AlarmStatus.ACTIVE_UNACK)
+                .startTs(System.currentTimeMillis()).build());
+
+        Assert.assertEquals(AlarmSeverity.CRITICAL, alarmService.findHighestAlarmSeverity(tenantId, parentId, AlarmSearchStatus.ACTIVE, null));
+
+        Assert.assertTrue(alarmService.clearAlarm(tenantId, critical.getId(), null, System.currentTimeMillis()).get());
+
+        Assert.assertEquals(AlarmSeverity.MAJOR, alarmService.findHighestAlarmSeverity(tenantId, parentId, AlarmSearchStatus.ACTIVE, null));
+        Assert.assertEquals(AlarmSeverity.CRITICAL, alarmService.findHighestAlarmSeverity(tenantId, parentId, AlarmSearchStatus.CLEARED, null));
+        Assert.assertEquals(AlarmSeverity.CRITICAL, alarmService.findHighestAlarmSeverity(tenantId, parentId, null, AlarmStatus.CLEARED_UNACK));
+        Assert.assertNull(alarmService.findHighestAlarmSeverity(tenantId, parentId, null, AlarmStatus.ACTIVE_ACK));
+
+        TimePageData<AlarmInfo> alarms = alarmService.findAlarms(tenantId, AlarmQuery.builder()
+                .affectedEntityId(parentId)
+                .searchStatus(AlarmSearchStatus.CLEARED).pageLink(
+                        new TimePageLink(10, 0L, System.currentTimeMillis(), false)
+                ).build()).get();
+        Assert.assertEquals(1, alarms.getData().size());
+        Assert.assertEquals(critical.getId(), alarms.getData().get(0).getId());
+
+        Assert.assertTrue(alarmService.deleteAlarm(tenantId, major.getId()));
+
+        Assert.assertNull(alarmService.findHighestAlarmSeverity(tenantId, parentId, AlarmSearchStatus.ACTIVE, null));
+        Assert.assertEquals(AlarmSeverity.CRITICAL, alarmService.findHighestAlarmSeverity(tenantId, childId, AlarmSearchStatus.ANY, null));
+    }
 }
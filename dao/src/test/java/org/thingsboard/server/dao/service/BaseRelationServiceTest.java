@@ -23,6 +23,7 @@ import org.junit.Test;
 import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.id.AssetId;
 import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.relation.EntityRelation;
 import org.thingsboard.server.common.data.relation.EntityRelationsQuery;
 import org.thingsboard.server.common.data.relation.EntitySearchDirection;
@@ -31,8 +32,12 @@ import org.thingsboard.server.common.data.relation.RelationTypeGroup;
 import org.thingsboard.server.common.data.relation.RelationsSearchParameters;
 import org.thingsboard.server.dao.exception.DataValidationException;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 public abstract class BaseRelationServiceTest extends AbstractServiceTest {
@@ -84,6 +89,24 @@ public abstract class BaseRelationServiceTest extends AbstractServiceTest {
         Assert.assertTrue(relationService.deleteRelationAsync(SYSTEM_TENANT_ID, childId, subChildId, EntityRelation.CONTAINS_TYPE, RelationTypeGroup.COMMON).get());
     }
 
+    @Test
+    public void testSaveAndDeleteRelations() throws ExecutionException, InterruptedException {
+        AssetId parentId = new AssetId(UUIDs.timeBased());
+        List<EntityRelation> relations = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            relations.add(new EntityRelation(parentId, new DeviceId(UUIDs.timeBased()), EntityRelation.CONTAINS_TYPE));
+        }
+
+        Assert.assertTrue(relationService.saveRelations(SYSTEM_TENANT_ID, relations));
+        Assert.assertTrue(relationService.saveRelations(SYSTEM_TENANT_ID, relations));
+        Assert.assertEquals(10, relationService.findByFrom(SYSTEM_TENANT_ID, parentId, RelationTypeGroup.COMMON).size());
+
+        Assert.assertTrue(relationService.deleteRelations(SYSTEM_TENANT_ID, relations.subList(0, 4)));
+        List<EntityRelation> remaining = relationService.findByFrom(SYSTEM_TENANT_ID, parentId, RelationTypeGroup.COMMON);
+        Assert.assertEquals(6, remaining.size());
+        Assert.assertTrue(remaining.containsAll(relations.subList(4, 10)));
+    }
+
     @Test
     public void testDeleteEntityRelations() throws ExecutionException, InterruptedException {
         AssetId parentId = new AssetId(UUIDs.timeBased());
@@ -269,6 +292,141 @@ public abstract class BaseRelationServiceTest extends AbstractServiceTest {
     }
 
 
+    @Test
+    public void testRecursiveRelationLevels() throws ExecutionException, InterruptedException {
+        // A -> [B,C] -> D, B -> C
+        AssetId assetA = new AssetId(UUIDs.timeBased());
+        AssetId assetB = new AssetId(UUIDs.timeBased());
+        AssetId assetC = new AssetId(UUIDs.timeBased());
+        DeviceId deviceD = new DeviceId(UUIDs.timeBased());
+
+        EntityRelation relationAB = new EntityRelation(assetA, assetB, EntityRelation.CONTAINS_TYPE);
+        EntityRelation relationAC = new EntityRelation(assetA, assetC, EntityRelation.CONTAINS_TYPE);
+        EntityRelation relationBC = new EntityRelation(assetB, assetC, EntityRelation.CONTAINS_TYPE);
+        EntityRelation relationBD = new EntityRelation(assetB, deviceD, EntityRelation.CONTAINS_TYPE);
+        EntityRelation relationCD = new EntityRelation(assetC, deviceD, EntityRelation.CONTAINS_TYPE);
+
+        saveRelation(relationAB);
+        saveRelation(relationAC);
+        saveRelation(relationBC);
+        saveRelation(relationBD);
+        saveRelation(relationCD);
+
+        EntityRelationsQuery query = new EntityRelationsQuery();
+        query.setParameters(new RelationsSearchParameters(assetA, EntitySearchDirection.FROM, 1, false));
+        List<EntityRelation> relations = relationService.findByQuery(SYSTEM_TENANT_ID, query).get();
+        Assert.assertEquals(2, relations.size());
+        Assert.assertTrue(relations.contains(relationAB));
+        Assert.assertTrue(relations.contains(relationAC));
+
+        query.setParameters(new RelationsSearchParameters(assetA, EntitySearchDirection.FROM, 2, true));
+        relations = relationService.findByQuery(SYSTEM_TENANT_ID, query).get();
+        Assert.assertEquals(3, relations.size());
+        Assert.assertTrue(relations.contains(relationBC));
+        Assert.assertTrue(relations.contains(relationBD));
+        Assert.assertTrue(relations.contains(relationCD));
+
+        query.setParameters(new RelationsSearchParameters(deviceD, EntitySearchDirection.TO, -1, false));
+        query.setFilters(Collections.singletonList(new EntityTypeFilter(EntityRelation.CONTAINS_TYPE, Collections.singletonList(EntityType.ASSET))));
+        relations = relationService.findByQuery(SYSTEM_TENANT_ID, query).get();
+        Assert.assertEquals(5, relations.size());
+    }
+
+    @Test
+    public void testRecursiveRelationDiamondWithCycles() throws ExecutionException, InterruptedException {
+        // A -> [B,C] -> D -> E -> [A,B]
+        AssetId assetA = new AssetId(UUIDs.timeBased());
+        AssetId assetB = new AssetId(UUIDs.timeBased());
+        AssetId assetC = new AssetId(UUIDs.timeBased());
+        AssetId assetD = new AssetId(UUIDs.timeBased());
+        DeviceId deviceE = new DeviceId(UUIDs.timeBased());
+
+        EntityRelation relationAB = new EntityRelation(assetA, assetB, EntityRelation.CONTAINS_TYPE);
+        EntityRelation relationAC = new EntityRelation(assetA, assetC, EntityRelation.CONTAINS_TYPE);
+        EntityRelation relationBD = new EntityRelation(assetB, assetD, EntityRelation.CONTAINS_TYPE);
+        EntityRelation relationCD = new EntityRelation(assetC, assetD, EntityRelation.CONTAINS_TYPE);
+        EntityRelation relationDE = new EntityRelation(assetD, deviceE, EntityRelation.CONTAINS_TYPE);
+        EntityRelation relationEA = new EntityRelation(deviceE, assetA, EntityRelation.CONTAINS_TYPE);
+        EntityRelation relationEB = new EntityRelation(deviceE, assetB, EntityRelation.CONTAINS_TYPE);
+
+        for (EntityRelation relation : Arrays.asList(relationAB, relationAC, relationBD, relationCD, relationDE, relationEA, relationEB)) {
+            saveRelation(relation);
+        }
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList(relationAB, relationAC, relationBD, relationCD, relationDE, relationEA, relationEB)),
+                findByQuery(assetA, EntitySearchDirection.FROM, -1, false));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(relationAB, relationAC, relationBD, relationCD)),
+                findByQuery(assetA, EntitySearchDirection.FROM, 2, false));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(relationAB, relationAC)),
+                findByQuery(assetA, EntitySearchDirection.FROM, 1, true));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(relationBD, relationCD)),
+                findByQuery(assetA, EntitySearchDirection.FROM, 2, true));
+        Assert.assertEquals(Collections.singleton(relationDE),
+                findByQuery(assetA, EntitySearchDirection.FROM, 3, true));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(relationEA, relationEB)),
+                findByQuery(assetA, EntitySearchDirection.FROM, 4, true));
+        Assert.assertTrue(findByQuery(assetA, EntitySearchDirection.FROM, 5, true).isEmpty());
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList(relationBD, relationCD)),
+                findByQuery(assetD, EntitySearchDirection.TO, 1, true));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(relationAB, relationAC, relationEB)),
+                findByQuery(assetD, EntitySearchDirection.TO, 2, true));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(relationDE, relationEA)),
+                findByQuery(assetD, EntitySearchDirection.TO, 3, true));
+        Assert.assertEquals(7, findByQuery(assetD, EntitySearchDirection.TO, -1, false).size());
+    }
+
+    @Test
+    public void testRecursiveRelationDiamondChain() throws ExecutionException, InterruptedException {
+        // A0 -> [B1,C1] -> A1 -> [B2,C2] -> A2 ..., the number of paths doubles with every diamond
+        int diamonds = 20;
+        AssetId root = new AssetId(UUIDs.timeBased());
+        AssetId top = root;
+        for (int i = 0; i < diamonds; i++) {
+            AssetId left = new AssetId(UUIDs.timeBased());
+            AssetId right = new AssetId(UUIDs.timeBased());
+            AssetId bottom = new AssetId(UUIDs.timeBased());
+            saveRelation(new EntityRelation(top, left, EntityRelation.CONTAINS_TYPE));
+            saveRelation(new EntityRelation(top, right, EntityRelation.CONTAINS_TYPE));
+            saveRelation(new EntityRelation(left, bottom, EntityRelation.CONTAINS_TYPE));
+            saveRelation(new EntityRelation(right, bottom, EntityRelation.CONTAINS_TYPE));
+            top = bottom;
+        }
+        saveRelation(new EntityRelation(top, root, EntityRelation.CONTAINS_TYPE));
+
+        Assert.assertEquals(diamonds * 4 + 1, findByQuery(root, EntitySearchDirection.FROM, -1, false).size());
+        Assert.assertEquals(2, findByQuery(root, EntitySearchDirection.FROM, diamonds * 2, true).size());
+        Assert.assertEquals(1, findByQuery(root, EntitySearchDirection.FROM, diamonds * 2 + 1, true).size());
+    }
+
+    @Test
+    public void testRecursiveRelationLevelLimit() throws ExecutionException, InterruptedException {
+        // database.relations.max_level is 50 by default and is applied the same way on every database
+        int length = 55;
+        AssetId root = new AssetId(UUIDs.timeBased());
+        AssetId parent = root;
+        for (int i = 0; i < length; i++) {
+            AssetId child = new AssetId(UUIDs.timeBased());
+            saveRelation(new EntityRelation(parent, child, EntityRelation.CONTAINS_TYPE));
+            parent = child;
+        }
+
+        Assert.assertEquals(50, findByQuery(root, EntitySearchDirection.FROM, -1, false).size());
+        Assert.assertEquals(50, findByQuery(root, EntitySearchDirection.FROM, length, false).size());
+        Assert.assertEquals(1, findByQuery(root, EntitySearchDirection.FROM, 50, true).size());
+        Assert.assertTrue(findByQuery(root, EntitySearchDirection.FROM, length, true).isEmpty());
+        Assert.assertEquals(50, findByQuery(parent, EntitySearchDirection.TO, -1, false).size());
+    }
+
+    private Set<EntityRelation> findByQuery(EntityId root, EntitySearchDirection direction, int maxLevel, boolean fetchLastLevelOnly) throws ExecutionException, InterruptedException {
+        EntityRelationsQuery query = new EntityRelationsQuery();
+        query.setParameters(new RelationsSearchParameters(root, direction, maxLevel, fetchLastLevelOnly));
+        List<EntityRelation> relations = relationService.findByQuery(SYSTEM_TENANT_ID, query).get();
+        Set<EntityRelation> result = new HashSet<>(relations);
+        Assert.assertEquals(relations.size(), result.size());
+        return result;
+    }
+
     @Test(expected = DataValidationException.class)
     public void testSaveRelationWithEmptyFrom() throws ExecutionException, InterruptedException {
         EntityRelation relation = new EntityRelation();
@@ -0,0 +1,109 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sql;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TbSqlBlockingQueueTest {
+
+    private ScheduledLogExecutorComponent logExecutor;
+    private MeterRegistry meterRegistry;
+    private TbSqlBlockingQueue<String> queue;
+
+    @Before
+    public void before() {
+        logExecutor = new ScheduledLogExecutorComponent();
+        logExecutor.init();
+        meterRegistry = new SimpleMeterRegistry();
+        queue = new TbSqlBlockingQueue<>(TbSqlBlockingQueueParams.builder()
+                .logName("Test")
+                .batchSize(10)
+                .maxDelay(10)
+                .statsPrintIntervalMs(60000)
+                .build(), meterRegistry);
+    }
+
+    @After
+    public void after() {
+        queue.destroy();
+        logExecutor.stop();
+    }
+
+    @Test
+    public void testSavedEntitiesCounted() throws Exception {
+        List<String> saved = new ArrayList<>();
+        CountDownLatch blocked = new CountDownLatch(1);
+        queue.init(logExecutor, batch -> {
+            awaitQuietly(blocked);
+            saved.addAll(batch);
+        });
+
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(queue.add("entity-" + i));
+        }
+        assertEquals(5, meterRegistry.get("tb.sql.queue.added").tag("queue", "Test").counter().count(), 0.0);
+
+        blocked.countDown();
+        for (ListenableFuture<Void> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(5, saved.size());
+        assertEquals(5, meterRegistry.get("tb.sql.queue.saved").tag("queue", "Test").counter().count(), 0.0);
+        assertEquals(0, meterRegistry.get("tb.sql.queue.size").tag("queue", "Test").gauge().value(), 0.0);
+        assertTrue(meterRegistry.get("tb.sql.queue.save").tag("queue", "Test").timer().count() > 0);
+    }
+
+    @Test
+    public void testFailedEntitiesCounted() throws Exception {
+        queue.init(logExecutor, batch -> {
+            throw new IllegalStateException("Failed to save");
+        });
+
+        ListenableFuture<Void> future = queue.add("entity");
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail("Save should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertEquals(1, meterRegistry.get("tb.sql.queue.failed").tag("queue", "Test").counter().count(), 0.0);
+        assertEquals(0, meterRegistry.get("tb.sql.queue.saved").tag("queue", "Test").counter().count(), 0.0);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -24,13 +24,18 @@ import org.thingsboard.server.common.data.asset.Asset;
 import org.thingsboard.server.common.data.id.AssetId;
 import org.thingsboard.server.common.data.id.CustomerId;
 import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.page.TextPageData;
 import org.thingsboard.server.common.data.page.TextPageLink;
 import org.thingsboard.server.dao.AbstractJpaDaoTest;
 import org.thingsboard.server.dao.asset.AssetDao;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 
@@ -100,6 +105,65 @@ public class JpaAssetDaoTest extends AbstractJpaDaoTest {
         assertEquals(0, assets3.size());
     }
 
+    @Test
+    public void testFindAssetsByTenantIdOrderedBySearchText() {
+        UUID tenantId = UUIDs.timeBased();
+        UUID customerId = UUIDs.timeBased();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            names.add(String.format("asset%02d", i));
+        }
+        List<String> shuffled = new ArrayList<>(names);
+        Collections.shuffle(shuffled, new Random(42));
+        for (String name : shuffled) {
+            saveAsset(UUIDs.timeBased(), tenantId, customerId, name, "TYPE_1");
+        }
+
+        List<String> found = new ArrayList<>();
+        TextPageLink pageLink = new TextPageLink(7, "ASSET");
+        TextPageData<Asset> pageData;
+        do {
+            pageData = new TextPageData<>(assetDao.findAssetsByTenantId(tenantId, pageLink), pageLink);
+            pageData.getData().forEach(asset -> found.add(asset.getName()));
+            pageLink = pageData.getNextPageLink();
+        } while (pageData.hasNext());
+        assertEquals(names, found);
+
+        Asset offset = assetDao.findAssetsByTenantIdAndName(tenantId, "asset12").get();
+        pageLink = new TextPageLink(7, "asset1", offset.getId().getId(), null);
+        List<Asset> assets = assetDao.findAssetsByTenantIdAndCustomerIdAndType(tenantId, customerId, "TYPE_1", pageLink);
+        assertEquals(7, assets.size());
+        assertEquals("asset13", assets.get(0).getName());
+        assertEquals("asset19", assets.get(6).getName());
+    }
+
+    @Test
+    public void testFindAssetsWithSameSearchTextPagedById() {
+        UUID tenantId = UUIDs.timeBased();
+        UUID customerId = UUIDs.timeBased();
+        Set<UUID> assetIds = new HashSet<>();
+        for (String name : new String[]{"Pump", "PUMP", "pump", "pUmp", "Valve"}) {
+            UUID assetId = UUIDs.timeBased();
+            saveAsset(assetId, tenantId, customerId, name, "TYPE_1");
+            assetIds.add(assetId);
+        }
+
+        List<Asset> found = new ArrayList<>();
+        TextPageLink pageLink = new TextPageLink(1, "");
+        TextPageData<Asset> pageData;
+        do {
+            pageData = new TextPageData<>(assetDao.findAssetsByTenantIdAndType(tenantId, "TYPE_1", pageLink), pageLink);
+            found.addAll(pageData.getData());
+            pageLink = pageData.getNextPageLink();
+        } while (pageData.hasNext());
+
+        assertEquals(5, found.size());
+        Set<UUID> foundIds = new HashSet<>();
+        found.forEach(asset -> foundIds.add(asset.getId().getId()));
+        assertEquals(assetIds, foundIds);
+        assertEquals("Valve", found.get(4).getName());
+    }
+
     @Test
     public void testFindAssetsByTenantIdAndIdsAsync() throws ExecutionException, InterruptedException {
         UUID tenantId = UUIDs.timeBased();
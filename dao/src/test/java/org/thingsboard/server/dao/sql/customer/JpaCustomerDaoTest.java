@@ -21,12 +21,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.thingsboard.server.common.data.Customer;
 import org.thingsboard.server.common.data.id.CustomerId;
 import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.page.TextPageData;
 import org.thingsboard.server.common.data.page.TextPageLink;
 import org.thingsboard.server.dao.AbstractJpaDaoTest;
 import org.thingsboard.server.dao.customer.CustomerDao;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
@@ -59,6 +65,38 @@ public class JpaCustomerDaoTest extends AbstractJpaDaoTest {
         assertEquals(5, customers2.size());
     }
 
+    @Test
+    public void testFindByTenantIdOrderedBySearchText() {
+        UUID tenantId = UUIDs.timeBased();
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            indexes.add(i);
+            indexes.add(i);
+        }
+        Collections.shuffle(indexes, new Random(42));
+        Set<UUID> customerIds = new HashSet<>();
+        for (int index : indexes) {
+            customerIds.add(createCustomer(tenantId, String.format("CUSTOMER_%02d", index)));
+        }
+
+        List<Customer> found = new ArrayList<>();
+        TextPageLink pageLink = new TextPageLink(5, "customer");
+        TextPageData<Customer> pageData;
+        do {
+            pageData = new TextPageData<>(customerDao.findCustomersByTenantId(tenantId, pageLink), pageLink);
+            found.addAll(pageData.getData());
+            pageLink = pageData.getNextPageLink();
+        } while (pageData.hasNext());
+
+        assertEquals(24, found.size());
+        Set<UUID> foundIds = new HashSet<>();
+        for (int i = 0; i < found.size(); i++) {
+            assertEquals(String.format("CUSTOMER_%02d", i / 2), found.get(i).getTitle());
+            foundIds.add(found.get(i).getId().getId());
+        }
+        assertEquals(customerIds, foundIds);
+    }
+
     @Test
     public void testFindCustomersByTenantIdAndTitle() {
         UUID tenantId = UUIDs.timeBased();
@@ -73,10 +111,15 @@ public class JpaCustomerDaoTest extends AbstractJpaDaoTest {
     }
 
     private void createCustomer(UUID tenantId, int index) {
+        createCustomer(tenantId, "CUSTOMER_" + index);
+    }
+
+    private UUID createCustomer(UUID tenantId, String title) {
         Customer customer = new Customer();
         customer.setId(new CustomerId(UUIDs.timeBased()));
         customer.setTenantId(new TenantId(tenantId));
-        customer.setTitle("CUSTOMER_" + index);
+        customer.setTitle(title);
         customerDao.save(new TenantId(tenantId), customer);
+        return customer.getId().getId();
     }
 }
@@ -0,0 +1,67 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sql.device;
+
+import com.datastax.driver.core.utils.UUIDs;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.id.CustomerId;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.page.TextPageLink;
+import org.thingsboard.server.dao.AbstractJpaDaoTest;
+import org.thingsboard.server.dao.device.DeviceDao;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+@TestPropertySource(properties = "sql.text_search.substring=true")
+public class JpaDeviceDaoSubstringSearchTest extends AbstractJpaDaoTest {
+
+    @Autowired
+    private DeviceDao deviceDao;
+
+    @Test
+    public void testFindDevicesBySubstring() {
+        UUID tenantId = UUIDs.timeBased();
+        UUID customerId = UUIDs.timeBased();
+        for (String name : new String[]{"North Pump", "South Pump", "North Valve"}) {
+            Device device = new Device();
+            device.setId(new DeviceId(UUIDs.timeBased()));
+            device.setTenantId(new TenantId(tenantId));
+            device.setCustomerId(new CustomerId(customerId));
+            device.setName(name);
+            deviceDao.save(new TenantId(tenantId), device);
+        }
+
+        List<Device> devices = deviceDao.findDevicesByTenantId(tenantId, new TextPageLink(10, "pump"));
+        assertEquals(2, devices.size());
+        assertEquals("North Pump", devices.get(0).getName());
+        assertEquals("South Pump", devices.get(1).getName());
+
+        devices = deviceDao.findDevicesByTenantIdAndCustomerId(tenantId, customerId, new TextPageLink(1, "pump"));
+        assertEquals(1, devices.size());
+        Device offset = devices.get(0);
+        devices = deviceDao.findDevicesByTenantIdAndCustomerId(tenantId, customerId,
+                new TextPageLink(1, "pump", offset.getId().getId(), offset.getName()));
+        assertEquals(1, devices.size());
+        assertEquals("South Pump", devices.get(0).getName());
+    }
+}
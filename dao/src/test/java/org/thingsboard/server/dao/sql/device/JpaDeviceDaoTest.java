@@ -25,12 +25,15 @@ import org.thingsboard.server.common.data.Device;
 import org.thingsboard.server.common.data.id.CustomerId;
 import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.page.TextPageData;
 import org.thingsboard.server.common.data.page.TextPageLink;
 import org.thingsboard.server.dao.AbstractJpaDaoTest;
 import org.thingsboard.server.dao.device.DeviceDao;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
@@ -63,6 +66,57 @@ public class JpaDeviceDaoTest extends AbstractJpaDaoTest {
         assertEquals(5, devices2.size());
     }
 
+    @Test
+    public void testFindDevicesByTenantIdOrderedBySearchText() {
+        UUID tenantId = UUIDs.timeBased();
+        UUID customerId = UUIDs.timeBased();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            names.add(String.format("device%02d", i));
+        }
+        List<String> shuffled = new ArrayList<>(names);
+        Collections.shuffle(shuffled, new Random(42));
+        for (String name : shuffled) {
+            Device device = getDevice(tenantId, customerId);
+            device.setName(name);
+            deviceDao.save(new TenantId(tenantId), device);
+        }
+
+        List<String> found = new ArrayList<>();
+        TextPageLink pageLink = new TextPageLink(7, "DEVICE");
+        TextPageData<Device> pageData;
+        do {
+            pageData = new TextPageData<>(deviceDao.findDevicesByTenantId(tenantId, pageLink), pageLink);
+            pageData.getData().forEach(device -> found.add(device.getName()));
+            pageLink = pageData.getNextPageLink();
+        } while (pageData.hasNext());
+        assertEquals(names, found);
+
+        Device offset = deviceDao.findDeviceByTenantIdAndName(tenantId, "device12").get();
+        pageLink = new TextPageLink(7, "device1", offset.getId().getId(), offset.getName());
+        List<Device> devices = deviceDao.findDevicesByTenantIdAndCustomerId(tenantId, customerId, pageLink);
+        assertEquals(7, devices.size());
+        assertEquals("device13", devices.get(0).getName());
+        assertEquals("device19", devices.get(6).getName());
+    }
+
+    @Test
+    public void testFindDevicesByPrefix() {
+        UUID tenantId = UUIDs.timeBased();
+        UUID customerId = UUIDs.timeBased();
+        for (String name : new String[]{"North Pump", "South Pump", "North Valve"}) {
+            Device device = getDevice(tenantId, customerId);
+            device.setName(name);
+            deviceDao.save(new TenantId(tenantId), device);
+        }
+
+        assertEquals(0, deviceDao.findDevicesByTenantId(tenantId, new TextPageLink(10, "pump")).size());
+        List<Device> devices = deviceDao.findDevicesByTenantId(tenantId, new TextPageLink(10, "north"));
+        assertEquals(2, devices.size());
+        assertEquals("North Pump", devices.get(0).getName());
+        assertEquals("North Valve", devices.get(1).getName());
+    }
+
     @Test
     public void testFindAsync() throws ExecutionException, InterruptedException {
         UUID tenantId = UUIDs.timeBased();
@@ -0,0 +1,114 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sql.entityview;
+
+import com.datastax.driver.core.utils.UUIDs;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.thingsboard.server.common.data.EntityView;
+import org.thingsboard.server.common.data.id.CustomerId;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityViewId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.page.TextPageData;
+import org.thingsboard.server.common.data.page.TextPageLink;
+import org.thingsboard.server.dao.AbstractJpaDaoTest;
+import org.thingsboard.server.dao.entityview.EntityViewDao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+
+public class JpaEntityViewDaoTest extends AbstractJpaDaoTest {
+
+    @Autowired
+    private EntityViewDao entityViewDao;
+
+    @Test
+    public void testFindEntityViewsByTenantIdOrderedBySearchText() {
+        UUID tenantId = UUIDs.timeBased();
+        UUID customerId = UUIDs.timeBased();
+        List<String> names = createEntityViews(tenantId, customerId, "TYPE_1", 30);
+        createEntityViews(UUIDs.timeBased(), customerId, "TYPE_1", 10);
+
+        assertEquals(names, findAll(new TextPageLink(7, "TYPE_1"),
+                pageLink -> entityViewDao.findEntityViewsByTenantId(tenantId, pageLink)));
+    }
+
+    @Test
+    public void testFindEntityViewsByTenantIdAndCustomerIdOrderedBySearchText() {
+        UUID tenantId = UUIDs.timeBased();
+        UUID customerId1 = UUIDs.timeBased();
+        UUID customerId2 = UUIDs.timeBased();
+        List<String> names = createEntityViews(tenantId, customerId1, "TYPE_1", 20);
+        createEntityViews(tenantId, customerId2, "TYPE_1", 10);
+
+        assertEquals(names, findAll(new TextPageLink(6, "type_1_view"),
+                pageLink -> entityViewDao.findEntityViewsByTenantIdAndCustomerId(tenantId, customerId1, pageLink)));
+    }
+
+    @Test
+    public void testFindEntityViewsByTypeOrderedBySearchText() {
+        UUID tenantId = UUIDs.timeBased();
+        UUID customerId = UUIDs.timeBased();
+        List<String> names = createEntityViews(tenantId, customerId, "TYPE_1", 20);
+        createEntityViews(tenantId, customerId, "TYPE_2", 10);
+
+        assertEquals(names, findAll(new TextPageLink(6, ""),
+                pageLink -> entityViewDao.findEntityViewsByTenantIdAndType(tenantId, "TYPE_1", pageLink)));
+        assertEquals(names, findAll(new TextPageLink(6, ""),
+                pageLink -> entityViewDao.findEntityViewsByTenantIdAndCustomerIdAndType(tenantId, customerId, "TYPE_1", pageLink)));
+
+        List<EntityView> page = entityViewDao.findEntityViewsByTenantIdAndType(tenantId, "TYPE_1", new TextPageLink(5, "TYPE_1_VIEW_1"));
+        assertEquals(5, page.size());
+        assertEquals("TYPE_1_VIEW_10", page.get(0).getName());
+    }
+
+    private List<String> findAll(TextPageLink pageLink, Function<TextPageLink, List<EntityView>> finder) {
+        List<String> found = new ArrayList<>();
+        TextPageData<EntityView> pageData;
+        do {
+            pageData = new TextPageData<>(finder.apply(pageLink), pageLink);
+            pageData.getData().forEach(entityView -> found.add(entityView.getName()));
+            pageLink = pageData.getNextPageLink();
+        } while (pageData.hasNext());
+        return found;
+    }
+
+    private List<String> createEntityViews(UUID tenantId, UUID customerId, String type, int count) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            names.add(String.format("%s_VIEW_%02d", type, i));
+        }
+        List<String> shuffled = new ArrayList<>(names);
+        Collections.shuffle(shuffled, new Random(42));
+        for (String name : shuffled) {
+            EntityView entityView = new EntityView(new EntityViewId(UUIDs.timeBased()));
+            entityView.setTenantId(new TenantId(tenantId));
+            entityView.setCustomerId(new CustomerId(customerId));
+            entityView.setEntityId(new DeviceId(UUIDs.timeBased()));
+            entityView.setType(type);
+            entityView.setName(name);
+            entityViewDao.save(new TenantId(tenantId), entityView);
+        }
+        return names;
+    }
+}
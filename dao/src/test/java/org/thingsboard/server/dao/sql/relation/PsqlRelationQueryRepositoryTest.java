@@ -0,0 +1,192 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sql.relation;
+
+import com.datastax.driver.core.utils.UUIDs;
+import com.google.common.util.concurrent.Futures;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.thingsboard.server.common.data.UUIDConverter;
+import org.thingsboard.server.common.data.id.AssetId;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.relation.EntitySearchDirection;
+import org.thingsboard.server.common.data.relation.RelationTypeGroup;
+import org.thingsboard.server.dao.relation.RelationGraphTraversal;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs the recursive relation query on PostgreSQL started in docker and compares the result with RelationGraphTraversal,
+ * which resolves the same queries on the other databases. Skipped if docker is not available.
+ */
+public class PsqlRelationQueryRepositoryTest {
+
+    private static final int MAX_LEVEL = 50;
+
+    private static PostgreSQLContainer<?> postgres;
+    private static NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final List<EntityRelation> relations = new ArrayList<>();
+
+    @BeforeClass
+    public static void startPostgres() {
+        postgres = new PostgreSQLContainer<>("postgres:11");
+        try {
+            postgres.start();
+        } catch (Exception e) {
+            Assume.assumeNoException("Docker is required to start PostgreSQL", e);
+        }
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        new ResourceDatabasePopulator(new ClassPathResource("sql/schema-entities.sql")).execute(dataSource);
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    @AfterClass
+    public static void stopPostgres() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @Before
+    public void before() {
+        jdbcTemplate.getJdbcOperations().execute("TRUNCATE relation");
+    }
+
+    @Test
+    public void testDiamondsWithCycles() throws Exception {
+        // A -> [B, C] -> D -> [E, A], D -> F -> D
+        EntityId a = new AssetId(UUIDs.timeBased());
+        EntityId b = new AssetId(UUIDs.timeBased());
+        EntityId c = new DeviceId(UUIDs.timeBased());
+        EntityId d = new AssetId(UUIDs.timeBased());
+        EntityId e = new DeviceId(UUIDs.timeBased());
+        EntityId f = new AssetId(UUIDs.timeBased());
+        save(a, b, RelationTypeGroup.COMMON);
+        save(a, c, RelationTypeGroup.COMMON);
+        save(b, d, RelationTypeGroup.COMMON);
+        save(c, d, RelationTypeGroup.COMMON);
+        save(d, e, RelationTypeGroup.COMMON);
+        save(d, a, RelationTypeGroup.COMMON);
+        save(d, f, RelationTypeGroup.COMMON);
+        save(f, d, RelationTypeGroup.COMMON);
+        save(e, f, RelationTypeGroup.ALARM);
+
+        assertEquals(8, findRelations(a, EntitySearchDirection.FROM, MAX_LEVEL, false).size());
+        assertEquals(3, findRelations(a, EntitySearchDirection.FROM, 3, true).size());
+        assertEquals(3, findRelations(d, EntitySearchDirection.TO, 1, true).size());
+        for (EntityId root : new EntityId[]{a, d, e}) {
+            assertSameAsTraversal(root, 6);
+        }
+    }
+
+    @Test
+    public void testRandomGraph() throws Exception {
+        Random random = new Random(42);
+        List<EntityId> entities = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            entities.add(i % 3 == 0 ? new DeviceId(UUIDs.timeBased()) : new AssetId(UUIDs.timeBased()));
+        }
+        for (int i = 0; i < 900; i++) {
+            EntityId from = entities.get(random.nextInt(entities.size()));
+            EntityId to = entities.get(random.nextInt(entities.size()));
+            save(from, to, i % 10 == 0 ? RelationTypeGroup.ALARM : RelationTypeGroup.COMMON);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertSameAsTraversal(entities.get(random.nextInt(entities.size())), 8);
+        }
+    }
+
+    private void assertSameAsTraversal(EntityId root, int levels) throws Exception {
+        for (EntitySearchDirection direction : EntitySearchDirection.values()) {
+            for (int maxLevel = 1; maxLevel <= levels; maxLevel++) {
+                for (boolean fetchLastLevelOnly : new boolean[]{false, true}) {
+                    assertEquals(traverse(root, direction, maxLevel, fetchLastLevelOnly),
+                            findRelations(root, direction, maxLevel, fetchLastLevelOnly));
+                }
+            }
+            assertEquals(traverse(root, direction, MAX_LEVEL, false), findRelations(root, direction, MAX_LEVEL, false));
+        }
+    }
+
+    private Set<String> findRelations(EntityId root, EntitySearchDirection direction, int maxLevel, boolean fetchLastLevelOnly) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("rootId", UUIDConverter.fromTimeUUID(root.getId()))
+                .addValue("rootType", root.getEntityType().name())
+                .addValue("typeGroup", RelationTypeGroup.COMMON.name())
+                .addValue("maxLevel", maxLevel);
+        List<String> found = jdbcTemplate.query(PsqlRelationQueryRepository.getQuery(direction, fetchLastLevelOnly), params,
+                (rs, rowNum) -> toKey(rs.getString("from_type"), rs.getString("from_id"), rs.getString("to_type"), rs.getString("to_id"),
+                        rs.getString("relation_type")));
+        Set<String> result = new HashSet<>(found);
+        assertEquals("Duplicate relations: " + found, found.size(), result.size());
+        return result;
+    }
+
+    private Set<String> traverse(EntityId root, EntitySearchDirection direction, int maxLevel, boolean fetchLastLevelOnly) throws Exception {
+        Set<EntityRelation> found = RelationGraphTraversal.traverse(root, direction, maxLevel, fetchLastLevelOnly,
+                entityIds -> Futures.immediateFuture(relations.stream()
+                        .filter(relation -> relation.getTypeGroup() == RelationTypeGroup.COMMON)
+                        .filter(relation -> entityIds.contains(direction == EntitySearchDirection.FROM ? relation.getFrom() : relation.getTo()))
+                        .collect(Collectors.toList()))).get();
+        return found.stream().map(PsqlRelationQueryRepositoryTest::toKey).collect(Collectors.toSet());
+    }
+
+    private void save(EntityId from, EntityId to, RelationTypeGroup typeGroup) {
+        EntityRelation relation = new EntityRelation(from, to, EntityRelation.CONTAINS_TYPE, typeGroup);
+        if (relations.contains(relation)) {
+            return;
+        }
+        relations.add(relation);
+        jdbcTemplate.update("INSERT INTO relation (from_id, from_type, to_id, to_type, relation_type_group, relation_type) " +
+                        "VALUES (:fromId, :fromType, :toId, :toType, :typeGroup, :type)",
+                new MapSqlParameterSource()
+                        .addValue("fromId", UUIDConverter.fromTimeUUID(from.getId()))
+                        .addValue("fromType", from.getEntityType().name())
+                        .addValue("toId", UUIDConverter.fromTimeUUID(to.getId()))
+                        .addValue("toType", to.getEntityType().name())
+                        .addValue("typeGroup", typeGroup.name())
+                        .addValue("type", relation.getType()));
+    }
+
+    private static String toKey(EntityRelation relation) {
+        return toKey(relation.getFrom().getEntityType().name(), UUIDConverter.fromTimeUUID(relation.getFrom().getId()),
+                relation.getTo().getEntityType().name(), UUIDConverter.fromTimeUUID(relation.getTo().getId()), relation.getType());
+    }
+
+    private static String toKey(String fromType, String fromId, String toType, String toId, String type) {
+        return fromType + ":" + fromId + " -" + type + "-> " + toType + ":" + toId;
+    }
+}
@@ -0,0 +1,254 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sqlts.psql;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.dao.sqlts.insert.psql.PsqlPartitioningRepository;
+import org.thingsboard.server.dao.timeseries.PsqlPartition;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PsqlTimeseriesRetentionServiceTest {
+
+    private static final long SYSTEM_TTL = TimeUnit.DAYS.toSeconds(90);
+    private static final int BATCH_SIZE = 10;
+
+    private PsqlPartitioningRepository repository;
+    private SimpleMeterRegistry meterRegistry;
+    private PsqlTimeseriesRetentionService service;
+
+    @Before
+    public void before() {
+        repository = mock(PsqlPartitioningRepository.class);
+        when(repository.runExclusively(anyLong(), any(Runnable.class))).thenAnswer(invocation -> {
+            ((Runnable) invocation.getArguments()[1]).run();
+            return true;
+        });
+        meterRegistry = new SimpleMeterRegistry();
+        service = new PsqlTimeseriesRetentionService();
+        ReflectionTestUtils.setField(service, "partitioningRepository", repository);
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "executionIntervalMs", TimeUnit.DAYS.toMillis(1));
+        ReflectionTestUtils.setField(service, "systemTtl", SYSTEM_TTL);
+        ReflectionTestUtils.setField(service, "deleteBatchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(service, "deleteRateLimit", 1000000.0);
+        ReflectionTestUtils.setField(service, "maxTrackedSeries", 1000);
+        ReflectionTestUtils.setField(service, "partitioning", "MONTHS");
+        service.init();
+    }
+
+    @After
+    public void after() {
+        service.destroy();
+    }
+
+    @Test
+    public void testExpiredPartitionsDropped() {
+        String current = LocalDateTime.now(ZoneOffset.UTC).format(DateTimeFormatter.ofPattern("yyyy_MM"));
+        Map<String, Boolean> partitions = new LinkedHashMap<>();
+        partitions.put("ts_kv_1999_12", false);
+        partitions.put("ts_kv_2000_01", true);
+        partitions.put("ts_kv_" + current, true);
+        partitions.put("ts_kv_indefinite", true);
+        partitions.put("ts_kv_latest", false);
+        when(repository.findPartitions()).thenReturn(partitions);
+
+        service.cleanUp();
+
+        ArgumentCaptor<PsqlPartition> detached = ArgumentCaptor.forClass(PsqlPartition.class);
+        verify(repository).detach(detached.capture());
+        assertEquals("2000_01", detached.getValue().getPartitionDate());
+        assertEquals(946684800000L, detached.getValue().getStart());
+        assertEquals(949363200000L, detached.getValue().getEnd());
+
+        ArgumentCaptor<PsqlPartition> dropped = ArgumentCaptor.forClass(PsqlPartition.class);
+        verify(repository, times(2)).drop(dropped.capture());
+        assertEquals("1999_12", dropped.getAllValues().get(0).getPartitionDate());
+        assertEquals("2000_01", dropped.getAllValues().get(1).getPartitionDate());
+        verify(repository, never()).deleteExpired(anyLong(), anyInt());
+    }
+
+    @Test
+    public void testFailedPartitionDropDoesNotStopCleanUp() {
+        Map<String, Boolean> partitions = new LinkedHashMap<>();
+        partitions.put("ts_kv_2000_01", true);
+        partitions.put("ts_kv_2000_02", true);
+        when(repository.findPartitions()).thenReturn(partitions);
+        doThrow(new RuntimeException("relation \"ts_kv_2000_01\" is not a partition of relation \"ts_kv\""))
+                .when(repository).detach(any(PsqlPartition.class));
+
+        service.cleanUp();
+
+        verify(repository, times(2)).detach(any(PsqlPartition.class));
+    }
+
+    @Test
+    public void testPartitionsNotDroppedWhenLockedByAnotherNode() {
+        when(repository.runExclusively(anyLong(), any(Runnable.class))).thenReturn(false);
+
+        service.cleanUp();
+
+        verify(repository, never()).findPartitions();
+        verify(repository, never()).drop(any(PsqlPartition.class));
+    }
+
+    @Test
+    public void testShortTtlDeletedInChunks() throws InterruptedException {
+        UUID entityId = UUID.randomUUID();
+        long since = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2);
+        when(repository.deleteExpired(eq(entityId), eq(1), eq(since), anyLong(), eq(BATCH_SIZE))).thenReturn(BATCH_SIZE, BATCH_SIZE, 3);
+
+        service.onSave(new DeviceId(entityId), 1, since, TimeUnit.HOURS.toSeconds(1));
+        service.cleanUp();
+
+        ArgumentCaptor<Long> expirationTs = ArgumentCaptor.forClass(Long.class);
+        verify(repository, times(3)).deleteExpired(eq(entityId), eq(1), eq(since), expirationTs.capture(), eq(BATCH_SIZE));
+        long expected = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+        assertTrue(Math.abs(expirationTs.getValue() - expected) < TimeUnit.MINUTES.toMillis(1));
+
+        Thread.sleep(10);
+        service.cleanUp();
+
+        // the next run starts from the previous expiration timestamp
+        verify(repository).deleteExpired(eq(entityId), eq(1), eq(expirationTs.getValue()), anyLong(), eq(BATCH_SIZE));
+    }
+
+    @Test
+    public void testSeriesNotTrackedOnceAllEntriesDeleted() {
+        UUID entityId = UUID.randomUUID();
+        long ts = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(3);
+        service.onSave(new DeviceId(entityId), 1, ts, TimeUnit.HOURS.toSeconds(1));
+
+        service.cleanUp();
+        service.cleanUp();
+
+        verify(repository).deleteExpired(eq(entityId), eq(1), eq(ts), anyLong(), eq(BATCH_SIZE));
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(service, "seriesTtls")).isEmpty());
+    }
+
+    @Test
+    public void testKeptSeriesNotTrackedAfterSystemRetention() {
+        DeviceId deviceId = new DeviceId(UUID.randomUUID());
+        long ts = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(SYSTEM_TTL) - TimeUnit.DAYS.toMillis(2);
+        service.onSave(deviceId, 1, ts, TimeUnit.HOURS.toSeconds(1));
+        service.onSave(deviceId, 1, ts + 1, 0);
+
+        service.cleanUp();
+
+        verify(repository, never()).deleteExpired(any(UUID.class), anyInt(), anyLong(), anyLong(), anyInt());
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(service, "seriesTtls")).isEmpty());
+    }
+
+    @Test(timeout = 10000)
+    public void testRateLimitNotChargedWithoutExpiredEntries() {
+        service.destroy();
+        ReflectionTestUtils.setField(service, "deleteRateLimit", 0.001);
+        service.init();
+        long ts = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2);
+        for (int i = 0; i < 3; i++) {
+            service.onSave(new DeviceId(UUID.randomUUID()), 1, ts, TimeUnit.HOURS.toSeconds(1));
+        }
+
+        service.cleanUp();
+
+        verify(repository, times(3)).deleteExpired(any(UUID.class), eq(1), eq(ts), anyLong(), eq(BATCH_SIZE));
+    }
+
+    @Test
+    public void testSeriesOverLimitNotTracked() {
+        ReflectionTestUtils.setField(service, "maxTrackedSeries", 1);
+        UUID entityId = UUID.randomUUID();
+        long ts = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2);
+        service.onSave(new DeviceId(entityId), 1, ts, TimeUnit.HOURS.toSeconds(1));
+        service.onSave(new DeviceId(entityId), 2, ts, TimeUnit.HOURS.toSeconds(1));
+        assertEquals(1.0, meterRegistry.counter("tb.sql.ts.ttl.untracked").count(), 0.0);
+
+        service.cleanUp();
+
+        verify(repository).deleteExpired(eq(entityId), eq(1), eq(ts), anyLong(), eq(BATCH_SIZE));
+        verify(repository, never()).deleteExpired(any(UUID.class), eq(2), anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void testMixedTtlOfEntityDeletesShortTtlSeriesOnly() {
+        UUID entityId = UUID.randomUUID();
+        DeviceId deviceId = new DeviceId(entityId);
+        long ts = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2);
+        long shortTtl = TimeUnit.HOURS.toSeconds(1);
+
+        service.onSave(deviceId, 1, ts, shortTtl);
+        service.onSave(deviceId, 2, ts, 0);
+        service.onSave(deviceId, 3, ts, shortTtl);
+        service.onSave(deviceId, 3, ts + 1, 0);
+        service.onSave(deviceId, 3, ts + 2, shortTtl);
+        service.onSave(deviceId, 1, ts - 1000, shortTtl * 2);
+
+        service.cleanUp();
+
+        ArgumentCaptor<Long> expirationTs = ArgumentCaptor.forClass(Long.class);
+        verify(repository).deleteExpired(eq(entityId), eq(1), eq(ts - 1000), expirationTs.capture(), eq(BATCH_SIZE));
+        long expected = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2);
+        assertTrue(Math.abs(expirationTs.getValue() - expected) < TimeUnit.MINUTES.toMillis(1));
+        verify(repository, never()).deleteExpired(any(UUID.class), eq(2), anyLong(), anyLong(), anyInt());
+        verify(repository, never()).deleteExpired(any(UUID.class), eq(3), anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void testSystemTtlNotTracked() {
+        UUID entityId = UUID.randomUUID();
+        long ts = System.currentTimeMillis();
+        service.onSave(new DeviceId(entityId), 1, ts, 0);
+        service.onSave(new DeviceId(UUID.randomUUID()), 1, ts, SYSTEM_TTL * 2);
+
+        service.cleanUp();
+
+        verify(repository, never()).deleteExpired(any(UUID.class), anyInt(), anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void testEntryOutOfSystemRetentionRejected() {
+        assertTrue(service.rejectExpired(System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(SYSTEM_TTL) - 1000));
+        assertFalse(service.rejectExpired(System.currentTimeMillis()));
+        assertEquals(1.0, meterRegistry.counter("tb.sql.ts.ttl.rejected").count(), 0.0);
+    }
+}
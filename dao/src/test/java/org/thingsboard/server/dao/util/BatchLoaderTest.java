@@ -0,0 +1,106 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.util;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BatchLoaderTest {
+
+    private ScheduledExecutorService scheduler;
+    private List<Set<Integer>> batches;
+
+    @Before
+    public void before() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        batches = new ArrayList<>();
+    }
+
+    @After
+    public void after() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testKeysMergedIntoSingleBatch() throws Exception {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(evenKeysLoader(), scheduler, 50, 100);
+        ListenableFuture<String> first = loader.load(2);
+        ListenableFuture<String> second = loader.load(3);
+        ListenableFuture<String> duplicate = loader.load(2);
+
+        assertEquals("v2", first.get(1, TimeUnit.SECONDS));
+        assertNull(second.get(1, TimeUnit.SECONDS));
+        assertEquals("v2", duplicate.get(1, TimeUnit.SECONDS));
+        assertEquals(1, batches.size());
+        assertEquals(new HashSet<>(Arrays.asList(2, 3)), batches.get(0));
+    }
+
+    @Test
+    public void testFullBatchSentWithoutWaiting() throws Exception {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(evenKeysLoader(), scheduler, 60000, 2);
+        loader.load(1);
+        ListenableFuture<String> last = loader.load(4);
+        assertTrue(last.isDone());
+        assertEquals("v4", last.get());
+
+        ListenableFuture<String> next = loader.load(6);
+        assertEquals(1, batches.size());
+        loader.load(7);
+        assertEquals("v6", next.get());
+        assertEquals(2, batches.size());
+    }
+
+    @Test
+    public void testBatchFailurePropagated() throws Exception {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> Futures.immediateFailedFuture(new IllegalStateException("db")),
+                scheduler, 1, 100);
+        try {
+            loader.load(1).get(1, TimeUnit.SECONDS);
+            fail("Batch failure should be propagated");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    private Function<Set<Integer>, ListenableFuture<Map<Integer, String>>> evenKeysLoader() {
+        return keys -> {
+            batches.add(new HashSet<>(keys));
+            return Futures.immediateFuture(keys.stream().filter(key -> key % 2 == 0)
+                    .collect(Collectors.toMap(Function.identity(), key -> "v" + key)));
+        };
+    }
+}
@@ -54,6 +54,8 @@ JsInvokeMessageProcessor.prototype.onJsInvokeMessage = function(message) {
             this.processCompileRequest(requestId, responseTopic, request.compileRequest);
         } else if (request.invokeRequest) {
             this.processInvokeRequest(requestId, responseTopic, request.invokeRequest);
+        } else if (request.invokeBatchRequest) {
+            this.processInvokeBatchRequest(requestId, responseTopic, request.invokeBatchRequest);
         } else if (request.releaseRequest) {
             this.processReleaseRequest(requestId, responseTopic, request.releaseRequest);
         } else {
@@ -104,12 +106,7 @@ JsInvokeMessageProcessor.prototype.processInvokeRequest = function(requestId, re
                     this.sendResponse(requestId, responseTopic, scriptId, null, invokeResponse);
                 },
                 (err) => {
-                    var errorCode;
-                    if (err.message.includes('Script execution timed out')) {
-                        errorCode = TIMEOUT_ERROR;
-                    } else {
-                        errorCode = RUNTIME_ERROR;
-                    }
+                    var errorCode = getInvokeErrorCode(err);
                     var invokeResponse = createInvokeResponse("", false, errorCode, err);
                     logger.debug('[%s] Sending failed invoke response, scriptId: [%s], errorCode: [%s]', requestId, scriptId, errorCode);
                     this.sendResponse(requestId, responseTopic, scriptId, null, invokeResponse);
@@ -124,6 +121,32 @@ JsInvokeMessageProcessor.prototype.processInvokeRequest = function(requestId, re
     );
 }
 
+JsInvokeMessageProcessor.prototype.processInvokeBatchRequest = function(requestId, responseTopic, batchRequest) {
+    var scriptId = getScriptId(batchRequest);
+    var invocations = batchRequest.invocations || [];
+    logger.debug('[%s] Processing invoke batch request, scriptId: [%s], invocations: [%s]', requestId, scriptId, invocations.length);
+    this.getOrCompileScript(scriptId, batchRequest.scriptBody).then(
+        (script) => {
+            Promise.all(invocations.map((invocation) =>
+                this.executor.executeScript(script, invocation.args || [], batchRequest.timeout).then(
+                    (result) => createInvokeResponse(result, true),
+                    (err) => createInvokeResponse("", false, getInvokeErrorCode(err), err)
+                )
+            )).then(
+                (responses) => {
+                    logger.debug('[%s] Sending invoke batch response, scriptId: [%s]', requestId, scriptId);
+                    this.sendResponse(requestId, responseTopic, scriptId, null, null, null, {responses: responses});
+                }
+            );
+        },
+        (err) => {
+            var invokeResponse = createInvokeResponse("", false, COMPILATION_ERROR, err);
+            logger.debug('[%s] Sending failed invoke batch response, scriptId: [%s], errorCode: [%s]', requestId, scriptId, COMPILATION_ERROR);
+            this.sendResponse(requestId, responseTopic, scriptId, null, null, null, {responses: invocations.map(() => invokeResponse)});
+        }
+    );
+}
+
 JsInvokeMessageProcessor.prototype.processReleaseRequest = function(requestId, responseTopic, releaseRequest) {
     var scriptId = getScriptId(releaseRequest);
     logger.debug('[%s] Processing release request, scriptId: [%s]', requestId, scriptId);
@@ -139,8 +162,8 @@ JsInvokeMessageProcessor.prototype.processReleaseRequest = function(requestId, r
     this.sendResponse(requestId, responseTopic, scriptId, null, null, releaseResponse);
 }
 
-JsInvokeMessageProcessor.prototype.sendResponse = function (requestId, responseTopic, scriptId, compileResponse, invokeResponse, releaseResponse) {
-    var remoteResponse = createRemoteResponse(requestId, compileResponse, invokeResponse, releaseResponse);
+JsInvokeMessageProcessor.prototype.sendResponse = function (requestId, responseTopic, scriptId, compileResponse, invokeResponse, releaseResponse, invokeBatchResponse) {
+    var remoteResponse = createRemoteResponse(requestId, compileResponse, invokeResponse, releaseResponse, invokeBatchResponse);
     var rawResponse = Buffer.from(JSON.stringify(remoteResponse), 'utf8');
     this.producer.send(
         {
@@ -195,14 +218,15 @@ JsInvokeMessageProcessor.prototype.cacheScript = function(scriptId, script) {
     this.scriptMap[scriptId] = script;
 }
 
-function createRemoteResponse(requestId, compileResponse, invokeResponse, releaseResponse) {
+function createRemoteResponse(requestId, compileResponse, invokeResponse, releaseResponse, invokeBatchResponse) {
     const requestIdBits = Utils.UUIDToBits(requestId);
     return {
             requestIdMSB: requestIdBits[0],
             requestIdLSB: requestIdBits[1],
             compileResponse: compileResponse,
             invokeResponse: invokeResponse,
-            releaseResponse: releaseResponse
+            releaseResponse: releaseResponse,
+            invokeBatchResponse: invokeBatchResponse
     };
 }
 
@@ -235,6 +259,14 @@ function createReleaseResponse(scriptId, success) {
     };
 }
 
+function getInvokeErrorCode(err) {
+    if (err.message.includes('Script execution timed out')) {
+        return TIMEOUT_ERROR;
+    } else {
+        return RUNTIME_ERROR;
+    }
+}
+
 function parseJsErrorDetails(err) {
     if (!err) {
         return '';
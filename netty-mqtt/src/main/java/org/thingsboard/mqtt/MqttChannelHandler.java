@@ -15,7 +15,6 @@
  */
 package org.thingsboard.mqtt;
 
-import com.google.common.collect.ImmutableSet;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
@@ -99,20 +98,18 @@ final class MqttChannelHandler extends SimpleChannelInboundHandler<MqttMessage>
 
     private void invokeHandlersForIncomingPublish(MqttPublishMessage message) {
         boolean handlerInvoked = false;
-        for (MqttSubscription subscription : ImmutableSet.copyOf(this.client.getSubscriptions().values())) {
-            if (subscription.matches(message.variableHeader().topicName())) {
-                if (subscription.isOnce() && subscription.isCalled()) {
-                    continue;
-                }
-                message.payload().markReaderIndex();
-                subscription.setCalled(true);
-                subscription.getHandler().onMessage(message.variableHeader().topicName(), message.payload());
-                if (subscription.isOnce()) {
-                    this.client.off(subscription.getTopic(), subscription.getHandler());
-                }
-                message.payload().resetReaderIndex();
-                handlerInvoked = true;
+        for (MqttSubscription subscription : this.client.getMatchingSubscriptions(message.variableHeader().topicName())) {
+            if (subscription.isOnce() && subscription.isCalled()) {
+                continue;
+            }
+            message.payload().markReaderIndex();
+            subscription.setCalled(true);
+            subscription.getHandler().onMessage(message.variableHeader().topicName(), message.payload());
+            if (subscription.isOnce()) {
+                this.client.off(subscription.getTopic(), subscription.getHandler());
             }
+            message.payload().resetReaderIndex();
+            handlerInvoked = true;
         }
         if (!handlerInvoked && client.getDefaultHandler() != null) {
             client.getDefaultHandler().onMessage(message.variableHeader().topicName(), message.payload());
@@ -164,9 +161,7 @@ final class MqttChannelHandler extends SimpleChannelInboundHandler<MqttMessage>
         }
         pendingSubscription.onSubackReceived();
         for (MqttPendingSubscription.MqttPendingHandler handler : pendingSubscription.getHandlers()) {
-            MqttSubscription subscription = new MqttSubscription(pendingSubscription.getTopic(), handler.getHandler(), handler.isOnce());
-            this.client.getSubscriptions().put(pendingSubscription.getTopic(), subscription);
-            this.client.getHandlerToSubscribtion().put(handler.getHandler(), subscription);
+            this.client.addSubscription(new MqttSubscription(pendingSubscription.getTopic(), handler.getHandler(), handler.isOnce()));
         }
         this.client.getPendingSubscribeTopics().remove(pendingSubscription.getTopic());
 
@@ -48,6 +48,7 @@ final class MqttClientImpl implements MqttClient {
     private final IntObjectHashMap<MqttPendingSubscription> pendingSubscriptions = new IntObjectHashMap<>();
     private final Set<String> pendingSubscribeTopics = new HashSet<>();
     private final HashMultimap<MqttHandler, MqttSubscription> handlerToSubscribtion = HashMultimap.create();
+    private final MqttTopicTrie<MqttSubscription> subscriptionTrie = new MqttTopicTrie<>();
     private final AtomicInteger nextMessageId = new AtomicInteger(1);
 
     private final MqttClientConfig clientConfig;
@@ -136,6 +137,7 @@ final class MqttClientImpl implements MqttClient {
                     pendingSubscriptions.clear();
                     serverSubscriptions.clear();
                     subscriptions.clear();
+                    subscriptionTrie.clear();
                     pendingServerUnsubscribes.clear();
                     qos2PendingIncomingPublishes.clear();
                     pendingPublishes.clear();
@@ -259,6 +261,7 @@ final class MqttClientImpl implements MqttClient {
         Promise<Void> future = new DefaultPromise<>(this.eventLoop.next());
         for (MqttSubscription subscription : this.handlerToSubscribtion.get(handler)) {
             this.subscriptions.remove(topic, subscription);
+            this.subscriptionTrie.remove(topic, subscription);
         }
         this.handlerToSubscribtion.removeAll(handler);
         this.checkSubscribtions(topic, future);
@@ -279,6 +282,7 @@ final class MqttClientImpl implements MqttClient {
         for (MqttSubscription subscription : subscriptions) {
             for (MqttSubscription handSub : this.handlerToSubscribtion.get(subscription.getHandler())) {
                 this.subscriptions.remove(topic, handSub);
+                this.subscriptionTrie.remove(topic, handSub);
             }
             this.handlerToSubscribtion.remove(subscription.getHandler(), subscription);
         }
@@ -420,9 +424,7 @@ final class MqttClientImpl implements MqttClient {
             }
         }
         if (this.serverSubscriptions.contains(topic)) {
-            MqttSubscription subscription = new MqttSubscription(topic, handler, once);
-            this.subscriptions.put(topic, subscription);
-            this.handlerToSubscribtion.put(handler, subscription);
+            this.addSubscription(new MqttSubscription(topic, handler, once));
             return this.channel.newSucceededFuture();
         }
 
@@ -469,6 +471,16 @@ final class MqttClientImpl implements MqttClient {
         return subscriptions;
     }
 
+    void addSubscription(MqttSubscription subscription) {
+        this.subscriptions.put(subscription.getTopic(), subscription);
+        this.handlerToSubscribtion.put(subscription.getHandler(), subscription);
+        this.subscriptionTrie.put(subscription.getTopic(), subscription);
+    }
+
+    List<MqttSubscription> getMatchingSubscriptions(String topic) {
+        return subscriptionTrie.match(topic);
+    }
+
     Set<String> getPendingSubscribeTopics() {
         return pendingSubscribeTopics;
     }
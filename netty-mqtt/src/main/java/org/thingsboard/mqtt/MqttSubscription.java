@@ -15,12 +15,9 @@
  */
 package org.thingsboard.mqtt;
 
-import java.util.regex.Pattern;
-
 final class MqttSubscription {
 
     private final String topic;
-    private final Pattern topicRegex;
     private final MqttHandler handler;
 
     private final boolean once;
@@ -37,7 +34,6 @@ final class MqttSubscription {
         this.topic = topic;
         this.handler = handler;
         this.once = once;
-        this.topicRegex = Pattern.compile(topic.replace("+", "[^/]+").replace("#", ".+") + "$");
     }
 
     String getTopic() {
@@ -56,10 +52,6 @@ final class MqttSubscription {
         return called;
     }
 
-    boolean matches(String topic){
-        return this.topicRegex.matcher(topic).matches();
-    }
-
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
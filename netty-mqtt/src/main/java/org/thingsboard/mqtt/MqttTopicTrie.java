@@ -0,0 +1,177 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.mqtt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Values subscribed to MQTT topic filters, stored in a trie of topic levels, so that the values
+ * of the filters matching a topic are found in time proportional to the topic depth
+ * instead of the number of filters.
+ * <p>
+ * '+' matches exactly one non-empty level, '#' matches the non-empty rest of the topic,
+ * so "a/#" matches "a/b" and "a/b/c" but neither "a" nor "a/".
+ * <p>
+ * Lookups are lock-free and may run concurrently with modifications, modifications are serialized.
+ */
+public final class MqttTopicTrie<T> {
+
+    private static final String SINGLE_LEVEL_WILDCARD = "+";
+    private static final String MULTI_LEVEL_WILDCARD = "#";
+
+    private final Node<T> root = new Node<>();
+
+    /**
+     * @return true if the value was not subscribed to this filter yet
+     */
+    public synchronized boolean put(String filter, T value) {
+        Node<T> node = root;
+        for (String level : split(filter)) {
+            node = node.children.computeIfAbsent(level, l -> new Node<>());
+        }
+        if (node.values.contains(value)) {
+            return false;
+        }
+        Set<T> values = new HashSet<>(node.values);
+        values.add(value);
+        node.values = values;
+        return true;
+    }
+
+    /**
+     * Replaces all values subscribed to this filter with the given one.
+     */
+    public synchronized void replace(String filter, T value) {
+        Node<T> node = root;
+        for (String level : split(filter)) {
+            node = node.children.computeIfAbsent(level, l -> new Node<>());
+        }
+        node.values = Collections.singleton(value);
+    }
+
+    /**
+     * @return true if the value was subscribed to this filter
+     */
+    public synchronized boolean remove(String filter, T value) {
+        return update(filter, values -> {
+            if (!values.contains(value)) {
+                return values;
+            }
+            Set<T> result = new HashSet<>(values);
+            result.remove(value);
+            return result;
+        });
+    }
+
+    /**
+     * @return true if any value was subscribed to this filter
+     */
+    public synchronized boolean removeAll(String filter) {
+        return update(filter, values -> Collections.emptySet());
+    }
+
+    public synchronized void clear() {
+        root.children.clear();
+        root.values = Collections.emptySet();
+    }
+
+    public boolean isEmpty() {
+        return root.isEmpty();
+    }
+
+    /**
+     * @return the values subscribed to the filters matching the topic, each value once per matching filter
+     */
+    public List<T> match(String topic) {
+        List<T> result = new ArrayList<>();
+        match(root, topic, 0, result);
+        return result;
+    }
+
+    private void match(Node<T> node, String topic, int start, List<T> result) {
+        if (start > topic.length()) {
+            result.addAll(node.values);
+            return;
+        }
+        if (node.children.isEmpty()) {
+            return;
+        }
+        int end = topic.indexOf('/', start);
+        if (end < 0) {
+            end = topic.length();
+        }
+        if (start < topic.length()) {
+            Node<T> multiLevel = node.children.get(MULTI_LEVEL_WILDCARD);
+            if (multiLevel != null) {
+                result.addAll(multiLevel.values);
+            }
+        }
+        if (end > start) {
+            Node<T> singleLevel = node.children.get(SINGLE_LEVEL_WILDCARD);
+            if (singleLevel != null) {
+                match(singleLevel, topic, end + 1, result);
+            }
+        }
+        String level = topic.substring(start, end);
+        if (!SINGLE_LEVEL_WILDCARD.equals(level) && !MULTI_LEVEL_WILDCARD.equals(level)) {
+            Node<T> child = node.children.get(level);
+            if (child != null) {
+                match(child, topic, end + 1, result);
+            }
+        }
+    }
+
+    private boolean update(String filter, Function<Set<T>, Set<T>> function) {
+        String[] levels = split(filter);
+        List<Node<T>> path = new ArrayList<>(levels.length + 1);
+        Node<T> node = root;
+        path.add(node);
+        for (String level : levels) {
+            node = node.children.get(level);
+            if (node == null) {
+                return false;
+            }
+            path.add(node);
+        }
+        Set<T> values = node.values;
+        node.values = function.apply(values);
+        for (int i = levels.length; i > 0 && path.get(i).isEmpty(); i--) {
+            path.get(i - 1).children.remove(levels[i - 1], path.get(i));
+        }
+        return values.size() != node.values.size();
+    }
+
+    private static String[] split(String filter) {
+        return filter.split("/", -1);
+    }
+
+    private static final class Node<T> {
+
+        private final ConcurrentMap<String, Node<T>> children = new ConcurrentHashMap<>();
+        private volatile Set<T> values = Collections.emptySet();
+
+        private boolean isEmpty() {
+            return values.isEmpty() && children.isEmpty();
+        }
+    }
+}
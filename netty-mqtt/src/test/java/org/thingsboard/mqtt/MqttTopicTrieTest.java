@@ -0,0 +1,196 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.mqtt;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MqttTopicTrieTest {
+
+    private static final String[] LEVELS = {"a", "b", "c", "v1", ""};
+    private static final int ITERATIONS = 200;
+    private static final int FILTERS = 50;
+    private static final int TOPICS = 200;
+
+    @Test
+    public void testWildcards() {
+        MqttTopicTrie<String> trie = new MqttTopicTrie<>();
+        trie.put("v1/devices/me/attributes", "exact");
+        trie.put("v1/devices/me/attributes/response/+", "single");
+        trie.put("v1/devices/me/rpc/request/+", "rpc");
+        trie.put("v1/devices/#", "multi");
+
+        assertEquals(sorted("exact", "multi"), sorted(trie.match("v1/devices/me/attributes")));
+        assertEquals(sorted("single", "multi"), sorted(trie.match("v1/devices/me/attributes/response/1")));
+        assertEquals(sorted("multi"), sorted(trie.match("v1/devices/me/attributes/response/")));
+        assertEquals(sorted("multi"), sorted(trie.match("v1/devices/me/rpc/request/1/2")));
+        assertTrue(trie.match("v1/devices").isEmpty());
+        assertTrue(trie.match("v1/devices/").isEmpty());
+        assertTrue(trie.match("v2/devices/me").isEmpty());
+    }
+
+    @Test
+    public void testRemove() {
+        MqttTopicTrie<String> trie = new MqttTopicTrie<>();
+        assertTrue(trie.put("a/+/c", "1"));
+        assertFalse(trie.put("a/+/c", "1"));
+        assertTrue(trie.put("a/+/c", "2"));
+        assertTrue(trie.put("a/#", "3"));
+
+        assertTrue(trie.remove("a/+/c", "1"));
+        assertFalse(trie.remove("a/+/c", "1"));
+        assertFalse(trie.remove("a/b/c", "2"));
+        assertEquals(sorted("2", "3"), sorted(trie.match("a/b/c")));
+
+        trie.replace("a/+/c", "4");
+        assertEquals(sorted("3", "4"), sorted(trie.match("a/b/c")));
+
+        assertTrue(trie.removeAll("a/+/c"));
+        assertTrue(trie.remove("a/#", "3"));
+        assertTrue(trie.isEmpty());
+    }
+
+    @Test
+    public void testMatchesAsRegex() {
+        Random random = new Random(42);
+        for (int i = 0; i < ITERATIONS; i++) {
+            MqttTopicTrie<Integer> trie = new MqttTopicTrie<>();
+            List<String> filters = new ArrayList<>();
+            for (int j = 0; j < FILTERS; j++) {
+                String filter = randomFilter(random);
+                filters.add(filter);
+                trie.put(filter, j);
+            }
+            for (int j = 0; j < FILTERS / 5; j++) {
+                int removed = random.nextInt(FILTERS);
+                if (filters.get(removed) != null) {
+                    assertTrue(trie.remove(filters.get(removed), removed));
+                    filters.set(removed, null);
+                }
+            }
+            for (int j = 0; j < TOPICS; j++) {
+                String topic = randomTopic(random);
+                List<Integer> expected = new ArrayList<>();
+                for (int k = 0; k < filters.size(); k++) {
+                    if (filters.get(k) != null && regexMatches(filters.get(k), topic)) {
+                        expected.add(k);
+                    }
+                }
+                List<Integer> actual = trie.match(topic);
+                Collections.sort(actual);
+                assertEquals("Topic: " + topic + ", filters: " + filters, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentModification() throws Exception {
+        MqttTopicTrie<Integer> trie = new MqttTopicTrie<>();
+        trie.put("a/+/c", -1);
+        CountDownLatch stop = new CountDownLatch(1);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        List<Thread> writers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Random random = new Random(i);
+            Thread writer = new Thread(() -> {
+                try {
+                    while (stop.getCount() > 0) {
+                        String filter = randomFilter(random);
+                        int value = random.nextInt(10);
+                        trie.put(filter, value);
+                        trie.remove(filter, value);
+                    }
+                } catch (Throwable e) {
+                    error.set(e);
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        try {
+            for (int i = 0; i < 100000; i++) {
+                assertTrue(trie.match("a/b/c").contains(-1));
+            }
+        } finally {
+            stop.countDown();
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        }
+        assertNull(error.get());
+        trie.remove("a/+/c", -1);
+        assertTrue(trie.isEmpty());
+    }
+
+    private static String randomFilter(Random random) {
+        int depth = 1 + random.nextInt(4);
+        StringBuilder filter = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            if (i > 0) {
+                filter.append('/');
+            }
+            if (i == depth - 1 && random.nextInt(4) == 0) {
+                filter.append('#');
+            } else if (random.nextInt(3) == 0) {
+                filter.append('+');
+            } else {
+                filter.append(LEVELS[random.nextInt(LEVELS.length)]);
+            }
+        }
+        return filter.toString();
+    }
+
+    private static String randomTopic(Random random) {
+        int depth = 1 + random.nextInt(5);
+        StringBuilder topic = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            if (i > 0) {
+                topic.append('/');
+            }
+            topic.append(LEVELS[random.nextInt(LEVELS.length)]);
+        }
+        return topic.toString();
+    }
+
+    // the matcher used before the trie
+    private static boolean regexMatches(String filter, String topic) {
+        return Pattern.compile(filter.replace("+", "[^/]+").replace("#", ".+") + "$").matcher(topic).matches();
+    }
+
+    private static List<String> sorted(String... values) {
+        List<String> result = new ArrayList<>();
+        Collections.addAll(result, values);
+        return sorted(result);
+    }
+
+    private static List<String> sorted(List<String> values) {
+        List<String> result = new ArrayList<>(values);
+        Collections.sort(result);
+        return result;
+    }
+}
@@ -0,0 +1,454 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.rest.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsAsyncClientHttpRequestFactory;
+import org.springframework.util.StringUtils;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.web.client.AsyncRestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.thingsboard.rest.client.utils.RestJsonConverter;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+import org.thingsboard.server.common.data.page.TextPageData;
+import org.thingsboard.server.common.data.page.TextPageLink;
+import org.thingsboard.server.common.data.security.DeviceCredentials;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking counterpart of the {@link RestClient} for the scripts that provision or read many entities.
+ * <p>
+ * Requests share a pool of keep-alive connections and return {@link CompletableFuture}s.
+ * At most {@link AsyncRestClientConfig#getMaxInFlightRequests()} requests are sent at a time, the rest wait in a queue,
+ * so the bulk methods submit all their requests at once and the server receives them back-to-back.
+ * Requests rejected with 429 or 503 are retried with exponential backoff, the expired token is refreshed once per request.
+ * <p>
+ * The futures are completed on the I/O threads of the HTTP client: do not block in their callbacks.
+ * Endpoints without a dedicated method are available via {@link #exchange}.
+ */
+@Slf4j
+public class AsyncRestClient implements Closeable {
+
+    private static final String JWT_TOKEN_HEADER_PARAM = "X-Authorization";
+    private static final int TOO_MANY_REQUESTS = HttpStatus.TOO_MANY_REQUESTS.value();
+    private static final int SERVICE_UNAVAILABLE = HttpStatus.SERVICE_UNAVAILABLE.value();
+
+    private final String baseURL;
+    private final AsyncRestClientConfig config;
+    private final HttpComponentsAsyncClientHttpRequestFactory requestFactory;
+    private final AsyncRestTemplate restTemplate;
+    private final Semaphore inFlightPermits;
+    private final Queue<PendingRequest> pendingRequests = new ConcurrentLinkedQueue<>();
+    // results of the requests waiting for a retry, these requests keep their in flight permits
+    private final Set<CompletableFuture<?>> retryingRequests = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService retryScheduler;
+
+    private volatile String token;
+    private volatile String refreshToken;
+    private CompletableFuture<Void> tokenRefreshFuture;
+    private volatile boolean closed;
+
+    public AsyncRestClient(String baseURL) {
+        this(baseURL, new AsyncRestClientConfig());
+    }
+
+    public AsyncRestClient(String baseURL, AsyncRestClientConfig config) {
+        this.baseURL = baseURL;
+        this.config = config;
+        CloseableHttpAsyncClient httpClient = HttpAsyncClients.custom()
+                .setMaxConnTotal(config.getMaxConnections())
+                .setMaxConnPerRoute(config.getMaxConnections())
+                .build();
+        this.requestFactory = new HttpComponentsAsyncClientHttpRequestFactory(httpClient);
+        requestFactory.setConnectTimeout(config.getConnectTimeoutMs());
+        requestFactory.setReadTimeout(config.getReadTimeoutMs());
+        this.restTemplate = new AsyncRestTemplate(requestFactory);
+        this.inFlightPermits = new Semaphore(config.getMaxInFlightRequests());
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "async-rest-client-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public CompletableFuture<Void> login(String username, String password) {
+        Map<String, String> loginRequest = new HashMap<>();
+        loginRequest.put("username", username);
+        loginRequest.put("password", password);
+        return restTemplate.postForEntity(baseURL + "/api/auth/login", new HttpEntity<>(loginRequest), JsonNode.class)
+                .completable()
+                .thenAccept(tokenInfo -> setTokenInfo(tokenInfo.getBody()));
+    }
+
+    public CompletableFuture<Void> refreshToken() {
+        Map<String, String> refreshTokenRequest = new HashMap<>();
+        refreshTokenRequest.put("refreshToken", refreshToken);
+        return restTemplate.postForEntity(baseURL + "/api/auth/token", new HttpEntity<>(refreshTokenRequest), JsonNode.class)
+                .completable()
+                .thenAccept(tokenInfo -> setTokenInfo(tokenInfo.getBody()));
+    }
+
+    private void setTokenInfo(JsonNode tokenInfo) {
+        this.token = tokenInfo.get("token").asText();
+        this.refreshToken = tokenInfo.get("refreshToken").asText();
+    }
+
+    public CompletableFuture<Optional<Device>> getDeviceById(DeviceId deviceId) {
+        return toOptional(exchange("/api/device/{deviceId}", HttpMethod.GET, null, Device.class, deviceId.getId()));
+    }
+
+    public CompletableFuture<Optional<Device>> getTenantDevice(String deviceName) {
+        return toOptional(exchange("/api/tenant/devices?deviceName={deviceName}", HttpMethod.GET, null, Device.class, deviceName));
+    }
+
+    public CompletableFuture<TextPageData<Device>> getTenantDevices(String type, TextPageLink pageLink) {
+        Map<String, String> params = new HashMap<>();
+        params.put("type", type);
+        params.put("limit", String.valueOf(pageLink.getLimit()));
+        String path = "/api/tenant/devices?type={type}&limit={limit}";
+        if (!StringUtils.isEmpty(pageLink.getTextSearch())) {
+            params.put("textSearch", pageLink.getTextSearch());
+            path += "&textSearch={textSearch}";
+        }
+        if (pageLink.getIdOffset() != null) {
+            params.put("idOffset", pageLink.getIdOffset().toString());
+            path += "&idOffset={idOffset}";
+        }
+        if (!StringUtils.isEmpty(pageLink.getTextOffset())) {
+            params.put("textOffset", pageLink.getTextOffset());
+            path += "&textOffset={textOffset}";
+        }
+        String url = baseURL + path;
+        return toBody(submit(null, entity -> restTemplate.exchange(url, HttpMethod.GET, entity,
+                new ParameterizedTypeReference<TextPageData<Device>>() {
+                }, params)));
+    }
+
+    public CompletableFuture<Device> saveDevice(Device device) {
+        return toBody(exchange("/api/device", HttpMethod.POST, device, Device.class));
+    }
+
+    public CompletableFuture<Optional<DeviceCredentials>> getDeviceCredentialsByDeviceId(DeviceId deviceId) {
+        return toOptional(exchange("/api/device/{deviceId}/credentials", HttpMethod.GET, null, DeviceCredentials.class, deviceId.getId()));
+    }
+
+    public CompletableFuture<Boolean> saveEntityAttributesV2(EntityId entityId, String scope, JsonNode request) {
+        return isSuccessful(exchange("/api/plugins/telemetry/{entityType}/{entityId}/attributes/{scope}", HttpMethod.POST, request, Object.class,
+                entityId.getEntityType().name(), entityId.getId().toString(), scope));
+    }
+
+    public CompletableFuture<Boolean> saveEntityTelemetry(EntityId entityId, String scope, JsonNode request) {
+        return isSuccessful(exchange("/api/plugins/telemetry/{entityType}/{entityId}/timeseries/{scope}", HttpMethod.POST, request, Object.class,
+                entityId.getEntityType().name(), entityId.getId().toString(), scope));
+    }
+
+    public CompletableFuture<Boolean> saveEntityTelemetryWithTTL(EntityId entityId, String scope, Long ttl, JsonNode request) {
+        return isSuccessful(exchange("/api/plugins/telemetry/{entityType}/{entityId}/timeseries/{scope}/{ttl}", HttpMethod.POST, request, Object.class,
+                entityId.getEntityType().name(), entityId.getId().toString(), scope, ttl));
+    }
+
+    public CompletableFuture<List<TsKvEntry>> getLatestTimeseries(EntityId entityId, List<String> keys) {
+        return toBody(exchange("/api/plugins/telemetry/{entityType}/{entityId}/values/timeseries?keys={keys}&useStrictDataTypes={useStrictDataTypes}",
+                HttpMethod.GET, null, new ParameterizedTypeReference<Map<String, List<JsonNode>>>() {
+                }, entityId.getEntityType().name(), entityId.getId().toString(), String.join(",", keys), true))
+                .thenApply(RestJsonConverter::toTimeseries);
+    }
+
+    /**
+     * Saves the devices in parallel.
+     *
+     * @return the saved devices in the order of the given ones, fails if any of the devices is not saved
+     */
+    public CompletableFuture<List<Device>> saveDevices(Collection<Device> devices) {
+        List<CompletableFuture<Device>> futures = devices.stream().map(this::saveDevice).collect(Collectors.toList());
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(v -> futures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+
+    /**
+     * Saves the attributes of every entity in parallel, fails if any of the requests fails.
+     */
+    public CompletableFuture<Void> saveEntitiesAttributes(String scope, Map<? extends EntityId, JsonNode> attributes) {
+        return allOf(attributes, (entityId, request) -> saveEntityAttributesV2(entityId, scope, request));
+    }
+
+    /**
+     * Saves the telemetry of every entity in parallel, fails if any of the requests fails.
+     */
+    public CompletableFuture<Void> saveEntitiesTelemetry(String scope, Map<? extends EntityId, JsonNode> telemetry) {
+        return allOf(telemetry, (entityId, request) -> saveEntityTelemetry(entityId, scope, request));
+    }
+
+    private <K extends EntityId> CompletableFuture<Void> allOf(Map<K, JsonNode> requests,
+                                                               BiFunction<K, JsonNode, CompletableFuture<Boolean>> function) {
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>(requests.size());
+        requests.forEach((entityId, request) -> futures.add(function.apply(entityId, request)));
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Sends the request to the path relative to the base URL, with the same queueing, retries and authorization as the other methods.
+     */
+    public <T> CompletableFuture<ResponseEntity<T>> exchange(String path, HttpMethod method, Object body, Class<T> responseType, Object... uriVariables) {
+        String url = baseURL + path;
+        return submit(body, entity -> restTemplate.exchange(url, method, entity, responseType, uriVariables));
+    }
+
+    public <T> CompletableFuture<ResponseEntity<T>> exchange(String path, HttpMethod method, Object body, ParameterizedTypeReference<T> responseType, Object... uriVariables) {
+        String url = baseURL + path;
+        return submit(body, entity -> restTemplate.exchange(url, method, entity, responseType, uriVariables));
+    }
+
+    private <T> CompletableFuture<ResponseEntity<T>> submit(Object body, Function<HttpEntity<?>, ListenableFuture<ResponseEntity<T>>> request) {
+        CompletableFuture<ResponseEntity<T>> result = new CompletableFuture<>();
+        if (closed) {
+            result.completeExceptionally(new IllegalStateException("Client is closed!"));
+            return result;
+        }
+        pendingRequests.add(new PendingRequest(result, () -> execute(body, request, result, 0, false)));
+        if (closed) {
+            failPendingRequests();
+        } else {
+            dispatch();
+        }
+        return result;
+    }
+
+    private void dispatch() {
+        while (!pendingRequests.isEmpty() && inFlightPermits.tryAcquire()) {
+            PendingRequest request = pendingRequests.poll();
+            if (request != null) {
+                request.execute.run();
+            } else {
+                inFlightPermits.release();
+            }
+        }
+    }
+
+    /**
+     * Fails the requests that are not sent yet, they do not hold the in flight permits.
+     */
+    private void failPendingRequests() {
+        PendingRequest request;
+        while ((request = pendingRequests.poll()) != null) {
+            request.result.completeExceptionally(new IllegalStateException("Client is closed!"));
+        }
+    }
+
+    private <T> void execute(Object body, Function<HttpEntity<?>, ListenableFuture<ResponseEntity<T>>> request,
+                             CompletableFuture<ResponseEntity<T>> result, int attempt, boolean tokenRefreshed) {
+        if (closed) {
+            finish(result, null, new IllegalStateException("Client is closed!"));
+            return;
+        }
+        if (result.isDone()) {
+            finish(result, null, null);
+            return;
+        }
+        String requestToken = token;
+        HttpHeaders headers = new HttpHeaders();
+        if (requestToken != null) {
+            headers.set(JWT_TOKEN_HEADER_PARAM, "Bearer " + requestToken);
+        }
+        ListenableFuture<ResponseEntity<T>> future;
+        try {
+            future = request.apply(new HttpEntity<>(body, headers));
+        } catch (Exception e) {
+            finish(result, null, e);
+            return;
+        }
+        future.addCallback(response -> finish(result, response, null), e -> {
+            if (e instanceof HttpStatusCodeException) {
+                HttpStatusCodeException statusException = (HttpStatusCodeException) e;
+                int status = statusException.getRawStatusCode();
+                if ((status == TOO_MANY_REQUESTS || status == SERVICE_UNAVAILABLE) && attempt < config.getMaxRetries()) {
+                    long delayMs = getRetryDelayMs(statusException, attempt);
+                    log.debug("Request rejected with status {}, retry #{} in {} ms", status, attempt + 1, delayMs);
+                    retryingRequests.add(result);
+                    try {
+                        retryScheduler.schedule(() -> {
+                            if (retryingRequests.remove(result)) {
+                                execute(body, request, result, attempt + 1, tokenRefreshed);
+                            }
+                        }, delayMs, TimeUnit.MILLISECONDS);
+                    } catch (RejectedExecutionException ree) {
+                        if (retryingRequests.remove(result)) {
+                            finish(result, null, e);
+                        }
+                    }
+                    return;
+                }
+                if (status == HttpStatus.UNAUTHORIZED.value() && requestToken != null && !tokenRefreshed) {
+                    refreshToken(requestToken).whenComplete((v, refreshError) -> {
+                        if (refreshError != null) {
+                            finish(result, null, e);
+                        } else {
+                            execute(body, request, result, attempt, true);
+                        }
+                    });
+                    return;
+                }
+            }
+            finish(result, null, e);
+        });
+    }
+
+    private <T> void finish(CompletableFuture<T> result, T value, Throwable error) {
+        inFlightPermits.release();
+        if (!closed) {
+            dispatch();
+        }
+        if (error != null) {
+            result.completeExceptionally(error);
+        } else {
+            result.complete(value);
+        }
+    }
+
+    private long getRetryDelayMs(HttpStatusCodeException e, int attempt) {
+        HttpHeaders headers = e.getResponseHeaders();
+        String retryAfter = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (retryAfter != null) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException ignored) {
+                // HTTP-date is not supported, fall back to the backoff
+            }
+        }
+        long delayMs = Math.min(config.getRetryMaxDelayMs(), config.getRetryInitialDelayMs() << Math.min(attempt, 30));
+        return delayMs / 2 + ThreadLocalRandom.current().nextLong(delayMs / 2 + 1);
+    }
+
+    /**
+     * Refreshes the token once for all the requests rejected with it.
+     */
+    private synchronized CompletableFuture<Void> refreshToken(String expiredToken) {
+        if (!expiredToken.equals(token)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> future = tokenRefreshFuture;
+        if (future == null) {
+            future = refreshToken();
+            tokenRefreshFuture = future;
+            future.whenComplete((v, e) -> {
+                synchronized (this) {
+                    tokenRefreshFuture = null;
+                }
+            });
+        }
+        return future;
+    }
+
+    private static <T> CompletableFuture<T> toBody(CompletableFuture<ResponseEntity<T>> future) {
+        return future.thenApply(ResponseEntity::getBody);
+    }
+
+    private static CompletableFuture<Boolean> isSuccessful(CompletableFuture<? extends ResponseEntity<?>> future) {
+        return future.thenApply(response -> response.getStatusCode().is2xxSuccessful());
+    }
+
+    private static <T> CompletableFuture<Optional<T>> toOptional(CompletableFuture<ResponseEntity<T>> future) {
+        CompletableFuture<Optional<T>> result = new CompletableFuture<>();
+        future.whenComplete((response, e) -> {
+            if (e == null) {
+                result.complete(Optional.ofNullable(response.getBody()));
+            } else if (e instanceof HttpClientErrorException && ((HttpClientErrorException) e).getStatusCode() == HttpStatus.NOT_FOUND) {
+                result.complete(Optional.empty());
+            } else {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Fails the queued and the scheduled for retry requests and closes the connections.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        retryScheduler.shutdownNow();
+        for (CompletableFuture<?> result : retryingRequests) {
+            // the retry task may be running right now, the one that removes the result completes it
+            if (retryingRequests.remove(result)) {
+                finish(result, null, new IllegalStateException("Client is closed!"));
+            }
+        }
+        failPendingRequests();
+        try {
+            requestFactory.destroy();
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static class PendingRequest {
+
+        private final CompletableFuture<?> result;
+        private final Runnable execute;
+
+        private PendingRequest(CompletableFuture<?> result, Runnable execute) {
+            this.result = result;
+            this.execute = execute;
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.rest.client;
+
+import lombok.Data;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings of the {@link AsyncRestClient}.
+ */
+@Data
+public class AsyncRestClientConfig {
+
+    /**
+     * Maximum number of pooled connections to the server.
+     */
+    private int maxConnections = 64;
+    /**
+     * Maximum number of requests sent and not answered yet, the rest are queued.
+     */
+    private int maxInFlightRequests = 64;
+    private int connectTimeoutMs = (int) TimeUnit.SECONDS.toMillis(10);
+    private int readTimeoutMs = (int) TimeUnit.SECONDS.toMillis(30);
+    /**
+     * Maximum number of retries of the request rejected with 429 Too Many Requests or 503 Service Unavailable.
+     */
+    private int maxRetries = 5;
+    /**
+     * Delay before the first retry, doubled with every next retry up to {@link #retryMaxDelayMs}.
+     * The Retry-After header of the response takes precedence.
+     */
+    private long retryInitialDelayMs = 200;
+    private long retryMaxDelayMs = TimeUnit.SECONDS.toMillis(10);
+
+}
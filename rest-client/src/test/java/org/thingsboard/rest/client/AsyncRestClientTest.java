@@ -0,0 +1,293 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.rest.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.id.DeviceId;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncRestClientTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private AsyncRestClient client;
+    private volatile Function<HttpExchange, Response> handler;
+
+    @Before
+    public void before() throws IOException {
+        serverExecutor = Executors.newFixedThreadPool(16);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            try {
+                Response response = handler.apply(exchange);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                response.headers.forEach((name, value) -> exchange.getResponseHeaders().add(name, value));
+                byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(response.status, body.length > 0 ? body.length : -1);
+                if (body.length > 0) {
+                    try (OutputStream os = exchange.getResponseBody()) {
+                        os.write(body);
+                    }
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        AsyncRestClientConfig config = new AsyncRestClientConfig();
+        config.setMaxInFlightRequests(4);
+        config.setMaxRetries(3);
+        config.setRetryInitialDelayMs(10);
+        config.setRetryMaxDelayMs(50);
+        client = new AsyncRestClient("http://localhost:" + server.getAddress().getPort(), config);
+    }
+
+    @After
+    public void after() throws IOException {
+        client.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testSaveDeviceRetriedOnTooManyRequests() {
+        AtomicInteger requests = new AtomicInteger();
+        handler = exchange -> {
+            if (requests.incrementAndGet() <= 2) {
+                return new Response(429, "");
+            }
+            ObjectNode device = (ObjectNode) readBody(exchange);
+            device.putObject("id").put("entityType", "DEVICE").put("id", UUID.randomUUID().toString());
+            return new Response(200, device.toString());
+        };
+
+        Device device = new Device();
+        device.setName("Thermostat A1");
+        device.setType("thermostat");
+        Device saved = client.saveDevice(device).join();
+
+        assertEquals(3, requests.get());
+        assertEquals("Thermostat A1", saved.getName());
+        assertTrue(saved.getId() != null);
+    }
+
+    @Test
+    public void testRetryAfterHeaderAndGiveUp() {
+        AtomicInteger requests = new AtomicInteger();
+        handler = exchange -> {
+            requests.incrementAndGet();
+            return new Response(503, "").header("Retry-After", "0");
+        };
+
+        try {
+            client.saveEntityTelemetry(new DeviceId(UUID.randomUUID()), "ANY", mapper.createObjectNode().put("temperature", 42)).join();
+            fail("Request should fail");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof HttpServerErrorException);
+        }
+        assertEquals(4, requests.get());
+    }
+
+    @Test
+    public void testNotFoundDeviceIsEmpty() {
+        handler = exchange -> new Response(404, "{\"message\":\"Requested item wasn't found!\"}");
+
+        Optional<Device> device = client.getDeviceById(new DeviceId(UUID.randomUUID())).join();
+
+        assertFalse(device.isPresent());
+    }
+
+    @Test
+    public void testTokenRefreshedOnUnauthorized() {
+        AtomicInteger refreshes = new AtomicInteger();
+        handler = exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/api/auth/login")) {
+                return new Response(200, "{\"token\":\"expired\",\"refreshToken\":\"refresh\"}");
+            } else if (path.equals("/api/auth/token")) {
+                if (!"refresh".equals(readBody(exchange).get("refreshToken").asText())) {
+                    return new Response(401, "");
+                }
+                refreshes.incrementAndGet();
+                return new Response(200, "{\"token\":\"valid\",\"refreshToken\":\"refresh\"}");
+            } else if ("Bearer valid".equals(exchange.getRequestHeaders().getFirst("X-Authorization"))) {
+                return new Response(200, "{}");
+            } else {
+                return new Response(401, "");
+            }
+        };
+
+        client.login("tenant@thingsboard.org", "tenant").join();
+        Map<DeviceId, JsonNode> attributes = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            attributes.put(new DeviceId(UUID.randomUUID()), mapper.createObjectNode().put("serialNumber", i));
+        }
+        client.saveEntitiesAttributes("SERVER_SCOPE", attributes).join();
+
+        assertEquals("valid", client.getToken());
+        assertEquals(1, refreshes.get());
+    }
+
+    @Test
+    public void testInFlightRequestsLimited() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger received = new AtomicInteger();
+        handler = exchange -> {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.incrementAndGet();
+            inFlight.decrementAndGet();
+            return new Response(200, "");
+        };
+
+        Map<DeviceId, JsonNode> telemetry = new HashMap<>();
+        for (int i = 0; i < 40; i++) {
+            telemetry.put(new DeviceId(UUID.randomUUID()), mapper.createObjectNode().put("temperature", i));
+        }
+        client.saveEntitiesTelemetry("ANY", telemetry).join();
+
+        assertEquals(40, received.get());
+        assertTrue("Max in flight: " + maxInFlight.get(), maxInFlight.get() > 1 && maxInFlight.get() <= 4);
+    }
+
+    @Test
+    public void testSaveDevicesKeepsOrder() {
+        handler = exchange -> new Response(200, readBody(exchange).toString());
+
+        List<Device> devices = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Device device = new Device();
+            device.setName("Device " + i);
+            device.setType("default");
+            devices.add(device);
+        }
+        List<Device> saved = client.saveDevices(devices).join();
+
+        assertEquals(devices.size(), saved.size());
+        for (int i = 0; i < devices.size(); i++) {
+            assertEquals(devices.get(i).getName(), saved.get(i).getName());
+        }
+    }
+
+    @Test
+    public void testCloseFailsRequestsWaitingForRetry() throws Exception {
+        handler = exchange -> new Response(429, "").header("Retry-After", "60");
+
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(client.saveEntityTelemetry(new DeviceId(UUID.randomUUID()), "ANY", mapper.createObjectNode().put("temperature", i)));
+        }
+        // 4 requests wait for the retry, 2 requests wait in the queue
+        Set<?> retryingRequests = (Set<?>) getField(client, "retryingRequests");
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (retryingRequests.size() < 4) {
+            assertTrue("Requests are not rejected", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+
+        client.close();
+
+        for (CompletableFuture<Boolean> future : futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("Request should fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            } catch (TimeoutException e) {
+                fail("Request is not completed on close");
+            }
+        }
+        assertEquals(4, ((Semaphore) getField(client, "inFlightPermits")).availablePermits());
+    }
+
+    private static Object getField(Object target, String name) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(target);
+    }
+
+    private static JsonNode readBody(HttpExchange exchange) {
+        try (InputStream is = exchange.getRequestBody()) {
+            return mapper.readTree(is);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static class Response {
+
+        private final int status;
+        private final String body;
+        private final Map<String, String> headers = new HashMap<>();
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        private Response header(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.rule.engine.api;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.kv.AttributeKvEntry;
+import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.relation.EntityRelationsQuery;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Short living read-through cache for the data that enrichment nodes look up for every message.
+ * Entries are grouped by entity, so attribute or relation updates of the entity drop all its entries.
+ * Changes that are not reported to the cache (e.g. made on other nodes) are visible once entries expire.
+ * Concurrent lookups of the same data share a single database request.
+ * Returned values are shared between callers and should not be modified.
+ */
+public interface RuleEngineEntityCache {
+
+    ListenableFuture<List<AttributeKvEntry>> findAttributes(TenantId tenantId, EntityId entityId, String scope, Collection<String> attributeKeys);
+
+    ListenableFuture<List<EntityRelation>> findRelationsByQuery(TenantId tenantId, EntityRelationsQuery query);
+
+    /**
+     * Loader should always fetch the same entity type for the given id, e.g. Device for DeviceId.
+     */
+    <T> ListenableFuture<T> findEntity(EntityId entityId, Supplier<ListenableFuture<T>> loader);
+
+    /**
+     * Drops all cached data of the entity. Should be called on attributes update.
+     */
+    void evict(EntityId entityId);
+
+    /**
+     * Drops cached data of both related entities. Should be called on relation create or delete.
+     * Multi-level relation queries of other entities are refreshed on expiration only.
+     */
+    void evict(EntityRelation relation);
+
+}
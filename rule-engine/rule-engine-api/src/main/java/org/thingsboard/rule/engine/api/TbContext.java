@@ -111,6 +111,8 @@ public interface TbContext {
 
     EntityViewService getEntityViewService();
 
+    RuleEngineEntityCache getEntityCache();
+
     ListeningExecutor getJsExecutor();
 
     ListeningExecutor getMailExecutor();
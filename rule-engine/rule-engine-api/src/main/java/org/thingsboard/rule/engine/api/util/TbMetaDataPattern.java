@@ -0,0 +1,103 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.rule.engine.api.util;
+
+import org.thingsboard.server.common.msg.TbMsgMetaData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pattern with "${key}" placeholders that is tokenized once (usually on node init)
+ * and resolved against message metadata in a single pass.
+ * <p>
+ * Placeholders without a corresponding metadata value and an unterminated "${" are left as is.
+ * Metadata values are inserted verbatim: a value that contains "${other}" is not expanded again.
+ * Of the nested placeholders only the innermost one is resolved, so "${${a}}" becomes "${" + a + "}".
+ */
+public final class TbMetaDataPattern {
+
+    private static final String VAR_START = "${";
+    private static final String VAR_END = "}";
+
+    private final String pattern;
+    private final String[] literals;
+    private final String[] keys;
+    private final int literalsLength;
+
+    private TbMetaDataPattern(String pattern, String[] literals, String[] keys) {
+        this.pattern = pattern;
+        this.literals = literals;
+        this.keys = keys;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalsLength = length;
+    }
+
+    public static TbMetaDataPattern compile(String pattern) {
+        if (pattern == null) {
+            throw new IllegalArgumentException("Pattern should be specified!");
+        }
+        List<String> literals = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        int pos = 0;
+        while (true) {
+            int start = pattern.indexOf(VAR_START, pos);
+            int end = start < 0 ? -1 : pattern.indexOf(VAR_END, start + VAR_START.length());
+            if (end < 0) {
+                literals.add(pattern.substring(pos));
+                break;
+            }
+            int inner = pattern.lastIndexOf(VAR_START, end - VAR_START.length());
+            if (inner > start) {
+                start = inner;
+            }
+            literals.add(pattern.substring(pos, start));
+            keys.add(pattern.substring(start + VAR_START.length(), end));
+            pos = end + VAR_END.length();
+        }
+        return new TbMetaDataPattern(pattern, literals.toArray(new String[0]), keys.toArray(new String[0]));
+    }
+
+    public String process(TbMsgMetaData metaData) {
+        if (keys.length == 0) {
+            return pattern;
+        }
+        StringBuilder result = new StringBuilder(literalsLength + keys.length * 16);
+        for (int i = 0; i < keys.length; i++) {
+            result.append(literals[i]);
+            String value = metaData.getValue(keys[i]);
+            if (value != null) {
+                result.append(value);
+            } else {
+                result.append(VAR_START).append(keys[i]).append(VAR_END);
+            }
+        }
+        result.append(literals[keys.length]);
+        return result.toString();
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
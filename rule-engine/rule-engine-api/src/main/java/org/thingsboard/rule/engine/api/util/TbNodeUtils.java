@@ -21,6 +21,7 @@ import org.thingsboard.rule.engine.api.TbNodeConfiguration;
 import org.thingsboard.rule.engine.api.TbNodeException;
 import org.thingsboard.server.common.msg.TbMsgMetaData;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -30,9 +31,6 @@ public class TbNodeUtils {
 
     private static final ObjectMapper mapper = new ObjectMapper();
 
-    private static final String VARIABLE_TEMPLATE = "${%s}";
-
-
     public static <T> T convert(TbNodeConfiguration configuration, Class<T> clazz) throws TbNodeException {
         try {
             return mapper.treeToValue(configuration.getData(), clazz);
@@ -41,17 +39,23 @@ public class TbNodeUtils {
         }
     }
 
-    public static String processPattern(String pattern, TbMsgMetaData metaData) {
-        String result = new String(pattern);
-        for (Map.Entry<String,String> keyVal  : metaData.values().entrySet()) {
-            result = processVar(result, keyVal.getKey(), keyVal.getValue());
+    public static TbMetaDataPattern compilePattern(String pattern) {
+        return TbMetaDataPattern.compile(pattern);
+    }
+
+    public static Map<TbMetaDataPattern, TbMetaDataPattern> compilePatterns(Map<String, String> patterns) {
+        Map<TbMetaDataPattern, TbMetaDataPattern> result = new LinkedHashMap<>();
+        if (patterns != null) {
+            patterns.forEach((k, v) -> result.put(TbMetaDataPattern.compile(k), TbMetaDataPattern.compile(v)));
         }
         return result;
     }
 
-    private static String processVar(String pattern, String key, String val) {
-        String varPattern = String.format(VARIABLE_TEMPLATE, key);
-        return pattern.replace(varPattern, val);
+    /**
+     * Prefer {@link #compilePattern(String)} on node init for patterns that are processed for each message.
+     */
+    public static String processPattern(String pattern, TbMsgMetaData metaData) {
+        return TbMetaDataPattern.compile(pattern).process(metaData);
     }
 
 }
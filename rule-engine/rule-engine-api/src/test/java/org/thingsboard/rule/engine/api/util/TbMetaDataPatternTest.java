@@ -0,0 +1,92 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.rule.engine.api.util;
+
+import org.junit.Test;
+import org.thingsboard.server.common.msg.TbMsgMetaData;
+
+import static org.junit.Assert.assertEquals;
+
+public class TbMetaDataPatternTest {
+
+    @Test
+    public void testPlainPattern() {
+        assertEquals("plain text", process("plain text", metaData()));
+        assertEquals("", process("", metaData()));
+    }
+
+    @Test
+    public void testMissingKeyLeftAsIs() {
+        assertEquals("Device ${deviceName} of A1", process("Device ${deviceName} of ${serial}", metaData("serial", "A1")));
+    }
+
+    @Test
+    public void testRepeatedKey() {
+        assertEquals("A1/A1/A1", process("${serial}/${serial}/${serial}", metaData("serial", "A1")));
+    }
+
+    @Test
+    public void testAdjacentPlaceholders() {
+        assertEquals("A1thermostat", process("${serial}${type}", metaData("serial", "A1", "type", "thermostat")));
+        assertEquals("A1${missing}thermostat", process("${serial}${missing}${type}", metaData("serial", "A1", "type", "thermostat")));
+    }
+
+    @Test
+    public void testUnterminatedPlaceholder() {
+        assertEquals("A1 ${type", process("${serial} ${type", metaData("serial", "A1", "type", "thermostat")));
+        assertEquals("${", process("${", metaData()));
+        assertEquals("}A1{", process("}${serial}{", metaData("serial", "A1")));
+    }
+
+    @Test
+    public void testValueWithPlaceholderNotExpanded() {
+        TbMsgMetaData metaData = metaData("a", "${b}", "b", "value of b");
+        assertEquals("${b}-value of b", process("${a}-${b}", metaData));
+        assertEquals("${b}", process("${a}", metaData));
+    }
+
+    @Test
+    public void testNestedPlaceholder() {
+        TbMsgMetaData metaData = metaData("a", "b", "b", "value of b");
+        assertEquals("${b}", process("${${a}}", metaData));
+        assertEquals("${ab", process("${a${a}", metaData));
+    }
+
+    @Test
+    public void testEmptyKey() {
+        assertEquals("${}", process("${}", metaData("a", "b")));
+        assertEquals("empty", process("${}", metaData("", "empty")));
+    }
+
+    @Test
+    public void testProcessPatternMatchesCompiled() {
+        TbMsgMetaData metaData = metaData("serial", "A1", "type", "thermostat");
+        String pattern = "devices/${type}/${serial}/${missing}";
+        assertEquals(TbMetaDataPattern.compile(pattern).process(metaData), TbNodeUtils.processPattern(pattern, metaData));
+    }
+
+    private static String process(String pattern, TbMsgMetaData metaData) {
+        return TbMetaDataPattern.compile(pattern).process(metaData);
+    }
+
+    private static TbMsgMetaData metaData(String... keyValues) {
+        TbMsgMetaData metaData = new TbMsgMetaData();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            metaData.putValue(keyValues[i], keyValues[i + 1]);
+        }
+        return metaData;
+    }
+}
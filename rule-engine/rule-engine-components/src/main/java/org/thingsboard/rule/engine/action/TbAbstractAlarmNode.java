@@ -25,6 +25,8 @@ import org.thingsboard.rule.engine.api.TbContext;
 import org.thingsboard.rule.engine.api.TbNode;
 import org.thingsboard.rule.engine.api.TbNodeConfiguration;
 import org.thingsboard.rule.engine.api.TbNodeException;
+import org.thingsboard.rule.engine.api.util.TbMetaDataPattern;
+import org.thingsboard.rule.engine.api.util.TbNodeUtils;
 import org.thingsboard.server.common.data.alarm.Alarm;
 import org.thingsboard.server.common.msg.TbMsg;
 import org.thingsboard.server.common.msg.TbMsgMetaData;
@@ -46,11 +48,15 @@ public abstract class TbAbstractAlarmNode<C extends TbAbstractAlarmNodeConfigura
     private final ObjectMapper mapper = new ObjectMapper();
 
     protected C config;
+    protected TbMetaDataPattern alarmTypePattern;
     private ScriptEngine buildDetailsJsEngine;
 
     @Override
     public void init(TbContext ctx, TbNodeConfiguration configuration) throws TbNodeException {
         this.config = loadAlarmNodeConfig(configuration);
+        if (config.getAlarmType() != null) {
+            this.alarmTypePattern = TbNodeUtils.compilePattern(config.getAlarmType());
+        }
         this.buildDetailsJsEngine = ctx.createJsScriptEngine(config.getAlarmDetailsBuildJs());
     }
 
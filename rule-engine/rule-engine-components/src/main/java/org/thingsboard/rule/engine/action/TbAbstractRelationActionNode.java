@@ -29,6 +29,7 @@ import org.thingsboard.rule.engine.api.TbContext;
 import org.thingsboard.rule.engine.api.TbNode;
 import org.thingsboard.rule.engine.api.TbNodeConfiguration;
 import org.thingsboard.rule.engine.api.TbNodeException;
+import org.thingsboard.rule.engine.api.util.TbMetaDataPattern;
 import org.thingsboard.rule.engine.api.util.TbNodeUtils;
 import org.thingsboard.rule.engine.util.EntityContainer;
 import org.thingsboard.server.common.data.Customer;
@@ -63,12 +64,18 @@ import static org.thingsboard.rule.engine.api.TbRelationTypes.SUCCESS;
 public abstract class TbAbstractRelationActionNode<C extends TbAbstractRelationActionNodeConfiguration> implements TbNode {
 
     protected C config;
+    protected TbMetaDataPattern relationTypePattern;
 
+    private TbMetaDataPattern entityNamePattern;
+    private TbMetaDataPattern entityTypePattern;
     private LoadingCache<EntityKey, EntityContainer> entityIdCache;
 
     @Override
     public void init(TbContext ctx, TbNodeConfiguration configuration) throws TbNodeException {
         this.config = loadEntityNodeActionConfig(configuration);
+        this.relationTypePattern = compilePattern(this.config.getRelationType());
+        this.entityNamePattern = compilePattern(this.config.getEntityNamePattern());
+        this.entityTypePattern = compilePattern(this.config.getEntityTypePattern());
         CacheBuilder cacheBuilder = CacheBuilder.newBuilder();
         if (this.config.getEntityCacheExpiration() > 0) {
             cacheBuilder.expireAfterWrite(this.config.getEntityCacheExpiration(), TimeUnit.SECONDS);
@@ -97,10 +104,10 @@ public abstract class TbAbstractRelationActionNode<C extends TbAbstractRelationA
     protected abstract C loadEntityNodeActionConfig(TbNodeConfiguration configuration) throws TbNodeException;
 
     protected ListenableFuture<EntityContainer> getEntity(TbContext ctx, TbMsg msg) {
-        String entityName = processPattern(msg, this.config.getEntityNamePattern());
+        String entityName = processPattern(msg, entityNamePattern);
         String type;
-        if (this.config.getEntityTypePattern() != null) {
-            type = processPattern(msg, this.config.getEntityTypePattern());
+        if (entityTypePattern != null) {
+            type = processPattern(msg, entityTypePattern);
         } else {
             type = null;
         }
@@ -131,14 +138,23 @@ public abstract class TbAbstractRelationActionNode<C extends TbAbstractRelationA
 
     protected ListenableFuture<List<EntityRelation>> processListSearchDirection(TbContext ctx, TbMsg msg) {
         if (EntitySearchDirection.FROM.name().equals(this.config.getDirection())) {
-            return ctx.getRelationService().findByToAndTypeAsync(ctx.getTenantId(), msg.getOriginator(), processPattern(msg, this.config.getRelationType()), RelationTypeGroup.COMMON);
+            return ctx.getRelationService().findByToAndTypeAsync(ctx.getTenantId(), msg.getOriginator(), processPattern(msg, relationTypePattern), RelationTypeGroup.COMMON);
         } else {
-            return ctx.getRelationService().findByFromAndTypeAsync(ctx.getTenantId(), msg.getOriginator(), processPattern(msg, this.config.getRelationType()), RelationTypeGroup.COMMON);
+            return ctx.getRelationService().findByFromAndTypeAsync(ctx.getTenantId(), msg.getOriginator(), processPattern(msg, relationTypePattern), RelationTypeGroup.COMMON);
         }
     }
 
-    protected String processPattern(TbMsg msg, String pattern) {
-        return TbNodeUtils.processPattern(pattern, msg.getMetaData());
+    protected ListenableFuture<Boolean> evictOnCompletion(TbContext ctx, EntityRelation relation, ListenableFuture<Boolean> future) {
+        future.addListener(() -> ctx.getEntityCache().evict(relation), MoreExecutors.directExecutor());
+        return future;
+    }
+
+    protected String processPattern(TbMsg msg, TbMetaDataPattern pattern) {
+        return pattern.process(msg.getMetaData());
+    }
+
+    private static TbMetaDataPattern compilePattern(String pattern) {
+        return pattern != null ? TbNodeUtils.compilePattern(pattern) : null;
     }
 
     @Data
@@ -86,7 +86,7 @@ public class TbCreateRelationNode extends TbAbstractRelationActionNode<TbCreateR
     }
 
     private ListenableFuture<Boolean> createIfAbsent(TbContext ctx, TbMsg msg, EntityContainer entityContainer) {
-        relationType = processPattern(msg, config.getRelationType());
+        relationType = processPattern(msg, relationTypePattern);
         SearchDirectionIds sdId = processSingleSearchDirection(msg, entityContainer);
         ListenableFuture<Boolean> checkRelationFuture = Futures.transformAsync(ctx.getRelationService().checkRelation(ctx.getTenantId(), sdId.getFromId(), sdId.getToId(), relationType, RelationTypeGroup.COMMON), result -> {
             if (!result) {
@@ -119,7 +119,7 @@ public class TbCreateRelationNode extends TbAbstractRelationActionNode<TbCreateR
             if (!entityRelations.isEmpty()) {
                 List<ListenableFuture<Boolean>> list = new ArrayList<>();
                 for (EntityRelation relation : entityRelations) {
-                    list.add(ctx.getRelationService().deleteRelationAsync(ctx.getTenantId(), relation));
+                    list.add(evictOnCompletion(ctx, relation, ctx.getRelationService().deleteRelationAsync(ctx.getTenantId(), relation)));
                 }
                 return Futures.transform(Futures.allAsList(list), result -> false, MoreExecutors.directExecutor());
             }
@@ -206,7 +206,8 @@ public class TbCreateRelationNode extends TbAbstractRelationActionNode<TbCreateR
     }
 
     private ListenableFuture<Boolean> processSave(TbContext ctx, SearchDirectionIds sdId) {
-        return ctx.getRelationService().saveRelationAsync(ctx.getTenantId(), new EntityRelation(sdId.getFromId(), sdId.getToId(), relationType, RelationTypeGroup.COMMON));
+        EntityRelation relation = new EntityRelation(sdId.getFromId(), sdId.getToId(), relationType, RelationTypeGroup.COMMON);
+        return evictOnCompletion(ctx, relation, ctx.getRelationService().saveRelationAsync(ctx.getTenantId(), relation));
     }
 
 }
@@ -71,7 +71,7 @@ public class TbDeleteRelationNode extends TbAbstractRelationActionNode<TbDeleteR
     }
 
     private ListenableFuture<RelationContainer> getRelationContainerListenableFuture(TbContext ctx, TbMsg msg) {
-        relationType = processPattern(msg, config.getRelationType());
+        relationType = processPattern(msg, relationTypePattern);
         if (config.isDeleteForSingleEntity()) {
             return Futures.transformAsync(getEntity(ctx, msg), entityContainer -> doProcessEntityRelationAction(ctx, msg, entityContainer), MoreExecutors.directExecutor());
         } else {
@@ -86,7 +86,7 @@ public class TbDeleteRelationNode extends TbAbstractRelationActionNode<TbDeleteR
             } else {
                 List<ListenableFuture<Boolean>> listenableFutureList = new ArrayList<>();
                 for (EntityRelation entityRelation : entityRelations) {
-                    listenableFutureList.add(ctx.getRelationService().deleteRelationAsync(ctx.getTenantId(), entityRelation));
+                    listenableFutureList.add(evictOnCompletion(ctx, entityRelation, ctx.getRelationService().deleteRelationAsync(ctx.getTenantId(), entityRelation)));
                 }
                 return Futures.transformAsync(Futures.allAsList(listenableFutureList), booleans -> {
                     for (Boolean bool : booleans) {
@@ -112,7 +112,8 @@ public class TbDeleteRelationNode extends TbAbstractRelationActionNode<TbDeleteR
     }
 
     private ListenableFuture<Boolean> processSingleDeleteRelation(TbContext ctx, SearchDirectionIds sdId) {
-        return ctx.getRelationService().deleteRelationAsync(ctx.getTenantId(), sdId.getFromId(), sdId.getToId(), relationType, RelationTypeGroup.COMMON);
+        EntityRelation relation = new EntityRelation(sdId.getFromId(), sdId.getToId(), relationType, RelationTypeGroup.COMMON);
+        return evictOnCompletion(ctx, relation, ctx.getRelationService().deleteRelationAsync(ctx.getTenantId(), relation));
     }
 
 }
@@ -26,6 +26,7 @@ import com.amazonaws.services.sqs.model.SendMessageResult;
 import com.google.common.util.concurrent.ListenableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.thingsboard.rule.engine.api.util.TbMetaDataPattern;
 import org.thingsboard.rule.engine.api.util.TbNodeUtils;
 import org.thingsboard.rule.engine.api.*;
 import org.thingsboard.server.common.data.plugin.ComponentType;
@@ -63,10 +64,14 @@ public class TbSqsNode implements TbNode {
 
     private TbSqsNodeConfiguration config;
     private AmazonSQS sqsClient;
+    private TbMetaDataPattern queueUrlPattern;
+    private Map<TbMetaDataPattern, TbMetaDataPattern> messageAttributePatterns;
 
     @Override
     public void init(TbContext ctx, TbNodeConfiguration configuration) throws TbNodeException {
         this.config = TbNodeUtils.convert(configuration, TbSqsNodeConfiguration.class);
+        this.queueUrlPattern = TbNodeUtils.compilePattern(this.config.getQueueUrlPattern());
+        this.messageAttributePatterns = TbNodeUtils.compilePatterns(this.config.getMessageAttributes());
         AWSCredentials awsCredentials = new BasicAWSCredentials(this.config.getAccessKeyId(), this.config.getSecretAccessKey());
         AWSStaticCredentialsProvider credProvider = new AWSStaticCredentialsProvider(awsCredentials);
         try {
@@ -94,14 +99,14 @@ public class TbSqsNode implements TbNode {
     }
 
     private TbMsg publishMessage(TbContext ctx, TbMsg msg) {
-        String queueUrl = TbNodeUtils.processPattern(this.config.getQueueUrlPattern(), msg.getMetaData());
+        String queueUrl = queueUrlPattern.process(msg.getMetaData());
         SendMessageRequest sendMsgRequest =  new SendMessageRequest();
         sendMsgRequest.withQueueUrl(queueUrl);
         sendMsgRequest.withMessageBody(msg.getData());
         Map<String, MessageAttributeValue> messageAttributes = new HashMap<>();
-        this.config.getMessageAttributes().forEach((k,v) -> {
-            String name = TbNodeUtils.processPattern(k, msg.getMetaData());
-            String val = TbNodeUtils.processPattern(v, msg.getMetaData());
+        this.messageAttributePatterns.forEach((k,v) -> {
+            String name = k.process(msg.getMetaData());
+            String val = v.process(msg.getMetaData());
             messageAttributes.put(name, new MessageAttributeValue().withDataType("String").withStringValue(val));
         });
         sendMsgRequest.setMessageAttributes(messageAttributes);
@@ -22,6 +22,7 @@ import org.thingsboard.rule.engine.api.TbContext;
 import org.thingsboard.rule.engine.api.TbNode;
 import org.thingsboard.rule.engine.api.TbNodeConfiguration;
 import org.thingsboard.rule.engine.api.TbNodeException;
+import org.thingsboard.rule.engine.api.util.TbMetaDataPattern;
 import org.thingsboard.rule.engine.api.util.TbNodeUtils;
 import org.thingsboard.server.common.data.plugin.ComponentType;
 import org.thingsboard.server.common.msg.TbMsg;
@@ -53,11 +54,15 @@ public class TbMsgDelayNode implements TbNode {
 
     private TbMsgDelayNodeConfiguration config;
     private Map<UUID, TbMsg> pendingMsgs;
+    private TbMetaDataPattern periodInSecondsPattern;
 
     @Override
     public void init(TbContext ctx, TbNodeConfiguration configuration) throws TbNodeException {
         this.config = TbNodeUtils.convert(configuration, TbMsgDelayNodeConfiguration.class);
         this.pendingMsgs = new HashMap<>();
+        if (config.isUseMetadataPeriodInSecondsPatterns()) {
+            this.periodInSecondsPattern = TbNodeUtils.compilePattern(config.getPeriodInSecondsPattern());
+        }
     }
 
     @Override
@@ -81,8 +86,9 @@ public class TbMsgDelayNode implements TbNode {
     private long getDelay(TbMsg msg) {
         int periodInSeconds;
         if (config.isUseMetadataPeriodInSecondsPatterns()) {
-            if (isParsable(msg, config.getPeriodInSecondsPattern())) {
-                periodInSeconds = Integer.parseInt(TbNodeUtils.processPattern(config.getPeriodInSecondsPattern(), msg.getMetaData()));
+            String period = periodInSecondsPattern.process(msg.getMetaData());
+            if (NumberUtils.isParsable(period)) {
+                periodInSeconds = Integer.parseInt(period);
             } else {
                 throw new RuntimeException("Can't parse period in seconds from metadata using pattern: " + config.getPeriodInSecondsPattern());
             }
@@ -92,10 +98,6 @@ public class TbMsgDelayNode implements TbNode {
         return TimeUnit.SECONDS.toMillis(periodInSeconds);
     }
 
-    private boolean isParsable(TbMsg msg, String pattern) {
-        return NumberUtils.isParsable(TbNodeUtils.processPattern(pattern, msg.getMetaData()));
-    }
-
     @Override
     public void destroy() {
         pendingMsgs.clear();
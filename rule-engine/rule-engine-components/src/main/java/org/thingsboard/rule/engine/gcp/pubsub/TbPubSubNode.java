@@ -27,6 +27,7 @@ import com.google.pubsub.v1.ProjectTopicName;
 import com.google.pubsub.v1.PubsubMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.rule.engine.api.*;
+import org.thingsboard.rule.engine.api.util.TbMetaDataPattern;
 import org.thingsboard.rule.engine.api.util.TbNodeUtils;
 import org.thingsboard.server.common.data.plugin.ComponentType;
 import org.thingsboard.server.common.msg.TbMsg;
@@ -34,6 +35,7 @@ import org.thingsboard.server.common.msg.TbMsgMetaData;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import static org.thingsboard.common.util.DonAsynchron.withCallback;
@@ -58,11 +60,13 @@ public class TbPubSubNode implements TbNode {
 
     private TbPubSubNodeConfiguration config;
     private Publisher pubSubClient;
+    private Map<TbMetaDataPattern, TbMetaDataPattern> messageAttributePatterns;
 
     @Override
     public void init(TbContext ctx, TbNodeConfiguration configuration) throws TbNodeException {
         try {
             this.config = TbNodeUtils.convert(configuration, TbPubSubNodeConfiguration.class);
+            this.messageAttributePatterns = TbNodeUtils.compilePatterns(config.getMessageAttributes());
             this.pubSubClient = initPubSubClient();
         } catch (Exception e) {
             throw new TbNodeException(e);
@@ -90,9 +94,9 @@ public class TbPubSubNode implements TbNode {
         ByteString data = ByteString.copyFromUtf8(msg.getData());
         PubsubMessage.Builder pubsubMessageBuilder = PubsubMessage.newBuilder();
         pubsubMessageBuilder.setData(data);
-        this.config.getMessageAttributes().forEach((k, v) -> {
-            String name = TbNodeUtils.processPattern(k, msg.getMetaData());
-            String val = TbNodeUtils.processPattern(v, msg.getMetaData());
+        this.messageAttributePatterns.forEach((k, v) -> {
+            String name = k.process(msg.getMetaData());
+            String val = v.process(msg.getMetaData());
             pubsubMessageBuilder.putAttributes(name, val);
         });
         ApiFuture<String> messageIdFuture = this.pubSubClient.publish(pubsubMessageBuilder.build());
@@ -21,6 +21,7 @@ import org.apache.kafka.clients.producer.*;
 import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.header.internals.RecordHeader;
 import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.thingsboard.rule.engine.api.util.TbMetaDataPattern;
 import org.thingsboard.rule.engine.api.util.TbNodeUtils;
 import org.thingsboard.rule.engine.api.*;
 import org.thingsboard.server.common.data.plugin.ComponentType;
@@ -54,6 +55,7 @@ public class TbKafkaNode implements TbNode {
     public static final String TB_MSG_MD_PREFIX = "tb_msg_md_";
 
     private TbKafkaNodeConfiguration config;
+    private TbMetaDataPattern topicPattern;
     private boolean addMetadataKeyValuesAsKafkaHeaders;
     private Charset toBytesCharset;
 
@@ -62,6 +64,7 @@ public class TbKafkaNode implements TbNode {
     @Override
     public void init(TbContext ctx, TbNodeConfiguration configuration) throws TbNodeException {
         this.config = TbNodeUtils.convert(configuration, TbKafkaNodeConfiguration.class);
+        this.topicPattern = TbNodeUtils.compilePattern(config.getTopicPattern());
         Properties properties = new Properties();
         properties.put(ProducerConfig.CLIENT_ID_CONFIG, "producer-tb-kafka-node-" + ctx.getSelfId().getId().toString() + "-" + ctx.getNodeId());
         properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, config.getBootstrapServers());
@@ -87,7 +90,7 @@ public class TbKafkaNode implements TbNode {
 
     @Override
     public void onMsg(TbContext ctx, TbMsg msg) throws ExecutionException, InterruptedException, TbNodeException {
-        String topic = TbNodeUtils.processPattern(config.getTopicPattern(), msg.getMetaData());
+        String topic = topicPattern.process(msg.getMetaData());
         try {
             if (!addMetadataKeyValuesAsKafkaHeaders) {
                 producer.send(new ProducerRecord<>(topic, msg.getData()),
@@ -19,6 +19,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.StringUtils;
+import org.thingsboard.rule.engine.api.util.TbMetaDataPattern;
 import org.thingsboard.rule.engine.api.util.TbNodeUtils;
 import org.thingsboard.rule.engine.api.*;
 import org.thingsboard.server.common.data.plugin.ComponentType;
@@ -47,10 +48,22 @@ public class TbMsgToEmailNode implements TbNode {
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
     private TbMsgToEmailNodeConfiguration config;
+    private TbMetaDataPattern fromTemplate;
+    private TbMetaDataPattern toTemplate;
+    private TbMetaDataPattern ccTemplate;
+    private TbMetaDataPattern bccTemplate;
+    private TbMetaDataPattern subjectTemplate;
+    private TbMetaDataPattern bodyTemplate;
 
     @Override
     public void init(TbContext ctx, TbNodeConfiguration configuration) throws TbNodeException {
         this.config = TbNodeUtils.convert(configuration, TbMsgToEmailNodeConfiguration.class);
+        this.fromTemplate = compileTemplate(this.config.getFromTemplate());
+        this.toTemplate = compileTemplate(this.config.getToTemplate());
+        this.ccTemplate = compileTemplate(this.config.getCcTemplate());
+        this.bccTemplate = compileTemplate(this.config.getBccTemplate());
+        this.subjectTemplate = compileTemplate(this.config.getSubjectTemplate());
+        this.bodyTemplate = compileTemplate(this.config.getBodyTemplate());
     }
 
     @Override
@@ -72,23 +85,27 @@ public class TbMsgToEmailNode implements TbNode {
 
     private EmailPojo convert(TbMsg msg) throws IOException {
         EmailPojo.EmailPojoBuilder builder = EmailPojo.builder();
-        builder.from(fromTemplate(this.config.getFromTemplate(), msg.getMetaData()));
-        builder.to(fromTemplate(this.config.getToTemplate(), msg.getMetaData()));
-        builder.cc(fromTemplate(this.config.getCcTemplate(), msg.getMetaData()));
-        builder.bcc(fromTemplate(this.config.getBccTemplate(), msg.getMetaData()));
-        builder.subject(fromTemplate(this.config.getSubjectTemplate(), msg.getMetaData()));
-        builder.body(fromTemplate(this.config.getBodyTemplate(), msg.getMetaData()));
+        builder.from(fromTemplate(this.fromTemplate, msg.getMetaData()));
+        builder.to(fromTemplate(this.toTemplate, msg.getMetaData()));
+        builder.cc(fromTemplate(this.ccTemplate, msg.getMetaData()));
+        builder.bcc(fromTemplate(this.bccTemplate, msg.getMetaData()));
+        builder.subject(fromTemplate(this.subjectTemplate, msg.getMetaData()));
+        builder.body(fromTemplate(this.bodyTemplate, msg.getMetaData()));
         return builder.build();
     }
 
-    private String fromTemplate(String template, TbMsgMetaData metaData) {
+    private TbMetaDataPattern compileTemplate(String template) {
         if (!StringUtils.isEmpty(template)) {
-            return TbNodeUtils.processPattern(template, metaData);
+            return TbNodeUtils.compilePattern(template);
         } else {
             return null;
         }
     }
 
+    private String fromTemplate(TbMetaDataPattern template, TbMsgMetaData metaData) {
+        return template != null ? template.process(metaData) : null;
+    }
+
     @Override
     public void destroy() {
 
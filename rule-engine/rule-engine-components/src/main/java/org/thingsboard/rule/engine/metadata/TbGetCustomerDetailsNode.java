@@ -27,6 +27,7 @@ import org.thingsboard.rule.engine.api.util.TbNodeUtils;
 import org.thingsboard.server.common.data.ContactBased;
 import org.thingsboard.server.common.data.Customer;
 import org.thingsboard.server.common.data.id.AssetId;
+import org.thingsboard.server.common.data.id.CustomerId;
 import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.common.data.id.EntityViewId;
 import org.thingsboard.server.common.data.plugin.ComponentType;
@@ -70,10 +71,10 @@ public class TbGetCustomerDetailsNode extends TbAbstractGetEntityDetailsNode<TbG
     private ListenableFuture<Customer> getCustomer(TbContext ctx, TbMsg msg) {
         switch (msg.getOriginator().getEntityType()) {
             case DEVICE:
-                return Futures.transformAsync(ctx.getDeviceService().findDeviceByIdAsync(ctx.getTenantId(), new DeviceId(msg.getOriginator().getId())), device -> {
+                return Futures.transformAsync(ctx.getEntityCache().findEntity(msg.getOriginator(), () -> ctx.getDeviceService().findDeviceByIdAsync(ctx.getTenantId(), new DeviceId(msg.getOriginator().getId()))), device -> {
                     if (device != null) {
                         if (!device.getCustomerId().isNullUid()) {
-                            return ctx.getCustomerService().findCustomerByIdAsync(ctx.getTenantId(), device.getCustomerId());
+                            return findCustomer(ctx, device.getCustomerId());
                         } else {
                             throw new RuntimeException("Device with name '" + device.getName() + "' is not assigned to Customer.");
                         }
@@ -82,10 +83,10 @@ public class TbGetCustomerDetailsNode extends TbAbstractGetEntityDetailsNode<TbG
                     }
                 }, MoreExecutors.directExecutor());
             case ASSET:
-                return Futures.transformAsync(ctx.getAssetService().findAssetByIdAsync(ctx.getTenantId(), new AssetId(msg.getOriginator().getId())), asset -> {
+                return Futures.transformAsync(ctx.getEntityCache().findEntity(msg.getOriginator(), () -> ctx.getAssetService().findAssetByIdAsync(ctx.getTenantId(), new AssetId(msg.getOriginator().getId()))), asset -> {
                     if (asset != null) {
                         if (!asset.getCustomerId().isNullUid()) {
-                            return ctx.getCustomerService().findCustomerByIdAsync(ctx.getTenantId(), asset.getCustomerId());
+                            return findCustomer(ctx, asset.getCustomerId());
                         } else {
                             throw new RuntimeException("Asset with name '" + asset.getName() + "' is not assigned to Customer.");
                         }
@@ -94,10 +95,10 @@ public class TbGetCustomerDetailsNode extends TbAbstractGetEntityDetailsNode<TbG
                     }
                 }, MoreExecutors.directExecutor());
             case ENTITY_VIEW:
-                return Futures.transformAsync(ctx.getEntityViewService().findEntityViewByIdAsync(ctx.getTenantId(), new EntityViewId(msg.getOriginator().getId())), entityView -> {
+                return Futures.transformAsync(ctx.getEntityCache().findEntity(msg.getOriginator(), () -> ctx.getEntityViewService().findEntityViewByIdAsync(ctx.getTenantId(), new EntityViewId(msg.getOriginator().getId()))), entityView -> {
                     if (entityView != null) {
                         if (!entityView.getCustomerId().isNullUid()) {
-                            return ctx.getCustomerService().findCustomerByIdAsync(ctx.getTenantId(), entityView.getCustomerId());
+                            return findCustomer(ctx, entityView.getCustomerId());
                         } else {
                             throw new RuntimeException("EntityView with name '" + entityView.getName() + "' is not assigned to Customer.");
                         }
@@ -110,4 +111,8 @@ public class TbGetCustomerDetailsNode extends TbAbstractGetEntityDetailsNode<TbG
         }
     }
 
+    private ListenableFuture<Customer> findCustomer(TbContext ctx, CustomerId customerId) {
+        return ctx.getEntityCache().findEntity(customerId, () -> ctx.getCustomerService().findCustomerByIdAsync(ctx.getTenantId(), customerId));
+    }
+
 }
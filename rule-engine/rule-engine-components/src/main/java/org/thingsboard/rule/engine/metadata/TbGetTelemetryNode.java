@@ -33,6 +33,7 @@ import org.thingsboard.rule.engine.api.TbContext;
 import org.thingsboard.rule.engine.api.TbNode;
 import org.thingsboard.rule.engine.api.TbNodeConfiguration;
 import org.thingsboard.rule.engine.api.TbNodeException;
+import org.thingsboard.rule.engine.api.util.TbMetaDataPattern;
 import org.thingsboard.rule.engine.api.util.TbNodeUtils;
 import org.thingsboard.server.common.data.kv.BaseReadTsKvQuery;
 import org.thingsboard.server.common.data.kv.ReadTsKvQuery;
@@ -78,6 +79,8 @@ public class TbGetTelemetryNode implements TbNode {
     private ObjectMapper mapper;
     private String fetchMode;
     private String orderByFetchAll;
+    private TbMetaDataPattern startIntervalPattern;
+    private TbMetaDataPattern endIntervalPattern;
 
     @Override
     public void init(TbContext ctx, TbNodeConfiguration configuration) throws TbNodeException {
@@ -89,6 +92,10 @@ public class TbGetTelemetryNode implements TbNode {
         if (StringUtils.isEmpty(orderByFetchAll)) {
             orderByFetchAll = ASC_ORDER;
         }
+        if (config.isUseMetadataIntervalPatterns()) {
+            startIntervalPattern = TbNodeUtils.compilePattern(config.getStartIntervalPattern());
+            endIntervalPattern = TbNodeUtils.compilePattern(config.getEndIntervalPattern());
+        }
         mapper = new ObjectMapper();
         mapper.configure(JsonGenerator.Feature.QUOTE_FIELD_NAMES, false);
         mapper.configure(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES, true);
@@ -196,11 +203,13 @@ public class TbGetTelemetryNode implements TbNode {
     private Interval getInterval(TbMsg msg) {
         Interval interval = new Interval();
         if (config.isUseMetadataIntervalPatterns()) {
-            if (isParsable(msg, config.getStartIntervalPattern())) {
-                interval.setStartTs(Long.parseLong(TbNodeUtils.processPattern(config.getStartIntervalPattern(), msg.getMetaData())));
+            String startTs = startIntervalPattern.process(msg.getMetaData());
+            if (NumberUtils.isParsable(startTs)) {
+                interval.setStartTs(Long.parseLong(startTs));
             }
-            if (isParsable(msg, config.getEndIntervalPattern())) {
-                interval.setEndTs(Long.parseLong(TbNodeUtils.processPattern(config.getEndIntervalPattern(), msg.getMetaData())));
+            String endTs = endIntervalPattern.process(msg.getMetaData());
+            if (NumberUtils.isParsable(endTs)) {
+                interval.setEndTs(Long.parseLong(endTs));
             }
         } else {
             long ts = System.currentTimeMillis();
@@ -210,10 +219,6 @@ public class TbGetTelemetryNode implements TbNode {
         return interval;
     }
 
-    private boolean isParsable(TbMsg msg, String pattern) {
-        return NumberUtils.isParsable(TbNodeUtils.processPattern(pattern, msg.getMetaData()));
-    }
-
     private void checkMetadataKeyPatterns(TbMsg msg) {
         isUndefined(msg, config.getStartIntervalPattern(), config.getEndIntervalPattern());
         isInvalid(msg, config.getStartIntervalPattern(), config.getEndIntervalPattern());
@@ -54,7 +54,7 @@ public class TbGetTenantDetailsNode extends TbAbstractGetEntityDetailsNode<TbGet
 
     @Override
     protected ListenableFuture<ContactBased> getContactBasedListenableFuture(TbContext ctx, TbMsg msg) {
-        return Futures.transformAsync(ctx.getTenantService().findTenantByIdAsync(ctx.getTenantId(), ctx.getTenantId()), tenant -> {
+        return Futures.transformAsync(ctx.getEntityCache().findEntity(ctx.getTenantId(), () -> ctx.getTenantService().findTenantByIdAsync(ctx.getTenantId(), ctx.getTenantId())), tenant -> {
             if (tenant != null) {
                 return Futures.immediateFuture(tenant);
             } else {
@@ -27,6 +27,7 @@ import org.thingsboard.mqtt.MqttClient;
 import org.thingsboard.mqtt.MqttClientConfig;
 import org.thingsboard.mqtt.MqttConnectResult;
 import org.springframework.util.StringUtils;
+import org.thingsboard.rule.engine.api.util.TbMetaDataPattern;
 import org.thingsboard.rule.engine.api.util.TbNodeUtils;
 import org.thingsboard.rule.engine.api.*;
 import org.thingsboard.server.common.data.plugin.ComponentType;
@@ -58,6 +59,7 @@ public class TbMqttNode implements TbNode {
     private static final String ERROR = "error";
 
     private TbMqttNodeConfiguration config;
+    private TbMetaDataPattern topicPattern;
 
     private MqttClient mqttClient;
 
@@ -65,6 +67,7 @@ public class TbMqttNode implements TbNode {
     public void init(TbContext ctx, TbNodeConfiguration configuration) throws TbNodeException {
         try {
             this.config = TbNodeUtils.convert(configuration, TbMqttNodeConfiguration.class);
+            this.topicPattern = TbNodeUtils.compilePattern(this.config.getTopicPattern());
             this.mqttClient = initClient(ctx);
         } catch (Exception e) {
             throw new TbNodeException(e);
@@ -73,7 +76,7 @@ public class TbMqttNode implements TbNode {
 
     @Override
     public void onMsg(TbContext ctx, TbMsg msg) throws ExecutionException, InterruptedException, TbNodeException {
-        String topic = TbNodeUtils.processPattern(this.config.getTopicPattern(), msg.getMetaData());
+        String topic = topicPattern.process(msg.getMetaData());
         this.mqttClient.publish(topic, Unpooled.wrappedBuffer(msg.getData().getBytes(UTF8)), MqttQoS.AT_LEAST_ONCE)
                 .addListener(future -> {
                     if (future.isSuccess()) {
@@ -19,6 +19,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.rabbitmq.client.*;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.thingsboard.rule.engine.api.util.TbMetaDataPattern;
 import org.thingsboard.rule.engine.api.util.TbNodeUtils;
 import org.thingsboard.rule.engine.api.*;
 import org.thingsboard.server.common.data.plugin.ComponentType;
@@ -48,6 +49,8 @@ public class TbRabbitMqNode implements TbNode {
     private static final String ERROR = "error";
 
     private TbRabbitMqNodeConfiguration config;
+    private TbMetaDataPattern exchangeNamePattern;
+    private TbMetaDataPattern routingKeyPattern;
 
     private Connection connection;
     private Channel channel;
@@ -55,6 +58,12 @@ public class TbRabbitMqNode implements TbNode {
     @Override
     public void init(TbContext ctx, TbNodeConfiguration configuration) throws TbNodeException {
         this.config = TbNodeUtils.convert(configuration, TbRabbitMqNodeConfiguration.class);
+        if (!StringUtils.isEmpty(this.config.getExchangeNamePattern())) {
+            this.exchangeNamePattern = TbNodeUtils.compilePattern(this.config.getExchangeNamePattern());
+        }
+        if (!StringUtils.isEmpty(this.config.getRoutingKeyPattern())) {
+            this.routingKeyPattern = TbNodeUtils.compilePattern(this.config.getRoutingKeyPattern());
+        }
         ConnectionFactory factory = new ConnectionFactory();
         factory.setHost(this.config.getHost());
         factory.setPort(this.config.getPort());
@@ -89,12 +98,12 @@ public class TbRabbitMqNode implements TbNode {
 
     private TbMsg publishMessage(TbContext ctx, TbMsg msg) throws Exception {
         String exchangeName = "";
-        if (!StringUtils.isEmpty(this.config.getExchangeNamePattern())) {
-            exchangeName = TbNodeUtils.processPattern(this.config.getExchangeNamePattern(), msg.getMetaData());
+        if (this.exchangeNamePattern != null) {
+            exchangeName = this.exchangeNamePattern.process(msg.getMetaData());
         }
         String routingKey = "";
-        if (!StringUtils.isEmpty(this.config.getRoutingKeyPattern())) {
-            routingKey = TbNodeUtils.processPattern(this.config.getRoutingKeyPattern(), msg.getMetaData());
+        if (this.routingKeyPattern != null) {
+            routingKey = this.routingKeyPattern.process(msg.getMetaData());
         }
         AMQP.BasicProperties properties = null;
         if (!StringUtils.isEmpty(this.config.getMessageProperties())) {
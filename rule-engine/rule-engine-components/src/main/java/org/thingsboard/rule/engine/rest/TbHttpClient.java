@@ -33,12 +33,14 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.thingsboard.rule.engine.api.TbContext;
 import org.thingsboard.rule.engine.api.TbNodeException;
 import org.thingsboard.rule.engine.api.TbRelationTypes;
+import org.thingsboard.rule.engine.api.util.TbMetaDataPattern;
 import org.thingsboard.rule.engine.api.util.TbNodeUtils;
 import org.thingsboard.server.common.msg.TbMsg;
 import org.thingsboard.server.common.msg.TbMsgMetaData;
 
 import javax.net.ssl.SSLException;
 import java.util.Deque;
+import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.TimeUnit;
 
@@ -53,6 +55,8 @@ class TbHttpClient {
     private static final String ERROR_BODY = "error_body";
 
     private final TbRestApiCallNodeConfiguration config;
+    private final TbMetaDataPattern endpointUrlPattern;
+    private final Map<TbMetaDataPattern, TbMetaDataPattern> headerPatterns;
 
     private EventLoopGroup eventLoopGroup;
     private AsyncRestTemplate httpClient;
@@ -61,6 +65,8 @@ class TbHttpClient {
     TbHttpClient(TbRestApiCallNodeConfiguration config) throws TbNodeException {
         try {
             this.config = config;
+            this.endpointUrlPattern = TbNodeUtils.compilePattern(config.getRestEndpointUrlPattern());
+            this.headerPatterns = TbNodeUtils.compilePatterns(config.getHeaders());
             if (config.getMaxParallelRequestsCount() > 0) {
                 pendingFutures = new ConcurrentLinkedDeque<>();
             }
@@ -85,7 +91,7 @@ class TbHttpClient {
     }
 
     void processMessage(TbContext ctx, TbMsg msg, TbRedisQueueProcessor queueProcessor) {
-        String endpointUrl = TbNodeUtils.processPattern(config.getRestEndpointUrlPattern(), msg.getMetaData());
+        String endpointUrl = endpointUrlPattern.process(msg.getMetaData());
         HttpHeaders headers = prepareHeaders(msg.getMetaData());
         HttpMethod method = HttpMethod.valueOf(config.getRequestMethod());
         HttpEntity<String> entity = new HttpEntity<>(msg.getData(), headers);
@@ -160,7 +166,7 @@ class TbHttpClient {
 
     private HttpHeaders prepareHeaders(TbMsgMetaData metaData) {
         HttpHeaders headers = new HttpHeaders();
-        config.getHeaders().forEach((k, v) -> headers.add(TbNodeUtils.processPattern(k, metaData), TbNodeUtils.processPattern(v, metaData)));
+        headerPatterns.forEach((k, v) -> headers.add(k.process(metaData), v.process(metaData)));
         return headers;
     }
 
@@ -30,7 +30,7 @@ public class EntitiesAlarmOriginatorIdAsyncLoader {
 
         switch (original.getEntityType()) {
             case ALARM:
-                return getAlarmOriginatorAsync(ctx.getAlarmService().findAlarmByIdAsync(ctx.getTenantId(), (AlarmId) original));
+                return getAlarmOriginatorAsync(ctx.getEntityCache().findEntity(original, () -> ctx.getAlarmService().findAlarmByIdAsync(ctx.getTenantId(), (AlarmId) original)));
             default:
                 return Futures.immediateFailedFuture(new TbNodeException("Unexpected original EntityType " + original));
         }
@@ -36,11 +36,11 @@ public class EntitiesCustomerIdAsyncLoader {
             case CUSTOMER:
                 return Futures.immediateFuture((CustomerId) original);
             case USER:
-                return getCustomerAsync(ctx.getUserService().findUserByIdAsync(ctx.getTenantId(), (UserId) original));
+                return getCustomerAsync(ctx.getEntityCache().findEntity(original, () -> ctx.getUserService().findUserByIdAsync(ctx.getTenantId(), (UserId) original)));
             case ASSET:
-                return getCustomerAsync(ctx.getAssetService().findAssetByIdAsync(ctx.getTenantId(), (AssetId) original));
+                return getCustomerAsync(ctx.getEntityCache().findEntity(original, () -> ctx.getAssetService().findAssetByIdAsync(ctx.getTenantId(), (AssetId) original)));
             case DEVICE:
-                return getCustomerAsync(ctx.getDeviceService().findDeviceByIdAsync(ctx.getTenantId(), (DeviceId) original));
+                return getCustomerAsync(ctx.getEntityCache().findEntity(original, () -> ctx.getDeviceService().findDeviceByIdAsync(ctx.getTenantId(), (DeviceId) original)));
             default:
                 return Futures.immediateFailedFuture(new TbNodeException("Unexpected original EntityType " + original));
         }
@@ -38,25 +38,25 @@ public class EntitiesFieldsAsyncLoader {
     public static ListenableFuture<EntityFieldsData> findAsync(TbContext ctx, EntityId original) {
         switch (original.getEntityType()) {
             case TENANT:
-                return getAsync(ctx.getTenantService().findTenantByIdAsync(ctx.getTenantId(), (TenantId) original),
+                return getAsync(ctx.getEntityCache().findEntity(original, () -> ctx.getTenantService().findTenantByIdAsync(ctx.getTenantId(), (TenantId) original)),
                         EntityFieldsData::new);
             case CUSTOMER:
-                return getAsync(ctx.getCustomerService().findCustomerByIdAsync(ctx.getTenantId(), (CustomerId) original),
+                return getAsync(ctx.getEntityCache().findEntity(original, () -> ctx.getCustomerService().findCustomerByIdAsync(ctx.getTenantId(), (CustomerId) original)),
                         EntityFieldsData::new);
             case USER:
-                return getAsync(ctx.getUserService().findUserByIdAsync(ctx.getTenantId(), (UserId) original),
+                return getAsync(ctx.getEntityCache().findEntity(original, () -> ctx.getUserService().findUserByIdAsync(ctx.getTenantId(), (UserId) original)),
                         EntityFieldsData::new);
             case ASSET:
-                return getAsync(ctx.getAssetService().findAssetByIdAsync(ctx.getTenantId(), (AssetId) original),
+                return getAsync(ctx.getEntityCache().findEntity(original, () -> ctx.getAssetService().findAssetByIdAsync(ctx.getTenantId(), (AssetId) original)),
                         EntityFieldsData::new);
             case DEVICE:
-                return getAsync(ctx.getDeviceService().findDeviceByIdAsync(ctx.getTenantId(), (DeviceId) original),
+                return getAsync(ctx.getEntityCache().findEntity(original, () -> ctx.getDeviceService().findDeviceByIdAsync(ctx.getTenantId(), (DeviceId) original)),
                         EntityFieldsData::new);
             case ALARM:
                 return getAsync(ctx.getAlarmService().findAlarmByIdAsync(ctx.getTenantId(), (AlarmId) original),
                         EntityFieldsData::new);
             case RULE_CHAIN:
-                return getAsync(ctx.getRuleChainService().findRuleChainByIdAsync(ctx.getTenantId(), (RuleChainId) original),
+                return getAsync(ctx.getEntityCache().findEntity(original, () -> ctx.getRuleChainService().findRuleChainByIdAsync(ctx.getTenantId(), (RuleChainId) original)),
                         EntityFieldsData::new);
             default:
                 return Futures.immediateFailedFuture(new TbNodeException("Unexpected original EntityType " + original));
@@ -26,7 +26,6 @@ import org.thingsboard.server.common.data.relation.EntityRelation;
 import org.thingsboard.server.common.data.relation.EntityRelationsQuery;
 import org.thingsboard.server.common.data.relation.EntitySearchDirection;
 import org.thingsboard.server.common.data.relation.RelationsSearchParameters;
-import org.thingsboard.server.dao.relation.RelationService;
 
 import java.util.List;
 
@@ -34,9 +33,8 @@ public class EntitiesRelatedEntityIdAsyncLoader {
 
     public static ListenableFuture<EntityId> findEntityAsync(TbContext ctx, EntityId originator,
                                                              RelationsQuery relationsQuery) {
-        RelationService relationService = ctx.getRelationService();
         EntityRelationsQuery query = buildQuery(originator, relationsQuery);
-        ListenableFuture<List<EntityRelation>> asyncRelation = relationService.findByQuery(ctx.getTenantId(), query);
+        ListenableFuture<List<EntityRelation>> asyncRelation = ctx.getEntityCache().findRelationsByQuery(ctx.getTenantId(), query);
         if (relationsQuery.getDirection() == EntitySearchDirection.FROM) {
             return Futures.transformAsync(asyncRelation, r -> CollectionUtils.isNotEmpty(r) ? Futures.immediateFuture(r.get(0).getTo())
                     : Futures.immediateFuture(null), MoreExecutors.directExecutor());
@@ -38,17 +38,17 @@ public class EntitiesTenantIdAsyncLoader {
             case TENANT:
                 return Futures.immediateFuture((TenantId) original);
             case CUSTOMER:
-                return getTenantAsync(ctx.getCustomerService().findCustomerByIdAsync(ctx.getTenantId(), (CustomerId) original));
+                return getTenantAsync(ctx.getEntityCache().findEntity(original, () -> ctx.getCustomerService().findCustomerByIdAsync(ctx.getTenantId(), (CustomerId) original)));
             case USER:
-                return getTenantAsync(ctx.getUserService().findUserByIdAsync(ctx.getTenantId(), (UserId) original));
+                return getTenantAsync(ctx.getEntityCache().findEntity(original, () -> ctx.getUserService().findUserByIdAsync(ctx.getTenantId(), (UserId) original)));
             case ASSET:
-                return getTenantAsync(ctx.getAssetService().findAssetByIdAsync(ctx.getTenantId(), (AssetId) original));
+                return getTenantAsync(ctx.getEntityCache().findEntity(original, () -> ctx.getAssetService().findAssetByIdAsync(ctx.getTenantId(), (AssetId) original)));
             case DEVICE:
-                return getTenantAsync(ctx.getDeviceService().findDeviceByIdAsync(ctx.getTenantId(), (DeviceId) original));
+                return getTenantAsync(ctx.getEntityCache().findEntity(original, () -> ctx.getDeviceService().findDeviceByIdAsync(ctx.getTenantId(), (DeviceId) original)));
             case ALARM:
                 return getTenantAsync(ctx.getAlarmService().findAlarmByIdAsync(ctx.getTenantId(), (AlarmId) original));
             case RULE_CHAIN:
-                return getTenantAsync(ctx.getRuleChainService().findRuleChainByIdAsync(ctx.getTenantId(), (RuleChainId) original));
+                return getTenantAsync(ctx.getEntityCache().findEntity(original, () -> ctx.getRuleChainService().findRuleChainByIdAsync(ctx.getTenantId(), (RuleChainId) original)));
             default:
                 return Futures.immediateFailedFuture(new TbNodeException("Unexpected original EntityType " + original));
         }
@@ -25,6 +25,7 @@ import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.thingsboard.rule.engine.api.RuleEngineEntityCache;
 import org.thingsboard.rule.engine.api.TbContext;
 import org.thingsboard.rule.engine.api.TbNodeConfiguration;
 import org.thingsboard.rule.engine.api.TbNodeException;
@@ -41,10 +42,12 @@ import org.thingsboard.server.dao.device.DeviceService;
 import org.thingsboard.server.dao.timeseries.TimeseriesService;
 import org.thingsboard.server.dao.user.UserService;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -75,6 +78,8 @@ public class TbGetCustomerAttributeNodeTest {
     private AssetService assetService;
     @Mock
     private DeviceService deviceService;
+    @Mock
+    private RuleEngineEntityCache entityCache;
 
     private TbMsg msg;
 
@@ -93,6 +98,13 @@ public class TbGetCustomerAttributeNodeTest {
 
         node = new TbGetCustomerAttributeNode();
         node.init(null, nodeConfiguration);
+
+        when(ctx.getEntityCache()).thenReturn(entityCache);
+        when(entityCache.findEntity(any(), any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArguments()[1]).get());
+        when(entityCache.findAttributes(any(), any(), any(), any())).thenAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            return ctx.getAttributesService().find((TenantId) args[0], (EntityId) args[1], (String) args[2], (Collection<String>) args[3]);
+        });
     }
 
     @Test
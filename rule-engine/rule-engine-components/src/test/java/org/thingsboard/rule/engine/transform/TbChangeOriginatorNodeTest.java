@@ -26,6 +26,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.thingsboard.common.util.ListeningExecutor;
+import org.thingsboard.rule.engine.api.RuleEngineEntityCache;
 import org.thingsboard.rule.engine.api.TbContext;
 import org.thingsboard.rule.engine.api.TbNodeConfiguration;
 import org.thingsboard.rule.engine.api.TbNodeException;
@@ -40,6 +41,7 @@ import org.thingsboard.server.common.msg.TbMsgMetaData;
 import org.thingsboard.server.dao.asset.AssetService;
 
 import java.util.concurrent.Callable;
+import java.util.function.Supplier;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
@@ -58,6 +60,8 @@ public class TbChangeOriginatorNodeTest {
     private TbContext ctx;
     @Mock
     private AssetService assetService;
+    @Mock
+    private RuleEngineEntityCache entityCache;
 
     private ListeningExecutor dbExecutor;
 
@@ -162,6 +166,8 @@ public class TbChangeOriginatorNodeTest {
         TbNodeConfiguration nodeConfiguration = new TbNodeConfiguration(mapper.valueToTree(config));
 
         when(ctx.getDbCallbackExecutor()).thenReturn(dbExecutor);
+        when(ctx.getEntityCache()).thenReturn(entityCache);
+        when(entityCache.findEntity(any(), any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArguments()[1]).get());
 
         node = new TbChangeOriginatorNode();
         node.init(null, nodeConfiguration);